@@ -0,0 +1,55 @@
+package com.cointracker.benchmarks;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.cointracker.support.SyntheticEtherscanData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared fixtures built from {@link SyntheticEtherscanData} with a fixed seed, so every
+ * run and every benchmark sees the same rows.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 20240101L;
+
+    private BenchmarkData() {
+    }
+
+    static SyntheticEtherscanData generator() {
+        return new SyntheticEtherscanData.Builder().seed(SEED).build();
+    }
+
+    static Transaction map(TransactionMapper mapper, TransactionType type, TransactionDto dto) {
+        switch (type) {
+            case ETH_TRANSFER:
+                return mapper.mapNormalTransaction(dto);
+            case ETH_INTERNAL:
+                return mapper.mapInternalTransaction(dto);
+            case ERC20:
+                return mapper.mapErc20Transaction(dto);
+            default:
+                return mapper.mapErc721Transaction(dto);
+        }
+    }
+
+    /**
+     * Maps a generated history the way TransactionService collects it: four
+     * block-ordered runs, one per type, appended one after another.
+     */
+    static List<Transaction> mappedHistory(int totalRows) {
+        TransactionMapper mapper = new TransactionMapper();
+        List<Transaction> transactions = new ArrayList<>(totalRows);
+        for (Map.Entry<TransactionType, List<TransactionDto>> entry : generator().generateHistory(totalRows).entrySet()) {
+            for (TransactionDto dto : entry.getValue()) {
+                transactions.add(map(mapper, entry.getKey(), dto));
+            }
+        }
+        return transactions;
+    }
+}
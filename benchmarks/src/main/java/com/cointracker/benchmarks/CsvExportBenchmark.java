@@ -0,0 +1,62 @@
+package com.cointracker.benchmarks;
+
+import com.cointracker.export.CsvExporter;
+import com.cointracker.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CsvExporter#exportToCsv} of a full history to a temporary file.
+ * Includes file system time, so compare runs on the same machine and disk only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CsvExportBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private List<Transaction> history;
+    private CsvExporter exporter;
+    private Path directory;
+    private String filename;
+
+    @Setup
+    public void setUp() throws IOException {
+        history = BenchmarkData.mappedHistory(rows);
+        exporter = new CsvExporter();
+        directory = Files.createTempDirectory("csv-export-benchmark");
+        filename = directory.resolve("export.csv").toString();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("export.csv"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void exportToCsv() throws IOException {
+        exporter.exportToCsv(history, filename);
+    }
+}
@@ -0,0 +1,68 @@
+package com.cointracker.benchmarks;
+
+import com.cointracker.dto.ApiResponse;
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.TransactionType;
+import com.cointracker.support.SyntheticEtherscanData;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON binding of one Etherscan page as done in {@code EtherscanApiClient}:
+ * the body is received as a String and bound to {@code ApiResponse<List<TransactionDto>>}.
+ * The byte[] variant shows what skipping the intermediate String would save.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JsonDecodeBenchmark {
+
+    private static final TypeReference<ApiResponse<List<TransactionDto>>> PAGE_TYPE =
+            new TypeReference<ApiResponse<List<TransactionDto>>>() {};
+
+    @Param({"ETH_TRANSFER", "ERC20"})
+    private TransactionType type;
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+    private byte[] bodyBytes;
+    private String body;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        bodyBytes = SyntheticEtherscanData.toResponseJson(BenchmarkData.generator().generate(type, rows), type);
+        body = new String(bodyBytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ApiResponse<List<TransactionDto>> decodeString() throws IOException {
+        return objectMapper.readValue(body, PAGE_TYPE);
+    }
+
+    @Benchmark
+    public ApiResponse<List<TransactionDto>> decodeBytes() throws IOException {
+        return objectMapper.readValue(bodyBytes, PAGE_TYPE);
+    }
+}
@@ -0,0 +1,62 @@
+package com.cointracker.benchmarks;
+
+import com.cointracker.export.JsonLinesExporter;
+import com.cointracker.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonLinesExporter#exportToJsonLines} of a full history to a temporary file, with
+ * the same rows and settings as {@link CsvExportBenchmark} so the two compare directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JsonLinesExportBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private List<Transaction> history;
+    private JsonLinesExporter exporter;
+    private Path directory;
+    private String filename;
+
+    @Setup
+    public void setUp() throws IOException {
+        history = BenchmarkData.mappedHistory(rows);
+        exporter = new JsonLinesExporter();
+        directory = Files.createTempDirectory("jsonl-export-benchmark");
+        filename = directory.resolve("export.jsonl").toString();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("export.jsonl"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void exportToJsonLines() throws IOException {
+        exporter.exportToJsonLines(history, filename);
+    }
+}
@@ -0,0 +1,54 @@
+package com.cointracker.benchmarks;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransactionMapper}: one full 10,000-row Etherscan page of DTOs to domain objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MappingBenchmark {
+
+    @Param({"ETH_TRANSFER", "ETH_INTERNAL", "ERC20", "ERC721"})
+    private TransactionType type;
+
+    @Param({"10000"})
+    private int rows;
+
+    private List<TransactionDto> page;
+    private TransactionMapper mapper;
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkData.generator().generate(type, rows);
+        mapper = new TransactionMapper();
+    }
+
+    @Benchmark
+    public void mapPage(Blackhole blackhole) {
+        for (TransactionDto dto : page) {
+            blackhole.consume(BenchmarkData.map(mapper, type, dto));
+        }
+    }
+}
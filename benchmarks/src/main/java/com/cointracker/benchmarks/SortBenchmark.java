@@ -0,0 +1,57 @@
+package com.cointracker.benchmarks;
+
+import com.cointracker.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The final sort in {@code TransactionService.getAllTransactions}: four block-ordered
+ * runs merged by date. Each invocation sorts a fresh copy; {@link #copyOnly} measures
+ * the copy alone so it can be subtracted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SortBenchmark {
+
+    private static final Comparator<Transaction> BY_DATE = Comparator.comparing(Transaction::getDateTime);
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private List<Transaction> history;
+
+    @Setup
+    public void setUp() {
+        history = BenchmarkData.mappedHistory(rows);
+    }
+
+    @Benchmark
+    public List<Transaction> sortByDate() {
+        List<Transaction> copy = new ArrayList<>(history);
+        copy.sort(BY_DATE);
+        return copy;
+    }
+
+    @Benchmark
+    public List<Transaction> copyOnly() {
+        return new ArrayList<>(history);
+    }
+}
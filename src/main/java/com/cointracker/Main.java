@@ -1,13 +1,66 @@
 package com.cointracker;
 
+import com.cointracker.analytics.BalanceEngine;
+import com.cointracker.analytics.BalanceSnapshot;
+import com.cointracker.analytics.CostBasisEngine;
+import com.cointracker.analytics.CostBasisPolicy;
+import com.cointracker.analytics.RealizedGain;
+import com.cointracker.analytics.Reconciler;
+import com.cointracker.analytics.TransactionBundle;
+import com.cointracker.analytics.TransactionBundler;
+import com.cointracker.analytics.SnapshotInterval;
+import com.cointracker.batch.BatchRunner;
+import com.cointracker.client.BlockRange;
 import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.client.CoalescingApiClient;
 import com.cointracker.client.EtherscanApiClient;
 import com.cointracker.config.ApiConfig;
+import com.cointracker.config.CommandLineOptions;
+import com.cointracker.export.BalanceCsvExporter;
+import com.cointracker.export.BundleCsvExporter;
+import com.cointracker.export.ContractTransferExporter;
 import com.cointracker.export.CsvExporter;
+import com.cointracker.export.CsvImporter;
+import com.cointracker.export.EdgeListCsvExporter;
+import com.cointracker.export.JsonLinesExporter;
+import com.cointracker.export.PartitionKey;
+import com.cointracker.export.PartitionedCsvExporter;
+import com.cointracker.export.RealizedGainCsvExporter;
+import com.cointracker.export.ReconcileCsvExporter;
 import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.graph.CounterpartyCrawler;
+import com.cointracker.graph.InteractionGraph;
+import com.cointracker.pricing.LocalPriceTable;
+import com.cointracker.pricing.PriceEnricher;
+import com.cointracker.pricing.PriceSource;
+import com.cointracker.jfr.FlightRecording;
+import com.cointracker.metrics.MetricsRegistry;
+import com.cointracker.metrics.MetricsReport;
+import com.cointracker.progress.ProgressReporter;
+import com.cointracker.server.QueryServer;
+import com.cointracker.server.TransactionCache;
+import com.cointracker.service.TransactionFilter;
 import com.cointracker.service.TransactionService;
+import com.cointracker.watch.AddressWatcher;
+import com.cointracker.watch.WatchScheduler;
+import com.cointracker.watch.WatchState;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class Main {
     
@@ -17,6 +70,8 @@ public class Main {
         try {
             run(args);
         } catch (Exception e) {
+            // Queued warnings explain the failure, and an open progress line must end before the error
+            ProgressReporter.getDefault().flush();
             System.err.println("\n❌ Error: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
@@ -26,12 +81,34 @@ public class Main {
     public static String run(String[] args) throws Exception {
         printHeader();
         
-        if (args.length == 0) {
+        CommandLineOptions options = CommandLineOptions.parse(args);
+        MetricsRegistry.getDefault().registerMBean();
+        if (options.has("jfr")) {
+            FlightRecording.start(Paths.get(options.get("jfr")));
+        }
+        if (options.has("server")) {
+            runServer(options);
+            return null;
+        }
+        if (options.has("watch")) {
+            runWatch(options);
+            return null;
+        }
+        if (options.has("crawl")) {
+            return runCrawl(options);
+        }
+        if (options.has("contract")) {
+            return runContractExport(options);
+        }
+        if (options.has("batch")) {
+            return runBatch(options);
+        }
+        if (options.getPositional().isEmpty()) {
             printUsage();
             throw new IllegalArgumentException("No Ethereum address provided");
         }
         
-        String address = args[0];
+        String address = options.getPositional().get(0);
         
         if (!address.matches(ETHEREUM_ADDRESS_PATTERN)) {
             System.err.println("❌ Error: Invalid Ethereum address format");
@@ -40,21 +117,116 @@ public class Main {
             throw new IllegalArgumentException("Invalid Ethereum address format: " + address);
         }
         
-        ApiConfig config = new ApiConfig();
-        String provider = config.getApiProvider();
-        System.out.println("API Provider: " + provider);
+        ApiConfig config = loadConfig(options);
+        TransactionFilter filter = buildFilter(options);
+        CsvExporter exporter = new CsvExporter(options.has("prices"));
         
-        BlockchainApiClient apiClient;
-        switch (provider.toLowerCase()) {
-            case "etherscan":
-                apiClient = new EtherscanApiClient(config);
-                break;
-            default:
-                System.err.println("❌ Error: Unsupported API provider: " + provider);
-                System.err.println("   Supported providers: etherscan");
-                throw new IllegalArgumentException("Unsupported API provider: " + provider);
+        if (options.has("reconcile")) {
+            return reconcile(options, config, filter, address);
+        }
+        
+        List<Transaction> transactions;
+        if (options.has("input")) {
+            transactions = importTransactions(splitList(options.get("input")), address);
+        } else {
+            transactions = fetchTransactions(options, config, filter, address);
+        }
+        
+        PriceSource prices = PriceSource.NONE;
+        if (options.has("prices")) {
+            LocalPriceTable priceTable = LocalPriceTable.open(Paths.get(options.get("prices")),
+                    Paths.get(config.getCacheDirectory(), "prices"));
+            System.out.println("\nLoaded " + priceTable.getPointCount() + " price points for "
+                    + priceTable.getAssetCount() + " assets");
+            int priced = new PriceEnricher(priceTable).enrich(transactions);
+            System.out.println("   Priced " + priced + " of " + transactions.size() + " transactions");
+            prices = priceTable;
+        }
+        
+        String format = options.get("format", "csv");
+        if (!"csv".equals(format) && !"jsonl".equals(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format + " (expected csv or jsonl)");
+        }
+        String output = address + "." + format;
+        if (options.has("partition-by")) {
+            if (!"csv".equals(format)) {
+                throw new IllegalArgumentException("--partition-by writes CSV files only");
+            }
+            output = exportPartitions(options, config, transactions, address);
+        } else if ("jsonl".equals(format)) {
+            System.out.println("\nExporting to JSON Lines...");
+            String summary = new JsonLinesExporter(options.has("prices")).exportWithSummary(transactions, address);
+            System.out.println(summary);
+        } else {
+            System.out.println("\nExporting to CSV...");
+            String summary = exporter.exportWithSummary(transactions, address);
+            System.out.println(summary);
+        }
+        
+        if (options.has("balances")) {
+            SnapshotInterval interval = SnapshotInterval.fromString(options.get("balances"));
+            System.out.println("\nComputing " + interval.name().toLowerCase() + " balances...");
+            List<BalanceSnapshot> snapshots = BalanceEngine.replay(address, interval, transactions);
+            new BalanceCsvExporter().exportToCsv(snapshots, address + "-balances");
+        }
+        
+        if (options.has("cost-basis")) {
+            CostBasisPolicy policy = CostBasisPolicy.fromString(options.get("cost-basis"));
+            System.out.println("\nComputing realized gains (" + policy + ")...");
+            if (prices == PriceSource.NONE) {
+                System.out.println("   Warning: no --prices directory given, fiat values will be zero");
+            }
+            List<RealizedGain> gains = CostBasisEngine.compute(address, policy, prices, transactions);
+            new RealizedGainCsvExporter().exportToCsv(gains, address + "-gains");
+        }
+        
+        if (options.has("bundles")) {
+            System.out.println("\nBundling transaction legs by hash...");
+            TransactionBundler bundler = new TransactionBundler(address, config.getBundleMaxLegsInMemory(),
+                    Paths.get(config.getCacheDirectory(), "spill"));
+            List<TransactionBundle> bundles = bundler.bundleAll(transactions);
+            new BundleCsvExporter().exportToCsv(bundles, address + "-bundles");
+        }
+        
+        if (options.has("metrics-report")) {
+            Path reportFile = Paths.get(options.get("metrics-report"));
+            new MetricsReport(MetricsRegistry.getDefault()).writeTo(reportFile);
+            System.out.println("\n✅ Metrics report written to: " + reportFile);
         }
         
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("Transaction tracking complete!");
+        System.out.println("=".repeat(80));
+        
+        return output;
+    }
+    
+    /**
+     * Writes one CSV per partition into --output-dir (default {@code <address>-partitions}) and returns the manifest.
+     */
+    private static String exportPartitions(CommandLineOptions options, ApiConfig config, List<Transaction> transactions,
+                                           String address) throws IOException {
+        PartitionKey key = PartitionKey.fromString(options.get("partition-by"));
+        Path directory = Paths.get(options.get("output-dir", address + "-partitions"));
+        System.out.println("\nExporting to one CSV per " + key.name().toLowerCase() + "...");
+        PartitionedCsvExporter exporter = new PartitionedCsvExporter(key, options.has("prices"),
+                config.getExportMaxOpenFiles(), config.getExportBufferKb() * 1024);
+        long start = System.nanoTime();
+        List<PartitionedCsvExporter.Partition> partitions = exporter.export(transactions, directory, address);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = partitions.stream().mapToLong(PartitionedCsvExporter.Partition::getBytes).sum();
+        Path manifest = directory.resolve(address + "-manifest.csv");
+        System.out.println(String.format("✅ Exported %d transactions to %d partitions in %s (%.1f MB/s)",
+                transactions.size(), partitions.size(), directory, bytes / 1e6 / Math.max(seconds, 1e-9)));
+        System.out.println("   Manifest: " + manifest);
+        return manifest.toString();
+    }
+    
+    private static List<Transaction> fetchTransactions(CommandLineOptions options, ApiConfig config,
+                                                       TransactionFilter filter, String address)
+            throws IOException, InterruptedException {
+        BlockchainApiClient apiClient = createApiClient(config, filter);
+        
         System.out.println("Address: " + address);
         String apiKey = config.getEtherscanApiKey();
         System.out.println("API Key: " + maskApiKey(apiKey));
@@ -62,19 +234,315 @@ public class Main {
         System.out.println();
         
         TransactionService service = new TransactionService(apiClient, config);
-        CsvExporter exporter = new CsvExporter();
         
-        List<Transaction> transactions = service.getAllTransactions(address);
+        BlockRange range = resolveBlockRange(options, filter, apiClient);
+        if (!range.isAll()) {
+            System.out.println("Block range: " + range.getStartBlock() + " to " + range.getEndBlock() + "\n");
+        }
         
-        System.out.println("\nExporting to CSV...");
-        String summary = exporter.exportWithSummary(transactions, address);
-        System.out.println(summary);
+        List<Transaction> transactions = service.getAllTransactions(address, range);
+        ProgressReporter.getDefault().flush();
+        if (!filter.isEmpty()) {
+            System.out.println(filter.summary());
+        }
+        return transactions;
+    }
+    
+    /**
+     * Diffs two histories of the address, each an exported CSV or "fetch" for a fresh fetch,
+     * and writes the differences to {@code <address>-reconcile.csv}.
+     */
+    private static String reconcile(CommandLineOptions options, ApiConfig config, TransactionFilter filter,
+                                    String address) throws IOException, InterruptedException {
+        List<String> sources = splitList(options.get("reconcile"));
+        if (sources.size() != 2) {
+            throw new IllegalArgumentException("--reconcile expects two sources, e.g. --reconcile=old.csv,fetch");
+        }
+        String output = address + "-reconcile.csv";
+        CsvImporter importer = new CsvImporter();
+        List<CsvImporter.Reader> readers = new ArrayList<>(2);
+        List<Iterator<Transaction>> histories = new ArrayList<>(2);
+        try {
+            for (String source : sources) {
+                if ("fetch".equals(source)) {
+                    // Fetched histories arrive sorted by time
+                    histories.add(fetchTransactions(options, config, filter, address).iterator());
+                    continue;
+                }
+                Path input = Paths.get(source);
+                if (Files.exists(Paths.get(output)) && Files.isSameFile(input, Paths.get(output))) {
+                    throw new IllegalArgumentException("--reconcile must not read " + output + ", which this run overwrites");
+                }
+                CsvImporter.Reader reader = importer.stream(input);
+                readers.add(reader);
+                histories.add(reader);
+            }
+            
+            System.out.println("\nReconciling " + sources.get(0) + " against " + sources.get(1) + "...");
+            Reconciler reconciler = new Reconciler();
+            try (ReconcileCsvExporter exporter = new ReconcileCsvExporter(output)) {
+                reconciler.reconcile(histories.get(0), histories.get(1), exporter);
+            }
+            System.out.println(reconciler.summary(sources.get(0), sources.get(1)));
+            if (reconciler.isConsistent()) {
+                System.out.println("\n✅ Both histories agree");
+            }
+        } finally {
+            for (CsvImporter.Reader reader : readers) {
+                reader.close();
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * Reads previously exported CSVs instead of fetching, keeping file order.
+     */
+    private static List<Transaction> importTransactions(List<String> files, String address) throws IOException {
+        Path output = Paths.get(address + ".csv");
+        CsvImporter importer = new CsvImporter();
+        List<Transaction> transactions = new ArrayList<>();
+        for (String file : files) {
+            Path input = Paths.get(file);
+            if (Files.exists(output) && Files.isSameFile(input, output)) {
+                throw new IllegalArgumentException("--input must not be " + output + ", which this run overwrites");
+            }
+            long start = System.nanoTime();
+            List<Transaction> imported = importer.importCsv(input);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(String.format("✅ Imported %d transactions from %s (%.1f MB/s)",
+                    imported.size(), input, Files.size(input) / 1e6 / Math.max(seconds, 1e-9)));
+            transactions.addAll(imported);
+        }
+        return transactions;
+    }
+    
+    /**
+     * Serves transaction queries over HTTP until the JVM is stopped.
+     */
+    private static void runServer(CommandLineOptions options) throws IOException, InterruptedException {
+        ApiConfig config = loadConfig(options);
+        // Concurrent requests for the same address share one upstream fetch
+        BlockchainApiClient apiClient = new CoalescingApiClient(createApiClient(config, TransactionFilter.none()));
+        TransactionService service = new TransactionService(apiClient, config);
+        TransactionCache cache = new TransactionCache(config.getServerCacheMaxEntries(),
+                config.getServerCacheTtlSeconds());
+        int port = options.getInt("port", config.getServerPort());
         
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("Transaction tracking complete!");
-        System.out.println("=".repeat(80));
+        QueryServer server = new QueryServer(service, apiClient, cache, port, config.getServerThreads(),
+                config.getServerQueueCapacity(), config.getServerCacheMaxRows());
+        config.addReloadListener(snapshot -> server.setThreads(snapshot.getServerThreads()));
+        watchConfigIfRequested(options, config);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            stopped.countDown();
+        }));
+        server.start();
         
-        return address + ".csv"; 
+        System.out.println("✅ Query server listening on port " + server.getPort());
+        System.out.println("   GET /addresses/{address}/transactions?format=csv|jsonl&from=YYYY-MM-DD&to=YYYY-MM-DD");
+        stopped.await();
+    }
+    
+    /**
+     * Polls every address in the watchlist file and appends new transfers until the JVM is stopped.
+     */
+    private static void runWatch(CommandLineOptions options) throws IOException {
+        List<String> addresses = Files.readAllLines(Paths.get(options.get("watch"))).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .collect(Collectors.toList());
+        for (String address : addresses) {
+            if (!address.matches(ETHEREUM_ADDRESS_PATTERN)) {
+                throw new IllegalArgumentException("Invalid Ethereum address format in watchlist: " + address);
+            }
+        }
+        
+        ApiConfig config = loadConfig(options);
+        watchConfigIfRequested(options, config);
+        BlockchainApiClient apiClient = createApiClient(config, buildFilter(options));
+        WatchScheduler scheduler = new WatchScheduler(
+                TimeUnit.SECONDS.toMillis(config.getWatchHotIntervalSeconds()),
+                TimeUnit.SECONDS.toMillis(config.getWatchMaxIntervalSeconds()));
+        WatchState state = new WatchState(Paths.get(config.getCacheDirectory(), "watch-state.bin"));
+        Path outputDirectory = Paths.get(options.get("output-dir", "."));
+        Files.createDirectories(outputDirectory);
+        
+        AddressWatcher watcher = new AddressWatcher(apiClient, scheduler, state,
+                new CsvExporter(), outputDirectory, Paths.get(config.getCacheDirectory(), "watch-seen"));
+        addresses.forEach(watcher::watch);
+        System.out.println("✅ Watching " + scheduler.size() + " addresses, writing to " + outputDirectory.toAbsolutePath());
+        
+        Thread watchThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            watchThread.interrupt();
+            try {
+                watchThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        watcher.run();
+    }
+    
+    /**
+     * Fetches the seed addresses and their counterparties breadth-first and writes the
+     * interaction graph as an edge list to {@code <first seed>-graph.csv}.
+     */
+    private static String runCrawl(CommandLineOptions options) throws IOException, InterruptedException {
+        List<String> seeds = splitList(options.get("crawl"));
+        if (seeds.isEmpty()) {
+            throw new IllegalArgumentException("--crawl expects at least one seed address");
+        }
+        for (String seed : seeds) {
+            if (!seed.matches(ETHEREUM_ADDRESS_PATTERN)) {
+                throw new IllegalArgumentException("Invalid Ethereum address format in --crawl: " + seed);
+            }
+        }
+        
+        ApiConfig config = loadConfig(options);
+        TransactionFilter filter = buildFilter(options);
+        BlockchainApiClient apiClient = createApiClient(config, filter);
+        CounterpartyCrawler.Builder builder = new CounterpartyCrawler.Builder(new TransactionService(apiClient, config))
+                .maxDepth(config.getCrawlMaxDepth())
+                .maxFanOut(config.getCrawlMaxFanOut())
+                .maxAddresses(config.getCrawlMaxAddresses())
+                .hubCounterparties(config.getCrawlHubCounterparties());
+        if (options.has("hubs")) {
+            builder.skipHubs(Files.readAllLines(Paths.get(options.get("hubs"))).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toList()));
+        }
+        CounterpartyCrawler crawler = builder.build();
+        BlockRange range = resolveBlockRange(options, filter, apiClient);
+        
+        System.out.println("Crawling " + config.getCrawlMaxDepth() + " hops from " + String.join(", ", seeds) + "\n");
+        InteractionGraph graph = crawler.crawl(seeds, range);
+        ProgressReporter.getDefault().flush();
+        System.out.println(crawler.summary(graph));
+        
+        String output = seeds.get(0) + "-graph.csv";
+        new EdgeListCsvExporter().exportToCsv(graph, output);
+        return output;
+    }
+    
+    /**
+     * Exports every address in the batch file to {@code <output-dir>/<address>.csv},
+     * smallest histories first.
+     */
+    private static String runBatch(CommandLineOptions options) throws IOException, InterruptedException {
+        List<String> addresses = Files.readAllLines(Paths.get(options.get("batch"))).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .distinct()
+                .collect(Collectors.toList());
+        for (String address : addresses) {
+            if (!address.matches(ETHEREUM_ADDRESS_PATTERN)) {
+                throw new IllegalArgumentException("Invalid Ethereum address format in batch file: " + address);
+            }
+        }
+        
+        ApiConfig config = loadConfig(options);
+        TransactionFilter filter = buildFilter(options);
+        BlockchainApiClient apiClient = createApiClient(config, filter);
+        BlockRange range = resolveBlockRange(options, filter, apiClient);
+        Path outputDirectory = Paths.get(options.get("output-dir", "."));
+        Files.createDirectories(outputDirectory);
+        
+        System.out.println("Exporting " + addresses.size() + " addresses with " + config.getBatchWorkers()
+                + " workers, smallest histories first\n");
+        BatchRunner runner = new BatchRunner(apiClient, new TransactionService(apiClient, config),
+                config.getBatchWorkers(), config.getBatchLargeSlots(), config.getBatchProbeRows(), outputDirectory);
+        runner.run(addresses, range);
+        ProgressReporter.getDefault().flush();
+        System.out.println(runner.summary());
+        return outputDirectory.toString();
+    }
+    
+    /**
+     * Exports every transfer of one token contract to {@code <contract>-transfers.csv} (or .jsonl),
+     * resuming an interrupted run of the same export from its checkpoint in the cache directory.
+     */
+    private static String runContractExport(CommandLineOptions options) throws IOException, InterruptedException {
+        String contract = options.get("contract");
+        if (!contract.matches(ETHEREUM_ADDRESS_PATTERN)) {
+            throw new IllegalArgumentException("Invalid Ethereum address format in --contract: " + contract);
+        }
+        String tokenType = options.get("token-type", "erc20");
+        TransactionType type;
+        if ("erc20".equalsIgnoreCase(tokenType)) {
+            type = TransactionType.ERC20;
+        } else if ("erc721".equalsIgnoreCase(tokenType)) {
+            type = TransactionType.ERC721;
+        } else {
+            throw new IllegalArgumentException("Unsupported token type: " + tokenType + " (expected erc20 or erc721)");
+        }
+        String format = options.get("format", "csv");
+        if (!"csv".equals(format) && !"jsonl".equals(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format + " (expected csv or jsonl)");
+        }
+        
+        ApiConfig config = loadConfig(options);
+        TransactionFilter filter = buildFilter(options);
+        BlockchainApiClient apiClient = createApiClient(config, filter);
+        BlockRange range = resolveBlockRange(options, filter, apiClient);
+        Path workDirectory = Paths.get(config.getCacheDirectory(), "contracts",
+                contract.toLowerCase() + "-" + type.name().toLowerCase());
+        String output = contract + "-transfers." + format;
+        
+        System.out.println("Exporting every " + type.getDisplayName() + " transfer of " + contract
+                + " in " + config.getContractParallelism() + " parallel block ranges\n");
+        ContractTransferExporter exporter = new ContractTransferExporter(apiClient, "jsonl".equals(format),
+                config.getContractParallelism(), config.getContractSegmentBlocks());
+        try {
+            exporter.export(contract, type, range, workDirectory, Paths.get(output));
+        } finally {
+            ProgressReporter.getDefault().flush();
+            System.out.println(exporter.summary(contract));
+        }
+        return output;
+    }
+    
+    /**
+     * Builds the configuration from application.properties, the --config file and any
+     * option named like a configuration key, e.g. --api.rate_limit.delay_between_calls_ms=200.
+     */
+    private static ApiConfig loadConfig(CommandLineOptions options) {
+        Properties flags = new Properties();
+        options.getOptions().forEach((name, value) -> {
+            if (name.contains(".")) {
+                flags.setProperty(name, value);
+            }
+        });
+        return new ApiConfig(options.has("config") ? Paths.get(options.get("config")) : null, flags);
+    }
+    
+    private static void watchConfigIfRequested(CommandLineOptions options, ApiConfig config) throws IOException {
+        if (options.has("reload-config")) {
+            if (!options.has("config")) {
+                throw new IllegalArgumentException("--reload-config needs a --config=<file> to watch");
+            }
+            config.watchOverrideFile();
+            System.out.println("✅ Reloading configuration when " + options.get("config") + " changes");
+        }
+    }
+    
+    private static BlockchainApiClient createApiClient(ApiConfig config, TransactionFilter filter) {
+        String provider = config.getApiProvider();
+        System.out.println("API Provider: " + provider);
+        
+        switch (provider.toLowerCase()) {
+            case "etherscan":
+                EtherscanApiClient client = new EtherscanApiClient(config, filter);
+                config.addReloadListener(client::applyConfig);
+                return client;
+            default:
+                System.err.println("❌ Error: Unsupported API provider: " + provider);
+                System.err.println("   Supported providers: etherscan");
+                throw new IllegalArgumentException("Unsupported API provider: " + provider);
+        }
     }
     
     private static void printHeader() {
@@ -84,7 +552,80 @@ public class Main {
     }
     
     private static void printUsage() {
-        System.err.println("\nUsage: java -jar eth-tracker.jar <ethereum_address>");
+        System.err.println("\nUsage: java -jar eth-tracker.jar <ethereum_address> [options]");
+        System.err.println("       java -jar eth-tracker.jar --server [--port=<n>]");
+        System.err.println("       java -jar eth-tracker.jar --watch=<watchlist> [--output-dir=<dir>]");
+        System.err.println("       java -jar eth-tracker.jar --crawl=<seed1,seed2> [--hubs=<file>] [--crawl.max_depth=<n>]");
+        System.err.println("       java -jar eth-tracker.jar --contract=<token> [--token-type=erc20|erc721] [--format=csv|jsonl]");
+        System.err.println("       java -jar eth-tracker.jar --batch=<file> [--output-dir=<dir>]");
+        System.err.println("   --config=<file>              Override application.properties (--reload-config: re-read on change)");
+        System.err.println("   --<key>=<value>              Override one configuration key, e.g. --api.etherscan.batch_size=5000");
+        System.err.println("   --balances=daily|monthly   Also export running balances to <address>-balances.csv");
+        System.err.println("   --cost-basis=fifo|lifo|hifo  Also export realized gains to <address>-gains.csv");
+        System.err.println("   --format=csv|jsonl           Write <address>.csv (default) or typed JSON Lines to <address>.jsonl");
+        System.err.println("   --partition-by=month|year|type|token  Write one CSV per partition plus a manifest (--output-dir=<dir>)");
+        System.err.println("   --bundles                    Also export net flows per transaction hash to <address>-bundles.csv");
+        System.err.println("   --prices=<dir>               Add USD values from local <asset>.csv price files");
+        System.err.println("   --input=<f1.csv,f2.csv>      Read previously exported CSVs instead of fetching");
+        System.err.println("   --reconcile=<a.csv|fetch>,<b.csv|fetch>  Diff two histories into <address>-reconcile.csv");
+        System.err.println("   --from=YYYY-MM-DD --to=YYYY-MM-DD  Fetch only the blocks mined in this UTC date range");
+        System.err.println("   --start-block=<n> --end-block=<n>  Fetch only this block range");
+        System.err.println("   --exclude-failed             Drop failed transactions");
+        System.err.println("   --tokens=<c1,c2>             Keep only these token contracts");
+        System.err.println("   --exclude-tokens=<c1,c2>     Drop these token contracts (or --blocklist=<file>)");
+        System.err.println("   --min-value=<amount>         Drop internal ETH/ERC-20 transfers below this amount");
+        System.err.println("   --metrics-report=<file>      Write run metrics as JSON (.json) or Prometheus text");
+        System.err.println("   --jfr=<file>                 Record with Java Flight Recorder, dumped to <file> on exit");
+    }
+    
+    private static TransactionFilter buildFilter(CommandLineOptions options) throws IOException {
+        TransactionFilter.Builder builder = new TransactionFilter.Builder()
+                .excludeFailed(options.has("exclude-failed"));
+        
+        if (options.has("tokens")) {
+            builder.allowTokens(splitList(options.get("tokens")));
+        }
+        if (options.has("exclude-tokens")) {
+            builder.blockTokens(splitList(options.get("exclude-tokens")));
+        }
+        if (options.has("blocklist")) {
+            builder.blockTokens(Files.readAllLines(Paths.get(options.get("blocklist"))).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toList()));
+        }
+        if (options.has("min-value")) {
+            builder.minValue(new BigDecimal(options.get("min-value")));
+        }
+        if (options.has("from") || options.has("to")) {
+            long from = options.has("from")
+                    ? LocalDate.parse(options.get("from")).atStartOfDay().toEpochSecond(ZoneOffset.UTC)
+                    : Long.MIN_VALUE;
+            long to = options.has("to")
+                    ? LocalDate.parse(options.get("to")).plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC) - 1
+                    : Long.MAX_VALUE;
+            builder.timeRange(from, to);
+        }
+        return builder.build();
+    }
+    
+    private static BlockRange resolveBlockRange(CommandLineOptions options, TransactionFilter filter,
+                                                BlockchainApiClient apiClient) throws IOException, InterruptedException {
+        if (options.has("start-block") || options.has("end-block")) {
+            return new BlockRange(Long.parseLong(options.get("start-block", "0")),
+                    Long.parseLong(options.get("end-block", String.valueOf(BlockRange.LATEST_BLOCK))));
+        }
+        if (options.has("from") || options.has("to")) {
+            return apiClient.resolveBlockRange(filter.getFromEpochSecond(), filter.getToEpochSecond());
+        }
+        return BlockRange.ALL;
+    }
+    
+    private static List<String> splitList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toList());
     }
     
     private static String maskApiKey(String apiKey) {
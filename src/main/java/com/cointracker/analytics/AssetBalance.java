@@ -0,0 +1,51 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance of a single asset at the end of a snapshot period.
+ */
+public class AssetBalance {
+
+    private final String assetKey;
+    private final String symbol;
+    private final TransactionType assetType;
+    private final BigDecimal balance;
+
+    public AssetBalance(String assetKey, String symbol, TransactionType assetType, BigDecimal balance) {
+        this.assetKey = assetKey;
+        this.symbol = symbol;
+        this.assetType = assetType;
+        this.balance = balance;
+    }
+
+    /**
+     * Contract address for tokens and NFTs, "ETH" for ether.
+     */
+    public String getAssetKey() {
+        return assetKey;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public TransactionType getAssetType() {
+        return assetType;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    @Override
+    public String toString() {
+        return "AssetBalance{" +
+                "asset='" + assetKey + '\'' +
+                ", symbol='" + symbol + '\'' +
+                ", balance=" + balance.toPlainString() +
+                '}';
+    }
+}
@@ -0,0 +1,230 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Folds a time-sorted transaction stream into running per-asset balances
+ * for a single address and emits a snapshot at the end of every period
+ * that had activity. ETH balances include gas paid by the address; a failed
+ * transaction only charges its gas, since its value never moved.
+ *
+ * Assets are interned to integer slots on first sight; every later update
+ * is a probe of a primitive open-addressing table plus a 128-bit add in a
+ * {@link FixedPointLedger}.
+ */
+public class BalanceEngine {
+
+    private static final String ETH_KEY = "ETH";
+    private static final int ETH_SCALE = 18;
+    private static final int DEFAULT_TOKEN_SCALE = 18;
+
+    private final String address;
+    private final SnapshotInterval interval;
+    private final Consumer<BalanceSnapshot> sink;
+
+    private final FixedPointLedger ledger = new FixedPointLedger();
+    private final int ethSlot;
+
+    // Open addressing over (type, contract): each entry is a slot + 1, and 0 marks an empty entry
+    private int[] slotTable = new int[64];
+    private int tableSize;
+
+    private String[] slotKeys = new String[16];
+    private String[] slotSymbols = new String[16];
+    private TransactionType[] slotTypes = new TransactionType[16];
+    private int[] slotScales = new int[16];
+
+    private LocalDate currentPeriod;
+    private LocalDateTime lastDateTime;
+    private long transferCount;
+
+    public BalanceEngine(String address, SnapshotInterval interval, Consumer<BalanceSnapshot> sink) {
+        this.address = address;
+        this.interval = interval;
+        this.sink = sink;
+        this.ethSlot = newSlot(ETH_KEY, "ETH", TransactionType.ETH_TRANSFER, ETH_SCALE);
+    }
+
+    /**
+     * Replays a sorted transaction list and returns all snapshots.
+     */
+    public static List<BalanceSnapshot> replay(String address, SnapshotInterval interval,
+                                               List<Transaction> transactions) {
+        List<BalanceSnapshot> snapshots = new ArrayList<>();
+        BalanceEngine engine = new BalanceEngine(address, interval, snapshots::add);
+        for (Transaction transaction : transactions) {
+            engine.accept(transaction);
+        }
+        engine.finish();
+        return snapshots;
+    }
+
+    public void accept(Transaction tx) {
+        LocalDateTime dateTime = tx.getDateTime();
+        if (lastDateTime != null && dateTime.isBefore(lastDateTime)) {
+            throw new IllegalStateException("Transactions must be sorted by time: " + tx.getTransactionHash()
+                    + " at " + dateTime + " follows " + lastDateTime);
+        }
+
+        LocalDate period = interval.periodStart(dateTime);
+        if (currentPeriod != null && !period.equals(currentPeriod)) {
+            emitSnapshot();
+        }
+        currentPeriod = period;
+        lastDateTime = dateTime;
+
+        boolean incoming = address.equalsIgnoreCase(tx.getToAddress());
+        boolean outgoing = address.equalsIgnoreCase(tx.getFromAddress());
+        if (!incoming && !outgoing) {
+            return;
+        }
+
+        int slot = slotFor(tx);
+        BigDecimal value = tx.getValue();
+        if (value != null && value.signum() != 0 && incoming != outgoing && !tx.isFailed()) {
+            BigInteger units = FixedPointLedger.toUnits(value, slotScales[slot]);
+            if (incoming) {
+                ledger.add(slot, units);
+            } else {
+                ledger.subtract(slot, units);
+            }
+        }
+
+        // Token rows repeat the gas of their parent transaction, so gas is only charged once on the normal row
+        if (outgoing && tx.getType() == TransactionType.ETH_TRANSFER && tx.getGasFee() != null) {
+            ledger.subtract(ethSlot, FixedPointLedger.toUnits(tx.getGasFee(), ETH_SCALE));
+        }
+        transferCount++;
+    }
+
+    /**
+     * Emits the snapshot for the last open period.
+     */
+    public void finish() {
+        if (currentPeriod != null) {
+            emitSnapshot();
+            currentPeriod = null;
+        }
+    }
+
+    /**
+     * Current non-zero balances keyed by asset key.
+     */
+    public Map<String, BigDecimal> getBalances() {
+        Map<String, BigDecimal> balances = new HashMap<>();
+        for (int slot = 0; slot < ledger.size(); slot++) {
+            if (!ledger.isZero(slot)) {
+                balances.put(slotKeys[slot], ledger.get(slot, slotScales[slot]));
+            }
+        }
+        return balances;
+    }
+
+    public long getTransferCount() {
+        return transferCount;
+    }
+
+    private int slotFor(Transaction tx) {
+        TransactionType type = tx.getType();
+        if (type != TransactionType.ERC20 && type != TransactionType.ERC721) {
+            return ethSlot;
+        }
+        String contract = tx.getAssetContractAddress();
+        int found = findSlot(type, contract);
+        if (found >= 0) {
+            return found;
+        }
+        int scale;
+        if (type == TransactionType.ERC721) {
+            scale = 0;
+        } else {
+            scale = tx instanceof Erc20Transaction
+                    ? ((Erc20Transaction) tx).getTokenDecimal()
+                    : Math.max(DEFAULT_TOKEN_SCALE, tx.getValue() != null ? tx.getValue().scale() : 0);
+        }
+        int slot = newSlot(contract, tx.getAssetSymbol(), type, scale);
+        slotTable[-found - 1] = slot + 1;
+        if (++tableSize * 2 > slotTable.length) {
+            rehash();
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the asset, or {@code -(entry + 1)} for the empty table entry where it belongs.
+     */
+    private int findSlot(TransactionType type, String contract) {
+        int mask = slotTable.length - 1;
+        int entry = hash(type, contract) & mask;
+        while (slotTable[entry] != 0) {
+            int slot = slotTable[entry] - 1;
+            if (slotTypes[slot] == type && Objects.equals(slotKeys[slot], contract)) {
+                return slot;
+            }
+            entry = (entry + 1) & mask;
+        }
+        return -entry - 1;
+    }
+
+    private void rehash() {
+        int[] old = slotTable;
+        slotTable = new int[old.length * 2];
+        int mask = slotTable.length - 1;
+        for (int value : old) {
+            if (value != 0) {
+                int slot = value - 1;
+                int entry = hash(slotTypes[slot], slotKeys[slot]) & mask;
+                while (slotTable[entry] != 0) {
+                    entry = (entry + 1) & mask;
+                }
+                slotTable[entry] = value;
+            }
+        }
+    }
+
+    private static int hash(TransactionType type, String contract) {
+        int h = Objects.hashCode(contract) * 31 + type.ordinal();
+        return h ^ (h >>> 16);
+    }
+
+    private int newSlot(String key, String symbol, TransactionType type, int scale) {
+        int slot = ledger.addSlot();
+        if (slot == slotKeys.length) {
+            int capacity = slotKeys.length * 2;
+            slotKeys = Arrays.copyOf(slotKeys, capacity);
+            slotSymbols = Arrays.copyOf(slotSymbols, capacity);
+            slotTypes = Arrays.copyOf(slotTypes, capacity);
+            slotScales = Arrays.copyOf(slotScales, capacity);
+        }
+        slotKeys[slot] = key;
+        slotSymbols[slot] = symbol;
+        slotTypes[slot] = type;
+        slotScales[slot] = scale;
+        return slot;
+    }
+
+    private void emitSnapshot() {
+        List<AssetBalance> balances = new ArrayList<>();
+        for (int slot = 0; slot < ledger.size(); slot++) {
+            if (!ledger.isZero(slot)) {
+                balances.add(new AssetBalance(slotKeys[slot], slotSymbols[slot], slotTypes[slot],
+                        ledger.get(slot, slotScales[slot])));
+            }
+        }
+        sink.accept(new BalanceSnapshot(currentPeriod, lastDateTime, balances));
+    }
+}
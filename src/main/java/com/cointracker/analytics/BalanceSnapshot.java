@@ -0,0 +1,45 @@
+package com.cointracker.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-zero balances of an address at the end of one snapshot period.
+ */
+public class BalanceSnapshot {
+
+    private final LocalDate periodStart;
+    private final LocalDateTime asOf;
+    private final List<AssetBalance> balances;
+
+    public BalanceSnapshot(LocalDate periodStart, LocalDateTime asOf, List<AssetBalance> balances) {
+        this.periodStart = periodStart;
+        this.asOf = asOf;
+        this.balances = balances;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    /**
+     * Time of the last transfer applied in this period.
+     */
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public List<AssetBalance> getBalances() {
+        return balances;
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceSnapshot{" +
+                "period=" + periodStart +
+                ", asOf=" + asOf +
+                ", assets=" + balances.size() +
+                '}';
+    }
+}
@@ -0,0 +1,234 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.pricing.PriceSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Tracks acquisition lots per asset over a time-sorted transaction stream
+ * and emits a {@link RealizedGain} row for every lot (or lot fragment)
+ * consumed by a disposal. Gas paid in ETH is treated as an ETH disposal.
+ * Each NFT token ID is its own asset.
+ */
+public class CostBasisEngine {
+
+    private static final String ETH_KEY = "ETH";
+    private static final int ETH_SCALE = 18;
+    private static final int DEFAULT_TOKEN_SCALE = 18;
+
+    private final String address;
+    private final CostBasisPolicy policy;
+    private final PriceSource prices;
+    private final Consumer<RealizedGain> sink;
+
+    private final Map<String, AssetLots> assets = new HashMap<>();
+    private final AssetLots ethLots;
+
+    private LocalDateTime lastDateTime;
+    private long acquisitions;
+    private long disposals;
+    private long missingPrices;
+
+    public CostBasisEngine(String address, CostBasisPolicy policy, PriceSource prices, Consumer<RealizedGain> sink) {
+        this.address = address;
+        this.policy = policy;
+        this.prices = prices;
+        this.sink = sink;
+        this.ethLots = new AssetLots(ETH_KEY, ETH_KEY, "ETH", ETH_SCALE, policy);
+        assets.put(ETH_KEY, ethLots);
+    }
+
+    /**
+     * Runs a sorted transaction list through a new engine and returns all realized gains.
+     */
+    public static List<RealizedGain> compute(String address, CostBasisPolicy policy, PriceSource prices,
+                                             List<Transaction> transactions) {
+        List<RealizedGain> gains = new ArrayList<>();
+        CostBasisEngine engine = new CostBasisEngine(address, policy, prices, gains::add);
+        for (Transaction transaction : transactions) {
+            engine.accept(transaction);
+        }
+        return gains;
+    }
+
+    public void accept(Transaction tx) {
+        LocalDateTime dateTime = tx.getDateTime();
+        if (lastDateTime != null && dateTime.isBefore(lastDateTime)) {
+            throw new IllegalStateException("Transactions must be sorted by time: " + tx.getTransactionHash()
+                    + " at " + dateTime + " follows " + lastDateTime);
+        }
+        lastDateTime = dateTime;
+
+        boolean incoming = address.equalsIgnoreCase(tx.getToAddress());
+        boolean outgoing = address.equalsIgnoreCase(tx.getFromAddress());
+        if (!incoming && !outgoing) {
+            return;
+        }
+        long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+
+        BigDecimal value = tx.getValue();
+        if (value != null && value.signum() > 0 && incoming != outgoing && !tx.isFailed()) {
+            AssetLots lots = lotsFor(tx);
+            BigInteger units = FixedPointLedger.toUnits(value, lots.scale);
+            long fiatValue = fiatValue(lots, units, epochSecond);
+            if (incoming) {
+                lots.book.add(units, fiatValue, epochSecond);
+                acquisitions++;
+            } else {
+                dispose(tx, lots, units, fiatValue);
+            }
+        }
+
+        if (outgoing && tx.getType() == TransactionType.ETH_TRANSFER
+                && tx.getGasFee() != null && tx.getGasFee().signum() > 0) {
+            BigInteger gasUnits = FixedPointLedger.toUnits(tx.getGasFee(), ETH_SCALE);
+            dispose(tx, ethLots, gasUnits, fiatValue(ethLots, gasUnits, epochSecond));
+        }
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getDisposals() {
+        return disposals;
+    }
+
+    /**
+     * Number of acquisitions and disposals valued at zero because no price was known.
+     */
+    public long getMissingPrices() {
+        return missingPrices;
+    }
+
+    public long getOpenLots() {
+        long open = 0;
+        for (AssetLots lots : assets.values()) {
+            open += lots.book.size();
+        }
+        return open;
+    }
+
+    private void dispose(Transaction tx, AssetLots lots, BigInteger units, long proceeds) {
+        disposals++;
+        BigInteger remaining = units;
+        long proceedsLeft = proceeds;
+
+        while (remaining.signum() > 0 && !lots.book.isEmpty()) {
+            int lot = lots.book.next();
+            BigInteger lotQuantity = lots.book.quantity(lot);
+            long lotCost = lots.book.cost(lot);
+            long acquiredAt = lots.book.acquiredAt(lot);
+
+            BigInteger taken;
+            long cost;
+            if (lotQuantity.compareTo(remaining) <= 0) {
+                taken = lotQuantity;
+                cost = lotCost;
+                lots.book.removeNext();
+            } else {
+                taken = remaining;
+                cost = share(lotCost, taken, lotQuantity);
+                lots.book.reduceNext(lotQuantity.subtract(taken), lotCost - cost);
+            }
+
+            remaining = remaining.subtract(taken);
+            long proceedsShare = remaining.signum() == 0 ? proceedsLeft : share(proceeds, taken, units);
+            proceedsLeft -= proceedsShare;
+            emit(tx, lots, taken, LocalDateTime.ofEpochSecond(acquiredAt, 0, ZoneOffset.UTC), cost, proceedsShare);
+        }
+
+        if (remaining.signum() > 0) {
+            emit(tx, lots, remaining, null, 0, proceedsLeft);
+        }
+    }
+
+    private void emit(Transaction tx, AssetLots lots, BigInteger quantity, LocalDateTime acquiredAt,
+                      long cost, long proceeds) {
+        sink.accept(new RealizedGain(
+                tx.getTransactionHash(),
+                lots.key,
+                lots.symbol,
+                new BigDecimal(quantity, lots.scale),
+                acquiredAt,
+                tx.getDateTime(),
+                BigDecimal.valueOf(cost, PriceSource.PRICE_SCALE),
+                BigDecimal.valueOf(proceeds, PriceSource.PRICE_SCALE)
+        ));
+    }
+
+    private long fiatValue(AssetLots lots, BigInteger units, long epochSecond) {
+        long price = prices.priceAt(lots.priceKey, epochSecond);
+        if (price == PriceSource.MISSING) {
+            missingPrices++;
+            return 0;
+        }
+        return clamp(units.multiply(BigInteger.valueOf(price)).divide(lots.unitDivisor));
+    }
+
+    private AssetLots lotsFor(Transaction tx) {
+        switch (tx.getType()) {
+            case ERC20: {
+                String contract = tx.getAssetContractAddress();
+                AssetLots lots = assets.get(contract);
+                if (lots == null) {
+                    int scale = tx instanceof Erc20Transaction
+                            ? ((Erc20Transaction) tx).getTokenDecimal()
+                            : Math.max(DEFAULT_TOKEN_SCALE, tx.getValue().scale());
+                    lots = new AssetLots(contract, contract.toLowerCase(), tx.getAssetSymbol(), scale, policy);
+                    assets.put(contract, lots);
+                }
+                return lots;
+            }
+            case ERC721: {
+                String key = tx.getAssetContractAddress() + "#" + tx.getTokenId();
+                AssetLots lots = assets.get(key);
+                if (lots == null) {
+                    lots = new AssetLots(key, tx.getAssetContractAddress().toLowerCase(),
+                            tx.getAssetSymbol() + " #" + tx.getTokenId(), 0, policy);
+                    assets.put(key, lots);
+                }
+                return lots;
+            }
+            default:
+                return ethLots;
+        }
+    }
+
+    private static long share(long amount, BigInteger part, BigInteger whole) {
+        return clamp(BigInteger.valueOf(amount).multiply(part).divide(whole));
+    }
+
+    private static long clamp(BigInteger value) {
+        return value.bitLength() < 64 ? value.longValue() : (value.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE + 1);
+    }
+
+    private static final class AssetLots {
+        private final String key;
+        private final String priceKey;
+        private final String symbol;
+        private final int scale;
+        private final BigInteger unitDivisor;
+        private final LotBook book;
+
+        private AssetLots(String key, String priceKey, String symbol, int scale, CostBasisPolicy policy) {
+            this.key = key;
+            this.priceKey = priceKey;
+            this.symbol = symbol;
+            this.scale = scale;
+            this.unitDivisor = BigInteger.TEN.pow(scale);
+            this.book = new LotBook(policy);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.cointracker.analytics;
+
+/**
+ * Order in which open lots are consumed by a disposal.
+ */
+public enum CostBasisPolicy {
+    FIFO,
+    LIFO,
+    HIFO;
+
+    public static CostBasisPolicy fromString(String value) {
+        for (CostBasisPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported cost basis policy: " + value + " (expected fifo, lifo or hifo)");
+    }
+}
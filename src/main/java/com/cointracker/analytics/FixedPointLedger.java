@@ -0,0 +1,133 @@
+package com.cointracker.analytics;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Column store of exact signed balances, one slot per asset.
+ * Each slot is a 128-bit two's complement integer kept in two primitive
+ * columns, counted in the asset's smallest unit (wei, token base units, NFTs).
+ * Slots that ever leave the 128-bit range fall back to a BigInteger.
+ */
+public class FixedPointLedger {
+
+    private static final BigInteger UNSIGNED_LONG_MASK = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    private long[] hi;
+    private long[] lo;
+    private BigInteger[] overflow;
+    private int size;
+
+    public FixedPointLedger() {
+        this(16);
+    }
+
+    public FixedPointLedger(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.hi = new long[capacity];
+        this.lo = new long[capacity];
+    }
+
+    /**
+     * Appends a new zero balance and returns its slot.
+     */
+    public int addSlot() {
+        if (size == hi.length) {
+            int capacity = hi.length * 2;
+            hi = Arrays.copyOf(hi, capacity);
+            lo = Arrays.copyOf(lo, capacity);
+            if (overflow != null) {
+                overflow = Arrays.copyOf(overflow, capacity);
+            }
+        }
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int slot, BigInteger units) {
+        if (overflow != null && overflow[slot] != null) {
+            overflow[slot] = overflow[slot].add(units);
+            return;
+        }
+
+        int bits = units.bitLength();
+        if (bits < 64) {
+            addLong(slot, units.longValue());
+        } else if (bits < 127) {
+            addWide(slot, units.shiftRight(64).longValue(), units.longValue());
+        } else {
+            promote(slot, units);
+        }
+    }
+
+    public void subtract(int slot, BigInteger units) {
+        add(slot, units.negate());
+    }
+
+    /**
+     * Adds a long amount without allocating while the slot stays within 128 bits.
+     */
+    public void addLong(int slot, long units) {
+        if (overflow != null && overflow[slot] != null) {
+            overflow[slot] = overflow[slot].add(BigInteger.valueOf(units));
+            return;
+        }
+        addWide(slot, units < 0 ? -1L : 0L, units);
+    }
+
+    public boolean isZero(int slot) {
+        if (overflow != null && overflow[slot] != null) {
+            return overflow[slot].signum() == 0;
+        }
+        return hi[slot] == 0 && lo[slot] == 0;
+    }
+
+    public BigInteger get(int slot) {
+        if (overflow != null && overflow[slot] != null) {
+            return overflow[slot];
+        }
+        return toBigInteger(hi[slot], lo[slot]);
+    }
+
+    public BigDecimal get(int slot, int scale) {
+        return new BigDecimal(get(slot), scale);
+    }
+
+    /**
+     * Converts a decimal amount into integer units at the given scale,
+     * truncating any digits beyond the scale.
+     */
+    public static BigInteger toUnits(BigDecimal amount, int scale) {
+        return amount.setScale(scale, RoundingMode.DOWN).unscaledValue();
+    }
+
+    private void addWide(int slot, long addHi, long addLo) {
+        long oldLo = lo[slot];
+        long newLo = oldLo + addLo;
+        long carry = Long.compareUnsigned(newLo, oldLo) < 0 ? 1L : 0L;
+        try {
+            hi[slot] = Math.addExact(Math.addExact(hi[slot], addHi), carry);
+            lo[slot] = newLo;
+        } catch (ArithmeticException e) {
+            promote(slot, toBigInteger(addHi, addLo));
+        }
+    }
+
+    private void promote(int slot, BigInteger units) {
+        if (overflow == null) {
+            overflow = new BigInteger[hi.length];
+        }
+        overflow[slot] = toBigInteger(hi[slot], lo[slot]).add(units);
+        hi[slot] = 0;
+        lo[slot] = 0;
+    }
+
+    private static BigInteger toBigInteger(long high, long low) {
+        return BigInteger.valueOf(high).shiftLeft(64).add(BigInteger.valueOf(low).and(UNSIGNED_LONG_MASK));
+    }
+}
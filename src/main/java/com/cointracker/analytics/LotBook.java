@@ -0,0 +1,219 @@
+package com.cointracker.analytics;
+
+import java.math.BigInteger;
+
+/**
+ * Open lots of one asset in primitive columns.
+ * FIFO and LIFO keep lots in a ring-buffer deque; HIFO keeps them in a
+ * binary max-heap on unit cost, breaking ties by acquisition time and then
+ * insertion order so equal-cost lots (e.g. all zero without prices) are
+ * consumed deterministically oldest first. Quantities are 128-bit base units and
+ * costs are fixed-point USD at {@link com.cointracker.pricing.PriceSource#PRICE_SCALE}.
+ */
+class LotBook {
+
+    private static final BigInteger UNSIGNED_LONG_MASK = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    private final CostBasisPolicy policy;
+
+    private long[] quantityHi;
+    private long[] quantityLo;
+    private long[] cost;
+    private long[] acquiredAt;
+    private double[] unitCost;
+    private long[] sequence;
+    private long nextSequence;
+    private int head;
+    private int size;
+
+    LotBook(CostBasisPolicy policy) {
+        this.policy = policy;
+        allocate(8);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(BigInteger quantity, long lotCost, long acquiredEpochSecond) {
+        if (quantity.signum() <= 0) {
+            return;
+        }
+        if (size == cost.length) {
+            grow();
+        }
+
+        int index = policy == CostBasisPolicy.HIFO ? size : (head + size) & (cost.length - 1);
+        quantityHi[index] = quantity.shiftRight(64).longValue();
+        quantityLo[index] = quantity.longValue();
+        cost[index] = lotCost;
+        acquiredAt[index] = acquiredEpochSecond;
+        if (policy == CostBasisPolicy.HIFO) {
+            unitCost[index] = lotCost / quantity.doubleValue();
+            sequence[index] = nextSequence++;
+        }
+        size++;
+
+        if (policy == CostBasisPolicy.HIFO) {
+            siftUp(index);
+        }
+    }
+
+    /**
+     * Physical index of the lot the policy consumes next.
+     */
+    int next() {
+        switch (policy) {
+            case LIFO:
+                return (head + size - 1) & (cost.length - 1);
+            case HIFO:
+                return 0;
+            default:
+                return head;
+        }
+    }
+
+    BigInteger quantity(int index) {
+        return BigInteger.valueOf(quantityHi[index]).shiftLeft(64)
+                .add(BigInteger.valueOf(quantityLo[index]).and(UNSIGNED_LONG_MASK));
+    }
+
+    long cost(int index) {
+        return cost[index];
+    }
+
+    long acquiredAt(int index) {
+        return acquiredAt[index];
+    }
+
+    /**
+     * Shrinks the next lot after a partial disposal. Unit cost is unchanged.
+     */
+    void reduceNext(BigInteger remainingQuantity, long remainingCost) {
+        int index = next();
+        quantityHi[index] = remainingQuantity.shiftRight(64).longValue();
+        quantityLo[index] = remainingQuantity.longValue();
+        cost[index] = remainingCost;
+    }
+
+    void removeNext() {
+        switch (policy) {
+            case LIFO:
+                size--;
+                break;
+            case HIFO:
+                size--;
+                if (size > 0) {
+                    move(size, 0);
+                    siftDown(0);
+                }
+                break;
+            default:
+                head = (head + 1) & (cost.length - 1);
+                size--;
+                break;
+        }
+    }
+
+    private void allocate(int capacity) {
+        quantityHi = new long[capacity];
+        quantityLo = new long[capacity];
+        cost = new long[capacity];
+        acquiredAt = new long[capacity];
+        unitCost = policy == CostBasisPolicy.HIFO ? new double[capacity] : null;
+        sequence = policy == CostBasisPolicy.HIFO ? new long[capacity] : null;
+    }
+
+    private void grow() {
+        long[] oldHi = quantityHi;
+        long[] oldLo = quantityLo;
+        long[] oldCost = cost;
+        long[] oldAcquired = acquiredAt;
+        double[] oldUnit = unitCost;
+        long[] oldSequence = sequence;
+        int oldCapacity = oldCost.length;
+
+        allocate(oldCapacity * 2);
+        // Unroll the ring so the deque starts at index 0 again; heaps are already contiguous
+        for (int i = 0; i < size; i++) {
+            int from = policy == CostBasisPolicy.HIFO ? i : (head + i) & (oldCapacity - 1);
+            quantityHi[i] = oldHi[from];
+            quantityLo[i] = oldLo[from];
+            cost[i] = oldCost[from];
+            acquiredAt[i] = oldAcquired[from];
+            if (oldUnit != null) {
+                unitCost[i] = oldUnit[from];
+                sequence[i] = oldSequence[from];
+            }
+        }
+        head = 0;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!consumedBefore(index, parent)) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int largest = left + 1 < size && consumedBefore(left + 1, left) ? left + 1 : left;
+            if (!consumedBefore(largest, index)) {
+                return;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    /**
+     * HIFO order: higher unit cost first, then earlier acquisition, then earlier insertion.
+     */
+    private boolean consumedBefore(int a, int b) {
+        if (unitCost[a] != unitCost[b]) {
+            return unitCost[a] > unitCost[b];
+        }
+        if (acquiredAt[a] != acquiredAt[b]) {
+            return acquiredAt[a] < acquiredAt[b];
+        }
+        return sequence[a] < sequence[b];
+    }
+
+    private void move(int from, int to) {
+        quantityHi[to] = quantityHi[from];
+        quantityLo[to] = quantityLo[from];
+        cost[to] = cost[from];
+        acquiredAt[to] = acquiredAt[from];
+        unitCost[to] = unitCost[from];
+        sequence[to] = sequence[from];
+    }
+
+    private void swap(int a, int b) {
+        long hi = quantityHi[a];
+        long lo = quantityLo[a];
+        long c = cost[a];
+        long t = acquiredAt[a];
+        double u = unitCost[a];
+        long seq = sequence[a];
+        move(b, a);
+        quantityHi[b] = hi;
+        quantityLo[b] = lo;
+        cost[b] = c;
+        acquiredAt[b] = t;
+        unitCost[b] = u;
+        sequence[b] = seq;
+    }
+}
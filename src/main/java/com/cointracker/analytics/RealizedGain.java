@@ -0,0 +1,82 @@
+package com.cointracker.analytics;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One disposed lot, or the part of a disposal not covered by any known lot.
+ */
+public class RealizedGain {
+
+    private final String transactionHash;
+    private final String assetKey;
+    private final String symbol;
+    private final BigDecimal quantity;
+    private final LocalDateTime acquiredAt;
+    private final LocalDateTime disposedAt;
+    private final BigDecimal costBasis;
+    private final BigDecimal proceeds;
+
+    public RealizedGain(String transactionHash, String assetKey, String symbol, BigDecimal quantity,
+                        LocalDateTime acquiredAt, LocalDateTime disposedAt,
+                        BigDecimal costBasis, BigDecimal proceeds) {
+        this.transactionHash = transactionHash;
+        this.assetKey = assetKey;
+        this.symbol = symbol;
+        this.quantity = quantity;
+        this.acquiredAt = acquiredAt;
+        this.disposedAt = disposedAt;
+        this.costBasis = costBasis;
+        this.proceeds = proceeds;
+    }
+
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+
+    public String getAssetKey() {
+        return assetKey;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Acquisition time of the consumed lot, or null when no lot covered the disposal.
+     */
+    public LocalDateTime getAcquiredAt() {
+        return acquiredAt;
+    }
+
+    public LocalDateTime getDisposedAt() {
+        return disposedAt;
+    }
+
+    public BigDecimal getCostBasis() {
+        return costBasis;
+    }
+
+    public BigDecimal getProceeds() {
+        return proceeds;
+    }
+
+    public BigDecimal getGain() {
+        return proceeds.subtract(costBasis);
+    }
+
+    @Override
+    public String toString() {
+        return "RealizedGain{" +
+                "hash='" + transactionHash + '\'' +
+                ", asset='" + symbol + '\'' +
+                ", quantity=" + quantity.toPlainString() +
+                ", costBasis=" + costBasis.toPlainString() +
+                ", proceeds=" + proceeds.toPlainString() +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Transaction;
+
+/**
+ * One row on which two histories of the same address disagree.
+ */
+public class ReconcileDifference {
+
+    public enum Kind {
+        /** Only in the first history. */
+        MISSING,
+        /** Only in the second history. */
+        EXTRA,
+        /** In both, with different values. */
+        VALUE_MISMATCH
+    }
+
+    private final Kind kind;
+    private final Transaction first;
+    private final Transaction second;
+
+    public ReconcileDifference(Kind kind, Transaction first, Transaction second) {
+        this.kind = kind;
+        this.first = first;
+        this.second = second;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * The row from the first history, or null for {@link Kind#EXTRA}.
+     */
+    public Transaction getFirst() {
+        return first;
+    }
+
+    /**
+     * The row from the second history, or null for {@link Kind#MISSING}.
+     */
+    public Transaction getSecond() {
+        return second;
+    }
+
+    /**
+     * Whichever row is present, for the fields both share.
+     */
+    public Transaction getTransaction() {
+        return first != null ? first : second;
+    }
+
+    @Override
+    public String toString() {
+        return "ReconcileDifference{" +
+                "kind=" + kind +
+                ", hash='" + getTransaction().getTransactionHash() + '\'' +
+                ", type=" + getTransaction().getType() +
+                '}';
+    }
+}
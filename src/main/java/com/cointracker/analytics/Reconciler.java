@@ -0,0 +1,166 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Diffs two histories of the same address, e.g. exports made through different
+ * providers or before and after a reorg.
+ *
+ * Rows are joined on (hash, type, contract, token id). Both inputs must be sorted by
+ * time, as exports are, and all rows of a transaction share its block time, so the
+ * inputs are merged one timestamp at a time and only the rows of that second are
+ * held in memory. Several rows with the same key (e.g. internal calls of one
+ * transaction) are paired by equal value first; any left over are reported as value
+ * mismatches, then as missing or extra. A transaction that moved to another block
+ * is reported as missing at its old time and extra at its new one.
+ */
+public class Reconciler {
+
+    private long firstRows;
+    private long secondRows;
+    private long matched;
+    private long missing;
+    private long extra;
+    private long mismatched;
+
+    private final List<Transaction> firstWindow = new ArrayList<>();
+    private final List<Transaction> secondWindow = new ArrayList<>();
+    private final Map<String, List<Transaction>> secondByKey = new LinkedHashMap<>();
+    private final List<Transaction> unpaired = new ArrayList<>();
+
+    /**
+     * Streams the differences to the sink in time order.
+     */
+    public void reconcile(Iterator<Transaction> first, Iterator<Transaction> second,
+                          Consumer<ReconcileDifference> sink) {
+        Transaction nextFirst = advance(first, null);
+        Transaction nextSecond = advance(second, null);
+        while (nextFirst != null || nextSecond != null) {
+            LocalDateTime window;
+            if (nextSecond == null || (nextFirst != null && !nextFirst.getDateTime().isAfter(nextSecond.getDateTime()))) {
+                window = nextFirst.getDateTime();
+            } else {
+                window = nextSecond.getDateTime();
+            }
+            while (nextFirst != null && nextFirst.getDateTime().equals(window)) {
+                firstWindow.add(nextFirst);
+                nextFirst = advance(first, nextFirst);
+            }
+            while (nextSecond != null && nextSecond.getDateTime().equals(window)) {
+                secondWindow.add(nextSecond);
+                nextSecond = advance(second, nextSecond);
+            }
+            firstRows += firstWindow.size();
+            secondRows += secondWindow.size();
+            join(sink);
+        }
+    }
+
+    public long getMatchedRows() {
+        return matched;
+    }
+
+    public long getMissingRows() {
+        return missing;
+    }
+
+    public long getExtraRows() {
+        return extra;
+    }
+
+    public long getMismatchedRows() {
+        return mismatched;
+    }
+
+    public boolean isConsistent() {
+        return missing == 0 && extra == 0 && mismatched == 0;
+    }
+
+    public String summary(String firstName, String secondName) {
+        return String.format(
+                "\n📊 Reconciliation Summary:\n" +
+                "   • First: %s (%d rows)\n" +
+                "   • Second: %s (%d rows)\n" +
+                "   • Matching Rows: %d\n" +
+                "   • Missing From Second: %d\n" +
+                "   • Extra In Second: %d\n" +
+                "   • Value Mismatches: %d",
+                firstName, firstRows,
+                secondName, secondRows,
+                matched,
+                missing,
+                extra,
+                mismatched
+        );
+    }
+
+    private static Transaction advance(Iterator<Transaction> rows, Transaction previous) {
+        if (!rows.hasNext()) {
+            return null;
+        }
+        Transaction row = rows.next();
+        if (previous != null && row.getDateTime().isBefore(previous.getDateTime())) {
+            throw new IllegalStateException("Rows must be sorted by time: " + row.getTransactionHash());
+        }
+        return row;
+    }
+
+    private void join(Consumer<ReconcileDifference> sink) {
+        for (Transaction row : secondWindow) {
+            secondByKey.computeIfAbsent(key(row), k -> new ArrayList<>(1)).add(row);
+        }
+        for (Transaction row : firstWindow) {
+            List<Transaction> candidates = secondByKey.get(key(row));
+            if (candidates != null && removeEqualValue(candidates, row.getValue())) {
+                matched++;
+            } else {
+                unpaired.add(row);
+            }
+        }
+        for (Transaction row : unpaired) {
+            List<Transaction> candidates = secondByKey.get(key(row));
+            if (candidates != null && !candidates.isEmpty()) {
+                mismatched++;
+                sink.accept(new ReconcileDifference(ReconcileDifference.Kind.VALUE_MISMATCH, row, candidates.remove(0)));
+            } else {
+                missing++;
+                sink.accept(new ReconcileDifference(ReconcileDifference.Kind.MISSING, row, null));
+            }
+        }
+        for (List<Transaction> rows : secondByKey.values()) {
+            for (Transaction row : rows) {
+                extra++;
+                sink.accept(new ReconcileDifference(ReconcileDifference.Kind.EXTRA, null, row));
+            }
+        }
+        firstWindow.clear();
+        secondWindow.clear();
+        secondByKey.clear();
+        unpaired.clear();
+    }
+
+    private static boolean removeEqualValue(List<Transaction> candidates, BigDecimal value) {
+        for (int i = 0; i < candidates.size(); i++) {
+            BigDecimal candidate = candidates.get(i).getValue();
+            if (candidate == null ? value == null : value != null && candidate.compareTo(value) == 0) {
+                candidates.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(Transaction row) {
+        return row.getTransactionHash().toLowerCase() + '|' + row.getType().name() + '|'
+                + row.getAssetContractAddress().toLowerCase() + '|' + row.getTokenId();
+    }
+}
@@ -0,0 +1,26 @@
+package com.cointracker.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Granularity at which running balances are snapshotted.
+ */
+public enum SnapshotInterval {
+    DAILY,
+    MONTHLY;
+
+    public LocalDate periodStart(LocalDateTime dateTime) {
+        LocalDate date = dateTime.toLocalDate();
+        return this == DAILY ? date : date.withDayOfMonth(1);
+    }
+
+    public static SnapshotInterval fromString(String value) {
+        for (SnapshotInterval interval : values()) {
+            if (interval.name().equalsIgnoreCase(value)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported snapshot interval: " + value + " (expected daily or monthly)");
+    }
+}
@@ -0,0 +1,62 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All legs (normal, internal and token transfers) that share one transaction hash,
+ * with the net flow of each asset for the bundled address.
+ */
+public class TransactionBundle {
+
+    private final String transactionHash;
+    private final LocalDateTime dateTime;
+    private final List<Transaction> legs;
+    private final Map<String, BigDecimal> netFlows;
+    private final Map<String, String> symbols;
+
+    public TransactionBundle(String transactionHash, LocalDateTime dateTime, List<Transaction> legs,
+                             Map<String, BigDecimal> netFlows, Map<String, String> symbols) {
+        this.transactionHash = transactionHash;
+        this.dateTime = dateTime;
+        this.legs = legs;
+        this.netFlows = netFlows;
+        this.symbols = symbols;
+    }
+
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public List<Transaction> getLegs() {
+        return legs;
+    }
+
+    /**
+     * Net amount received (positive) or sent (negative) per asset key, gas included in ETH.
+     */
+    public Map<String, BigDecimal> getNetFlows() {
+        return netFlows;
+    }
+
+    public String getSymbol(String assetKey) {
+        return symbols.getOrDefault(assetKey, "");
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionBundle{" +
+                "hash='" + transactionHash + '\'' +
+                ", legs=" + legs.size() +
+                ", netFlows=" + netFlows +
+                '}';
+    }
+}
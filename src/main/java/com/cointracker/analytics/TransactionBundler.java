@@ -0,0 +1,292 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionHashes;
+import com.cointracker.model.TransactionType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hash-joins transaction legs that share a transaction hash into {@link TransactionBundle}s.
+ *
+ * Legs are keyed by their 256-bit hash fingerprint in an open-addressing table of
+ * primitive longs. Time-sorted input is joined one timestamp at a time, because all
+ * legs of a transaction share its block time, so memory stays bounded by the legs of
+ * one second. Unsorted input is joined in memory until {@code maxLegsInMemory} legs
+ * are buffered; after that every leg is spilled to one of {@value #PARTITIONS} files by
+ * fingerprint and each partition is joined on its own.
+ */
+public class TransactionBundler {
+
+    private static final int PARTITIONS = 16;
+
+    private final String address;
+    private final int maxLegsInMemory;
+    private final Path spillDirectory;
+
+    private final long[] fingerprint = new long[TransactionHashes.WORDS];
+    private long[] keys;
+    private int[] slots;
+    private int[] usedSlots;
+    private int usedCount;
+    private final List<List<Transaction>> bundles = new ArrayList<>();
+    private int bufferedLegs;
+
+    private long spilledLegs;
+
+    public TransactionBundler(String address, int maxLegsInMemory, Path spillDirectory) {
+        this.address = address;
+        this.maxLegsInMemory = maxLegsInMemory;
+        this.spillDirectory = spillDirectory;
+        allocateTable(1024);
+    }
+
+    /**
+     * Bundles a list, choosing the streaming path when it is already sorted by time.
+     */
+    public List<TransactionBundle> bundleAll(List<Transaction> transactions) throws IOException {
+        List<TransactionBundle> result = new ArrayList<>();
+        if (isSortedByTime(transactions)) {
+            bundleSorted(transactions.iterator(), result::add);
+        } else {
+            bundle(transactions.iterator(), result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Bundles time-sorted legs, emitting bundles in time order.
+     */
+    public void bundleSorted(Iterator<Transaction> legs, Consumer<TransactionBundle> sink) {
+        LocalDateTime window = null;
+        while (legs.hasNext()) {
+            Transaction leg = legs.next();
+            if (window != null && !leg.getDateTime().equals(window)) {
+                if (leg.getDateTime().isBefore(window)) {
+                    throw new IllegalStateException("Legs must be sorted by time: " + leg.getTransactionHash());
+                }
+                flush(sink);
+            }
+            window = leg.getDateTime();
+            add(leg);
+        }
+        flush(sink);
+    }
+
+    /**
+     * Bundles legs in any order, spilling partitions to disk once the memory budget is exceeded.
+     * Bundles are emitted in first-seen order within each partition.
+     */
+    public void bundle(Iterator<Transaction> legs, Consumer<TransactionBundle> sink) throws IOException {
+        DataOutputStream[] partitions = null;
+        Path[] partitionFiles = null;
+
+        try {
+            while (legs.hasNext()) {
+                Transaction leg = legs.next();
+                if (partitions != null) {
+                    spill(partitions, leg);
+                    continue;
+                }
+                add(leg);
+                if (bufferedLegs > maxLegsInMemory) {
+                    partitionFiles = new Path[PARTITIONS];
+                    partitions = openPartitions(partitionFiles);
+                    for (List<Transaction> bundle : bundles) {
+                        for (Transaction buffered : bundle) {
+                            spill(partitions, buffered);
+                        }
+                    }
+                    clear();
+                }
+            }
+
+            if (partitions == null) {
+                flush(sink);
+                return;
+            }
+
+            for (DataOutputStream partition : partitions) {
+                partition.close();
+            }
+            partitions = null;
+            for (Path partitionFile : partitionFiles) {
+                joinPartition(partitionFile, sink);
+            }
+        } finally {
+            if (partitions != null) {
+                for (DataOutputStream partition : partitions) {
+                    partition.close();
+                }
+            }
+            if (partitionFiles != null) {
+                for (Path partitionFile : partitionFiles) {
+                    if (partitionFile != null) {
+                        Files.deleteIfExists(partitionFile);
+                    }
+                }
+            }
+        }
+    }
+
+    public long getSpilledLegs() {
+        return spilledLegs;
+    }
+
+    private void add(Transaction leg) {
+        TransactionHashes.fingerprint(leg.getTransactionHash(), fingerprint, 0);
+        int mask = slots.length - 1;
+        int slot = (int) TransactionHashes.mix(fingerprint[0], fingerprint[1], fingerprint[2], fingerprint[3]) & mask;
+
+        while (slots[slot] != 0) {
+            int base = slot * TransactionHashes.WORDS;
+            if (keys[base] == fingerprint[0] && keys[base + 1] == fingerprint[1]
+                    && keys[base + 2] == fingerprint[2] && keys[base + 3] == fingerprint[3]) {
+                bundles.get(slots[slot] - 1).add(leg);
+                bufferedLegs++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        System.arraycopy(fingerprint, 0, keys, slot * TransactionHashes.WORDS, TransactionHashes.WORDS);
+        List<Transaction> bundle = new ArrayList<>(2);
+        bundle.add(leg);
+        bundles.add(bundle);
+        slots[slot] = bundles.size();
+        usedSlots[usedCount++] = slot;
+        bufferedLegs++;
+
+        // Keep the load factor at or below one half
+        if (usedCount * 2 > slots.length) {
+            rehash();
+        }
+    }
+
+    private void flush(Consumer<TransactionBundle> sink) {
+        for (List<Transaction> legs : bundles) {
+            sink.accept(toBundle(legs));
+        }
+        clear();
+    }
+
+    private void clear() {
+        for (int i = 0; i < usedCount; i++) {
+            slots[usedSlots[i]] = 0;
+        }
+        usedCount = 0;
+        bundles.clear();
+        bufferedLegs = 0;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldUsed = Arrays.copyOf(usedSlots, usedCount);
+        int[] oldSlots = slots;
+        allocateTable(slots.length * 2);
+
+        int mask = slots.length - 1;
+        for (int oldSlot : oldUsed) {
+            int base = oldSlot * TransactionHashes.WORDS;
+            int slot = (int) TransactionHashes.mix(oldKeys[base], oldKeys[base + 1], oldKeys[base + 2], oldKeys[base + 3]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            System.arraycopy(oldKeys, base, keys, slot * TransactionHashes.WORDS, TransactionHashes.WORDS);
+            slots[slot] = oldSlots[oldSlot];
+            usedSlots[usedCount++] = slot;
+        }
+    }
+
+    private void allocateTable(int capacity) {
+        keys = new long[capacity * TransactionHashes.WORDS];
+        slots = new int[capacity];
+        usedSlots = new int[capacity / 2 + 1];
+        usedCount = 0;
+    }
+
+    private TransactionBundle toBundle(List<Transaction> legs) {
+        Map<String, BigDecimal> netFlows = new LinkedHashMap<>();
+        Map<String, String> symbols = new LinkedHashMap<>();
+
+        for (Transaction leg : legs) {
+            boolean incoming = address.equalsIgnoreCase(leg.getToAddress());
+            boolean outgoing = address.equalsIgnoreCase(leg.getFromAddress());
+            String assetKey = leg.getType() == TransactionType.ETH_TRANSFER || leg.getType() == TransactionType.ETH_INTERNAL
+                    ? "ETH" : leg.getAssetContractAddress();
+            symbols.putIfAbsent(assetKey, "ETH".equals(assetKey) ? "ETH" : leg.getAssetSymbol());
+
+            // A failed leg moved no value, but its sender still paid gas
+            BigDecimal value = leg.getValue() != null && !leg.isFailed() ? leg.getValue() : BigDecimal.ZERO;
+            if (incoming && !outgoing) {
+                netFlows.merge(assetKey, value, BigDecimal::add);
+            } else if (outgoing && !incoming) {
+                netFlows.merge(assetKey, value.negate(), BigDecimal::add);
+            }
+            if (outgoing && leg.getType() == TransactionType.ETH_TRANSFER && leg.getGasFee() != null) {
+                netFlows.merge("ETH", leg.getGasFee().negate(), BigDecimal::add);
+                symbols.putIfAbsent("ETH", "ETH");
+            }
+        }
+
+        Transaction first = legs.get(0);
+        return new TransactionBundle(first.getTransactionHash(), first.getDateTime(), legs, netFlows, symbols);
+    }
+
+    private DataOutputStream[] openPartitions(Path[] files) throws IOException {
+        Files.createDirectories(spillDirectory);
+        DataOutputStream[] partitions = new DataOutputStream[PARTITIONS];
+        for (int i = 0; i < PARTITIONS; i++) {
+            files[i] = Files.createTempFile(spillDirectory, "bundle-partition-" + i + "-", ".bin");
+            partitions[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(files[i]), 64 * 1024));
+        }
+        return partitions;
+    }
+
+    private void spill(DataOutputStream[] partitions, Transaction leg) throws IOException {
+        TransactionHashes.fingerprint(leg.getTransactionHash(), fingerprint, 0);
+        int partition = (int) (fingerprint[0] >>> 60) & (PARTITIONS - 1);
+        TransactionSpillCodec.write(partitions[partition], leg);
+        spilledLegs++;
+    }
+
+    private void joinPartition(Path file, Consumer<TransactionBundle> sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            while (true) {
+                Transaction leg;
+                try {
+                    leg = TransactionSpillCodec.read(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                add(leg);
+            }
+        }
+        flush(sink);
+    }
+
+    private static boolean isSortedByTime(List<Transaction> transactions) {
+        for (int i = 1; i < transactions.size(); i++) {
+            if (transactions.get(i).getDateTime().isBefore(transactions.get(i - 1).getDateTime())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
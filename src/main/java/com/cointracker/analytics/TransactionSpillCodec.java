@@ -0,0 +1,119 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Erc721Transaction;
+import com.cointracker.model.InternalTransaction;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary form of a transaction for temporary spill files.
+ */
+final class TransactionSpillCodec {
+
+    private static final byte NORMAL = 0;
+    private static final byte INTERNAL = 1;
+    private static final byte ERC20 = 2;
+    private static final byte ERC721 = 3;
+
+    private TransactionSpillCodec() {
+    }
+
+    static void write(DataOutputStream out, Transaction tx) throws IOException {
+        byte kind = tx instanceof Erc20Transaction ? ERC20
+                : tx instanceof Erc721Transaction ? ERC721
+                : tx instanceof InternalTransaction ? INTERNAL
+                : NORMAL;
+        out.writeByte(kind);
+        out.writeByte(tx.getType().ordinal());
+        writeString(out, tx.getTransactionHash());
+        out.writeLong(tx.getBlockNumber());
+        out.writeLong(tx.getDateTime().toEpochSecond(ZoneOffset.UTC));
+        writeString(out, tx.getFromAddress());
+        writeString(out, tx.getToAddress());
+        writeString(out, tx.getAssetContractAddress());
+        writeString(out, tx.getTokenSymbol());
+        writeString(out, tx.getTokenId());
+        writeDecimal(out, tx.getValue());
+        writeDecimal(out, tx.getGasFee());
+        writeDecimal(out, tx.getFiatValue());
+        out.writeBoolean(tx.isFailed());
+        if (kind == ERC20) {
+            writeString(out, ((Erc20Transaction) tx).getTokenName());
+            out.writeInt(((Erc20Transaction) tx).getTokenDecimal());
+        } else if (kind == ERC721) {
+            writeString(out, ((Erc721Transaction) tx).getTokenName());
+        }
+    }
+
+    static Transaction read(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        TransactionType type = TransactionType.values()[in.readByte()];
+        String hash = readString(in);
+        long blockNumber = in.readLong();
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+        String from = readString(in);
+        String to = readString(in);
+        String contract = readString(in);
+        String symbol = readString(in);
+        String tokenId = readString(in);
+        BigDecimal value = readDecimal(in);
+        BigDecimal gasFee = readDecimal(in);
+        BigDecimal fiatValue = readDecimal(in);
+        boolean failed = in.readBoolean();
+
+        Transaction tx;
+        switch (kind) {
+            case ERC20:
+                tx = new Erc20Transaction(hash, dateTime, from, to, value, gasFee, contract, symbol,
+                        readString(in), in.readInt());
+                break;
+            case ERC721:
+                tx = new Erc721Transaction(hash, dateTime, from, to, gasFee, contract, symbol,
+                        readString(in), tokenId);
+                break;
+            case INTERNAL:
+                tx = new InternalTransaction(hash, dateTime, from, to, value);
+                break;
+            default:
+                tx = new NormalTransaction(hash, dateTime, from, to, value, gasFee);
+                tx.setAssetContractAddress(contract);
+                tx.setAssetSymbol(symbol);
+                tx.setTokenId(tokenId);
+                break;
+        }
+        tx.setType(type);
+        tx.setBlockNumber(blockNumber);
+        tx.setFiatValue(fiatValue);
+        tx.setFailed(failed);
+        return tx;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.toPlainString() : null);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value != null ? new BigDecimal(value) : null;
+    }
+}
@@ -0,0 +1,210 @@
+package com.cointracker.batch;
+
+import com.cointracker.client.BlockRange;
+import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.export.CsvExporter;
+import com.cointracker.metrics.LatencyHistogram;
+import com.cointracker.metrics.MetricsRegistry;
+import com.cointracker.model.Transaction;
+import com.cointracker.progress.ProgressReporter;
+import com.cointracker.service.TransactionService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports many addresses to {@code <output-dir>/<address>.csv} with a pool of workers
+ * that take their jobs from a {@link BatchScheduler}.
+ *
+ * All workers share one client and therefore its rate limiter, so the worker count sets
+ * how many calls can be in flight, not how many are made per second. An address whose
+ * probe fails is queued as a large job, since its size is unknown and its export retries
+ * anyway. A failed export is reported and counted; the other addresses carry on.
+ */
+public class BatchRunner {
+
+    private final BlockchainApiClient client;
+    private final TransactionService service;
+    private final BatchScheduler scheduler;
+    private final int workers;
+    private final int probeRows;
+    private final Path outputDirectory;
+    private final CsvExporter exporter = new CsvExporter();
+    private final ProgressReporter progress = ProgressReporter.getDefault();
+    private final LatencyHistogram timeToExport = new LatencyHistogram();
+
+    private int total;
+    private int exportedSmall;
+    private int exportedLarge;
+    private int failed;
+    private long startedAt;
+    private long elapsedNanos;
+
+    public BatchRunner(BlockchainApiClient client, TransactionService service, int workers, int largeSlots,
+                       int probeRows, Path outputDirectory) {
+        this.client = client;
+        this.service = service;
+        this.scheduler = new BatchScheduler(workers, largeSlots, probeRows);
+        this.workers = workers;
+        this.probeRows = probeRows;
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Probes and exports every address, returning once all are done.
+     */
+    public void run(List<String> addresses, BlockRange range) throws InterruptedException {
+        startedAt = System.nanoTime();
+        total = addresses.size();
+        for (String address : addresses) {
+            scheduler.add(address, startedAt);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> running = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                running.add(executor.submit(() -> {
+                    work(range);
+                    return null;
+                }));
+            }
+            for (Future<Void> worker : running) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            elapsedNanos = System.nanoTime() - startedAt;
+        }
+    }
+
+    public BatchScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public synchronized int getFailedCount() {
+        return failed;
+    }
+
+    public synchronized int getExportedCount() {
+        return exportedSmall + exportedLarge;
+    }
+
+    public synchronized String summary() {
+        double minutes = Math.max(elapsedNanos, 1) / (double) TimeUnit.MINUTES.toNanos(1);
+        LatencyHistogram smallWait = scheduler.getWaitTimes(BatchScheduler.Kind.SMALL);
+        LatencyHistogram largeWait = scheduler.getWaitTimes(BatchScheduler.Kind.LARGE);
+        return String.format(
+                "\n📊 Batch Summary:\n" +
+                "   • Addresses Exported: %d of %d (%d small, %d large)\n" +
+                "   • Failed: %d\n" +
+                "   • Addresses per Minute: %.1f\n" +
+                "   • Mean Time to Export: %.1f s\n" +
+                "   • Small Job Wait: mean %.1f s, p95 %.1f s\n" +
+                "   • Large Job Wait: mean %.1f s, p95 %.1f s\n" +
+                "   • Max Queue Depth: %d\n" +
+                "   • Output Directory: %s",
+                exportedSmall + exportedLarge,
+                total,
+                exportedSmall,
+                exportedLarge,
+                failed,
+                (exportedSmall + exportedLarge) / minutes,
+                timeToExport.getMeanMillis() / 1000,
+                smallWait.getMeanMillis() / 1000,
+                smallWait.getPercentileNanos(95) / 1e9,
+                largeWait.getMeanMillis() / 1000,
+                largeWait.getPercentileNanos(95) / 1e9,
+                scheduler.getMaxQueueDepth(),
+                outputDirectory
+        );
+    }
+
+    private void work(BlockRange range) throws InterruptedException {
+        while (true) {
+            BatchScheduler.Job job;
+            synchronized (scheduler) {
+                while ((job = scheduler.next(System.nanoTime())) == null) {
+                    if (scheduler.isDone()) {
+                        return;
+                    }
+                    scheduler.wait();
+                }
+            }
+            try {
+                execute(job, range);
+            } finally {
+                synchronized (scheduler) {
+                    scheduler.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void execute(BatchScheduler.Job job, BlockRange range) throws InterruptedException {
+        String address = job.getAddress();
+        if (job.getKind() == BatchScheduler.Kind.PROBE) {
+            int rows = -1;
+            try {
+                rows = client.probeTransactionCount(address, range, probeRows);
+            } catch (IOException e) {
+                // A transient error should not drop the address; an unknown size is treated as large
+                progress.warning("probe of " + address + " failed, queuing it as large: " + e.getMessage());
+                rows = probeRows;
+            } finally {
+                if (rows >= 0) {
+                    scheduler.probed(job, rows, System.nanoTime());
+                } else {
+                    scheduler.finished(job);
+                }
+            }
+            return;
+        }
+
+        try {
+            List<Transaction> transactions = service.getAllTransactions(address, range);
+            exporter.exportToCsv(transactions, outputDirectory.resolve(address + ".csv").toString());
+            int exported = exported(job);
+            progress.message(String.format("   [%d/%d] %s: %d transactions (%s, %d queued)",
+                    exported, total, address, transactions.size(),
+                    job.getKind().name().toLowerCase(), scheduler.getQueueDepth()));
+        } catch (IOException e) {
+            failed(address, e);
+        } finally {
+            scheduler.finished(job);
+        }
+    }
+
+    private synchronized int exported(BatchScheduler.Job job) {
+        timeToExport.recordSince(startedAt);
+        MetricsRegistry.getDefault().counter("batch_exports_total", "size",
+                job.getKind().name().toLowerCase()).increment();
+        if (job.getKind() == BatchScheduler.Kind.LARGE) {
+            exportedLarge++;
+        } else {
+            exportedSmall++;
+        }
+        return exportedSmall + exportedLarge;
+    }
+
+    private synchronized void failed(String address, IOException e) {
+        failed++;
+        progress.warning("batch export of " + address + " failed: " + e.getMessage());
+    }
+}
@@ -0,0 +1,195 @@
+package com.cointracker.batch;
+
+import com.cointracker.metrics.LatencyHistogram;
+import com.cointracker.metrics.MetricsRegistry;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.PriorityQueue;
+
+/**
+ * Orders the addresses of a multi-address run so small histories finish first.
+ *
+ * Every address starts with a probe, one page per transaction list that counts its
+ * transactions up to {@code probeRows}. An address with no full probe page is small, with
+ * the largest count as its size, and small jobs run shortest first. A full page marks a large
+ * job. While other work waits, at most {@code largeSlots} workers run large jobs; since
+ * the workers share one rate limiter, this caps large jobs at about
+ * {@code largeSlots / workers} of the API budget. A large job still gets a slot whenever
+ * fewer than {@code largeSlots} run, so it is never starved, and once nothing else is
+ * left large jobs may use every worker.
+ *
+ * Probes are interleaved with small jobs: a probe runs whenever fewer small jobs are
+ * waiting than there are workers, so the first exports do not wait for every probe.
+ * Times are {@link System#nanoTime()} readings supplied by the caller.
+ */
+public class BatchScheduler {
+
+    public enum Kind {
+        PROBE, SMALL, LARGE
+    }
+
+    private final int workers;
+    private final int largeSlots;
+    private final int probeRows;
+    private final Deque<Job> unprobed = new ArrayDeque<>();
+    private final PriorityQueue<Job> small = new PriorityQueue<>(
+            (a, b) -> a.estimatedRows != b.estimatedRows
+                    ? Integer.compare(a.estimatedRows, b.estimatedRows)
+                    : Long.compare(a.sequence, b.sequence));
+    private final Deque<Job> large = new ArrayDeque<>();
+    private final LatencyHistogram smallWait = new LatencyHistogram();
+    private final LatencyHistogram largeWait = new LatencyHistogram();
+    private final MetricsRegistry metrics = MetricsRegistry.getDefault();
+
+    private long sequence;
+    private int running;
+    private int runningLarge;
+    private int maxQueueDepth;
+
+    public BatchScheduler(int workers, int largeSlots, int probeRows) {
+        if (workers < 1 || largeSlots < 1 || probeRows < 1) {
+            throw new IllegalArgumentException("Workers, large slots and probe rows must be positive, got "
+                    + workers + ", " + largeSlots + " and " + probeRows);
+        }
+        this.workers = workers;
+        this.largeSlots = Math.min(largeSlots, workers);
+        this.probeRows = probeRows;
+    }
+
+    /**
+     * Queues an address for probing.
+     */
+    public synchronized void add(String address, long now) {
+        unprobed.add(new Job(address, Kind.PROBE, 0, sequence++, now));
+        maxQueueDepth = Math.max(maxQueueDepth, getQueueDepth());
+    }
+
+    /**
+     * Removes and returns the job to start now, or null if none may start. Every job
+     * must be handed back through {@link #probed} or {@link #finished}.
+     */
+    public synchronized Job next(long now) {
+        Job job = pick();
+        if (job == null) {
+            return null;
+        }
+        running++;
+        if (job.kind == Kind.LARGE) {
+            runningLarge++;
+            record(largeWait, "large", now - job.queuedAt);
+        } else if (job.kind == Kind.SMALL) {
+            record(smallWait, "small", now - job.queuedAt);
+        }
+        return job;
+    }
+
+    /**
+     * Completes a probe that counted {@code rows} transactions and queues the export job.
+     */
+    public synchronized void probed(Job probe, int rows, long now) {
+        if (probe.kind != Kind.PROBE) {
+            throw new IllegalArgumentException("Not a probe: " + probe.kind + " job for " + probe.address);
+        }
+        running--;
+        Job job = new Job(probe.address, rows >= probeRows ? Kind.LARGE : Kind.SMALL, rows, probe.sequence, now);
+        if (job.kind == Kind.LARGE) {
+            large.add(job);
+        } else {
+            small.add(job);
+        }
+        maxQueueDepth = Math.max(maxQueueDepth, getQueueDepth());
+    }
+
+    /**
+     * Completes an export job, or a probe that failed.
+     */
+    public synchronized void finished(Job job) {
+        running--;
+        if (job.kind == Kind.LARGE) {
+            runningLarge--;
+        }
+    }
+
+    /**
+     * True once nothing is queued or running.
+     */
+    public synchronized boolean isDone() {
+        return running == 0 && getQueueDepth() == 0;
+    }
+
+    public synchronized int getQueueDepth() {
+        return unprobed.size() + small.size() + large.size();
+    }
+
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * Time from being queued to starting, for small or large export jobs.
+     */
+    public LatencyHistogram getWaitTimes(Kind kind) {
+        return kind == Kind.LARGE ? largeWait : smallWait;
+    }
+
+    private Job pick() {
+        if (!large.isEmpty() && runningLarge < largeSlots) {
+            return large.poll();
+        }
+        if (!small.isEmpty() && (unprobed.isEmpty() || small.size() >= workers)) {
+            return small.poll();
+        }
+        if (!unprobed.isEmpty()) {
+            return unprobed.poll();
+        }
+        if (!small.isEmpty()) {
+            return small.poll();
+        }
+        // Only large jobs are left, so they may take every worker
+        return large.poll();
+    }
+
+    private void record(LatencyHistogram histogram, String size, long waitNanos) {
+        histogram.record(waitNanos);
+        metrics.histogram("batch_wait_seconds", "size", size).record(waitNanos);
+    }
+
+    /**
+     * One probe or export of an address.
+     */
+    public static final class Job {
+        private final String address;
+        private final Kind kind;
+        private final int estimatedRows;
+        private final long sequence;
+        private final long queuedAt;
+
+        private Job(String address, Kind kind, int estimatedRows, long sequence, long queuedAt) {
+            this.address = address;
+            this.kind = kind;
+            this.estimatedRows = estimatedRows;
+            this.sequence = sequence;
+            this.queuedAt = queuedAt;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Transactions counted by the probe; for large jobs, the probe limit.
+         */
+        public int getEstimatedRows() {
+            return estimatedRows;
+        }
+    }
+}
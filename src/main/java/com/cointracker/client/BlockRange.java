@@ -0,0 +1,56 @@
+package com.cointracker.client;
+
+import com.cointracker.model.Transaction;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Inclusive range of block numbers to fetch.
+ */
+public class BlockRange {
+
+    public static final long LATEST_BLOCK = 99999999L;
+    public static final BlockRange ALL = new BlockRange(0, LATEST_BLOCK);
+
+    private final long startBlock;
+    private final long endBlock;
+
+    public BlockRange(long startBlock, long endBlock) {
+        if (startBlock < 0 || endBlock < startBlock) {
+            throw new IllegalArgumentException("Invalid block range: " + startBlock + " to " + endBlock);
+        }
+        this.startBlock = startBlock;
+        this.endBlock = endBlock;
+    }
+
+    public long getStartBlock() {
+        return startBlock;
+    }
+
+    public long getEndBlock() {
+        return endBlock;
+    }
+
+    public boolean isAll() {
+        return startBlock == 0 && endBlock >= LATEST_BLOCK;
+    }
+
+    public boolean contains(long blockNumber) {
+        return blockNumber >= startBlock && blockNumber <= endBlock;
+    }
+
+    public List<Transaction> filter(List<Transaction> transactions) {
+        if (isAll()) {
+            return transactions;
+        }
+        return transactions.stream()
+                .filter(tx -> contains(tx.getBlockNumber()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return "blocks " + startBlock + " to " + endBlock;
+    }
+}
@@ -0,0 +1,134 @@
+package com.cointracker.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Persistent cache of "last block at or before timestamp" answers.
+ * Entries are kept sorted by timestamp in primitive arrays and looked up with
+ * binary search. Because block numbers grow with time, a timestamp that falls
+ * between two cached entries resolving to the same block needs no API call.
+ *
+ * The file is an append-only log of 16-byte (timestamp, block) records, so a new
+ * answer costs one small append instead of rewriting the whole cache. A later
+ * record for the same timestamp wins, and a torn record left by a crash is
+ * dropped on load.
+ *
+ * Answers for timestamps within {@link #FINALITY_MARGIN_SECONDS} of now are not kept:
+ * the block found may not be the last one of that second yet, or may still be reorged.
+ */
+public class BlockTimestampIndex {
+
+    static final long FINALITY_MARGIN_SECONDS = 30 * 60;
+
+    private static final int RECORD_BYTES = 16;
+
+    private final Path file;
+    private long[] timestamps = new long[0];
+    private long[] blocks = new long[0];
+
+    public BlockTimestampIndex(Path file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Returns the cached block for the timestamp, or -1 if it must be resolved.
+     */
+    public synchronized long lookup(long epochSecond) {
+        int index = Arrays.binarySearch(timestamps, epochSecond);
+        if (index >= 0) {
+            return blocks[index];
+        }
+        int insertion = -index - 1;
+        if (insertion > 0 && insertion < timestamps.length && blocks[insertion - 1] == blocks[insertion]) {
+            return blocks[insertion];
+        }
+        return -1;
+    }
+
+    public synchronized void put(long epochSecond, long blockNumber) {
+        if (epochSecond > Instant.now().getEpochSecond() - FINALITY_MARGIN_SECONDS) {
+            return;
+        }
+        if (store(epochSecond, blockNumber)) {
+            append(epochSecond, blockNumber);
+        }
+    }
+
+    public synchronized int size() {
+        return timestamps.length;
+    }
+
+    /**
+     * Records an answer in memory, returning false if it was already known.
+     */
+    private boolean store(long epochSecond, long blockNumber) {
+        int index = Arrays.binarySearch(timestamps, epochSecond);
+        if (index >= 0) {
+            if (blocks[index] == blockNumber) {
+                return false;
+            }
+            blocks[index] = blockNumber;
+        } else {
+            int insertion = -index - 1;
+            timestamps = insert(timestamps, insertion, epochSecond);
+            blocks = insert(blocks, insertion, blockNumber);
+        }
+        return true;
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            long records = Files.size(file) / RECORD_BYTES;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                for (long i = 0; i < records; i++) {
+                    store(in.readLong(), in.readLong());
+                }
+            }
+            if (Files.size(file) != records * RECORD_BYTES) {
+                // Drop the partial record of an interrupted append so later appends stay aligned
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(records * RECORD_BYTES);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: ignoring unreadable block index " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void append(long epochSecond, long blockNumber) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), RECORD_BYTES))) {
+                out.writeLong(epochSecond);
+                out.writeLong(blockNumber);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: could not persist block index " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long[] insert(long[] array, int index, long value) {
+        long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
@@ -1,8 +1,10 @@
 package com.cointracker.client;
 
 import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BlockchainApiClient {
     List<Transaction> fetchNormalTransactions(String address) throws IOException, InterruptedException;
@@ -10,4 +12,90 @@ public interface BlockchainApiClient {
     List<Transaction> fetchErc20Transactions(String address) throws IOException, InterruptedException;
     List<Transaction> fetchErc721Transactions(String address) throws IOException, InterruptedException;
     String getProviderName();
+
+    // Block-range variants. Providers that cannot query a range fetch everything and trim.
+
+    default List<Transaction> fetchNormalTransactions(String address, BlockRange range) throws IOException, InterruptedException {
+        return range.filter(fetchNormalTransactions(address));
+    }
+
+    default List<Transaction> fetchInternalTransactions(String address, BlockRange range) throws IOException, InterruptedException {
+        return range.filter(fetchInternalTransactions(address));
+    }
+
+    default List<Transaction> fetchErc20Transactions(String address, BlockRange range) throws IOException, InterruptedException {
+        return range.filter(fetchErc20Transactions(address));
+    }
+
+    default List<Transaction> fetchErc721Transactions(String address, BlockRange range) throws IOException, InterruptedException {
+        return range.filter(fetchErc721Transactions(address));
+    }
+
+    /**
+     * Fetches one transaction type and hands each page to the consumer as soon as it is mapped.
+     * Providers without paging deliver everything as a single page.
+     */
+    default void streamTransactions(TransactionType type, String address, BlockRange range,
+                                    Consumer<List<Transaction>> pageConsumer) throws IOException, InterruptedException {
+        switch (type) {
+            case ETH_TRANSFER:
+                pageConsumer.accept(fetchNormalTransactions(address, range));
+                break;
+            case ETH_INTERNAL:
+                pageConsumer.accept(fetchInternalTransactions(address, range));
+                break;
+            case ERC20:
+                pageConsumer.accept(fetchErc20Transactions(address, range));
+                break;
+            default:
+                pageConsumer.accept(fetchErc721Transactions(address, range));
+                break;
+        }
+    }
+
+    /**
+     * Counts the address's normal, ERC-20, internal and ERC-721 transactions in the range and returns
+     * the largest count, stopping at {@code limit}, as a cheap estimate of how large its
+     * history is. Providers without paging fetch them all.
+     */
+    default int probeTransactionCount(String address, BlockRange range, int limit) throws IOException, InterruptedException {
+        int count = fetchNormalTransactions(address, range).size();
+        if (count < limit) {
+            count = Math.max(count, fetchErc20Transactions(address, range).size());
+        }
+        if (count < limit) {
+            count = Math.max(count, fetchInternalTransactions(address, range).size());
+        }
+        if (count < limit) {
+            count = Math.max(count, fetchErc721Transactions(address, range).size());
+        }
+        return Math.min(limit, count);
+    }
+
+    /**
+     * Fetches every ERC-20 or ERC-721 transfer of one token contract, whatever the
+     * holders, handing each page to the consumer in ascending block order.
+     *
+     * @throws UnsupportedOperationException if the provider cannot query by contract
+     */
+    default void streamContractTransfers(TransactionType type, String contract, BlockRange range,
+                                         Consumer<List<Transaction>> pageConsumer) throws IOException, InterruptedException {
+        throw new UnsupportedOperationException(getProviderName() + " cannot list transfers by token contract");
+    }
+
+    /**
+     * Translates an inclusive UTC time range into the blocks mined within it.
+     * Providers without block lookups return {@link BlockRange#ALL}.
+     */
+    default BlockRange resolveBlockRange(long fromEpochSecond, long toEpochSecond) throws IOException, InterruptedException {
+        return BlockRange.ALL;
+    }
+
+    /**
+     * Returns the number of the newest block. Providers without block lookups return
+     * {@link BlockRange#LATEST_BLOCK}.
+     */
+    default long getLatestBlockNumber() throws IOException, InterruptedException {
+        return BlockRange.LATEST_BLOCK;
+    }
 }
@@ -0,0 +1,190 @@
+package com.cointracker.client;
+
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Decorator that lets concurrent callers share one in-flight fetch of the same
+ * transaction type, address and block range.
+ *
+ * The first caller runs the fetch against the delegate. Callers that arrive while it
+ * is running first receive the pages fetched so far, then each further page as it
+ * arrives, and finish together with the first caller. Nothing is kept once the fetch
+ * completes; caching finished results is left to the caller.
+ */
+public class CoalescingApiClient implements BlockchainApiClient {
+
+    private final BlockchainApiClient delegate;
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CoalescingApiClient(BlockchainApiClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Transaction> fetchNormalTransactions(String address) throws IOException, InterruptedException {
+        return fetchNormalTransactions(address, BlockRange.ALL);
+    }
+
+    @Override
+    public List<Transaction> fetchNormalTransactions(String address, BlockRange range) throws IOException, InterruptedException {
+        return collect(TransactionType.ETH_TRANSFER, address, range);
+    }
+
+    @Override
+    public List<Transaction> fetchInternalTransactions(String address) throws IOException, InterruptedException {
+        return fetchInternalTransactions(address, BlockRange.ALL);
+    }
+
+    @Override
+    public List<Transaction> fetchInternalTransactions(String address, BlockRange range) throws IOException, InterruptedException {
+        return collect(TransactionType.ETH_INTERNAL, address, range);
+    }
+
+    @Override
+    public List<Transaction> fetchErc20Transactions(String address) throws IOException, InterruptedException {
+        return fetchErc20Transactions(address, BlockRange.ALL);
+    }
+
+    @Override
+    public List<Transaction> fetchErc20Transactions(String address, BlockRange range) throws IOException, InterruptedException {
+        return collect(TransactionType.ERC20, address, range);
+    }
+
+    @Override
+    public List<Transaction> fetchErc721Transactions(String address) throws IOException, InterruptedException {
+        return fetchErc721Transactions(address, BlockRange.ALL);
+    }
+
+    @Override
+    public List<Transaction> fetchErc721Transactions(String address, BlockRange range) throws IOException, InterruptedException {
+        return collect(TransactionType.ERC721, address, range);
+    }
+
+    @Override
+    public void streamTransactions(TransactionType type, String address, BlockRange range,
+                                   Consumer<List<Transaction>> pageConsumer) throws IOException, InterruptedException {
+        String key = type + "|" + address.toLowerCase() + "|" + range.getStartBlock() + "|" + range.getEndBlock();
+        Flight flight = new Flight();
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            existing.follow(pageConsumer);
+            return;
+        }
+
+        fetches.increment();
+        try {
+            delegate.streamTransactions(type, address, range, page -> {
+                List<Transaction> shared = Collections.unmodifiableList(page);
+                flight.publish(shared);
+                pageConsumer.accept(shared);
+            });
+            flight.complete(null);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            flight.complete(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    @Override
+    public int probeTransactionCount(String address, BlockRange range, int limit) throws IOException, InterruptedException {
+        return delegate.probeTransactionCount(address, range, limit);
+    }
+
+    @Override
+    public void streamContractTransfers(TransactionType type, String contract, BlockRange range,
+                                        Consumer<List<Transaction>> pageConsumer) throws IOException, InterruptedException {
+        delegate.streamContractTransfers(type, contract, range, pageConsumer);
+    }
+
+    @Override
+    public BlockRange resolveBlockRange(long fromEpochSecond, long toEpochSecond) throws IOException, InterruptedException {
+        return delegate.resolveBlockRange(fromEpochSecond, toEpochSecond);
+    }
+
+    @Override
+    public long getLatestBlockNumber() throws IOException, InterruptedException {
+        return delegate.getLatestBlockNumber();
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    /**
+     * Number of fetches actually sent to the delegate.
+     */
+    public long getFetchCount() {
+        return fetches.sum();
+    }
+
+    /**
+     * Number of calls that joined a fetch already in flight.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private List<Transaction> collect(TransactionType type, String address, BlockRange range)
+            throws IOException, InterruptedException {
+        List<Transaction> allResults = new ArrayList<>();
+        streamTransactions(type, address, range, allResults::addAll);
+        return allResults;
+    }
+
+    /**
+     * Pages of one running fetch, replayed to every caller that joins it.
+     */
+    private static final class Flight {
+        private final List<List<Transaction>> pages = new ArrayList<>();
+        private boolean done;
+        private Exception failure;
+
+        synchronized void publish(List<Transaction> page) {
+            pages.add(page);
+            notifyAll();
+        }
+
+        synchronized void complete(Exception failure) {
+            this.done = true;
+            this.failure = failure;
+            notifyAll();
+        }
+
+        void follow(Consumer<List<Transaction>> pageConsumer) throws IOException, InterruptedException {
+            int delivered = 0;
+            while (true) {
+                List<Transaction> page;
+                synchronized (this) {
+                    while (delivered == pages.size() && !done) {
+                        wait();
+                    }
+                    if (delivered == pages.size()) {
+                        if (failure != null) {
+                            throw new IOException("Shared fetch failed: " + failure.getMessage(), failure);
+                        }
+                        return;
+                    }
+                    page = pages.get(delivered++);
+                }
+                // Deliver outside the lock so a slow follower never blocks the fetching thread
+                pageConsumer.accept(page);
+            }
+        }
+    }
+}
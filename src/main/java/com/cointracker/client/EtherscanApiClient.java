@@ -1,20 +1,38 @@
 package com.cointracker.client;
 
 import com.cointracker.config.ApiConfig;
+import com.cointracker.config.ConfigSnapshot;
 import com.cointracker.dto.ApiResponse;
+import com.cointracker.dto.RawTransactionPage;
 import com.cointracker.dto.TransactionDto;
+import com.cointracker.jfr.ApiCallEvent;
+import com.cointracker.jfr.PageMappingEvent;
+import com.cointracker.metrics.Counter;
+import com.cointracker.metrics.LatencyHistogram;
+import com.cointracker.metrics.MetricsRegistry;
 import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.progress.ProgressReporter;
+import com.cointracker.service.RawPageMapper;
+import com.cointracker.service.TransactionFilter;
 import com.cointracker.service.TransactionMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -24,9 +42,35 @@ public class EtherscanApiClient implements BlockchainApiClient {
     private final ObjectMapper objectMapper;
     private final TransactionMapper mapper;
     private final ApiConfig config;
+    private final TransactionFilter filter;
+    private final BlockTimestampIndex blockIndex;
+    private final RateLimiter rateLimiter;
+    private final ProgressReporter progress = ProgressReporter.getDefault();
+    private final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private final Counter requestCount = metrics.counter("etherscan_requests_total");
+    private final Counter retryCount = metrics.counter("etherscan_retries_total");
+    private final Counter responseBytes = metrics.counter("etherscan_response_bytes_total");
+    private final Counter recordsDecoded = metrics.counter("records_decoded_total");
+    private final Counter recordsMapped = metrics.counter("records_mapped_total");
+    private final LatencyHistogram rateLimiterWait = metrics.histogram("rate_limiter_wait_seconds");
+    // Labelled histograms resolved once per type or endpoint instead of once per page
+    private final LatencyHistogram[] mappingSeconds = new LatencyHistogram[TransactionType.values().length];
+    private final Map<String, LatencyHistogram> decodeSeconds = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> requestSeconds = new ConcurrentHashMap<>();
     
     public EtherscanApiClient(ApiConfig config) {
+        this(config, TransactionFilter.none());
+    }
+    
+    public EtherscanApiClient(ApiConfig config, TransactionFilter filter) {
         this.config = config;
+        this.filter = filter;
+        this.rateLimiter = new RateLimiter(config.getRateLimitDelayBetweenCalls());
+        for (TransactionType type : TransactionType.values()) {
+            mappingSeconds[type.ordinal()] = metrics.histogram("mapping_seconds", "type", type.name());
+        }
+        this.blockIndex = new BlockTimestampIndex(Paths.get(config.getCacheDirectory(),
+                "block-index-" + config.getEtherscanChainId() + ".log"));
         this.mapper = new TransactionMapper();
         this.objectMapper = new ObjectMapper();
         this.httpClient = HttpClient.newBuilder()
@@ -35,28 +79,148 @@ public class EtherscanApiClient implements BlockchainApiClient {
                 .build();
     }
     
+    /**
+     * Applies reloaded settings that the client caches, currently the call spacing.
+     * The owner of the client registers this as a reload listener once.
+     */
+    public void applyConfig(ConfigSnapshot snapshot) {
+        rateLimiter.setIntervalMillis(snapshot.getRateLimitDelayBetweenCalls());
+    }
+    
     @Override
     public List<Transaction> fetchNormalTransactions(String address) throws IOException, InterruptedException {
-        String[] endpoint = config.getEtherscanNormalTxEndpoint();
-        return fetchAllPages(endpoint[0], endpoint[1], address, mapper::mapNormalTransaction);
+        return fetchNormalTransactions(address, BlockRange.ALL);
+    }
+    
+    @Override
+    public List<Transaction> fetchNormalTransactions(String address, BlockRange range) throws IOException, InterruptedException {
+        List<Transaction> allResults = new ArrayList<>();
+        streamTransactions(TransactionType.ETH_TRANSFER, address, range, allResults::addAll);
+        return allResults;
     }
     
     @Override
     public List<Transaction> fetchInternalTransactions(String address) throws IOException, InterruptedException {
-        String[] endpoint = config.getEtherscanInternalTxEndpoint();
-        return fetchAllPages(endpoint[0], endpoint[1], address, mapper::mapInternalTransaction);
+        return fetchInternalTransactions(address, BlockRange.ALL);
+    }
+    
+    @Override
+    public List<Transaction> fetchInternalTransactions(String address, BlockRange range) throws IOException, InterruptedException {
+        List<Transaction> allResults = new ArrayList<>();
+        streamTransactions(TransactionType.ETH_INTERNAL, address, range, allResults::addAll);
+        return allResults;
     }
     
     @Override
     public List<Transaction> fetchErc20Transactions(String address) throws IOException, InterruptedException {
-        String[] endpoint = config.getEtherscanErc20TxEndpoint();
-        return fetchAllPages(endpoint[0], endpoint[1], address, mapper::mapErc20Transaction);
+        return fetchErc20Transactions(address, BlockRange.ALL);
+    }
+    
+    @Override
+    public List<Transaction> fetchErc20Transactions(String address, BlockRange range) throws IOException, InterruptedException {
+        List<Transaction> allResults = new ArrayList<>();
+        streamTransactions(TransactionType.ERC20, address, range, allResults::addAll);
+        return allResults;
     }
     
     @Override
     public List<Transaction> fetchErc721Transactions(String address) throws IOException, InterruptedException {
-        String[] endpoint = config.getEtherscanErc721TxEndpoint();
-        return fetchAllPages(endpoint[0], endpoint[1], address, mapper::mapErc721Transaction);
+        return fetchErc721Transactions(address, BlockRange.ALL);
+    }
+    
+    @Override
+    public List<Transaction> fetchErc721Transactions(String address, BlockRange range) throws IOException, InterruptedException {
+        List<Transaction> allResults = new ArrayList<>();
+        streamTransactions(TransactionType.ERC721, address, range, allResults::addAll);
+        return allResults;
+    }
+    
+    @Override
+    public void streamTransactions(TransactionType type, String address, BlockRange range,
+                                   Consumer<List<Transaction>> pageConsumer) throws IOException, InterruptedException {
+        switch (type) {
+            case ETH_TRANSFER: {
+                String[] endpoint = config.getEtherscanNormalTxEndpoint();
+                fetchPages(endpoint[0], endpoint[1], "address", address, range, type, mapper::mapNormalTransaction, pageConsumer);
+                break;
+            }
+            case ETH_INTERNAL: {
+                String[] endpoint = config.getEtherscanInternalTxEndpoint();
+                fetchPages(endpoint[0], endpoint[1], "address", address, range, type, mapper::mapInternalTransaction, pageConsumer);
+                break;
+            }
+            case ERC20: {
+                String[] endpoint = config.getEtherscanErc20TxEndpoint();
+                fetchPages(endpoint[0], endpoint[1], "address", address, range, type, mapper::mapErc20Transaction, pageConsumer);
+                break;
+            }
+            default: {
+                String[] endpoint = config.getEtherscanErc721TxEndpoint();
+                fetchPages(endpoint[0], endpoint[1], "address", address, range, type, mapper::mapErc721Transaction, pageConsumer);
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Requests a single page of at most {@code limit} rows from each of the normal, ERC-20,
+     * internal and ERC-721 lists and returns the largest count, stopping once one page is full.
+     * Pools, token hot wallets and NFT marketplaces have few normal transactions but huge
+     * token or internal histories, so probing {@code txlist} alone would class them as small.
+     */
+    @Override
+    public int probeTransactionCount(String address, BlockRange range, int limit) throws IOException, InterruptedException {
+        int count = probePage(config.getEtherscanNormalTxEndpoint(), address, range, limit,
+                TransactionType.ETH_TRANSFER, mapper::mapNormalTransaction);
+        if (count < limit) {
+            count = Math.max(count, probePage(config.getEtherscanErc20TxEndpoint(), address, range, limit,
+                    TransactionType.ERC20, mapper::mapErc20Transaction));
+        }
+        if (count < limit) {
+            count = Math.max(count, probePage(config.getEtherscanInternalTxEndpoint(), address, range, limit,
+                    TransactionType.ETH_INTERNAL, mapper::mapInternalTransaction));
+        }
+        if (count < limit) {
+            count = Math.max(count, probePage(config.getEtherscanErc721TxEndpoint(), address, range, limit,
+                    TransactionType.ERC721, mapper::mapErc721Transaction));
+        }
+        return count;
+    }
+    
+    private int probePage(String[] endpoint, String address, BlockRange range, int limit, TransactionType type,
+                          Function<TransactionDto, Transaction> mapper) throws IOException, InterruptedException {
+        String url = buildUrlWithBlockRange(endpoint[0], endpoint[1], "address", address,
+                range.getStartBlock(), range.getEndBlock()) + "&page=1&offset=" + limit;
+        FetchedPage page = makeApiCall(url, endpoint[1], address, range.getStartBlock(), range.getEndBlock(),
+                type, mapper);
+        // An address without transactions is answered with status 0 and an empty list
+        return page.isSuccess() ? Math.min(limit, page.size()) : 0;
+    }
+    
+    /**
+     * Uses the {@code contractaddress} parameter of the token endpoints without an
+     * {@code address}, which lists the transfers of every holder. The block-range paging
+     * is the same as for an address, so a range can be fetched in several pieces at once.
+     */
+    @Override
+    public void streamContractTransfers(TransactionType type, String contract, BlockRange range,
+                                        Consumer<List<Transaction>> pageConsumer) throws IOException, InterruptedException {
+        switch (type) {
+            case ERC20: {
+                String[] endpoint = config.getEtherscanErc20TxEndpoint();
+                fetchPages(endpoint[0], endpoint[1], "contractaddress", contract, range, type,
+                        mapper::mapErc20Transaction, pageConsumer);
+                break;
+            }
+            case ERC721: {
+                String[] endpoint = config.getEtherscanErc721TxEndpoint();
+                fetchPages(endpoint[0], endpoint[1], "contractaddress", contract, range, type,
+                        mapper::mapErc721Transaction, pageConsumer);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Only token transfers can be listed by contract, not " + type);
+        }
     }
     
     @Override
@@ -64,75 +228,344 @@ public class EtherscanApiClient implements BlockchainApiClient {
         return "Etherscan";
     }
     
-    private List<Transaction> fetchAllPages(String module, String action, String address, 
-                                           Function<TransactionDto, Transaction> mapper) 
+    @Override
+    public BlockRange resolveBlockRange(long fromEpochSecond, long toEpochSecond) throws IOException, InterruptedException {
+        long now = Instant.now().getEpochSecond();
+        if (fromEpochSecond != Long.MIN_VALUE && fromEpochSecond > now) {
+            throw new IllegalArgumentException("Start time " + Instant.ofEpochSecond(fromEpochSecond) + " is in the future");
+        }
+        // The first block at or after "from" is the block after the last one before it
+        long startBlock = fromEpochSecond == Long.MIN_VALUE ? 0 : getBlockNumberBefore(fromEpochSecond - 1) + 1;
+        // No block exists yet for "now" or later, so such a range runs to the chain head
+        long endBlock = toEpochSecond >= now ? BlockRange.LATEST_BLOCK : getBlockNumberBefore(toEpochSecond);
+        return new BlockRange(startBlock, Math.max(startBlock, endBlock));
+    }
+    
+    /**
+     * Returns the last block mined at or before the timestamp, or -1 if it precedes genesis.
+     *
+     * @throws IOException for any other error answer, such as an invalid key or a
+     *                     timestamp in the future
+     */
+    public long getBlockNumberBefore(long epochSecond) throws IOException, InterruptedException {
+        if (epochSecond < 0) {
+            return -1;
+        }
+        long cached = blockIndex.lookup(epochSecond);
+        if (cached >= 0) {
+            return cached;
+        }
+        
+        String url = config.getEtherscanBaseUrl() +
+                "?chainid=" + config.getEtherscanChainId() +
+                "&module=block" +
+                "&action=getblocknobytime" +
+                "&timestamp=" + epochSecond +
+                "&closest=before" +
+                "&apikey=" + config.getEtherscanApiKey();
+        ApiResponse<String> response = objectMapper.readValue(sendRequest(url, "getblocknobytime"),
+                new TypeReference<ApiResponse<String>>() {});
+        
+        if (!response.isSuccess()) {
+            String result = String.valueOf(response.getResult());
+            // Etherscan has no block before genesis and answers with this error instead
+            if (result.contains("No closest block found") && epochSecond < Instant.now().getEpochSecond()) {
+                return -1;
+            }
+            throw new IOException("Block lookup for timestamp " + epochSecond + " failed: "
+                    + response.getMessage() + " - " + result);
+        }
+        long blockNumber = Long.parseLong(response.getResult());
+        blockIndex.put(epochSecond, blockNumber);
+        return blockNumber;
+    }
+    
+    @Override
+    public long getLatestBlockNumber() throws IOException, InterruptedException {
+        String url = config.getEtherscanBaseUrl() +
+                "?chainid=" + config.getEtherscanChainId() +
+                "&module=proxy" +
+                "&action=eth_blockNumber" +
+                "&apikey=" + config.getEtherscanApiKey();
+        JsonNode result = objectMapper.readTree(sendRequest(url, "eth_blockNumber")).path("result");
+        if (!result.isTextual() || !result.asText().startsWith("0x")) {
+            throw new IOException("Chain head lookup failed: " + result);
+        }
+        return Long.parseLong(result.asText().substring(2), 16);
+    }
+    
+    private void fetchPages(String module, String action, String addressParameter, String address, BlockRange range,
+                            TransactionType type, Function<TransactionDto, Transaction> mapper,
+                            Consumer<List<Transaction>> pageConsumer) 
             throws IOException, InterruptedException {
-        List<Transaction> allResults = new ArrayList<>();
-        long startBlock = 0;
-        long currentBlock = 99999999;
+        long startBlock = range.getStartBlock();
+        long currentBlock = range.getEndBlock();
         int batchSize = config.getEtherscanBatchSize();
         
         while (true) {
-            String url = buildUrlWithBlockRange(module, action, address, startBlock, currentBlock);
-            ApiResponse<List<TransactionDto>> response = makeApiCall(url);
+            String url = buildUrlWithBlockRange(module, action, addressParameter, address, startBlock, currentBlock);
+            FetchedPage page = makeApiCall(url, action, address, startBlock, currentBlock, type, mapper);
             
-            if (!response.isSuccess()) {
-                System.err.println("Warning: " + response.getMessage());
+            if (!page.isSuccess()) {
+                progress.warning(page.getMessage());
                 break;
             }
             
-            List<TransactionDto> dtoList = response.getResult();
-            if (dtoList == null || dtoList.isEmpty()) {
+            if (page.size() == 0) {
                 break;
             }
             
-            List<Transaction> transactions = dtoList.stream()
-                    .map(mapper)
-                    .collect(Collectors.toList());
-            allResults.addAll(transactions);
+            boolean lastPage = page.size() < batchSize;
+            long nextStartBlock = 0;
+            int end = page.size();
+            if (!lastPage) {
+                // A full page may end part-way through a block. Hold back that block's rows and
+                // start the next page at it, so no row of the boundary block is lost or repeated.
+                long lastBlock = page.blockNumber(end - 1);
+                while (end > 0 && page.blockNumber(end - 1) == lastBlock) {
+                    end--;
+                }
+                if (end == 0) {
+                    // One block holds more rows than a page; nothing more can be fetched for it
+                    progress.warning("block " + lastBlock + " has more than " + batchSize
+                            + " rows for " + address + ", some may be missing");
+                    end = page.size();
+                    nextStartBlock = lastBlock + 1;
+                } else {
+                    nextStartBlock = lastBlock;
+                }
+            }
+            
+            PageMappingEvent mappingEvent = new PageMappingEvent();
+            mappingEvent.begin();
+            long mappingStart = System.nanoTime();
+            List<Transaction> transactions = page.map(end);
+            mappingSeconds[type.ordinal()].recordSince(mappingStart);
+            recordsMapped.add(transactions.size());
+            mappingEvent.end();
+            if (mappingEvent.shouldCommit()) {
+                mappingEvent.address = address;
+                mappingEvent.type = type.name();
+                mappingEvent.startBlock = startBlock;
+                mappingEvent.endBlock = currentBlock;
+                mappingEvent.rowsIn = end;
+                mappingEvent.records = transactions.size();
+                mappingEvent.commit();
+            }
+            pageConsumer.accept(transactions);
             
-            System.out.println("      Fetched " + transactions.size() + " records (blocks " + startBlock + " to " + currentBlock + ")");
+            progress.pageFetched(address, type, transactions.size(), startBlock, currentBlock);
             
-            if (dtoList.size() < batchSize) {
+            if (lastPage) {
                 break;
             }
             
-            String lastBlockNumber = dtoList.get(dtoList.size() - 1).getBlockNumber();
-            startBlock = Long.parseLong(lastBlockNumber) + 1;
-            
-            Thread.sleep(config.getRateLimitDelayBetweenCalls());
+            startBlock = nextStartBlock;
+            if (startBlock > currentBlock) {
+                break;
+            }
         }
+    }
+    
+    /**
+     * A decoded response: rows can be inspected by block number before being mapped.
+     */
+    private interface FetchedPage {
+        boolean isSuccess();
         
-        return allResults;
+        String getMessage();
+        
+        int size();
+        
+        long blockNumber(int row);
+        
+        /**
+         * Maps the rows before {@code end} that pass the filter.
+         */
+        List<Transaction> map(int end);
     }
     
-    private String buildUrlWithBlockRange(String module, String action, String address, long startBlock, long endBlock) {
+    private String buildUrlWithBlockRange(String module, String action, String addressParameter, String address,
+                                          long startBlock, long endBlock) {
         return config.getEtherscanBaseUrl() + 
                 "?chainid=" + config.getEtherscanChainId() +
                 "&module=" + module +
                 "&action=" + action +
-                "&address=" + address +
+                "&" + addressParameter + "=" + address +
                 "&startblock=" + startBlock +
                 "&endblock=" + endBlock +
                 "&sort=asc" +
                 "&apikey=" + config.getEtherscanApiKey();
     }
     
-    private ApiResponse<List<TransactionDto>> makeApiCall(String url) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .timeout(Duration.ofSeconds(config.getHttpRequestTimeout()))
-                .GET()
-                .build();
-        
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        
-        if (response.statusCode() != 200) {
-            throw new IOException("HTTP failed: " + response.statusCode());
+    /**
+     * Fetches and decodes one page, as lazy views over the raw bytes or, if
+     * {@code api.etherscan.lazy_views} is off, as DTOs mapped eagerly.
+     */
+    private FetchedPage makeApiCall(String url, String endpoint, String address, long startBlock, long endBlock,
+                                    TransactionType type, Function<TransactionDto, Transaction> mapper)
+            throws IOException, InterruptedException {
+        ApiCallEvent event = new ApiCallEvent();
+        event.begin();
+        byte[] body = sendRequest(url, endpoint);
+        long decodeStart = System.nanoTime();
+        FetchedPage page = config.isEtherscanLazyViews() ? rawPage(body, type) : dtoPage(body, type, mapper);
+        decodeSeconds.computeIfAbsent(endpoint, name -> metrics.histogram("decode_seconds", "endpoint", name))
+                .recordSince(decodeStart);
+        recordsDecoded.add(page.size());
+        event.end();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.endpoint = endpoint;
+            event.startBlock = startBlock;
+            event.endBlock = endBlock;
+            event.records = page.size();
+            event.bytes = body.length;
+            event.commit();
         }
-        
+        return page;
+    }
+    
+    private FetchedPage rawPage(byte[] body, TransactionType type) throws IOException {
+        RawTransactionPage raw = RawTransactionPage.parse(body);
+        if (raw.getResultText() != null) {
+            // Errors such as an invalid API key carry a text result instead of a list
+            throw new IOException("Etherscan error: " + raw.getMessage() + " - " + raw.getResultText());
+        }
+        RawPageMapper views = new RawPageMapper(raw, type);
+        return new FetchedPage() {
+            @Override
+            public boolean isSuccess() {
+                return raw.isSuccess();
+            }
+            
+            @Override
+            public String getMessage() {
+                return raw.getMessage();
+            }
+            
+            @Override
+            public int size() {
+                return raw.size();
+            }
+            
+            @Override
+            public long blockNumber(int row) {
+                return raw.getLong(row, RawTransactionPage.Field.BLOCK_NUMBER, 0);
+            }
+            
+            @Override
+            public List<Transaction> map(int end) {
+                return views.map(end, filter);
+            }
+        };
+    }
+    
+    private FetchedPage dtoPage(byte[] body, TransactionType type, Function<TransactionDto, Transaction> mapper)
+            throws IOException {
         TypeReference<ApiResponse<List<TransactionDto>>> typeRef = 
                 new TypeReference<ApiResponse<List<TransactionDto>>>() {};
-        return objectMapper.readValue(response.body(), typeRef);
+        ApiResponse<List<TransactionDto>> response;
+        try {
+            response = objectMapper.readValue(body, typeRef);
+        } catch (MismatchedInputException e) {
+            // Errors such as an invalid API key carry a text result instead of a list
+            ApiResponse<String> error = objectMapper.readValue(body, new TypeReference<ApiResponse<String>>() {});
+            throw new IOException("Etherscan error: " + error.getMessage() + " - " + error.getResult(), e);
+        }
+        List<TransactionDto> rows = response.getResult() != null ? response.getResult() : List.of();
+        return new FetchedPage() {
+            @Override
+            public boolean isSuccess() {
+                return response.isSuccess();
+            }
+            
+            @Override
+            public String getMessage() {
+                return response.getMessage();
+            }
+            
+            @Override
+            public int size() {
+                return rows.size();
+            }
+            
+            @Override
+            public long blockNumber(int row) {
+                return Long.parseLong(rows.get(row).getBlockNumber());
+            }
+            
+            @Override
+            public List<Transaction> map(int end) {
+                return rows.subList(0, end).stream()
+                        .filter(dto -> filter.accept(dto, type))
+                        .map(mapper)
+                        .collect(Collectors.toList());
+            }
+        };
+    }
+    
+    /**
+     * Sends a rate-limited GET and returns the body, retrying rate-limit answers and
+     * server errors with exponential backoff. Other error answers are returned as is.
+     * Latency is recorded per attempt under the endpoint (action) name.
+     */
+    private byte[] sendRequest(String url, String endpoint) throws IOException, InterruptedException {
+        int maxAttempts = config.getRetryMaxAttempts();
+        long backoffMillis = config.getRetryInitialBackoffMillis();
+        LatencyHistogram latency = requestSeconds.computeIfAbsent(endpoint,
+                name -> metrics.histogram("etherscan_request_seconds", "endpoint", name));
+        
+        for (int attempt = 1; ; attempt++) {
+            rateLimiterWait.record(rateLimiter.acquire());
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .timeout(Duration.ofSeconds(config.getHttpRequestTimeout()))
+                    .GET()
+                    .build();
+            
+            long requestStart = System.nanoTime();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            latency.recordSince(requestStart);
+            requestCount.increment();
+            responseBytes.add(response.body().length);
+            
+            String failure;
+            if (response.statusCode() == 429 || response.statusCode() >= 500) {
+                failure = "HTTP failed: " + response.statusCode();
+            } else if (response.statusCode() != 200) {
+                throw new IOException("HTTP failed: " + response.statusCode());
+            } else {
+                failure = rateLimitMessage(response.body());
+                if (failure == null) {
+                    return response.body();
+                }
+            }
+            
+            if (attempt >= maxAttempts) {
+                throw new IOException(failure + " (gave up after " + attempt + " attempts)");
+            }
+            retryCount.increment();
+            progress.warning(failure + ", retrying in " + backoffMillis + "ms");
+            Thread.sleep(backoffMillis);
+            backoffMillis *= 2;
+        }
+    }
+    
+    /**
+     * Returns the text of a {@code {"status":"0","result":"Max rate limit reached"}} answer,
+     * or null for any other body. Only short bodies are inspected, as error answers are short.
+     */
+    private String rateLimitMessage(byte[] body) throws IOException {
+        if (body.length > 1024) {
+            return null;
+        }
+        JsonNode root = objectMapper.readTree(body);
+        JsonNode result = root.path("result");
+        if (!"0".equals(root.path("status").asText()) || !result.isTextual()
+                || !result.asText().toLowerCase().contains("rate limit")) {
+            return null;
+        }
+        return result.asText();
     }
 }
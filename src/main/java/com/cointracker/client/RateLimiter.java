@@ -0,0 +1,44 @@
+package com.cointracker.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces API calls at least a fixed interval apart across all threads sharing it.
+ * Callers reserve the next free slot under a short lock and sleep outside it.
+ */
+public class RateLimiter {
+
+    private long intervalNanos;
+    private long nextFreeNanos;
+
+    public RateLimiter(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMillis));
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Changes the spacing for slots reserved from now on.
+     */
+    public synchronized void setIntervalMillis(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMillis));
+    }
+
+    /**
+     * Blocks until the caller may make its next call.
+     *
+     * @return the time spent waiting, in nanoseconds
+     */
+    public long acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return waitNanos;
+    }
+}
@@ -2,32 +2,165 @@ package com.cointracker.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
-
+/**
+ * Application configuration, held as an immutable {@link ConfigSnapshot}.
+ *
+ * Values are layered, later sources winning: application.properties (with
+ * {@code ${ENV:default}} placeholders), an optional override file, {@code -Dkey=value}
+ * JVM options and finally explicit overrides such as command line flags. Only keys
+ * defined in application.properties may be overridden. {@link #reload()} rebuilds the
+ * snapshot and swaps it in atomically; a snapshot that fails validation is rejected and
+ * the previous one stays in effect.
+ */
 public class ApiConfig {
     
-    private final Properties properties;
+    private final Path overrideFile;
+    private final Properties overrides;
+    private final List<Consumer<ConfigSnapshot>> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile ConfigSnapshot snapshot;
     
     public ApiConfig() {
-        this.properties = new Properties();
-        loadProperties();
+        this(null, new Properties());
+    }
+    
+    /**
+     * Loads application.properties and then applies the given overrides on top.
+     */
+    public ApiConfig(Properties overrides) {
+        this(null, overrides);
+    }
+    
+    /**
+     * @param overrideFile properties file applied over application.properties, or null
+     * @param overrides values applied over everything else
+     */
+    public ApiConfig(Path overrideFile, Properties overrides) {
+        this.overrideFile = overrideFile;
+        this.overrides = (Properties) overrides.clone();
+        try {
+            this.snapshot = new ConfigSnapshot(loadProperties());
+        } catch (IOException e) {
+            throw new RuntimeException("❌ Error loading configuration: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * The current values. Code that reads several related values should read them from one snapshot.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Called with the new snapshot after each successful {@link #reload()}.
+     */
+    public void addReloadListener(Consumer<ConfigSnapshot> listener) {
+        reloadListeners.add(listener);
+    }
+    
+    /**
+     * Re-reads every source and swaps in the new snapshot.
+     *
+     * @throws IllegalArgumentException if the new values are invalid; the current snapshot is kept
+     */
+    public synchronized ConfigSnapshot reload() throws IOException {
+        ConfigSnapshot reloaded = new ConfigSnapshot(loadProperties());
+        snapshot = reloaded;
+        for (Consumer<ConfigSnapshot> listener : reloadListeners) {
+            listener.accept(reloaded);
+        }
+        return reloaded;
+    }
+    
+    /**
+     * Reloads whenever the override file changes, on a daemon thread, until the JVM exits.
+     */
+    public void watchOverrideFile() throws IOException {
+        if (overrideFile == null) {
+            throw new IllegalStateException("No override file to watch");
+        }
+        Path directory = overrideFile.toAbsolutePath().getParent();
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watcher.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= overrideFile.getFileName().equals(event.context());
+                    }
+                    key.reset();
+                    if (changed) {
+                        // Editors write in several steps; let the file settle before reading it
+                        Thread.sleep(100);
+                        key.pollEvents();
+                        reloadQuietly();
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void reloadQuietly() {
+        try {
+            reload();
+            System.out.println("✅ Reloaded configuration from " + overrideFile);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Warning: keeping previous configuration, " + overrideFile + " is invalid: " + e.getMessage());
+        }
     }
     
-    private void loadProperties() {
+    private Properties loadProperties() throws IOException {
+        Properties properties = new Properties();
         try (InputStream input = getClass().getClassLoader()
                 .getResourceAsStream("application.properties")) {
             if (input == null) {
                 throw new RuntimeException("❌ application.properties not found in classpath!");
             }
             properties.load(input);
-            resolveEnvironmentVariables();
-        } catch (IOException e) {
-            throw new RuntimeException("❌ Error loading application.properties: " + e.getMessage(), e);
+        }
+        if (overrideFile != null) {
+            Properties fileValues = new Properties();
+            try (InputStream input = Files.newInputStream(overrideFile)) {
+                fileValues.load(input);
+            }
+            applyOverrides(properties, fileValues, overrideFile.toString());
+        }
+        resolveEnvironmentVariables(properties);
+        applySystemProperties(properties);
+        applyOverrides(properties, overrides, "overrides");
+        return properties;
+    }
+    
+    private static void applyOverrides(Properties properties, Properties values, String source) {
+        for (String key : values.stringPropertyNames()) {
+            if (!properties.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown configuration key in " + source + ": " + key);
+            }
+            properties.setProperty(key, values.getProperty(key));
         }
     }
     
-    private void resolveEnvironmentVariables() {
+    private static void resolveEnvironmentVariables(Properties properties) {
         for (String key : properties.stringPropertyNames()) {
             String value = properties.getProperty(key);
             if (value.startsWith("${") && value.endsWith("}")) {
@@ -42,79 +175,179 @@ public class ApiConfig {
         }
     }
     
+    /**
+     * Lets -Dkey=value JVM options override keys defined in application.properties.
+     */
+    private static void applySystemProperties(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            String override = System.getProperty(key);
+            if (override != null) {
+                properties.setProperty(key, override);
+            }
+        }
+    }
+    
     public String getApiProvider() {
-        return properties.getProperty("api.provider", "etherscan");
+        return snapshot.getApiProvider();
     }
     
     public String getEtherscanBaseUrl() {
-        return properties.getProperty("api.etherscan.base_url");
+        return snapshot.getEtherscanBaseUrl();
     }
     
     public int getEtherscanChainId() {
-        return Integer.parseInt(properties.getProperty("api.etherscan.chain_id", "1"));
+        return snapshot.getEtherscanChainId();
     }
     
     public String getEtherscanApiKey() {
-        return properties.getProperty("api.etherscan.api_key");
+        return snapshot.getEtherscanApiKey();
     }
     
     public String[] getEtherscanNormalTxEndpoint() {
-        String endpoint = properties.getProperty("api.etherscan.normal_transactions");
-        String[] parts = endpoint.split("\\.");
-        return parts.length == 2 ? parts : new String[]{"account", "txlist"};
+        return snapshot.getEtherscanNormalTxEndpoint();
     }
     
     public String[] getEtherscanInternalTxEndpoint() {
-        String endpoint = properties.getProperty("api.etherscan.internal_transactions");
-        String[] parts = endpoint.split("\\.");
-        return parts.length == 2 ? parts : new String[]{"account", "txlistinternal"};
+        return snapshot.getEtherscanInternalTxEndpoint();
     }
     
     public String[] getEtherscanErc20TxEndpoint() {
-        String endpoint = properties.getProperty("api.etherscan.erc20_transactions");
-        String[] parts = endpoint.split("\\.");
-        return parts.length == 2 ? parts : new String[]{"account", "tokentx"};
+        return snapshot.getEtherscanErc20TxEndpoint();
     }
     
     public String[] getEtherscanErc721TxEndpoint() {
-        String endpoint = properties.getProperty("api.etherscan.erc721_transactions");
-        String[] parts = endpoint.split("\\.");
-        return parts.length == 2 ? parts : new String[]{"account", "tokennfttx"};
+        return snapshot.getEtherscanErc721TxEndpoint();
     }
     
     public int getEtherscanBatchSize() {
-        return Integer.parseInt(properties.getProperty("api.etherscan.batch_size", "10000"));
+        return snapshot.getEtherscanBatchSize();
+    }
+    
+    public boolean isEtherscanLazyViews() {
+        return snapshot.isEtherscanLazyViews();
     }
     
     public int getRateLimitDelayBetweenCalls() {
-        return Integer.parseInt(properties.getProperty("api.rate_limit.delay_between_calls_ms", "500"));
+        return snapshot.getRateLimitDelayBetweenCalls();
     }
     
     public int getRateLimitDelayBetweenTypes() {
-        return Integer.parseInt(properties.getProperty("api.rate_limit.delay_between_types_ms", "2000"));
+        return snapshot.getRateLimitDelayBetweenTypes();
+    }
+    
+    public int getRetryMaxAttempts() {
+        return snapshot.getRetryMaxAttempts();
+    }
+    
+    public long getRetryInitialBackoffMillis() {
+        return snapshot.getRetryInitialBackoffMillis();
     }
     
     public int getHttpConnectTimeout() {
-        return Integer.parseInt(properties.getProperty("http.client.connect_timeout_seconds", "10"));
+        return snapshot.getHttpConnectTimeout();
     }
     
     public int getHttpRequestTimeout() {
-        return Integer.parseInt(properties.getProperty("http.client.request_timeout_seconds", "30"));
+        return snapshot.getHttpRequestTimeout();
+    }
+    
+    public String getCacheDirectory() {
+        return snapshot.getCacheDirectory();
+    }
+    
+    public int getBundleMaxLegsInMemory() {
+        return snapshot.getBundleMaxLegsInMemory();
+    }
+    
+    public int getExportMaxOpenFiles() {
+        return snapshot.getExportMaxOpenFiles();
+    }
+    
+    public int getExportBufferKb() {
+        return snapshot.getExportBufferKb();
+    }
+    
+    public int getCrawlMaxDepth() {
+        return snapshot.getCrawlMaxDepth();
+    }
+    
+    public int getCrawlMaxFanOut() {
+        return snapshot.getCrawlMaxFanOut();
+    }
+    
+    public int getCrawlMaxAddresses() {
+        return snapshot.getCrawlMaxAddresses();
+    }
+    
+    public int getCrawlHubCounterparties() {
+        return snapshot.getCrawlHubCounterparties();
+    }
+    
+    public int getContractParallelism() {
+        return snapshot.getContractParallelism();
+    }
+    
+    public int getContractSegmentBlocks() {
+        return snapshot.getContractSegmentBlocks();
+    }
+    
+    public int getBatchWorkers() {
+        return snapshot.getBatchWorkers();
+    }
+    
+    public int getBatchLargeSlots() {
+        return snapshot.getBatchLargeSlots();
+    }
+    
+    public int getBatchProbeRows() {
+        return snapshot.getBatchProbeRows();
+    }
+    
+    public int getServerPort() {
+        return snapshot.getServerPort();
+    }
+    
+    public int getServerThreads() {
+        return snapshot.getServerThreads();
+    }
+    
+    public int getServerQueueCapacity() {
+        return snapshot.getServerQueueCapacity();
+    }
+    
+    public int getServerCacheTtlSeconds() {
+        return snapshot.getServerCacheTtlSeconds();
+    }
+    
+    public int getServerCacheMaxEntries() {
+        return snapshot.getServerCacheMaxEntries();
+    }
+    
+    public int getServerCacheMaxRows() {
+        return snapshot.getServerCacheMaxRows();
+    }
+    
+    public int getWatchHotIntervalSeconds() {
+        return snapshot.getWatchHotIntervalSeconds();
+    }
+    
+    public int getWatchMaxIntervalSeconds() {
+        return snapshot.getWatchMaxIntervalSeconds();
     }
     
     public String getAlchemyBaseUrl() {
-        return properties.getProperty("api.alchemy.base_url");
+        return snapshot.getAlchemyBaseUrl();
     }
     
     public String getAlchemyApiKey() {
-        return properties.getProperty("api.alchemy.api_key");
+        return snapshot.getAlchemyApiKey();
     }
     
     public String getInfuraBaseUrl() {
-        return properties.getProperty("api.infura.base_url");
+        return snapshot.getInfuraBaseUrl();
     }
     
     public String getInfuraApiKey() {
-        return properties.getProperty("api.infura.api_key");
+        return snapshot.getInfuraApiKey();
     }
 }
@@ -0,0 +1,75 @@
+package com.cointracker.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses command line arguments into positional arguments and options.
+ * Options use the form {@code --name=value}, or {@code --name} for boolean flags.
+ */
+public class CommandLineOptions {
+
+    private final List<String> positional;
+    private final Map<String, String> options;
+
+    private CommandLineOptions(List<String> positional, Map<String, String> options) {
+        this.positional = positional;
+        this.options = options;
+    }
+
+    public static CommandLineOptions parse(String[] args) {
+        List<String> positional = new ArrayList<>();
+        Map<String, String> options = new LinkedHashMap<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.length() > 2) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    options.put(arg.substring(2), "true");
+                } else {
+                    options.put(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            } else {
+                positional.add(arg);
+            }
+        }
+
+        return new CommandLineOptions(Collections.unmodifiableList(positional),
+                Collections.unmodifiableMap(options));
+    }
+
+    public List<String> getPositional() {
+        return positional;
+    }
+
+    public boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    public String get(String name) {
+        return options.get(name);
+    }
+
+    public String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects a number, got: " + value);
+        }
+    }
+
+    public Map<String, String> getOptions() {
+        return options;
+    }
+}
@@ -0,0 +1,351 @@
+package com.cointracker.config;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Immutable, typed view of the configuration at one point in time.
+ *
+ * Every value is parsed and checked once, when the snapshot is built, so a bad value
+ * fails at startup (or is rejected on reload) with the key named, instead of part-way
+ * through a run. Getters are plain field reads.
+ */
+public final class ConfigSnapshot {
+
+    private final String apiProvider;
+    private final String etherscanBaseUrl;
+    private final int etherscanChainId;
+    private final String etherscanApiKey;
+    private final String[] etherscanNormalTxEndpoint;
+    private final String[] etherscanInternalTxEndpoint;
+    private final String[] etherscanErc20TxEndpoint;
+    private final String[] etherscanErc721TxEndpoint;
+    private final int etherscanBatchSize;
+    private final boolean etherscanLazyViews;
+    private final int rateLimitDelayBetweenCalls;
+    private final int rateLimitDelayBetweenTypes;
+    private final int retryMaxAttempts;
+    private final long retryInitialBackoffMillis;
+    private final int httpConnectTimeout;
+    private final int httpRequestTimeout;
+    private final String cacheDirectory;
+    private final int bundleMaxLegsInMemory;
+    private final int exportMaxOpenFiles;
+    private final int exportBufferKb;
+    private final int crawlMaxDepth;
+    private final int crawlMaxFanOut;
+    private final int crawlMaxAddresses;
+    private final int crawlHubCounterparties;
+    private final int contractParallelism;
+    private final int contractSegmentBlocks;
+    private final int batchWorkers;
+    private final int batchLargeSlots;
+    private final int batchProbeRows;
+    private final int serverPort;
+    private final int serverThreads;
+    private final int serverQueueCapacity;
+    private final int serverCacheTtlSeconds;
+    private final int serverCacheMaxEntries;
+    private final int serverCacheMaxRows;
+    private final int watchHotIntervalSeconds;
+    private final int watchMaxIntervalSeconds;
+    private final String alchemyBaseUrl;
+    private final String alchemyApiKey;
+    private final String infuraBaseUrl;
+    private final String infuraApiKey;
+
+    /**
+     * Parses and validates the properties.
+     *
+     * @throws IllegalArgumentException listing every invalid key
+     */
+    public ConfigSnapshot(Properties properties) {
+        Parser parser = new Parser(properties);
+        this.apiProvider = parser.string("api.provider", "etherscan");
+        this.etherscanBaseUrl = parser.url("api.etherscan.base_url");
+        this.etherscanChainId = parser.integer("api.etherscan.chain_id", 1, 1);
+        this.etherscanApiKey = parser.string("api.etherscan.api_key", "");
+        this.etherscanNormalTxEndpoint = parser.endpoint("api.etherscan.normal_transactions", "txlist");
+        this.etherscanInternalTxEndpoint = parser.endpoint("api.etherscan.internal_transactions", "txlistinternal");
+        this.etherscanErc20TxEndpoint = parser.endpoint("api.etherscan.erc20_transactions", "tokentx");
+        this.etherscanErc721TxEndpoint = parser.endpoint("api.etherscan.erc721_transactions", "tokennfttx");
+        this.etherscanBatchSize = parser.integer("api.etherscan.batch_size", 10000, 1);
+        this.etherscanLazyViews = parser.bool("api.etherscan.lazy_views", true);
+        this.rateLimitDelayBetweenCalls = parser.integer("api.rate_limit.delay_between_calls_ms", 500, 0);
+        this.rateLimitDelayBetweenTypes = parser.integer("api.rate_limit.delay_between_types_ms", 2000, 0);
+        this.retryMaxAttempts = parser.integer("api.retry.max_attempts", 5, 1);
+        this.retryInitialBackoffMillis = parser.integer("api.retry.initial_backoff_ms", 1000, 0);
+        this.httpConnectTimeout = parser.integer("http.client.connect_timeout_seconds", 10, 1);
+        this.httpRequestTimeout = parser.integer("http.client.request_timeout_seconds", 30, 1);
+        this.cacheDirectory = parser.string("cache.directory", ".cointracker-cache");
+        this.bundleMaxLegsInMemory = parser.integer("analytics.bundle.max_legs_in_memory", 1000000, 1);
+        this.exportMaxOpenFiles = parser.integer("export.max_open_files", 8, 1);
+        this.exportBufferKb = parser.integer("export.buffer_kb", 256, 1);
+        this.crawlMaxDepth = parser.integer("crawl.max_depth", 2, 1);
+        this.crawlMaxFanOut = parser.integer("crawl.max_fan_out", 25, 0);
+        this.crawlMaxAddresses = parser.integer("crawl.max_addresses", 200, 1);
+        this.crawlHubCounterparties = parser.integer("crawl.hub_counterparties", 5000, 1);
+        this.contractParallelism = parser.integer("contract.parallelism", 4, 1);
+        this.contractSegmentBlocks = parser.integer("contract.segment_blocks", 500000, 1);
+        this.batchWorkers = parser.integer("batch.workers", 4, 1);
+        this.batchLargeSlots = parser.integer("batch.large_slots", 1, 1);
+        this.batchProbeRows = parser.integer("batch.probe_rows", 1000, 1);
+        this.serverPort = parser.integer("server.port", 8080, 0);
+        this.serverThreads = parser.integer("server.threads", 16, 1);
+        this.serverQueueCapacity = parser.integer("server.queue_capacity", 64, 1);
+        this.serverCacheTtlSeconds = parser.integer("server.cache_ttl_seconds", 300, 0);
+        this.serverCacheMaxEntries = parser.integer("server.cache_max_entries", 256, 1);
+        this.serverCacheMaxRows = parser.integer("server.cache_max_rows", 500000, 1);
+        this.watchHotIntervalSeconds = parser.integer("watch.hot_interval_seconds", 30, 1);
+        this.watchMaxIntervalSeconds = parser.integer("watch.max_interval_seconds", 1800, 1);
+        this.alchemyBaseUrl = parser.string("api.alchemy.base_url", "");
+        this.alchemyApiKey = parser.string("api.alchemy.api_key", "");
+        this.infuraBaseUrl = parser.string("api.infura.base_url", "");
+        this.infuraApiKey = parser.string("api.infura.api_key", "");
+
+        if (serverPort > 65535) {
+            parser.errors.add("server.port: must be at most 65535, got " + serverPort);
+        }
+        if (watchMaxIntervalSeconds < watchHotIntervalSeconds) {
+            parser.errors.add("watch.max_interval_seconds: must not be below watch.hot_interval_seconds");
+        }
+        if (cacheDirectory.isEmpty()) {
+            parser.errors.add("cache.directory: must not be empty");
+        }
+        if (!parser.errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid configuration:\n   • " + String.join("\n   • ", parser.errors));
+        }
+    }
+
+    public String getApiProvider() {
+        return apiProvider;
+    }
+
+    public String getEtherscanBaseUrl() {
+        return etherscanBaseUrl;
+    }
+
+    public int getEtherscanChainId() {
+        return etherscanChainId;
+    }
+
+    public String getEtherscanApiKey() {
+        return etherscanApiKey;
+    }
+
+    public String[] getEtherscanNormalTxEndpoint() {
+        return etherscanNormalTxEndpoint.clone();
+    }
+
+    public String[] getEtherscanInternalTxEndpoint() {
+        return etherscanInternalTxEndpoint.clone();
+    }
+
+    public String[] getEtherscanErc20TxEndpoint() {
+        return etherscanErc20TxEndpoint.clone();
+    }
+
+    public String[] getEtherscanErc721TxEndpoint() {
+        return etherscanErc721TxEndpoint.clone();
+    }
+
+    public int getEtherscanBatchSize() {
+        return etherscanBatchSize;
+    }
+
+    public boolean isEtherscanLazyViews() {
+        return etherscanLazyViews;
+    }
+
+    public int getRateLimitDelayBetweenCalls() {
+        return rateLimitDelayBetweenCalls;
+    }
+
+    public int getRateLimitDelayBetweenTypes() {
+        return rateLimitDelayBetweenTypes;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public long getRetryInitialBackoffMillis() {
+        return retryInitialBackoffMillis;
+    }
+
+    public int getHttpConnectTimeout() {
+        return httpConnectTimeout;
+    }
+
+    public int getHttpRequestTimeout() {
+        return httpRequestTimeout;
+    }
+
+    public String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public int getBundleMaxLegsInMemory() {
+        return bundleMaxLegsInMemory;
+    }
+
+    public int getExportMaxOpenFiles() {
+        return exportMaxOpenFiles;
+    }
+
+    public int getExportBufferKb() {
+        return exportBufferKb;
+    }
+
+    public int getCrawlMaxDepth() {
+        return crawlMaxDepth;
+    }
+
+    public int getCrawlMaxFanOut() {
+        return crawlMaxFanOut;
+    }
+
+    public int getCrawlMaxAddresses() {
+        return crawlMaxAddresses;
+    }
+
+    public int getCrawlHubCounterparties() {
+        return crawlHubCounterparties;
+    }
+
+    public int getContractParallelism() {
+        return contractParallelism;
+    }
+
+    public int getContractSegmentBlocks() {
+        return contractSegmentBlocks;
+    }
+
+    public int getBatchWorkers() {
+        return batchWorkers;
+    }
+
+    public int getBatchLargeSlots() {
+        return batchLargeSlots;
+    }
+
+    public int getBatchProbeRows() {
+        return batchProbeRows;
+    }
+
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    public int getServerThreads() {
+        return serverThreads;
+    }
+
+    public int getServerQueueCapacity() {
+        return serverQueueCapacity;
+    }
+
+    public int getServerCacheTtlSeconds() {
+        return serverCacheTtlSeconds;
+    }
+
+    public int getServerCacheMaxEntries() {
+        return serverCacheMaxEntries;
+    }
+
+    public int getServerCacheMaxRows() {
+        return serverCacheMaxRows;
+    }
+
+    public int getWatchHotIntervalSeconds() {
+        return watchHotIntervalSeconds;
+    }
+
+    public int getWatchMaxIntervalSeconds() {
+        return watchMaxIntervalSeconds;
+    }
+
+    public String getAlchemyBaseUrl() {
+        return alchemyBaseUrl;
+    }
+
+    public String getAlchemyApiKey() {
+        return alchemyApiKey;
+    }
+
+    public String getInfuraBaseUrl() {
+        return infuraBaseUrl;
+    }
+
+    public String getInfuraApiKey() {
+        return infuraApiKey;
+    }
+
+    /**
+     * Reads typed values and collects every problem, so one run reports all bad keys.
+     */
+    private static class Parser {
+        private final Properties properties;
+        private final List<String> errors = new ArrayList<>();
+
+        Parser(Properties properties) {
+            this.properties = properties;
+        }
+
+        String string(String key, String defaultValue) {
+            return properties.getProperty(key, defaultValue).trim();
+        }
+
+        int integer(String key, int defaultValue, int min) {
+            String value = string(key, String.valueOf(defaultValue));
+            try {
+                int parsed = Integer.parseInt(value);
+                if (parsed < min) {
+                    errors.add(key + ": must be at least " + min + ", got " + parsed);
+                }
+                return parsed;
+            } catch (NumberFormatException e) {
+                errors.add(key + ": expected a whole number, got '" + value + "'");
+                return defaultValue;
+            }
+        }
+
+        boolean bool(String key, boolean defaultValue) {
+            String value = string(key, String.valueOf(defaultValue));
+            if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+                errors.add(key + ": expected true or false, got '" + value + "'");
+                return defaultValue;
+            }
+            return Boolean.parseBoolean(value);
+        }
+
+        String url(String key) {
+            String value = string(key, "");
+            try {
+                URI uri = new URI(value);
+                if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme()) || uri.getHost() == null) {
+                    errors.add(key + ": expected an http(s) URL, got '" + value + "'");
+                }
+            } catch (URISyntaxException e) {
+                errors.add(key + ": expected an http(s) URL, got '" + value + "'");
+            }
+            return value;
+        }
+
+        /**
+         * Parses {@code module.action}; a missing value falls back to the account module default.
+         */
+        String[] endpoint(String key, String defaultAction) {
+            String value = string(key, "account." + defaultAction);
+            String[] parts = value.split("\\.");
+            if (parts.length != 2 || parts[0].isEmpty() || parts[1].isEmpty()) {
+                errors.add(key + ": expected module.action, got '" + value + "'");
+                return new String[]{"account", defaultAction};
+            }
+            return parts;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.cointracker.dto;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * One Etherscan transaction-list response kept as raw bytes plus an offset index.
+ *
+ * Parsing only finds where each known field of each record starts and ends; no String
+ * is created until a field is read. Filters can test a field in place (e.g. the block
+ * number or error flag) and {@link #getString} decodes just the fields a caller needs.
+ * Values that are not strings (numbers) are indexed by their raw text; null values and
+ * unknown keys are skipped.
+ */
+public final class RawTransactionPage {
+
+	/**
+	 * The record keys that are indexed, named as in the Etherscan response.
+	 */
+	public enum Field {
+		BLOCK_NUMBER("blockNumber"),
+		TIME_STAMP("timeStamp"),
+		HASH("hash"),
+		FROM("from"),
+		TO("to"),
+		VALUE("value"),
+		CONTRACT_ADDRESS("contractAddress"),
+		TOKEN_ID("tokenID"),
+		TOKEN_NAME("tokenName"),
+		TOKEN_SYMBOL("tokenSymbol"),
+		TOKEN_DECIMAL("tokenDecimal"),
+		GAS_PRICE("gasPrice"),
+		GAS_USED("gasUsed"),
+		IS_ERROR("isError");
+
+		private final byte[] key;
+
+		Field(String key) {
+			this.key = key.getBytes(StandardCharsets.US_ASCII);
+		}
+	}
+
+	private static final Field[] FIELDS = Field.values();
+	private static final int SLOTS = FIELDS.length * 2;
+	private static final int ESCAPED = 1 << 31;
+
+	private final byte[] body;
+	private final String status;
+	private final String message;
+	private final String resultText;
+	private final int rows;
+	/** Per record and field: start offset and length of the value, -1 if absent; ESCAPED flags backslashes. */
+	private final int[] index;
+
+	private RawTransactionPage(byte[] body, String status, String message, String resultText, int rows, int[] index) {
+		this.body = body;
+		this.status = status;
+		this.message = message;
+		this.resultText = resultText;
+		this.rows = rows;
+		this.index = index;
+	}
+
+	/**
+	 * Indexes a response body.
+	 *
+	 * @throws IOException if the body is not well-formed JSON
+	 */
+	public static RawTransactionPage parse(byte[] body) throws IOException {
+		return new Scanner(body).scan();
+	}
+
+	public boolean isSuccess() {
+		return "1".equals(status);
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * The result when it is text rather than a list (error answers), otherwise null.
+	 */
+	public String getResultText() {
+		return resultText;
+	}
+
+	public int size() {
+		return rows;
+	}
+
+	public int getByteCount() {
+		return body.length;
+	}
+
+	public boolean has(int row, Field field) {
+		return index[slot(row, field)] >= 0;
+	}
+
+	/**
+	 * Decodes one field, or returns null if the record does not have it.
+	 */
+	public String getString(int row, Field field) {
+		int slot = slot(row, field);
+		int start = index[slot];
+		if (start < 0) {
+			return null;
+		}
+		return decode(body, start, index[slot + 1]);
+	}
+
+	/**
+	 * Parses a decimal field in place, returning the default if it is absent, empty or not a number.
+	 */
+	public long getLong(int row, Field field, long defaultValue) {
+		int slot = slot(row, field);
+		int start = index[slot];
+		int length = index[slot + 1];
+		if (start < 0 || length <= 0 || length > 18) {
+			return defaultValue;
+		}
+		long value = 0;
+		for (int i = start; i < start + length; i++) {
+			int digit = body[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return defaultValue;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Compares a field with an ASCII value without decoding it.
+	 */
+	public boolean equalsAscii(int row, Field field, String value, boolean ignoreCase) {
+		int slot = slot(row, field);
+		int start = index[slot];
+		if (start < 0) {
+			return false;
+		}
+		int length = index[slot + 1];
+		if ((length & ESCAPED) != 0) {
+			String decoded = decode(body, start, length);
+			return ignoreCase ? value.equalsIgnoreCase(decoded) : value.equals(decoded);
+		}
+		if (length != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			int a = body[start + i];
+			int b = value.charAt(i);
+			if (a != b && (!ignoreCase || Character.toLowerCase(a) != Character.toLowerCase(b))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int slot(int row, Field field) {
+		return row * SLOTS + field.ordinal() * 2;
+	}
+
+	private static String decode(byte[] body, int start, int length) {
+		if ((length & ESCAPED) == 0) {
+			return new String(body, start, length, StandardCharsets.UTF_8);
+		}
+		length &= ~ESCAPED;
+		StringBuilder text = new StringBuilder(length);
+		int end = start + length;
+		int runStart = start;
+		for (int i = start; i < end; i++) {
+			if (body[i] != '\\') {
+				continue;
+			}
+			text.append(new String(body, runStart, i - runStart, StandardCharsets.UTF_8));
+			char escape = (char) body[++i];
+			switch (escape) {
+				case 'b':
+					text.append('\b');
+					break;
+				case 'f':
+					text.append('\f');
+					break;
+				case 'n':
+					text.append('\n');
+					break;
+				case 'r':
+					text.append('\r');
+					break;
+				case 't':
+					text.append('\t');
+					break;
+				case 'u':
+					text.append((char) Integer.parseInt(new String(body, i + 1, 4, StandardCharsets.US_ASCII), 16));
+					i += 4;
+					break;
+				default:
+					text.append(escape);
+					break;
+			}
+			runStart = i + 1;
+		}
+		return text.append(new String(body, runStart, end - runStart, StandardCharsets.UTF_8)).toString();
+	}
+
+	/**
+	 * Single-pass JSON scanner for the {@code {"status","message","result":[{...}]}} envelope.
+	 */
+	private static final class Scanner {
+		private final byte[] body;
+		private int pos;
+		private int[] index = new int[64 * SLOTS];
+		private int rows;
+		private String status = "";
+		private String message = "";
+		private String resultText;
+		private int lastField = -1;
+		private int valueStart;
+		private int valueLength;
+
+		Scanner(byte[] body) {
+			this.body = body;
+		}
+
+		RawTransactionPage scan() throws IOException {
+			expect('{');
+			if (peek() != '}') {
+				do {
+					readString();
+					int keyStart = valueStart;
+					int keyLength = valueLength;
+					expect(':');
+					if (keyEquals(keyStart, keyLength, "result")) {
+						readResult();
+					} else if (keyEquals(keyStart, keyLength, "status")) {
+						status = readText();
+					} else if (keyEquals(keyStart, keyLength, "message")) {
+						message = readText();
+					} else {
+						skipValue();
+					}
+				} while (next(','));
+			}
+			expect('}');
+			return new RawTransactionPage(body, status, message, resultText, rows, index);
+		}
+
+		private void readResult() throws IOException {
+			byte first = peek();
+			if (first == '"') {
+				resultText = readText();
+				return;
+			}
+			if (first != '[') {
+				skipValue();
+				return;
+			}
+			pos++;
+			if (peek() == ']') {
+				pos++;
+				return;
+			}
+			do {
+				readRecord();
+			} while (next(','));
+			expect(']');
+		}
+
+		private void readRecord() throws IOException {
+			if (index.length < (rows + 1) * SLOTS) {
+				index = Arrays.copyOf(index, index.length * 2);
+			}
+			int base = rows * SLOTS;
+			Arrays.fill(index, base, base + SLOTS, -1);
+			expect('{');
+			if (peek() != '}') {
+				do {
+					readString();
+					Field field = field(valueStart, valueLength);
+					expect(':');
+					byte first = peek();
+					if (field == null || first == 'n') {
+						skipValue();
+						continue;
+					}
+					if (first == '"') {
+						readString();
+					} else {
+						skipScalar();
+					}
+					int slot = base + field.ordinal() * 2;
+					index[slot] = valueStart;
+					index[slot + 1] = valueLength;
+				} while (next(','));
+			}
+			expect('}');
+			rows++;
+		}
+
+		/**
+		 * Matches a key against the fields, trying the one after the previous match first,
+		 * as Etherscan writes keys in the same order in every record.
+		 */
+		private Field field(int start, int length) {
+			for (int i = 1; i <= FIELDS.length; i++) {
+				int candidate = (lastField + i) % FIELDS.length;
+				byte[] key = FIELDS[candidate].key;
+				if (key.length == length && Arrays.equals(body, start, start + length, key, 0, length)) {
+					lastField = candidate;
+					return FIELDS[candidate];
+				}
+			}
+			return null;
+		}
+
+		private boolean keyEquals(int start, int length, String key) {
+			if (key.length() != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (body[start + i] != key.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private String readText() throws IOException {
+			if (peek() != '"') {
+				skipValue();
+				return "";
+			}
+			readString();
+			return decode(body, valueStart, valueLength);
+		}
+
+		/**
+		 * Reads a string token, leaving its content span in valueStart/valueLength.
+		 */
+		private void readString() throws IOException {
+			expect('"');
+			int start = pos;
+			boolean escaped = false;
+			while (pos < body.length) {
+				byte b = body[pos];
+				if (b == '"') {
+					valueStart = start;
+					valueLength = (pos - start) | (escaped ? ESCAPED : 0);
+					pos++;
+					return;
+				}
+				if (b == '\\') {
+					escaped = true;
+					pos++;
+				}
+				pos++;
+			}
+			throw error("unterminated string");
+		}
+
+		private void skipScalar() throws IOException {
+			int start = pos;
+			while (pos < body.length) {
+				byte b = body[pos];
+				if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+					break;
+				}
+				pos++;
+			}
+			if (pos == start) {
+				throw error("value expected");
+			}
+			valueStart = start;
+			valueLength = pos - start;
+		}
+
+		private void skipValue() throws IOException {
+			byte first = peek();
+			if (first == '"') {
+				readString();
+			} else if (first == '{' || first == '[') {
+				byte close = first == '{' ? (byte) '}' : (byte) ']';
+				pos++;
+				if (peek() == close) {
+					pos++;
+					return;
+				}
+				do {
+					if (close == '}') {
+						readString();
+						expect(':');
+					}
+					skipValue();
+				} while (next(','));
+				expect((char) close);
+			} else {
+				skipScalar();
+			}
+		}
+
+		private byte peek() throws IOException {
+			while (pos < body.length) {
+				byte b = body[pos];
+				if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+					return b;
+				}
+				pos++;
+			}
+			throw error("unexpected end of input");
+		}
+
+		private boolean next(char c) throws IOException {
+			if (peek() == c) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(char c) throws IOException {
+			if (peek() != c) {
+				throw error("'" + c + "' expected");
+			}
+			pos++;
+		}
+
+		private IOException error(String problem) {
+			return new IOException("Malformed Etherscan response at byte " + pos + ": " + problem);
+		}
+	}
+}
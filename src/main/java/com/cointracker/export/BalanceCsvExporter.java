@@ -0,0 +1,54 @@
+package com.cointracker.export;
+
+import com.cointracker.analytics.AssetBalance;
+import com.cointracker.analytics.BalanceSnapshot;
+import com.opencsv.CSVWriter;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+public class BalanceCsvExporter {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] HEADER = {
+        "Period",
+        "As Of",
+        "Asset Type",
+        "Asset Contract Address",
+        "Asset Symbol / Name",
+        "Balance"
+    };
+
+    public void exportToCsv(List<BalanceSnapshot> snapshots, String filename) throws IOException {
+        if (!filename.toLowerCase().endsWith(".csv")) {
+            filename = filename + ".csv";
+        }
+
+        long rows = 0;
+        try (CSVWriter writer = new CSVWriter(new FileWriter(filename))) {
+            writer.writeNext(HEADER);
+
+            for (BalanceSnapshot snapshot : snapshots) {
+                String period = snapshot.getPeriodStart().toString();
+                String asOf = snapshot.getAsOf().format(DATE_TIME_FORMATTER);
+                for (AssetBalance balance : snapshot.getBalances()) {
+                    writer.writeNext(new String[]{
+                        period,
+                        asOf,
+                        balance.getAssetType().getDisplayName(),
+                        "ETH".equals(balance.getAssetKey()) ? "" : balance.getAssetKey(),
+                        balance.getSymbol(),
+                        balance.getBalance().toPlainString()
+                    });
+                    rows++;
+                }
+            }
+        }
+
+        System.out.println("✅ Successfully exported " + rows + " balance rows to: " + filename);
+    }
+}
@@ -0,0 +1,53 @@
+package com.cointracker.export;
+
+import com.cointracker.analytics.TransactionBundle;
+import com.opencsv.CSVWriter;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+public class BundleCsvExporter {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] HEADER = {
+        "Transaction Hash",
+        "Date & Time",
+        "Legs",
+        "Asset Contract Address",
+        "Asset Symbol / Name",
+        "Net Flow"
+    };
+
+    public void exportToCsv(List<TransactionBundle> bundles, String filename) throws IOException {
+        if (!filename.toLowerCase().endsWith(".csv")) {
+            filename = filename + ".csv";
+        }
+
+        try (CSVWriter writer = new CSVWriter(new FileWriter(filename))) {
+            writer.writeNext(HEADER);
+
+            for (TransactionBundle bundle : bundles) {
+                String dateTime = bundle.getDateTime().format(DATE_TIME_FORMATTER);
+                String legs = String.valueOf(bundle.getLegs().size());
+                for (Map.Entry<String, BigDecimal> flow : bundle.getNetFlows().entrySet()) {
+                    writer.writeNext(new String[]{
+                        bundle.getTransactionHash(),
+                        dateTime,
+                        legs,
+                        "ETH".equals(flow.getKey()) ? "" : flow.getKey(),
+                        bundle.getSymbol(flow.getKey()),
+                        flow.getValue().toPlainString()
+                    });
+                }
+            }
+        }
+
+        System.out.println("✅ Successfully exported " + bundles.size() + " transaction bundles to: " + filename);
+    }
+}
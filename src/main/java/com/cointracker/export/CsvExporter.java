@@ -1,14 +1,19 @@
 package com.cointracker.export;
 
+import com.cointracker.jfr.CsvExportEvent;
+import com.cointracker.metrics.MetricsRegistry;
 import com.cointracker.model.Transaction;
 import com.opencsv.CSVWriter;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 public class CsvExporter {
     
+    private static final String FIAT_VALUE_COLUMN = "Value (USD)";
     
     private static final String[] HEADER = {
         "Transaction Hash",
@@ -23,23 +28,71 @@ public class CsvExporter {
         "Gas Fee (ETH)"
     };
     
+    private final boolean includeFiatValue;
+    
+    public CsvExporter() {
+        this(false);
+    }
+    
+    /**
+     * @param includeFiatValue append a "Value (USD)" column filled from {@link Transaction#getFiatValue()}
+     */
+    public CsvExporter(boolean includeFiatValue) {
+        this.includeFiatValue = includeFiatValue;
+    }
+    
+    public static String[] getHeader() {
+        return HEADER.clone();
+    }
+    
     public void exportToCsv(List<Transaction> transactions, String filename) throws IOException {
         if (!filename.toLowerCase().endsWith(".csv")) {
             filename = filename + ".csv";
         }
         
+        CsvExportEvent event = new CsvExportEvent();
+        event.begin();
+        long start = System.nanoTime();
         try (CSVWriter writer = new CSVWriter(new FileWriter(filename))) {
-            writer.writeNext(HEADER);
+            writer.writeNext(headerRow());
             
             for (Transaction transaction : transactions) {
-                String[] row = transaction.toCsvRow();
-                writer.writeNext(row);
+                writer.writeNext(toRow(transaction));
             }
         }
+        recordExport(start, transactions.size());
+        commitExportEvent(event, filename, false, transactions.size(), new File(filename).length());
         
         System.out.println("✅ Successfully exported " + transactions.size() + " transactions to: " + filename);
     }
 
+    /**
+     * Appends rows to the file, writing the header first if the file does not exist yet.
+     */
+    public void appendToCsv(List<Transaction> transactions, String filename) throws IOException {
+        if (!filename.toLowerCase().endsWith(".csv")) {
+            filename = filename + ".csv";
+        }
+        long sizeBefore = new File(filename).length();
+        boolean newFile = !new File(filename).exists();
+        
+        CsvExportEvent event = new CsvExportEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try (CSVWriter writer = new CSVWriter(new FileWriter(filename, true))) {
+            if (newFile) {
+                writer.writeNext(headerRow());
+            }
+            for (Transaction transaction : transactions) {
+                writer.writeNext(toRow(transaction));
+            }
+        }
+        recordExport(start, transactions.size());
+        commitExportEvent(event, filename, true, transactions.size(), new File(filename).length() - sizeBefore);
+        
+        System.out.println("✅ Appended " + transactions.size() + " transactions to: " + filename);
+    }
+    
     public String exportWithSummary(List<Transaction> transactions, String filename) throws IOException {
         if (!filename.toLowerCase().endsWith(".csv")) {
             filename = filename + ".csv";
@@ -76,4 +129,40 @@ public class CsvExporter {
                 filename
         );
     }
+    
+    private static void recordExport(long startNanos, int rows) {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.histogram("export_seconds", "format", "csv").recordSince(startNanos);
+        metrics.counter("rows_exported_total", "format", "csv").add(rows);
+    }
+    
+    static void commitExportEvent(CsvExportEvent event, String filename, boolean append, int rows, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = filename;
+            event.append = append;
+            event.records = rows;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+    
+    String[] headerRow() {
+        return includeFiatValue ? withFiatColumn(HEADER, FIAT_VALUE_COLUMN) : HEADER;
+    }
+    
+    String[] toRow(Transaction transaction) {
+        String[] row = transaction.toCsvRow();
+        if (includeFiatValue) {
+            row = withFiatColumn(row, transaction.getFiatValue() != null
+                    ? transaction.getFiatValue().toPlainString() : "");
+        }
+        return row;
+    }
+    
+    private static String[] withFiatColumn(String[] row, String fiatValue) {
+        String[] extended = Arrays.copyOf(row, row.length + 1);
+        extended[row.length] = fiatValue;
+        return extended;
+    }
 }
@@ -0,0 +1,548 @@
+package com.cointracker.export;
+
+import com.cointracker.metrics.MetricsRegistry;
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Erc721Transaction;
+import com.cointracker.model.InternalTransaction;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads files written by {@link CsvExporter} back into transactions.
+ *
+ * The file is memory-mapped and cut into chunks that are parsed in parallel. A chunk
+ * boundary must fall between records, but a quoted field may contain line breaks, so
+ * a first parallel pass counts the quotes in each chunk; the running total tells
+ * whether a chunk starts inside quotes, and the next line break outside quotes is
+ * where its first record begins. Chunks are then parsed independently and the rows
+ * are returned in file order.
+ *
+ * {@link #stream} reads a file front to back in bounded memory instead, one mapped
+ * window at a time, for consumers that look at each row once.
+ *
+ * The CSV does not hold block numbers, failed flags or raw token values, so imported
+ * transactions have block number 0 and ERC-20 decimals are taken from the scale of
+ * the exported amount.
+ */
+public class CsvImporter {
+
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 1 << 30;
+    private static final int BOUNDARY_BUFFER_BYTES = 64 * 1024;
+    private static final int STREAM_WINDOW_CHUNKS = 64;
+    private static final String CONTRACT_CREATION = "(Contract Creation)";
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final int threads;
+    private final long minChunkBytes;
+
+    public CsvImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public CsvImporter(int threads) {
+        this(threads, MIN_CHUNK_BYTES);
+    }
+
+    /**
+     * @param minChunkBytes smallest chunk handed to one thread; tests use tiny chunks
+     */
+    CsvImporter(int threads, long minChunkBytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.threads = threads;
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    public List<Transaction> importCsv(Path file) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                throw new IOException("Empty CSV file: " + file);
+            }
+            long headerEnd = recordStart(channel, 0, false);
+            Columns columns = Columns.of(readHeader(channel, headerEnd), file);
+
+            long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(minChunkBytes, (size - headerEnd) / (threads * 4L) + 1));
+            int chunks = (int) Math.max(1, (size - headerEnd + chunkBytes - 1) / chunkBytes);
+            long[] chunkStarts = new long[chunks + 1];
+            for (int i = 0; i < chunks; i++) {
+                chunkStarts[i] = headerEnd + i * chunkBytes;
+            }
+            chunkStarts[chunks] = size;
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks), runnable -> {
+                Thread thread = new Thread(runnable, "csv-import");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<Long>> quoteCounts = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++) {
+                    long from = chunkStarts[i];
+                    long to = chunkStarts[i + 1];
+                    quoteCounts.add(executor.submit(() -> countQuotes(channel, from, to)));
+                }
+                long[] boundaries = new long[chunks + 1];
+                List<Future<Long>> starts = new ArrayList<>(chunks);
+                long quotes = 0;
+                for (int i = 0; i < chunks; i++) {
+                    long from = chunkStarts[i];
+                    boolean inQuotes = (quotes & 1) != 0;
+                    starts.add(i == 0 ? null : executor.submit(() -> recordStart(channel, from, inQuotes)));
+                    quotes += await(quoteCounts.get(i));
+                }
+                boundaries[0] = headerEnd;
+                for (int i = 1; i < chunks; i++) {
+                    boundaries[i] = await(starts.get(i));
+                }
+                boundaries[chunks] = size;
+
+                List<Future<List<Transaction>>> parsed = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++) {
+                    long from = boundaries[i];
+                    long to = boundaries[i + 1];
+                    parsed.add(executor.submit(() -> parseChunk(channel, from, to, columns, file)));
+                }
+                List<Transaction> transactions = new ArrayList<>();
+                for (Future<List<Transaction>> chunk : parsed) {
+                    transactions.addAll(await(chunk));
+                }
+                recordImport(start, transactions.size(), size);
+                return transactions;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Opens the file for reading row by row in file order. Rows are parsed as the
+     * reader is advanced, so memory does not grow with the file.
+     */
+    public Reader stream(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() == 0) {
+                throw new IOException("Empty CSV file: " + file);
+            }
+            long headerEnd = recordStart(channel, 0, false);
+            Columns columns = Columns.of(readHeader(channel, headerEnd), file);
+            return new Reader(channel, columns, file, headerEnd, minChunkBytes * STREAM_WINDOW_CHUNKS);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("CSV import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("CSV import failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static long countQuotes(FileChannel channel, long from, long to) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        long quotes = 0;
+        int length = (int) (to - from);
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Returns the offset just after the first line break outside quotes at or after
+     * {@code from}, or the file size if there is none.
+     */
+    private static long recordStart(FileChannel channel, long from, boolean inQuotes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_BUFFER_BYTES);
+        long position = from;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private static String[] readHeader(FileChannel channel, long headerEnd) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+        RecordReader reader = new RecordReader(buffer, (int) headerEnd);
+        String[] header = reader.next(Integer.MAX_VALUE);
+        return header != null ? header : new String[0];
+    }
+
+    private static List<Transaction> parseChunk(FileChannel channel, long from, long to, Columns columns, Path file)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        RecordReader reader = new RecordReader(buffer, (int) (to - from));
+        List<Transaction> transactions = new ArrayList<>((int) ((to - from) / 256) + 1);
+        while (true) {
+            int rowStart = reader.position;
+            String[] row = reader.next(columns.count);
+            if (row == null) {
+                return transactions;
+            }
+            if (row.length == 1 && row[0].isEmpty()) {
+                continue;
+            }
+            try {
+                transactions.add(columns.toTransaction(row));
+            } catch (RuntimeException e) {
+                throw new IOException("Malformed CSV row at byte " + (from + rowStart) + " in " + file
+                        + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void recordImport(long startNanos, int rows, long bytes) {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.histogram("import_seconds", "format", "csv").recordSince(startNanos);
+        metrics.counter("rows_imported_total", "format", "csv").add(rows);
+        metrics.counter("bytes_imported_total", "format", "csv").add(bytes);
+    }
+
+    /**
+     * Sequential reader over one file. Each window is cut at a record boundary found the
+     * same way as for parallel chunks, so a quoted line break never splits a row.
+     * Read errors are thrown as {@link UncheckedIOException}.
+     */
+    public static final class Reader implements Iterator<Transaction>, Closeable {
+        private final FileChannel channel;
+        private final Columns columns;
+        private final Path file;
+        private final long windowBytes;
+        private final long size;
+        private final long start = System.nanoTime();
+        private long windowStart;
+        private long windowEnd;
+        private RecordReader records;
+        private Transaction next;
+        private int rows;
+
+        private Reader(FileChannel channel, Columns columns, Path file, long headerEnd, long windowBytes)
+                throws IOException {
+            this.channel = channel;
+            this.columns = columns;
+            this.file = file;
+            this.windowBytes = windowBytes;
+            this.size = channel.size();
+            this.windowEnd = headerEnd;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction transaction = next;
+            next = null;
+            rows++;
+            return transaction;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel.isOpen()) {
+                channel.close();
+                recordImport(start, rows, windowEnd);
+            }
+        }
+
+        private Transaction read() throws IOException {
+            while (true) {
+                if (records == null) {
+                    if (windowEnd >= size) {
+                        return null;
+                    }
+                    windowStart = windowEnd;
+                    long to = Math.min(size, windowStart + windowBytes);
+                    if (to < size) {
+                        to = recordStart(channel, to, (countQuotes(channel, windowStart, to) & 1) != 0);
+                    }
+                    records = new RecordReader(channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                            to - windowStart), (int) (to - windowStart));
+                    windowEnd = to;
+                }
+                int rowStart = records.position;
+                String[] row = records.next(columns.count);
+                if (row == null) {
+                    records = null;
+                    continue;
+                }
+                if (row.length == 1 && row[0].isEmpty()) {
+                    continue;
+                }
+                try {
+                    return columns.toTransaction(row);
+                } catch (RuntimeException e) {
+                    throw new IOException("Malformed CSV row at byte " + (windowStart + rowStart) + " in " + file
+                            + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits RFC 4180 records out of a mapped region, undoubling quotes inside quoted fields.
+     */
+    private static final class RecordReader {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int position;
+        private byte[] scratch = new byte[256];
+
+        RecordReader(ByteBuffer buffer, int limit) {
+            this.buffer = buffer;
+            this.limit = limit;
+        }
+
+        /**
+         * Returns the next record, or null at the end of the region.
+         */
+        String[] next(int expectedFields) {
+            if (position >= limit) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>(Math.min(expectedFields, 16));
+            while (true) {
+                int length = 0;
+                boolean quoted = position < limit && buffer.get(position) == '"';
+                if (quoted) {
+                    position++;
+                    while (position < limit) {
+                        byte b = buffer.get(position++);
+                        if (b == '"') {
+                            if (position < limit && buffer.get(position) == '"') {
+                                position++;
+                            } else {
+                                break;
+                            }
+                        }
+                        length = append(length, b);
+                    }
+                }
+                while (position < limit) {
+                    byte b = buffer.get(position);
+                    if (b == ',' || b == '\n' || b == '\r') {
+                        break;
+                    }
+                    length = append(length, b);
+                    position++;
+                }
+                fields.add(new String(scratch, 0, length, StandardCharsets.UTF_8));
+                if (position >= limit) {
+                    break;
+                }
+                byte separator = buffer.get(position++);
+                if (separator == ',') {
+                    continue;
+                }
+                if (separator == '\r' && position < limit && buffer.get(position) == '\n') {
+                    position++;
+                }
+                break;
+            }
+            return fields.toArray(new String[0]);
+        }
+
+        private int append(int length, byte b) {
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length] = b;
+            return length + 1;
+        }
+    }
+
+    /**
+     * Positions of the exported columns, checked against {@link CsvExporter#getHeader()}.
+     */
+    private static final class Columns {
+        private static final Map<String, TransactionType> TYPES = new HashMap<>();
+
+        static {
+            for (TransactionType type : TransactionType.values()) {
+                TYPES.put(type.getDisplayName(), type);
+            }
+        }
+
+        private final int count;
+        private final boolean hasFiatValue;
+
+        private Columns(int count, boolean hasFiatValue) {
+            this.count = count;
+            this.hasFiatValue = hasFiatValue;
+        }
+
+        static Columns of(String[] header, Path file) throws IOException {
+            String[] expected = CsvExporter.getHeader();
+            boolean matches = header.length == expected.length || header.length == expected.length + 1;
+            for (int i = 0; matches && i < expected.length; i++) {
+                matches = expected[i].equals(header[i].trim());
+            }
+            if (!matches) {
+                throw new IOException("Not a transaction CSV written by this tool: " + file
+                        + " (header " + Arrays.toString(header) + ")");
+            }
+            return new Columns(header.length, header.length > expected.length);
+        }
+
+        Transaction toTransaction(String[] row) {
+            if (row.length < count) {
+                throw new IllegalArgumentException("expected " + count + " fields, got " + row.length);
+            }
+            TransactionType type = TYPES.get(row[4]);
+            if (type == null) {
+                throw new IllegalArgumentException("unknown transaction type '" + row[4] + "'");
+            }
+            Transaction transaction;
+            String symbol = row[6];
+            switch (type) {
+                case ETH_TRANSFER:
+                    transaction = new NormalTransaction();
+                    break;
+                case ETH_INTERNAL:
+                    transaction = new InternalTransaction();
+                    break;
+                case ERC20: {
+                    Erc20Transaction erc20 = new Erc20Transaction();
+                    // Exported as "SYMBOL (Token Name)"
+                    int split = symbol.endsWith(")") ? symbol.indexOf(" (") : -1;
+                    if (split >= 0) {
+                        erc20.setTokenName(symbol.substring(split + 2, symbol.length() - 1));
+                        symbol = symbol.substring(0, split);
+                    }
+                    transaction = erc20;
+                    break;
+                }
+                default: {
+                    Erc721Transaction erc721 = new Erc721Transaction();
+                    // Exported as "Token Name (SYMBOL)"
+                    int split = symbol.endsWith(")") ? symbol.lastIndexOf(" (") : -1;
+                    if (split >= 0) {
+                        erc721.setTokenName(symbol.substring(0, split));
+                        symbol = symbol.substring(split + 2, symbol.length() - 1);
+                    }
+                    transaction = erc721;
+                    break;
+                }
+            }
+            transaction.setTransactionHash(row[0]);
+            transaction.setDateTime(parseDateTime(row[1]));
+            transaction.setFromAddress(row[2]);
+            transaction.setToAddress(CONTRACT_CREATION.equals(row[3]) ? "" : row[3]);
+            transaction.setAssetContractAddress(row[5]);
+            transaction.setAssetSymbol(symbol);
+            transaction.setTokenId(row[7]);
+            BigDecimal value = new BigDecimal(row[8]);
+            transaction.setValue(value);
+            transaction.setGasFee(row[9].isEmpty() ? null : new BigDecimal(row[9]));
+            if (transaction instanceof Erc20Transaction) {
+                // Amounts are exported at the token's full precision
+                ((Erc20Transaction) transaction).setTokenDecimal(value.scale());
+            }
+            if (hasFiatValue && !row[10].isEmpty()) {
+                transaction.setFiatValue(new BigDecimal(row[10]));
+            }
+            return transaction;
+        }
+
+        /**
+         * Parses {@code yyyy-MM-dd HH:mm:ss} by position, falling back to the formatter for anything else.
+         */
+        private static LocalDateTime parseDateTime(String text) {
+            if (text.length() == 19 && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == ' '
+                    && text.charAt(13) == ':' && text.charAt(16) == ':') {
+                int year = digits(text, 0, 4);
+                int month = digits(text, 5, 2);
+                int day = digits(text, 8, 2);
+                int hour = digits(text, 11, 2);
+                int minute = digits(text, 14, 2);
+                int second = digits(text, 17, 2);
+                if ((year | month | day | hour | minute | second) >= 0) {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                }
+            }
+            try {
+                return LocalDateTime.parse(text, DATE_TIME_FORMATTER);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("bad date '" + text + "'", e);
+            }
+        }
+
+        private static int digits(String text, int start, int length) {
+            int value = 0;
+            for (int i = start; i < start + length; i++) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+    }
+}
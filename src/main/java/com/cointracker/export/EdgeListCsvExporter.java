@@ -0,0 +1,38 @@
+package com.cointracker.export;
+
+import com.cointracker.graph.InteractionGraph;
+import com.opencsv.CSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+
+public class EdgeListCsvExporter {
+
+    private static final String[] HEADER = {
+        "From Address",
+        "To Address",
+        "Transactions"
+    };
+
+    public void exportToCsv(InteractionGraph graph, String filename) throws IOException {
+        if (!filename.toLowerCase().endsWith(".csv")) {
+            filename = filename + ".csv";
+        }
+
+        try (CSVWriter writer = new CSVWriter(new BufferedWriter(new FileWriter(filename)))) {
+            writer.writeNext(HEADER);
+            String[] addresses = new String[graph.getNodeCount()];
+            for (int node = 0; node < addresses.length; node++) {
+                addresses[node] = graph.getAddress(node);
+            }
+            graph.forEachEdge((from, to, transactions) -> writer.writeNext(new String[]{
+                addresses[from],
+                addresses[to],
+                String.valueOf(transactions)
+            }));
+        }
+
+        System.out.println("✅ Successfully exported " + graph.getEdgeCount() + " edges to: " + filename);
+    }
+}
@@ -0,0 +1,260 @@
+package com.cointracker.export;
+
+import com.cointracker.metrics.MetricsRegistry;
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Erc721Transaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes transactions as JSON Lines (NDJSON) with typed fields, for pipelines that
+ * should not have to parse the CSV's display strings.
+ *
+ * Each line is one object with the keys {@code hash, blockNumber, timestamp, type,
+ * from, to, contract, tokenSymbol, tokenName, tokenDecimals, tokenId, value, gasFee}
+ * and {@code valueUsd} if enabled. Amounts are exact decimal strings, the timestamp is
+ * ISO-8601 UTC, and missing values are null: {@code to} for contract creations,
+ * {@code contract} for ETH, {@code blockNumber} for rows read back from a CSV.
+ *
+ * Rows are written field by field through one {@link JsonGenerator} with pre-encoded
+ * keys, so no row array or JSON tree is built per transaction.
+ */
+public class JsonLinesExporter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private static final SerializableString HASH = new SerializedString("hash");
+    private static final SerializableString BLOCK_NUMBER = new SerializedString("blockNumber");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString FROM = new SerializedString("from");
+    private static final SerializableString TO = new SerializedString("to");
+    private static final SerializableString CONTRACT = new SerializedString("contract");
+    private static final SerializableString TOKEN_SYMBOL = new SerializedString("tokenSymbol");
+    private static final SerializableString TOKEN_NAME = new SerializedString("tokenName");
+    private static final SerializableString TOKEN_DECIMALS = new SerializedString("tokenDecimals");
+    private static final SerializableString TOKEN_ID = new SerializedString("tokenId");
+    private static final SerializableString VALUE = new SerializedString("value");
+    private static final SerializableString GAS_FEE = new SerializedString("gasFee");
+    private static final SerializableString VALUE_USD = new SerializedString("valueUsd");
+
+    private final boolean includeFiatValue;
+
+    public JsonLinesExporter() {
+        this(false);
+    }
+
+    /**
+     * @param includeFiatValue add a "valueUsd" field from {@link Transaction#getFiatValue()}
+     */
+    public JsonLinesExporter(boolean includeFiatValue) {
+        this.includeFiatValue = includeFiatValue;
+    }
+
+    public void exportToJsonLines(List<Transaction> transactions, String filename) throws IOException {
+        if (!filename.toLowerCase().endsWith(".jsonl")) {
+            filename = filename + ".jsonl";
+        }
+
+        long start = System.nanoTime();
+        Path file = Paths.get(filename);
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)), BUFFER_BYTES);
+        try (Writer writer = new Writer(out, includeFiatValue)) {
+            for (Transaction transaction : transactions) {
+                writer.write(transaction);
+            }
+        }
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.histogram("export_seconds", "format", "jsonl").recordSince(start);
+        metrics.counter("rows_exported_total", "format", "jsonl").add(transactions.size());
+        metrics.counter("bytes_exported_total", "format", "jsonl").add(Files.size(file));
+
+        System.out.println("✅ Successfully exported " + transactions.size() + " transactions to: " + filename);
+    }
+
+    public String exportWithSummary(List<Transaction> transactions, String filename) throws IOException {
+        if (!filename.toLowerCase().endsWith(".jsonl")) {
+            filename = filename + ".jsonl";
+        }
+
+        exportToJsonLines(transactions, filename);
+
+        Map<TransactionType, Integer> counts = new EnumMap<>(TransactionType.class);
+        for (Transaction transaction : transactions) {
+            counts.merge(transaction.getType(), 1, Integer::sum);
+        }
+        return String.format(
+                "\n📊 Export Summary:\n" +
+                "   • Total Transactions: %d\n" +
+                "   • Normal ETH Transfers: %d\n" +
+                "   • Internal Transfers: %d\n" +
+                "   • ERC-20 Transfers: %d\n" +
+                "   • ERC-721 NFT Transfers: %d\n" +
+                "   • Output File: %s",
+                transactions.size(),
+                counts.getOrDefault(TransactionType.ETH_TRANSFER, 0),
+                counts.getOrDefault(TransactionType.ETH_INTERNAL, 0),
+                counts.getOrDefault(TransactionType.ERC20, 0),
+                counts.getOrDefault(TransactionType.ERC721, 0),
+                filename
+        );
+    }
+
+    /**
+     * Streams JSON lines to an output stream, one {@link #write} per transaction.
+     * Closing the writer closes the stream.
+     */
+    public static final class Writer implements Closeable {
+        private final JsonGenerator generator;
+        private final boolean includeFiatValue;
+        private final char[] timestamp = new char[20];
+
+        public Writer(OutputStream out, boolean includeFiatValue) throws IOException {
+            this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+            this.includeFiatValue = includeFiatValue;
+            generator.setRootValueSeparator(null);
+        }
+
+        public void write(Transaction transaction) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(HASH);
+            generator.writeString(transaction.getTransactionHash());
+            generator.writeFieldName(BLOCK_NUMBER);
+            long blockNumber = transaction.getBlockNumber();
+            if (blockNumber > 0) {
+                generator.writeNumber(blockNumber);
+            } else {
+                generator.writeNull();
+            }
+            generator.writeFieldName(TIMESTAMP);
+            writeTimestamp(transaction.getDateTime());
+            generator.writeFieldName(TYPE);
+            generator.writeString(transaction.getType().name());
+            generator.writeFieldName(FROM);
+            writeOptional(transaction.getFromAddress());
+            generator.writeFieldName(TO);
+            writeOptional(transaction.getToAddress());
+            generator.writeFieldName(CONTRACT);
+            writeOptional(transaction.getAssetContractAddress());
+            generator.writeFieldName(TOKEN_SYMBOL);
+            writeOptional(transaction.getTokenSymbol());
+            writeTokenFields(transaction);
+            generator.writeFieldName(TOKEN_ID);
+            writeOptional(transaction.getTokenId());
+            generator.writeFieldName(VALUE);
+            writeDecimal(transaction.getValue());
+            generator.writeFieldName(GAS_FEE);
+            writeDecimal(transaction.getGasFee());
+            if (includeFiatValue) {
+                generator.writeFieldName(VALUE_USD);
+                writeDecimal(transaction.getFiatValue());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+
+        private void writeTokenFields(Transaction transaction) throws IOException {
+            String tokenName = null;
+            int decimals = -1;
+            if (transaction instanceof Erc20Transaction) {
+                Erc20Transaction erc20 = (Erc20Transaction) transaction;
+                tokenName = erc20.getTokenName();
+                decimals = erc20.getTokenDecimal();
+            } else if (transaction instanceof Erc721Transaction) {
+                tokenName = ((Erc721Transaction) transaction).getTokenName();
+            } else {
+                decimals = 18;
+            }
+            generator.writeFieldName(TOKEN_NAME);
+            writeOptional(tokenName);
+            generator.writeFieldName(TOKEN_DECIMALS);
+            if (decimals >= 0) {
+                generator.writeNumber(decimals);
+            } else {
+                generator.writeNull();
+            }
+        }
+
+        private void writeOptional(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value);
+            }
+        }
+
+        private void writeDecimal(BigDecimal value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value.toPlainString());
+            }
+        }
+
+        /**
+         * Writes {@code yyyy-MM-ddTHH:mm:ssZ} from a reused buffer.
+         */
+        private void writeTimestamp(LocalDateTime dateTime) throws IOException {
+            if (dateTime == null) {
+                generator.writeNull();
+                return;
+            }
+            if (dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+                generator.writeString(dateTime + "Z");
+                return;
+            }
+            digits(0, dateTime.getYear(), 4);
+            timestamp[4] = '-';
+            digits(5, dateTime.getMonthValue(), 2);
+            timestamp[7] = '-';
+            digits(8, dateTime.getDayOfMonth(), 2);
+            timestamp[10] = 'T';
+            digits(11, dateTime.getHour(), 2);
+            timestamp[13] = ':';
+            digits(14, dateTime.getMinute(), 2);
+            timestamp[16] = ':';
+            digits(17, dateTime.getSecond(), 2);
+            timestamp[19] = 'Z';
+            generator.writeString(timestamp, 0, timestamp.length);
+        }
+
+        private void digits(int offset, int value, int length) {
+            for (int i = offset + length - 1; i >= offset; i--) {
+                timestamp[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+}
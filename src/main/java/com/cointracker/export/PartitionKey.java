@@ -0,0 +1,47 @@
+package com.cointracker.export;
+
+import com.cointracker.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * How {@link PartitionedCsvExporter} splits rows into files.
+ */
+public enum PartitionKey {
+    MONTH,
+    YEAR,
+    TYPE,
+    TOKEN;
+
+    /**
+     * Partition name used in file names, e.g. {@code 2024-03}, {@code erc20} or a token contract ({@code eth} for ETH).
+     */
+    public String partitionOf(Transaction transaction) {
+        switch (this) {
+            case MONTH:
+            case YEAR: {
+                LocalDateTime dateTime = transaction.getDateTime();
+                if (dateTime == null) {
+                    return "undated";
+                }
+                return this == MONTH ? YearMonth.from(dateTime).toString() : String.valueOf(dateTime.getYear());
+            }
+            case TYPE:
+                return transaction.getType().name().toLowerCase();
+            default: {
+                String contract = transaction.getAssetContractAddress();
+                return contract.isEmpty() ? "eth" : contract.toLowerCase();
+            }
+        }
+    }
+
+    public static PartitionKey fromString(String value) {
+        for (PartitionKey key : values()) {
+            if (key.name().equalsIgnoreCase(value)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported partition key: " + value + " (expected month, year, type or token)");
+    }
+}
@@ -0,0 +1,172 @@
+package com.cointracker.export;
+
+import com.cointracker.jfr.CsvExportEvent;
+import com.cointracker.metrics.MetricsRegistry;
+import com.cointracker.model.Transaction;
+import com.opencsv.CSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes one CSV per partition (month, year, type or token) instead of one file per address.
+ *
+ * Rows keep their order within each partition. Partitions are written concurrently by
+ * at most {@code maxOpenFiles} threads, each holding one open file with its own write
+ * buffer, so open handles and buffer memory stay bounded however many partitions there
+ * are. The largest partitions are started first so one big file does not finish last.
+ * A {@code <prefix>-manifest.csv} lists every partition file with its row count and size.
+ */
+public class PartitionedCsvExporter {
+
+    private static final String[] MANIFEST_HEADER = {
+        "Partition",
+        "File",
+        "Rows",
+        "Bytes"
+    };
+
+    private final CsvExporter rows;
+    private final PartitionKey key;
+    private final int maxOpenFiles;
+    private final int bufferBytes;
+
+    public PartitionedCsvExporter(PartitionKey key, boolean includeFiatValue, int maxOpenFiles, int bufferBytes) {
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException("At least one open file is required");
+        }
+        this.rows = new CsvExporter(includeFiatValue);
+        this.key = key;
+        this.maxOpenFiles = maxOpenFiles;
+        this.bufferBytes = bufferBytes;
+    }
+
+    /**
+     * Writes {@code <prefix>-<partition>.csv} files and the manifest into the directory.
+     *
+     * @return the partitions in manifest order
+     */
+    public List<Partition> export(List<Transaction> transactions, Path directory, String prefix) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        Map<String, List<Transaction>> partitions = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            partitions.computeIfAbsent(key.partitionOf(transaction), name -> new ArrayList<>()).add(transaction);
+        }
+
+        List<Map.Entry<String, List<Transaction>>> largestFirst = new ArrayList<>(partitions.entrySet());
+        largestFirst.sort(Comparator.comparingInt((Map.Entry<String, List<Transaction>> e) -> e.getValue().size()).reversed());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxOpenFiles, partitions.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "csv-partition");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Map<String, Future<Partition>> written = new TreeMap<>();
+        try {
+            for (Map.Entry<String, List<Transaction>> partition : largestFirst) {
+                Path file = directory.resolve(prefix + "-" + partition.getKey() + ".csv");
+                written.put(partition.getKey(), executor.submit(() -> write(partition.getKey(), partition.getValue(), file)));
+            }
+            List<Partition> result = new ArrayList<>(written.size());
+            for (Future<Partition> partition : written.values()) {
+                result.add(await(partition));
+            }
+            writeManifest(result, directory.resolve(prefix + "-manifest.csv"));
+
+            MetricsRegistry metrics = MetricsRegistry.getDefault();
+            metrics.histogram("export_seconds", "format", "csv-partitioned").recordSince(start);
+            metrics.counter("rows_exported_total", "format", "csv-partitioned").add(transactions.size());
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Partition write(String name, List<Transaction> transactions, Path file) throws IOException {
+        CsvExportEvent event = new CsvExportEvent();
+        event.begin();
+        try (CSVWriter writer = new CSVWriter(new BufferedWriter(new FileWriter(file.toFile()), bufferBytes))) {
+            writer.writeNext(rows.headerRow());
+            for (Transaction transaction : transactions) {
+                writer.writeNext(rows.toRow(transaction));
+            }
+        }
+        long bytes = Files.size(file);
+        CsvExporter.commitExportEvent(event, file.toString(), false, transactions.size(), bytes);
+        return new Partition(name, file, transactions.size(), bytes);
+    }
+
+    private static void writeManifest(List<Partition> partitions, Path file) throws IOException {
+        try (CSVWriter writer = new CSVWriter(new FileWriter(file.toFile()))) {
+            writer.writeNext(MANIFEST_HEADER);
+            for (Partition partition : partitions) {
+                writer.writeNext(new String[]{
+                    partition.getName(),
+                    partition.getFile().getFileName().toString(),
+                    String.valueOf(partition.getRows()),
+                    String.valueOf(partition.getBytes())
+                });
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Partitioned export interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Partitioned export failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * One written partition file, as listed in the manifest.
+     */
+    public static class Partition {
+        private final String name;
+        private final Path file;
+        private final int rows;
+        private final long bytes;
+
+        Partition(String name, Path file, int rows, long bytes) {
+            this.name = name;
+            this.file = file;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
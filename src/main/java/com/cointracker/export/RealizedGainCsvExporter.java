@@ -0,0 +1,53 @@
+package com.cointracker.export;
+
+import com.cointracker.analytics.RealizedGain;
+import com.opencsv.CSVWriter;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+public class RealizedGainCsvExporter {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] HEADER = {
+        "Transaction Hash",
+        "Asset Contract Address",
+        "Asset Symbol / Name",
+        "Quantity",
+        "Date Acquired",
+        "Date Disposed",
+        "Cost Basis (USD)",
+        "Proceeds (USD)",
+        "Gain (USD)"
+    };
+
+    public void exportToCsv(List<RealizedGain> gains, String filename) throws IOException {
+        if (!filename.toLowerCase().endsWith(".csv")) {
+            filename = filename + ".csv";
+        }
+
+        try (CSVWriter writer = new CSVWriter(new FileWriter(filename))) {
+            writer.writeNext(HEADER);
+
+            for (RealizedGain gain : gains) {
+                writer.writeNext(new String[]{
+                    gain.getTransactionHash(),
+                    "ETH".equals(gain.getAssetKey()) ? "" : gain.getAssetKey(),
+                    gain.getSymbol(),
+                    gain.getQuantity().toPlainString(),
+                    gain.getAcquiredAt() != null ? gain.getAcquiredAt().format(DATE_TIME_FORMATTER) : "(Unknown)",
+                    gain.getDisposedAt().format(DATE_TIME_FORMATTER),
+                    gain.getCostBasis().toPlainString(),
+                    gain.getProceeds().toPlainString(),
+                    gain.getGain().toPlainString()
+                });
+            }
+        }
+
+        System.out.println("✅ Successfully exported " + gains.size() + " realized gain rows to: " + filename);
+    }
+}
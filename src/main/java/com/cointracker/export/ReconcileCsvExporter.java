@@ -0,0 +1,79 @@
+package com.cointracker.export;
+
+import com.cointracker.analytics.ReconcileDifference;
+import com.cointracker.model.Transaction;
+import com.opencsv.CSVWriter;
+
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Writes reconciliation differences as they are found, so the file can be larger than memory.
+ */
+public class ReconcileCsvExporter implements Consumer<ReconcileDifference>, Closeable {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] HEADER = {
+        "Difference",
+        "Transaction Hash",
+        "Date & Time",
+        "Transaction Type",
+        "Asset Contract Address",
+        "Token ID",
+        "First Value",
+        "Second Value"
+    };
+
+    private final String filename;
+    private final CSVWriter writer;
+    private long rows;
+
+    public ReconcileCsvExporter(String filename) throws IOException {
+        if (!filename.toLowerCase().endsWith(".csv")) {
+            filename = filename + ".csv";
+        }
+        this.filename = filename;
+        this.writer = new CSVWriter(new FileWriter(filename));
+        writer.writeNext(HEADER);
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public void accept(ReconcileDifference difference) {
+        Transaction transaction = difference.getTransaction();
+        writer.writeNext(new String[]{
+            difference.getKind().name(),
+            transaction.getTransactionHash(),
+            transaction.getDateTime().format(DATE_TIME_FORMATTER),
+            transaction.getType().getDisplayName(),
+            transaction.getAssetContractAddress(),
+            transaction.getTokenId(),
+            value(difference.getFirst()),
+            value(difference.getSecond())
+        });
+        rows++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        System.out.println("✅ Successfully exported " + rows + " differences to: " + filename);
+    }
+
+    private static String value(Transaction transaction) {
+        if (transaction == null) {
+            return "";
+        }
+        BigDecimal value = transaction.getValue();
+        return value != null ? value.toPlainString() : "";
+    }
+}
@@ -0,0 +1,126 @@
+package com.cointracker.graph;
+
+import com.cointracker.model.TransactionHashes;
+
+import java.util.Arrays;
+
+/**
+ * Interns 20-byte Ethereum addresses as dense int ids, case-insensitively.
+ *
+ * Each address is stored as its 160 bits (one int and two longs) in parallel arrays,
+ * with an open-addressing table of ids on top, so an address costs about 28 bytes
+ * instead of a String plus a map entry.
+ */
+final class AddressIds {
+
+    private final long[] scratch = new long[TransactionHashes.WORDS];
+    private int[] high = new int[1024];
+    private long[] middle = new long[1024];
+    private long[] low = new long[1024];
+    private int size;
+    private int[] slots = new int[2048];
+
+    static boolean isAddress(String value) {
+        if (value == null || value.length() != 42 || value.charAt(0) != '0'
+                || (value.charAt(1) != 'x' && value.charAt(1) != 'X')) {
+            return false;
+        }
+        for (int i = 2; i < 42; i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the id of the address, assigning the next id if it is new.
+     */
+    int intern(String address) {
+        int slot = slotOf(address);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        if (size == high.length) {
+            high = Arrays.copyOf(high, size * 2);
+            middle = Arrays.copyOf(middle, size * 2);
+            low = Arrays.copyOf(low, size * 2);
+        }
+        high[size] = (int) scratch[1];
+        middle[size] = scratch[2];
+        low[size] = scratch[3];
+        slots[slot] = ++size;
+        // Keep the load factor at or below one half
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Returns the id of the address, or -1 if it was never interned.
+     */
+    int find(String address) {
+        if (!isAddress(address)) {
+            return -1;
+        }
+        return slots[slotOf(address)] - 1;
+    }
+
+    String address(int id) {
+        char[] hex = new char[42];
+        hex[0] = '0';
+        hex[1] = 'x';
+        writeHex(hex, 2, high[id] & 0xFFFFFFFFL, 8);
+        writeHex(hex, 10, middle[id], 16);
+        writeHex(hex, 26, low[id], 16);
+        return new String(hex);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long byteCount() {
+        return (long) high.length * (Integer.BYTES + 2 * Long.BYTES) + (long) slots.length * Integer.BYTES;
+    }
+
+    /**
+     * Decodes the address into the scratch words and returns its slot, empty or matching.
+     */
+    private int slotOf(String address) {
+        if (!isAddress(address)) {
+            throw new IllegalArgumentException("Not an address: " + address);
+        }
+        TransactionHashes.fingerprint(address, scratch, 0);
+        int mask = slots.length - 1;
+        int slot = (int) TransactionHashes.mix(0, scratch[1], scratch[2], scratch[3]) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (high[id] == (int) scratch[1] && middle[id] == scratch[2] && low[id] == scratch[3]) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = (int) TransactionHashes.mix(0, high[id] & 0xFFFFFFFFL, middle[id], low[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static void writeHex(char[] out, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            out[i] = Character.forDigit((int) (value & 0xF), 16);
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.cointracker.graph;
+
+import java.util.Arrays;
+
+/**
+ * Directed "sent to" graph between addresses in compressed sparse row form.
+ *
+ * Node ids are dense ints. The targets of node {@code n} are
+ * {@code targets[offsets[n] .. offsets[n + 1])}, sorted, with the number of
+ * transactions on each edge in the parallel {@code transactions} array. An edge
+ * therefore costs 8 bytes and a node about 32 bytes including its address, so
+ * millions of edges fit in tens of megabytes.
+ *
+ * The graph is immutable once built; use {@link Builder} to collect transactions.
+ */
+public final class InteractionGraph {
+
+    private final AddressIds addresses;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] transactions;
+
+    private InteractionGraph(AddressIds addresses, int[] offsets, int[] targets, int[] transactions) {
+        this.addresses = addresses;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.transactions = transactions;
+    }
+
+    public int getNodeCount() {
+        return offsets.length - 1;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    public String getAddress(int node) {
+        return addresses.address(node);
+    }
+
+    /**
+     * Returns the node of the address, or -1 if it is not in the graph.
+     */
+    public int nodeOf(String address) {
+        return addresses.find(address);
+    }
+
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * Transactions sent from one address to the other, 0 if there are none.
+     */
+    public int getTransactionCount(String from, String to) {
+        int source = nodeOf(from);
+        int target = nodeOf(to);
+        if (source < 0 || target < 0) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(targets, offsets[source], offsets[source + 1], target);
+        return index >= 0 ? transactions[index] : 0;
+    }
+
+    /**
+     * Visits every edge, grouped by source node in id order.
+     */
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int node = 0; node < getNodeCount(); node++) {
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                visitor.visit(node, targets[i], transactions[i]);
+            }
+        }
+    }
+
+    /**
+     * Approximate bytes held by the graph, addresses included.
+     */
+    public long getMemoryBytes() {
+        return (long) (offsets.length + targets.length + transactions.length) * Integer.BYTES + addresses.byteCount();
+    }
+
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(int from, int to, int transactions);
+    }
+
+    /**
+     * Collects one (from, to) pair per transaction; {@link #build} sorts them into rows
+     * and merges repeated pairs into edge counts. The graph shares the builder's
+     * addresses, so the builder must not be used after {@link #build}.
+     */
+    public static final class Builder {
+        private final AddressIds addresses = new AddressIds();
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private int pairs;
+
+        /**
+         * Returns the node of the address, adding it if it is new.
+         *
+         * @throws IllegalArgumentException if the value is not a 20-byte hex address
+         */
+        public int node(String address) {
+            return addresses.intern(address);
+        }
+
+        public String getAddress(int node) {
+            return addresses.address(node);
+        }
+
+        public int getNodeCount() {
+            return addresses.size();
+        }
+
+        public void addTransaction(int fromNode, int toNode) {
+            if (pairs == from.length) {
+                from = Arrays.copyOf(from, pairs * 2);
+                to = Arrays.copyOf(to, pairs * 2);
+            }
+            from[pairs] = fromNode;
+            to[pairs] = toNode;
+            pairs++;
+        }
+
+        public InteractionGraph build() {
+            int nodes = addresses.size();
+            // Counting sort of the pairs by source node
+            int[] rowStarts = new int[nodes + 1];
+            for (int i = 0; i < pairs; i++) {
+                rowStarts[from[i] + 1]++;
+            }
+            for (int node = 0; node < nodes; node++) {
+                rowStarts[node + 1] += rowStarts[node];
+            }
+            int[] sorted = new int[pairs];
+            int[] next = Arrays.copyOf(rowStarts, nodes);
+            for (int i = 0; i < pairs; i++) {
+                sorted[next[from[i]]++] = to[i];
+            }
+
+            // Sort each row and merge repeated targets in place
+            int[] offsets = new int[nodes + 1];
+            int[] counts = new int[pairs];
+            int edges = 0;
+            for (int node = 0; node < nodes; node++) {
+                offsets[node] = edges;
+                Arrays.sort(sorted, rowStarts[node], rowStarts[node + 1]);
+                for (int i = rowStarts[node]; i < rowStarts[node + 1]; i++) {
+                    if (edges > offsets[node] && sorted[edges - 1] == sorted[i]) {
+                        counts[edges - 1]++;
+                    } else {
+                        sorted[edges] = sorted[i];
+                        counts[edges] = 1;
+                        edges++;
+                    }
+                }
+            }
+            offsets[nodes] = edges;
+            return new InteractionGraph(addresses, offsets, Arrays.copyOf(sorted, edges), Arrays.copyOf(counts, edges));
+        }
+    }
+}
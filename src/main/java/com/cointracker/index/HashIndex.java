@@ -0,0 +1,514 @@
+package com.cointracker.index;
+
+import com.cointracker.model.TransactionHashes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent set of transaction hashes for "seen before?" checks at hundreds of
+ * millions of entries.
+ *
+ * Each hash is reduced to its 256-bit fingerprint ({@link TransactionHashes}) and a
+ * 64-bit mix of it. The file holds the mixes in sorted order, the full fingerprints in
+ * the same order, and a blocked Bloom filter, all memory-mapped read-only. A lookup
+ * first tests one 64-byte Bloom block, so most absent hashes cost one cache line.
+ * Otherwise it binary-searches the mixes and confirms against the full fingerprint.
+ * Nothing is kept on the Java heap: the filter takes about 1.25 bytes per hash and
+ * the mix column 8 bytes, both paged in by the OS as they are used.
+ *
+ * Keys that are not hex hashes (e.g. composite row keys) are fingerprinted with SHA-256.
+ * The file is never changed in place: {@link #merge} writes the union with new keys
+ * in one sorted merge pass and atomically replaces the old file, or writes it to a
+ * separate target so the caller can decide when to swap it in. The Bloom filter is
+ * built directly in a writable mapping of the new file, so it never sits on the heap.
+ */
+public final class HashIndex {
+
+    private static final long MAGIC = 0x4354484153484931L;
+    private static final int HEADER_BYTES = 24;
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_PROBES = 6;
+    private static final int BLOCK_LONGS = 8;
+    private static final int STRIDE = 1 + TransactionHashes.WORDS;
+
+    private final long size;
+    private final LongColumn mixes;
+    private final LongColumn fingerprints;
+    private final LongColumn bloom;
+    private final long bloomBlocks;
+
+    private HashIndex(long size, LongColumn mixes, LongColumn fingerprints, LongColumn bloom, long bloomBlocks) {
+        this.size = size;
+        this.mixes = mixes;
+        this.fingerprints = fingerprints;
+        this.bloom = bloom;
+        this.bloomBlocks = bloomBlocks;
+    }
+
+    /**
+     * Maps an index file, or returns an empty index if the file does not exist.
+     */
+    public static HashIndex open(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new HashIndex(0, LongColumn.EMPTY, LongColumn.EMPTY, LongColumn.EMPTY, 0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // read the whole header
+            }
+            if (header.position() < HEADER_BYTES || header.getLong(0) != MAGIC) {
+                throw new IOException("Not a hash index: " + file);
+            }
+            long size = header.getLong(8);
+            long blocks = header.getLong(16);
+            long expected = HEADER_BYTES + size * Long.BYTES * STRIDE + blocks * BLOCK_LONGS * Long.BYTES;
+            if (size < 0 || blocks < 0 || channel.size() != expected) {
+                throw new IOException("Truncated hash index: " + file);
+            }
+            long offset = HEADER_BYTES;
+            LongColumn mixes = LongColumn.map(channel, offset, size);
+            offset += size * Long.BYTES;
+            LongColumn fingerprints = LongColumn.map(channel, offset, size * TransactionHashes.WORDS);
+            offset += size * TransactionHashes.WORDS * Long.BYTES;
+            LongColumn bloom = LongColumn.map(channel, offset, blocks * BLOCK_LONGS);
+            return new HashIndex(size, mixes, fingerprints, bloom, blocks);
+        }
+    }
+
+    /**
+     * Writes the union of the index at {@code file} and {@code hashes} and returns it.
+     * Only the new hashes are sorted in memory; the existing entries are streamed.
+     */
+    public static HashIndex merge(Path file, Collection<String> hashes) throws IOException {
+        return merge(file, file, hashes);
+    }
+
+    /**
+     * Writes the union of the index at {@code file} and {@code hashes} to {@code target},
+     * leaving {@code file} untouched unless it is the target, and returns the new index.
+     */
+    public static HashIndex merge(Path file, Path target, Collection<String> hashes) throws IOException {
+        HashIndex existing = open(file);
+        Records added = Records.of(hashes);
+        added.sort();
+        added.dedupe();
+        long count = existing.mergeWith(added, null);
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long blocks = Math.max(1, (count * BLOOM_BITS_PER_KEY + BLOCK_LONGS * 64 - 1) / (BLOCK_LONGS * 64));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ColumnWriter header = new ColumnWriter(channel, 0);
+            header.put(MAGIC);
+            header.put(count);
+            header.put(blocks);
+            header.flush();
+            ColumnWriter mixColumn = new ColumnWriter(channel, HEADER_BYTES);
+            ColumnWriter fingerprintColumn = new ColumnWriter(channel, HEADER_BYTES + count * Long.BYTES);
+            // Mapping the filter region read-write extends the file with zeroes
+            LongColumn filter = LongColumn.map(channel, FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + count * Long.BYTES * STRIDE, blocks * BLOCK_LONGS);
+            existing.mergeWith(added, (mix, words, offset) -> {
+                mixColumn.put(mix);
+                for (int word = 0; word < TransactionHashes.WORDS; word++) {
+                    fingerprintColumn.put(words.get(offset + word));
+                }
+                addToBloom(filter, blocks, mix);
+            });
+            mixColumn.flush();
+            fingerprintColumn.flush();
+            filter.force();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(target);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long getBloomBytes() {
+        return bloomBlocks * BLOCK_LONGS * Long.BYTES;
+    }
+
+    public boolean contains(String hash) {
+        if (size == 0) {
+            return false;
+        }
+        long[] words = TransactionHashes.fingerprint(hash);
+        long mix = TransactionHashes.mix(words[0], words[1], words[2], words[3]);
+        if (!mightContain(mix)) {
+            return false;
+        }
+        return find(lowerBound(0, size, mix), mix, LongArray.of(words), 0) >= 0;
+    }
+
+    /**
+     * Looks up many hashes at once. They are sorted first, so the mapped columns are
+     * read front to back instead of at random.
+     *
+     * @return for each hash, whether it is in the index
+     */
+    public boolean[] containsAll(List<String> hashes) {
+        boolean[] found = new boolean[hashes.size()];
+        if (size == 0 || hashes.isEmpty()) {
+            return found;
+        }
+        Records batch = Records.of(hashes);
+        batch.sort();
+        long position = 0;
+        for (int i = 0; i < batch.count; i++) {
+            long mix = batch.mix(i);
+            if (!mightContain(mix)) {
+                continue;
+            }
+            position = gallop(position, mix);
+            found[batch.order[i]] = find(position, mix, batch, i * STRIDE + 1) >= 0;
+        }
+        return found;
+    }
+
+    /**
+     * Position of the entry with this mix and fingerprint, scanning from the first
+     * position with this mix, or -1.
+     */
+    private long find(long first, long mix, LongArray words, int offset) {
+        for (long i = first; i < size && mixes.get(i) == mix; i++) {
+            long base = i * TransactionHashes.WORDS;
+            boolean equal = true;
+            for (int word = 0; word < TransactionHashes.WORDS && equal; word++) {
+                equal = fingerprints.get(base + word) == words.get(offset + word);
+            }
+            if (equal) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * First position at or after {@code from} whose mix is not below {@code mix},
+     * found by doubling steps and then a binary search.
+     */
+    private long gallop(long from, long mix) {
+        long step = 1;
+        long high = from;
+        while (high < size && Long.compareUnsigned(mixes.get(high), mix) < 0) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        return lowerBound(from, Math.min(high, size), mix);
+    }
+
+    private long lowerBound(long low, long high, long mix) {
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(mixes.get(mid), mix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean mightContain(long mix) {
+        long base = blockOf(mix, bloomBlocks) * BLOCK_LONGS;
+        long probes = mix * 0x9E3779B97F4A7C15L;
+        for (int probe = 0; probe < BLOOM_PROBES; probe++) {
+            int bit = (int) (probes >>> (probe * 9)) & (BLOCK_LONGS * 64 - 1);
+            if ((bloom.get(base + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addToBloom(LongColumn filter, long blocks, long mix) {
+        long base = blockOf(mix, blocks) * BLOCK_LONGS;
+        long probes = mix * 0x9E3779B97F4A7C15L;
+        for (int probe = 0; probe < BLOOM_PROBES; probe++) {
+            int bit = (int) (probes >>> (probe * 9)) & (BLOCK_LONGS * 64 - 1);
+            long index = base + (bit >>> 6);
+            filter.put(index, filter.get(index) | 1L << bit);
+        }
+    }
+
+    private static long blockOf(long mix, long blocks) {
+        return ((mix >>> 32) * blocks) >>> 32;
+    }
+
+    /**
+     * Walks this index and the sorted new records in order, passing each distinct
+     * entry to the sink (if any), and returns how many there are.
+     */
+    private long mergeWith(Records added, EntrySink sink) throws IOException {
+        LongArray existing = fingerprints::get;
+        long count = 0;
+        long i = 0;
+        int j = 0;
+        while (i < size || j < added.count) {
+            int order;
+            if (i == size) {
+                order = 1;
+            } else if (j == added.count) {
+                order = -1;
+            } else {
+                order = compare(mixes.get(i), existing, i * TransactionHashes.WORDS,
+                        added.mix(j), added, j * STRIDE + 1);
+            }
+            if (order <= 0) {
+                if (sink != null) {
+                    sink.accept(mixes.get(i), existing, i * TransactionHashes.WORDS);
+                }
+                i++;
+                if (order == 0) {
+                    j++;
+                }
+            } else {
+                if (sink != null) {
+                    sink.accept(added.mix(j), added, j * STRIDE + 1);
+                }
+                j++;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static int compare(long mixA, LongArray a, long offsetA, long mixB, LongArray b, long offsetB) {
+        int order = Long.compareUnsigned(mixA, mixB);
+        for (int word = 0; word < TransactionHashes.WORDS && order == 0; word++) {
+            order = Long.compareUnsigned(a.get(offsetA + word), b.get(offsetB + word));
+        }
+        return order;
+    }
+
+    private interface LongArray {
+        long get(long index);
+
+        static LongArray of(long[] values) {
+            return index -> values[(int) index];
+        }
+    }
+
+    private interface EntrySink {
+        void accept(long mix, LongArray words, long offset) throws IOException;
+    }
+
+    /**
+     * Mix and fingerprint of each new key, packed {@value #STRIDE} longs per key and
+     * sorted in place with their original positions alongside.
+     */
+    private static final class Records implements LongArray {
+        private final long[] data;
+        private final int[] order;
+        private int count;
+
+        private Records(long[] data, int[] order, int count) {
+            this.data = data;
+            this.order = order;
+            this.count = count;
+        }
+
+        static Records of(Collection<String> hashes) {
+            int count = hashes.size();
+            long[] data = new long[count * STRIDE];
+            int[] order = new int[count];
+            int i = 0;
+            for (String hash : hashes) {
+                int base = i * STRIDE;
+                TransactionHashes.fingerprint(hash, data, base + 1);
+                data[base] = TransactionHashes.mix(data[base + 1], data[base + 2], data[base + 3], data[base + 4]);
+                order[i] = i;
+                i++;
+            }
+            return new Records(data, order, count);
+        }
+
+        long mix(int record) {
+            return data[record * STRIDE];
+        }
+
+        @Override
+        public long get(long index) {
+            return data[(int) index];
+        }
+
+        void sort() {
+            quickSort(0, count - 1);
+        }
+
+        /**
+         * Drops repeated keys; call after {@link #sort()}.
+         */
+        void dedupe() {
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct > 0 && compareRecords(i, distinct - 1) == 0) {
+                    continue;
+                }
+                if (i != distinct) {
+                    System.arraycopy(data, i * STRIDE, data, distinct * STRIDE, STRIDE);
+                    order[distinct] = order[i];
+                }
+                distinct++;
+            }
+            count = distinct;
+        }
+
+        private void quickSort(int low, int high) {
+            while (high - low > 16) {
+                int pivot = medianOfThree(low, (low + high) >>> 1, high);
+                swap(pivot, high);
+                int store = low;
+                for (int i = low; i < high; i++) {
+                    if (compareRecords(i, high) < 0) {
+                        swap(i, store++);
+                    }
+                }
+                swap(store, high);
+                if (store - low < high - store) {
+                    quickSort(low, store - 1);
+                    low = store + 1;
+                } else {
+                    quickSort(store + 1, high);
+                    high = store - 1;
+                }
+            }
+            for (int i = low + 1; i <= high; i++) {
+                for (int k = i; k > low && compareRecords(k, k - 1) < 0; k--) {
+                    swap(k, k - 1);
+                }
+            }
+        }
+
+        private int medianOfThree(int a, int b, int c) {
+            if (compareRecords(a, b) > 0) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            if (compareRecords(b, c) > 0) {
+                b = c;
+                if (compareRecords(a, b) > 0) {
+                    b = a;
+                }
+            }
+            return b;
+        }
+
+        private int compareRecords(int a, int b) {
+            return compare(data[a * STRIDE], this, a * STRIDE + 1, data[b * STRIDE], this, b * STRIDE + 1);
+        }
+
+        private void swap(int a, int b) {
+            if (a == b) {
+                return;
+            }
+            int baseA = a * STRIDE;
+            int baseB = b * STRIDE;
+            for (int k = 0; k < STRIDE; k++) {
+                long t = data[baseA + k];
+                data[baseA + k] = data[baseB + k];
+                data[baseB + k] = t;
+            }
+            int t = order[a];
+            order[a] = order[b];
+            order[b] = t;
+        }
+    }
+
+    /**
+     * Little-endian longs mapped in segments, so columns may exceed 2 GB.
+     */
+    private static final class LongColumn {
+        private static final int SEGMENT_BITS = 27;
+        private static final LongColumn EMPTY = new LongColumn(new MappedByteBuffer[0], new LongBuffer[0]);
+
+        private final MappedByteBuffer[] mapped;
+        private final LongBuffer[] segments;
+
+        private LongColumn(MappedByteBuffer[] mapped, LongBuffer[] segments) {
+            this.mapped = mapped;
+            this.segments = segments;
+        }
+
+        static LongColumn map(FileChannel channel, long offset, long longs) throws IOException {
+            return map(channel, FileChannel.MapMode.READ_ONLY, offset, longs);
+        }
+
+        static LongColumn map(FileChannel channel, FileChannel.MapMode mode, long offset, long longs) throws IOException {
+            int count = (int) ((longs + (1L << SEGMENT_BITS) - 1) >>> SEGMENT_BITS);
+            MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+            LongBuffer[] segments = new LongBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long first = (long) i << SEGMENT_BITS;
+                long length = Math.min(1L << SEGMENT_BITS, longs - first);
+                mapped[i] = channel.map(mode, offset + first * Long.BYTES, length * Long.BYTES);
+                segments[i] = mapped[i].order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            }
+            return new LongColumn(mapped, segments);
+        }
+
+        long get(long index) {
+            return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & ((1L << SEGMENT_BITS) - 1)));
+        }
+
+        void put(long index, long value) {
+            segments[(int) (index >>> SEGMENT_BITS)].put((int) (index & ((1L << SEGMENT_BITS) - 1)), value);
+        }
+
+        /**
+         * Writes a read-write mapping back to the file.
+         */
+        void force() {
+            for (MappedByteBuffer segment : mapped) {
+                segment.force();
+            }
+        }
+    }
+
+    /**
+     * Buffered little-endian writer starting at a fixed file position.
+     */
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        ColumnWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        void put(long value) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+}
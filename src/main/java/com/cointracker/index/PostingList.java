@@ -0,0 +1,129 @@
+package com.cointracker.index;
+
+import java.util.Arrays;
+
+/**
+ * Ascending row numbers stored as variable-length deltas, usually one byte per row.
+ *
+ * Every {@value #SKIP_INTERVAL}th row is also kept in a skip table with its byte
+ * offset, so a cursor asked for a far-away row jumps to the nearest skip entry by
+ * binary search and decodes at most one block of deltas from there.
+ */
+final class PostingList {
+
+    static final int SKIP_INTERVAL = 64;
+    static final int NO_MORE_ROWS = Integer.MAX_VALUE;
+
+    private final byte[] data;
+    private final int size;
+    /** Row and offset just past its delta, for every SKIP_INTERVAL-th entry. */
+    private final int[] skipRows;
+    private final int[] skipOffsets;
+
+    private PostingList(byte[] data, int size, int[] skipRows, int[] skipOffsets) {
+        this.data = data;
+        this.size = size;
+        this.skipRows = skipRows;
+        this.skipOffsets = skipOffsets;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int byteCount() {
+        return data.length + (skipRows.length + skipOffsets.length) * Integer.BYTES;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Forward-only position in the list.
+     */
+    final class Cursor {
+        private int index = -1;
+        private int row = -1;
+        private int offset;
+
+        /**
+         * Moves to the first row at or after {@code target} and returns it, or
+         * {@link #NO_MORE_ROWS} when the list is exhausted.
+         */
+        int advance(int target) {
+            if (row >= target) {
+                return row;
+            }
+            int skip = Arrays.binarySearch(skipRows, target);
+            if (skip < 0) {
+                skip = -skip - 2;
+            }
+            if (skip >= 0 && skip * SKIP_INTERVAL > index) {
+                index = skip * SKIP_INTERVAL;
+                row = skipRows[skip];
+                offset = skipOffsets[skip];
+            }
+            while (row < target) {
+                if (++index >= size) {
+                    row = NO_MORE_ROWS;
+                    break;
+                }
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[offset++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                row += delta;
+            }
+            return row;
+        }
+    }
+
+    static final class Builder {
+        private byte[] data = new byte[16];
+        private int length;
+        private int size;
+        private int last = -1;
+        private int[] skipRows = new int[4];
+        private int[] skipOffsets = new int[4];
+
+        /**
+         * Appends a row, which must be greater than the previous one.
+         */
+        void add(int row) {
+            if (row <= last) {
+                throw new IllegalArgumentException("Rows must be added in ascending order: " + row + " after " + last);
+            }
+            int delta = row - last;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            if (size % SKIP_INTERVAL == 0) {
+                int skip = size / SKIP_INTERVAL;
+                if (skip == skipRows.length) {
+                    skipRows = Arrays.copyOf(skipRows, skip * 2);
+                    skipOffsets = Arrays.copyOf(skipOffsets, skip * 2);
+                }
+                skipRows[skip] = row;
+                skipOffsets[skip] = length;
+            }
+            last = row;
+            size++;
+        }
+
+        PostingList build() {
+            int skips = (size + SKIP_INTERVAL - 1) / SKIP_INTERVAL;
+            return new PostingList(Arrays.copyOf(data, length), size,
+                    Arrays.copyOf(skipRows, skips), Arrays.copyOf(skipOffsets, skips));
+        }
+    }
+}
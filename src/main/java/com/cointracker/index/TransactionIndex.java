@@ -0,0 +1,230 @@
+package com.cointracker.index;
+
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * In-memory secondary indexes over one transaction history.
+ *
+ * Rows are kept in time order, so a time range is a contiguous run of row numbers
+ * found by binary search over the timestamps. Token contracts, counterparties and
+ * transaction types each map to a {@link PostingList} of row numbers. A query walks
+ * the posting lists of its conditions together, always jumping every list to the
+ * highest row any of them is on, so the cost follows the shortest list rather than
+ * the history. Matches are streamed in time order.
+ *
+ * The index is immutable once built and may be queried from several threads.
+ */
+public final class TransactionIndex {
+
+    private final List<Transaction> rows;
+    private final long[] epochSeconds;
+    private final Map<String, PostingList> byToken;
+    private final Map<String, PostingList> byCounterparty;
+    private final Map<TransactionType, PostingList> byType;
+
+    private TransactionIndex(List<Transaction> rows, long[] epochSeconds, Map<String, PostingList> byToken,
+                             Map<String, PostingList> byCounterparty, Map<TransactionType, PostingList> byType) {
+        this.rows = rows;
+        this.epochSeconds = epochSeconds;
+        this.byToken = byToken;
+        this.byCounterparty = byCounterparty;
+        this.byType = byType;
+    }
+
+    /**
+     * Indexes the transactions; rows with the same time keep their given order.
+     */
+    public static TransactionIndex build(List<Transaction> transactions) {
+        List<Transaction> rows = new ArrayList<>(transactions);
+        rows.sort(Comparator.comparingLong(TransactionQuery::epochSecond));
+
+        long[] epochSeconds = new long[rows.size()];
+        Map<String, PostingList.Builder> tokens = new HashMap<>();
+        Map<String, PostingList.Builder> counterparties = new HashMap<>();
+        Map<TransactionType, PostingList.Builder> types = new EnumMap<>(TransactionType.class);
+        for (int row = 0; row < rows.size(); row++) {
+            Transaction transaction = rows.get(row);
+            epochSeconds[row] = TransactionQuery.epochSecond(transaction);
+            tokens.computeIfAbsent(TransactionQuery.tokenKey(transaction), key -> new PostingList.Builder()).add(row);
+            types.computeIfAbsent(transaction.getType(), key -> new PostingList.Builder()).add(row);
+            String from = lowerCase(transaction.getFromAddress());
+            String to = lowerCase(transaction.getToAddress());
+            if (!from.isEmpty()) {
+                counterparties.computeIfAbsent(from, key -> new PostingList.Builder()).add(row);
+            }
+            if (!to.isEmpty() && !to.equals(from)) {
+                counterparties.computeIfAbsent(to, key -> new PostingList.Builder()).add(row);
+            }
+        }
+        return new TransactionIndex(Collections.unmodifiableList(rows), epochSeconds,
+                seal(tokens, new HashMap<>()), seal(counterparties, new HashMap<>()),
+                seal(types, new EnumMap<>(TransactionType.class)));
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * All rows in time order.
+     */
+    public List<Transaction> getTransactions() {
+        return rows;
+    }
+
+    /**
+     * Approximate bytes held by the posting lists and timestamps, not counting the rows.
+     */
+    public long getIndexBytes() {
+        long bytes = (long) epochSeconds.length * Long.BYTES;
+        for (Map<?, PostingList> lists : List.of(byToken, byCounterparty, byType)) {
+            for (PostingList list : lists.values()) {
+                bytes += list.byteCount();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Streams the matching rows in time order. Rows are found as the stream is consumed.
+     */
+    public Stream<Transaction> query(TransactionQuery query) {
+        int from = lowerBound(query.getFromEpochSecond());
+        int to = query.getToEpochSecond() == Long.MAX_VALUE ? rows.size() : lowerBound(query.getToEpochSecond() + 1);
+        if (from >= to) {
+            return Stream.empty();
+        }
+
+        List<PostingList> lists = new ArrayList<>(3);
+        if (!addList(lists, byToken, query.getToken())
+                || !addList(lists, byCounterparty, query.getCounterparty())
+                || !addList(lists, byType, query.getType())) {
+            return Stream.empty();
+        }
+        if (lists.isEmpty()) {
+            return IntStream.range(from, to).mapToObj(rows::get);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        Iterator<Transaction> matches = new Intersection(lists, from, to);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(matches,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public long count(TransactionQuery query) {
+        return query(query).count();
+    }
+
+    /**
+     * Adds the posting list for the key, returning false if the key has no rows at all.
+     */
+    private static <K> boolean addList(List<PostingList> lists, Map<K, PostingList> index, K key) {
+        if (key == null) {
+            return true;
+        }
+        PostingList list = index.get(key);
+        if (list == null) {
+            return false;
+        }
+        lists.add(list);
+        return true;
+    }
+
+    /**
+     * First row at or after the epoch second.
+     */
+    private int lowerBound(long epochSecond) {
+        int low = 0;
+        int high = epochSeconds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochSeconds[mid] < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static <K> Map<K, PostingList> seal(Map<K, PostingList.Builder> builders, Map<K, PostingList> lists) {
+        builders.forEach((key, builder) -> lists.put(key, builder.build()));
+        return Collections.unmodifiableMap(lists);
+    }
+
+    private static String lowerCase(String address) {
+        return address == null ? "" : address.toLowerCase();
+    }
+
+    /**
+     * Rows present in every posting list within [from, to), found by leapfrogging the cursors.
+     */
+    private final class Intersection implements Iterator<Transaction> {
+        private final PostingList.Cursor[] cursors;
+        private final int to;
+        private int candidate;
+        private int next = -1;
+
+        Intersection(List<PostingList> lists, int from, int to) {
+            this.cursors = new PostingList.Cursor[lists.size()];
+            for (int i = 0; i < cursors.length; i++) {
+                cursors[i] = lists.get(i).cursor();
+            }
+            this.to = to;
+            this.candidate = from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < 0 && candidate < to) {
+                next = findNext();
+            }
+            return next >= 0;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction transaction = rows.get(next);
+            next = -1;
+            return transaction;
+        }
+
+        private int findNext() {
+            int agreed = 0;
+            int i = 0;
+            while (agreed < cursors.length) {
+                int row = cursors[i].advance(candidate);
+                if (row >= to) {
+                    candidate = to;
+                    return -1;
+                }
+                if (row == candidate) {
+                    agreed++;
+                } else {
+                    candidate = row;
+                    agreed = 1;
+                }
+                i = (i + 1) % cursors.length;
+            }
+            return candidate++;
+        }
+    }
+}
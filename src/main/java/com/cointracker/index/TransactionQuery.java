@@ -0,0 +1,132 @@
+package com.cointracker.index;
+
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conditions for {@link TransactionIndex#query}; all given conditions must hold.
+ */
+public class TransactionQuery {
+
+    /** Token key of native ETH rows (normal and internal transfers). */
+    public static final String ETH = "eth";
+
+    public static final TransactionQuery ALL = new Builder().build();
+
+    private final String token;
+    private final String counterparty;
+    private final TransactionType type;
+    private final long fromEpochSecond;
+    private final long toEpochSecond;
+
+    private TransactionQuery(Builder builder) {
+        this.token = builder.token;
+        this.counterparty = builder.counterparty;
+        this.type = builder.type;
+        this.fromEpochSecond = builder.fromEpochSecond;
+        this.toEpochSecond = builder.toEpochSecond;
+    }
+
+    /**
+     * Lower-cased contract address, {@link #ETH}, or null for any asset.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    public String getCounterparty() {
+        return counterparty;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public long getFromEpochSecond() {
+        return fromEpochSecond;
+    }
+
+    public long getToEpochSecond() {
+        return toEpochSecond;
+    }
+
+    /**
+     * True if only the time range may be set.
+     */
+    public boolean hasNoKeys() {
+        return token == null && counterparty == null && type == null;
+    }
+
+    /**
+     * Tests one transaction without an index, e.g. while rows are still being fetched.
+     */
+    public boolean matches(Transaction transaction) {
+        if (token != null && !token.equals(tokenKey(transaction))) {
+            return false;
+        }
+        if (counterparty != null && !counterparty.equalsIgnoreCase(transaction.getFromAddress())
+                && !counterparty.equalsIgnoreCase(transaction.getToAddress())) {
+            return false;
+        }
+        if (type != null && type != transaction.getType()) {
+            return false;
+        }
+        long epochSecond = epochSecond(transaction);
+        return epochSecond >= fromEpochSecond && epochSecond <= toEpochSecond;
+    }
+
+    static String tokenKey(Transaction transaction) {
+        String contract = transaction.getAssetContractAddress();
+        return contract.isEmpty() ? ETH : contract.toLowerCase();
+    }
+
+    static long epochSecond(Transaction transaction) {
+        LocalDateTime dateTime = transaction.getDateTime();
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+    }
+
+    public static class Builder {
+        private String token;
+        private String counterparty;
+        private TransactionType type;
+        private long fromEpochSecond = Long.MIN_VALUE;
+        private long toEpochSecond = Long.MAX_VALUE;
+
+        /**
+         * Token contract address, or "eth" for native ETH transfers.
+         */
+        public Builder token(String token) {
+            this.token = token == null || token.isEmpty() ? null : token.trim().toLowerCase();
+            return this;
+        }
+
+        /**
+         * Address on either side of the transfer.
+         */
+        public Builder counterparty(String counterparty) {
+            this.counterparty = counterparty == null || counterparty.isEmpty() ? null : counterparty.trim().toLowerCase();
+            return this;
+        }
+
+        public Builder type(TransactionType type) {
+            this.type = type;
+            return this;
+        }
+
+        /**
+         * Inclusive UTC time range in epoch seconds.
+         */
+        public Builder between(long fromEpochSecond, long toEpochSecond) {
+            this.fromEpochSecond = fromEpochSecond;
+            this.toEpochSecond = toEpochSecond;
+            return this;
+        }
+
+        public TransactionQuery build() {
+            return new TransactionQuery(this);
+        }
+    }
+}
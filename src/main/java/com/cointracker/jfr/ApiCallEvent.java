@@ -0,0 +1,38 @@
+package com.cointracker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One Etherscan transaction-list call: request, retries and JSON decoding.
+ */
+@Name("com.cointracker.ApiCall")
+@Label("Etherscan API Call")
+@Category({"Ethereum Transaction Tracker", "Fetch"})
+@Description("One transaction-list request to Etherscan, including retries and decoding")
+public class ApiCallEvent extends Event {
+
+    @Label("Address")
+    public String address;
+
+    @Label("Endpoint")
+    @Description("Etherscan action, e.g. txlist or tokentx")
+    public String endpoint;
+
+    @Label("Start Block")
+    public long startBlock;
+
+    @Label("End Block")
+    public long endBlock;
+
+    @Label("Records")
+    public int records;
+
+    @Label("Response Size")
+    @DataAmount
+    public long bytes;
+}
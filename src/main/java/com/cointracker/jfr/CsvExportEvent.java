@@ -0,0 +1,29 @@
+package com.cointracker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Writing transaction rows to a CSV file.
+ */
+@Name("com.cointracker.CsvExport")
+@Label("CSV Export")
+@Category({"Ethereum Transaction Tracker", "Export"})
+public class CsvExportEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Append")
+    public boolean append;
+
+    @Label("Records")
+    public int records;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+}
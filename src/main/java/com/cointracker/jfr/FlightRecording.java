@@ -0,0 +1,52 @@
+package com.cointracker.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Continuous Java Flight Recorder recording with the JDK's default settings plus the
+ * application events, dumped to a file when the JVM exits.
+ */
+public final class FlightRecording {
+
+    private static final Duration MAX_AGE = Duration.ofHours(1);
+
+    private static Recording recording;
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Starts recording to {@code destination}; the last hour is written there on exit.
+     * A second call while a recording is active is ignored.
+     */
+    public static synchronized void start(Path destination) throws IOException {
+        if (recording != null) {
+            return;
+        }
+        Configuration settings;
+        try {
+            settings = Configuration.getConfiguration("default");
+        } catch (ParseException e) {
+            throw new IOException("Could not load the default JFR settings", e);
+        }
+        Recording newRecording = new Recording(settings);
+        newRecording.setName("eth-tracker");
+        newRecording.setToDisk(true);
+        newRecording.setMaxAge(MAX_AGE);
+        newRecording.setDumpOnExit(true);
+        newRecording.setDestination(destination);
+        newRecording.enable(ApiCallEvent.class).withoutThreshold();
+        newRecording.enable(PageMappingEvent.class).withoutThreshold();
+        newRecording.enable(SortEvent.class).withoutThreshold();
+        newRecording.enable(CsvExportEvent.class).withoutThreshold();
+        newRecording.start();
+        recording = newRecording;
+        System.out.println("✅ Flight recording started, dumped to " + destination + " on exit");
+    }
+}
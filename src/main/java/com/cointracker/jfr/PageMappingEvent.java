@@ -0,0 +1,35 @@
+package com.cointracker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Filtering and mapping of one fetched page into transactions.
+ */
+@Name("com.cointracker.PageMapping")
+@Label("Page Mapping")
+@Category({"Ethereum Transaction Tracker", "Fetch"})
+@Description("Filtering and mapping one page of API rows into transactions")
+public class PageMappingEvent extends Event {
+
+    @Label("Address")
+    public String address;
+
+    @Label("Transaction Type")
+    public String type;
+
+    @Label("Start Block")
+    public long startBlock;
+
+    @Label("End Block")
+    public long endBlock;
+
+    @Label("Rows In")
+    public int rowsIn;
+
+    @Label("Transactions Out")
+    public int records;
+}
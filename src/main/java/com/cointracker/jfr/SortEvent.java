@@ -0,0 +1,21 @@
+package com.cointracker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The chronological sort of an address's combined transactions.
+ */
+@Name("com.cointracker.Sort")
+@Label("Transaction Sort")
+@Category({"Ethereum Transaction Tracker", "Processing"})
+public class SortEvent extends Event {
+
+    @Label("Address")
+    public String address;
+
+    @Label("Records")
+    public int records;
+}
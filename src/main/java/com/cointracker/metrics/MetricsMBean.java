@@ -0,0 +1,89 @@
+package com.cointracker.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-only JMX view of a {@link MetricsRegistry}. Each counter is one attribute; each
+ * histogram contributes count, mean, p50, p99 and max attributes in milliseconds.
+ * Attributes are listed afresh on every request, so series created later appear too.
+ */
+class MetricsMBean implements DynamicMBean {
+
+    private final MetricsRegistry registry;
+
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getAttribute(String name) throws AttributeNotFoundException {
+        Supplier<Object> value = attributes().get(name);
+        if (value == null) {
+            throw new AttributeNotFoundException(name);
+        }
+        return value.get();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        Map<String, Supplier<Object>> attributes = attributes();
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            Supplier<Object> value = attributes.get(name);
+            if (value != null) {
+                list.add(new Attribute(name, value.get()));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operations: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> infos = new ArrayList<>();
+        for (Map.Entry<String, Supplier<Object>> entry : attributes().entrySet()) {
+            String type = entry.getValue().get() instanceof Long ? "long" : "double";
+            infos.add(new MBeanAttributeInfo(entry.getKey(), type, entry.getKey(), true, false, false));
+        }
+        return new MBeanInfo(MetricsRegistry.class.getName(), "Ethereum Transaction Tracker metrics",
+                infos.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+    }
+
+    private Map<String, Supplier<Object>> attributes() {
+        Map<String, Supplier<Object>> attributes = new LinkedHashMap<>();
+        registry.getCounters().forEach((series, counter) -> attributes.put(series, counter::get));
+        registry.getHistograms().forEach((series, histogram) -> {
+            attributes.put(series + ".count", histogram::getCount);
+            attributes.put(series + ".meanMillis", histogram::getMeanMillis);
+            attributes.put(series + ".p50Millis", () -> histogram.getPercentileNanos(50) / 1e6);
+            attributes.put(series + ".p99Millis", () -> histogram.getPercentileNanos(99) / 1e6);
+            attributes.put(series + ".maxMillis", () -> histogram.getMaxNanos() / 1e6);
+        });
+        return attributes;
+    }
+}
@@ -0,0 +1,100 @@
+package com.cointracker.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Named counters and latency histograms for the hot paths of a run.
+ *
+ * Series are identified by a name plus optional label pairs and rendered as
+ * {@code name{label="value"}}, the Prometheus text form. Instrumented classes look up
+ * their series once and keep the handle, so recording is a lock-free add.
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * The registry used by the application's built-in instrumentation.
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the counter for the series, creating it on first use.
+     *
+     * @param labels alternating label names and values
+     */
+    public Counter counter(String name, String... labels) {
+        return counters.computeIfAbsent(seriesName(name, labels), key -> new Counter());
+    }
+
+    /**
+     * Returns the histogram for the series, creating it on first use.
+     *
+     * @param labels alternating label names and values
+     */
+    public LatencyHistogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(seriesName(name, labels), key -> new LatencyHistogram());
+    }
+
+    /**
+     * Counters by series name, sorted.
+     */
+    public Map<String, Counter> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * Histograms by series name, sorted.
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    public long getUptimeNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Exposes the registry as the {@code com.cointracker:type=Metrics} MBean. Repeated calls are ignored.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new MetricsMBean(this), new ObjectName("com.cointracker:type=Metrics"));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered by an earlier run in this JVM
+        } catch (JMException e) {
+            System.err.println("Warning: could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    static String seriesName(String name, String... labels) {
+        if (labels.length == 0) {
+            return name;
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs: " + name);
+        }
+        StringBuilder series = new StringBuilder(name).append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                series.append(',');
+            }
+            series.append(labels[i]).append("=\"").append(labels[i + 1].replace("\"", "\\\"")).append('"');
+        }
+        return series.append('}').toString();
+    }
+}
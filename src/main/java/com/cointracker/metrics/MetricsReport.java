@@ -0,0 +1,159 @@
+package com.cointracker.metrics;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a {@link MetricsRegistry} as a JSON document or in the Prometheus text
+ * exposition format. Durations are reported in seconds in both.
+ */
+public class MetricsReport {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final MetricsRegistry registry;
+
+    public MetricsReport(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Writes the report to a file: JSON if the name ends in {@code .json}, Prometheus text otherwise.
+     */
+    public void writeTo(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (file.getFileName().toString().toLowerCase().endsWith(".json")) {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                writeJson(out);
+            }
+        } else {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(toPrometheus());
+            }
+        }
+    }
+
+    public void writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+            json.writeNumberField("uptime_seconds", registry.getUptimeNanos() / NANOS_PER_SECOND);
+
+            json.writeObjectFieldStart("counters");
+            for (Map.Entry<String, Counter> entry : registry.getCounters().entrySet()) {
+                json.writeNumberField(entry.getKey(), entry.getValue().get());
+            }
+            json.writeEndObject();
+
+            json.writeObjectFieldStart("histograms");
+            for (Map.Entry<String, LatencyHistogram> entry : registry.getHistograms().entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                json.writeObjectFieldStart(entry.getKey());
+                json.writeNumberField("count", histogram.getCount());
+                json.writeNumberField("sum", histogram.getSumNanos() / NANOS_PER_SECOND);
+                for (double quantile : QUANTILES) {
+                    json.writeNumberField("p" + Math.round(quantile * 100),
+                            histogram.getPercentileNanos(quantile * 100) / NANOS_PER_SECOND);
+                }
+                json.writeNumberField("max", histogram.getMaxNanos() / NANOS_PER_SECOND);
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+
+            json.writeObjectFieldStart("rates");
+            for (Map.Entry<String, Double> entry : rates().entrySet()) {
+                json.writeNumberField(entry.getKey(), entry.getValue());
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        String lastName = null;
+        for (Map.Entry<String, Counter> entry : registry.getCounters().entrySet()) {
+            String name = baseName(entry.getKey());
+            if (!name.equals(lastName)) {
+                text.append("# TYPE ").append(name).append(" counter\n");
+                lastName = name;
+            }
+            text.append(entry.getKey()).append(' ').append(entry.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : registry.getHistograms().entrySet()) {
+            String series = entry.getKey();
+            String name = baseName(series);
+            LatencyHistogram histogram = entry.getValue();
+            if (!name.equals(lastName)) {
+                text.append("# TYPE ").append(name).append(" summary\n");
+                lastName = name;
+            }
+            for (double quantile : QUANTILES) {
+                text.append(withLabel(series, "quantile", String.valueOf(quantile))).append(' ')
+                        .append(histogram.getPercentileNanos(quantile * 100) / NANOS_PER_SECOND).append('\n');
+            }
+            text.append(suffixed(series, "_sum")).append(' ').append(histogram.getSumNanos() / NANOS_PER_SECOND).append('\n');
+            text.append(suffixed(series, "_count")).append(' ').append(histogram.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Throughput figures derived from the counters and the time spent in the matching stages.
+     */
+    Map<String, Double> rates() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("records_decoded_per_second", perSecond("records_decoded_total", "decode_seconds"));
+        rates.put("records_mapped_per_second", perSecond("records_mapped_total", "mapping_seconds"));
+        rates.put("rows_exported_per_second", perSecond("rows_exported_total", "export_seconds"));
+        return rates;
+    }
+
+    private double perSecond(String counterName, String histogramName) {
+        long total = 0;
+        for (Map.Entry<String, Counter> entry : registry.getCounters().entrySet()) {
+            if (baseName(entry.getKey()).equals(counterName)) {
+                total += entry.getValue().get();
+            }
+        }
+        long nanos = 0;
+        for (Map.Entry<String, LatencyHistogram> entry : registry.getHistograms().entrySet()) {
+            if (baseName(entry.getKey()).equals(histogramName)) {
+                nanos += entry.getValue().getSumNanos();
+            }
+        }
+        return nanos == 0 ? 0 : total / (nanos / NANOS_PER_SECOND);
+    }
+
+    private static String baseName(String series) {
+        int brace = series.indexOf('{');
+        return brace < 0 ? series : series.substring(0, brace);
+    }
+
+    private static String suffixed(String series, String suffix) {
+        String name = baseName(series);
+        return name + suffix + series.substring(name.length());
+    }
+
+    private static String withLabel(String series, String label, String value) {
+        String pair = label + "=\"" + value + "\"";
+        if (series.endsWith("}")) {
+            return series.substring(0, series.length() - 1) + "," + pair + "}";
+        }
+        return series + "{" + pair + "}";
+    }
+}
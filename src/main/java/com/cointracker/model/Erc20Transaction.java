@@ -35,23 +35,34 @@ public class Erc20Transaction extends Transaction {
     }
 
     public String getTokenName() {
+        load(TransactionField.TOKEN_NAME);
         return tokenName;
     }
 
     public void setTokenName(String tokenName) {
         this.tokenName = tokenName;
+        loaded(TransactionField.TOKEN_NAME);
     }
 
     public int getTokenDecimal() {
+        load(TransactionField.TOKEN_DECIMAL);
         return tokenDecimal;
     }
 
     public void setTokenDecimal(int tokenDecimal) {
         this.tokenDecimal = tokenDecimal;
+        loaded(TransactionField.TOKEN_DECIMAL);
+    }
+
+    @Override
+    int fieldMask() {
+        return TransactionField.ALL;
     }
 
     @Override
     public String getAssetSymbol() {
+        load(TransactionField.SYMBOL);
+        load(TransactionField.TOKEN_NAME);
         if (assetSymbol != null && tokenName != null) {
             return assetSymbol + " (" + tokenName + ")";
         }
@@ -61,13 +72,13 @@ public class Erc20Transaction extends Transaction {
     @Override
     public String toString() {
         return "Erc20Transaction{" +
-                "hash='" + transactionHash + '\'' +
-                ", token='" + assetSymbol + '\'' +
-                ", from='" + fromAddress + '\'' +
-                ", to='" + toAddress + '\'' +
-                ", value=" + value +
-                ", gasFee=" + gasFee + " ETH" +
-                ", dateTime=" + dateTime +
+                "hash='" + getTransactionHash() + '\'' +
+                ", token='" + getTokenSymbol() + '\'' +
+                ", from='" + getFromAddress() + '\'' +
+                ", to='" + getToAddress() + '\'' +
+                ", value=" + getValue() +
+                ", gasFee=" + getGasFee() + " ETH" +
+                ", dateTime=" + getDateTime() +
                 '}';
     }
 }
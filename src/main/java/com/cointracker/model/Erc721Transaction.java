@@ -30,15 +30,24 @@ public class Erc721Transaction extends Transaction {
     }
 
     public String getTokenName() {
+        load(TransactionField.TOKEN_NAME);
         return tokenName;
     }
 
     public void setTokenName(String tokenName) {
         this.tokenName = tokenName;
+        loaded(TransactionField.TOKEN_NAME);
+    }
+
+    @Override
+    int fieldMask() {
+        return TransactionField.ALL & ~TransactionField.TOKEN_DECIMAL.mask();
     }
 
     @Override
     public String getAssetSymbol() {
+        load(TransactionField.SYMBOL);
+        load(TransactionField.TOKEN_NAME);
         if (assetSymbol != null && tokenName != null) {
             return tokenName + " (" + assetSymbol + ")";
         }
@@ -48,13 +57,13 @@ public class Erc721Transaction extends Transaction {
     @Override
     public String toString() {
         return "Erc721Transaction{" +
-                "hash='" + transactionHash + '\'' +
-                ", nft='" + assetSymbol + '\'' +
-                ", tokenId='" + tokenId + '\'' +
-                ", from='" + fromAddress + '\'' +
-                ", to='" + toAddress + '\'' +
-                ", gasFee=" + gasFee + " ETH" +
-                ", dateTime=" + dateTime +
+                "hash='" + getTransactionHash() + '\'' +
+                ", nft='" + getTokenSymbol() + '\'' +
+                ", tokenId='" + getTokenId() + '\'' +
+                ", from='" + getFromAddress() + '\'' +
+                ", to='" + getToAddress() + '\'' +
+                ", gasFee=" + getGasFee() + " ETH" +
+                ", dateTime=" + getDateTime() +
                 '}';
     }
 }
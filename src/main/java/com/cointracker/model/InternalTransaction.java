@@ -32,11 +32,11 @@ public class InternalTransaction extends Transaction {
     @Override
     public String toString() {
         return "InternalTransaction{" +
-                "hash='" + transactionHash + '\'' +
-                ", from='" + fromAddress + '\'' +
-                ", to='" + toAddress + '\'' +
-                ", value=" + value + " ETH" +
-                ", dateTime=" + dateTime +
+                "hash='" + getTransactionHash() + '\'' +
+                ", from='" + getFromAddress() + '\'' +
+                ", to='" + getToAddress() + '\'' +
+                ", value=" + getValue() + " ETH" +
+                ", dateTime=" + getDateTime() +
                 '}';
     }
 }
@@ -27,12 +27,12 @@ public class NormalTransaction extends Transaction {
     @Override
     public String toString() {
         return "NormalTransaction{" +
-                "hash='" + transactionHash + '\'' +
-                ", from='" + fromAddress + '\'' +
-                ", to='" + toAddress + '\'' +
-                ", value=" + value + " ETH" +
-                ", gasFee=" + gasFee + " ETH" +
-                ", dateTime=" + dateTime +
+                "hash='" + getTransactionHash() + '\'' +
+                ", from='" + getFromAddress() + '\'' +
+                ", to='" + getToAddress() + '\'' +
+                ", value=" + getValue() + " ETH" +
+                ", gasFee=" + getGasFee() + " ETH" +
+                ", dateTime=" + getDateTime() +
                 '}';
     }
 }
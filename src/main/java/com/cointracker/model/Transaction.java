@@ -9,6 +9,7 @@ public abstract class Transaction {
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     protected String transactionHash;
+    protected long blockNumber;
     protected LocalDateTime dateTime;
     protected String fromAddress;
     protected String toAddress;
@@ -18,42 +19,114 @@ public abstract class Transaction {
     protected String tokenId;
     protected BigDecimal value;
     protected BigDecimal gasFee;
+    protected BigDecimal fiatValue;
+    protected boolean failed;
+
+    private volatile TransactionSource source;
+    private int sourceRow;
+    private volatile int loadedFields;
 
     // Constructor
     protected Transaction() {
     }
 
+    /**
+     * Makes this a lazy view: each field not set yet is requested from the source the
+     * first time it is read. The source is released once every field has been loaded.
+     * Views may be read from several threads: the first read of a field loads it under
+     * the view's lock, and a field's loaded bit is only set once the field holds its value.
+     */
+    public void attachSource(TransactionSource source, int row) {
+        this.sourceRow = row;
+        this.loadedFields = TransactionField.ALL & ~fieldMask();
+        this.source = source;
+    }
+
+    /**
+     * The fields this kind of transaction has; a source is never asked for the others.
+     */
+    int fieldMask() {
+        return TransactionField.ALL & ~(TransactionField.TOKEN_NAME.mask() | TransactionField.TOKEN_DECIMAL.mask());
+    }
+
+    protected final void load(TransactionField field) {
+        // Loaded bits are published after their field, and the source is cleared only once all are set
+        if ((loadedFields & field.mask()) != 0 || source == null) {
+            return;
+        }
+        synchronized (this) {
+            TransactionSource current = source;
+            if (current == null || (loadedFields & field.mask()) != 0) {
+                return;
+            }
+            // The source calls the field's setter, which sets the loaded bit
+            current.load(this, sourceRow, field);
+            if (loadedFields == TransactionField.ALL) {
+                source = null;
+            }
+        }
+    }
+
+    protected final void loaded(TransactionField field) {
+        if (source == null) {
+            // Eager objects and fully loaded views never consult the bits, so skip the lock
+            loadedFields |= field.mask();
+            return;
+        }
+        synchronized (this) {
+            loadedFields |= field.mask();
+        }
+    }
+
     // Getters and Setters
     public String getTransactionHash() {
+        load(TransactionField.HASH);
         return transactionHash;
     }
 
     public void setTransactionHash(String transactionHash) {
         this.transactionHash = transactionHash;
+        loaded(TransactionField.HASH);
+    }
+
+    public long getBlockNumber() {
+        load(TransactionField.BLOCK_NUMBER);
+        return blockNumber;
+    }
+
+    public void setBlockNumber(long blockNumber) {
+        this.blockNumber = blockNumber;
+        loaded(TransactionField.BLOCK_NUMBER);
     }
 
     public LocalDateTime getDateTime() {
+        load(TransactionField.DATE_TIME);
         return dateTime;
     }
 
     public void setDateTime(LocalDateTime dateTime) {
         this.dateTime = dateTime;
+        loaded(TransactionField.DATE_TIME);
     }
 
     public String getFromAddress() {
+        load(TransactionField.FROM_ADDRESS);
         return fromAddress;
     }
 
     public void setFromAddress(String fromAddress) {
         this.fromAddress = fromAddress;
+        loaded(TransactionField.FROM_ADDRESS);
     }
 
     public String getToAddress() {
+        load(TransactionField.TO_ADDRESS);
         return toAddress;
     }
 
     public void setToAddress(String toAddress) {
         this.toAddress = toAddress;
+        loaded(TransactionField.TO_ADDRESS);
     }
 
     public TransactionType getType() {
@@ -65,69 +138,115 @@ public abstract class Transaction {
     }
 
     public String getAssetContractAddress() {
+        load(TransactionField.CONTRACT_ADDRESS);
         return assetContractAddress != null ? assetContractAddress : "";
     }
 
     public void setAssetContractAddress(String assetContractAddress) {
         this.assetContractAddress = assetContractAddress;
+        loaded(TransactionField.CONTRACT_ADDRESS);
     }
 
     public String getAssetSymbol() {
+        load(TransactionField.SYMBOL);
+        return assetSymbol != null ? assetSymbol : "";
+    }
+
+    /**
+     * Raw token symbol, without the token name that {@link #getAssetSymbol()} may add.
+     */
+    public String getTokenSymbol() {
+        load(TransactionField.SYMBOL);
         return assetSymbol != null ? assetSymbol : "";
     }
 
     public void setAssetSymbol(String assetSymbol) {
         this.assetSymbol = assetSymbol;
+        loaded(TransactionField.SYMBOL);
     }
 
     public String getTokenId() {
+        load(TransactionField.TOKEN_ID);
         return tokenId != null ? tokenId : "";
     }
 
     public void setTokenId(String tokenId) {
         this.tokenId = tokenId;
+        loaded(TransactionField.TOKEN_ID);
     }
 
     public BigDecimal getValue() {
+        load(TransactionField.VALUE);
         return value;
     }
 
     public void setValue(BigDecimal value) {
         this.value = value;
+        loaded(TransactionField.VALUE);
     }
 
     public BigDecimal getGasFee() {
+        load(TransactionField.GAS_FEE);
         return gasFee;
     }
 
     public void setGasFee(BigDecimal gasFee) {
         this.gasFee = gasFee;
+        loaded(TransactionField.GAS_FEE);
+    }
+
+    /**
+     * True if the transaction reverted (Etherscan {@code isError=1}): its value never
+     * moved, but the sender still paid the gas.
+     */
+    public boolean isFailed() {
+        load(TransactionField.FAILED);
+        return failed;
+    }
+
+    public void setFailed(boolean failed) {
+        this.failed = failed;
+        loaded(TransactionField.FAILED);
+    }
+
+    /**
+     * USD value of the transferred amount, or null if no price was attached.
+     */
+    public BigDecimal getFiatValue() {
+        return fiatValue;
+    }
+
+    public void setFiatValue(BigDecimal fiatValue) {
+        this.fiatValue = fiatValue;
     }
 
     public String[] toCsvRow() {
+        String to = getToAddress();
+        BigDecimal amount = getValue();
+        BigDecimal fee = getGasFee();
         return new String[]{
-            transactionHash,
-            dateTime.format(DATE_TIME_FORMATTER),
-            fromAddress,
-            toAddress != null && !toAddress.isEmpty() ? toAddress : "(Contract Creation)",
+            getTransactionHash(),
+            getDateTime().format(DATE_TIME_FORMATTER),
+            getFromAddress(),
+            to != null && !to.isEmpty() ? to : "(Contract Creation)",
             type.getDisplayName(),
             getAssetContractAddress(),
             getAssetSymbol(),
             getTokenId(),
-            value != null ? value.toPlainString() : "0",
-            gasFee != null ? gasFee.toPlainString() : ""
+            amount != null ? amount.toPlainString() : "0",
+            fee != null ? fee.toPlainString() : ""
         };
     }
 
     @Override
     public String toString() {
         return "Transaction{" +
-                "hash='" + transactionHash + '\'' +
+                "hash='" + getTransactionHash() + '\'' +
                 ", type=" + type +
-                ", from='" + fromAddress + '\'' +
-                ", to='" + toAddress + '\'' +
-                ", value=" + value +
-                ", dateTime=" + dateTime +
+                ", from='" + getFromAddress() + '\'' +
+                ", to='" + getToAddress() + '\'' +
+                ", value=" + getValue() +
+                ", dateTime=" + getDateTime() +
                 '}';
     }
 }
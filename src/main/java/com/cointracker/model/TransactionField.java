@@ -0,0 +1,26 @@
+package com.cointracker.model;
+
+/**
+ * Fields of a {@link Transaction} that a {@link TransactionSource} can fill in on demand.
+ */
+public enum TransactionField {
+    HASH,
+    BLOCK_NUMBER,
+    DATE_TIME,
+    FROM_ADDRESS,
+    TO_ADDRESS,
+    CONTRACT_ADDRESS,
+    SYMBOL,
+    TOKEN_NAME,
+    TOKEN_DECIMAL,
+    TOKEN_ID,
+    VALUE,
+    GAS_FEE,
+    FAILED;
+
+    static final int ALL = (1 << values().length) - 1;
+
+    final int mask() {
+        return 1 << ordinal();
+    }
+}
@@ -0,0 +1,97 @@
+package com.cointracker.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Converts transaction hashes into primitive 256-bit fingerprints.
+ * A "0x"-prefixed hex hash of up to 64 digits is decoded directly into four
+ * longs, so real Ethereum hashes map one-to-one. Anything else is reduced
+ * with SHA-256.
+ */
+public final class TransactionHashes {
+
+    public static final int WORDS = 4;
+
+    private TransactionHashes() {
+    }
+
+    /**
+     * Writes the fingerprint of a hash into {@code out[offset..offset+3]}.
+     */
+    public static void fingerprint(String hash, long[] out, int offset) {
+        if (hash != null && isHex(hash)) {
+            int digits = hash.length() - 2;
+            for (int word = 0; word < WORDS; word++) {
+                long value = 0;
+                for (int i = 0; i < 16; i++) {
+                    // Right-align shorter hashes as if left-padded with zeros
+                    int digit = word * 16 + i - (64 - digits);
+                    value = (value << 4) | (digit < 0 ? 0 : Character.digit(hash.charAt(2 + digit), 16));
+                }
+                out[offset + word] = value;
+            }
+            return;
+        }
+
+        byte[] digest = sha256(hash != null ? hash : "");
+        for (int word = 0; word < WORDS; word++) {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (digest[word * 8 + i] & 0xFF);
+            }
+            out[offset + word] = value;
+        }
+    }
+
+    public static long[] fingerprint(String hash) {
+        long[] words = new long[WORDS];
+        fingerprint(hash, words, 0);
+        return words;
+    }
+
+    /**
+     * Renders four fingerprint words as a "0x"-prefixed 64-digit hex string.
+     */
+    public static String toHex(long[] words, int offset) {
+        StringBuilder hex = new StringBuilder(66).append("0x");
+        for (int word = 0; word < WORDS; word++) {
+            String part = Long.toHexString(words[offset + word]);
+            hex.append("0".repeat(16 - part.length())).append(part);
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Mixes the four words into a well-distributed 64-bit hash code.
+     */
+    public static long mix(long a, long b, long c, long d) {
+        long h = a * 0x9E3779B97F4A7C15L;
+        h = (h ^ b) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ c) * 0x165667B19E3779F9L;
+        h = (h ^ d) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static boolean isHex(String hash) {
+        int length = hash.length();
+        if (length < 3 || length > 66 || hash.charAt(0) != '0' || (hash.charAt(1) != 'x' && hash.charAt(1) != 'X')) {
+            return false;
+        }
+        for (int i = 2; i < length; i++) {
+            if (Character.digit(hash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.cointracker.model;
+
+/**
+ * Supplies the fields of transactions that are decoded lazily, e.g. from a raw API page.
+ * {@link #load} is called at most once per field, on first access, and sets the field
+ * through the transaction's setter.
+ */
+public interface TransactionSource {
+
+    void load(Transaction transaction, int row, TransactionField field);
+}
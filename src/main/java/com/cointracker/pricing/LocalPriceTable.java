@@ -0,0 +1,116 @@
+package com.cointracker.pricing;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline price source backed by a directory of CSV files, one per asset.
+ * Files are named {@code ETH.csv} or {@code <contract address>.csv} and hold
+ * {@code timestamp,price} lines, where the timestamp is epoch seconds,
+ * epoch milliseconds, {@code yyyy-MM-dd} or {@code yyyy-MM-dd HH:mm:ss} (UTC).
+ *
+ * Each CSV is compiled once into a sorted binary {@code .prices.idx} file in
+ * the index directory and memory-mapped, so price points live off-heap and
+ * lookups are a binary search over the mapped timestamp column. The price
+ * directory itself is never written to.
+ */
+public class LocalPriceTable implements PriceSource {
+
+    private final Map<String, PriceSeries> series;
+
+    private LocalPriceTable(Map<String, PriceSeries> series) {
+        this.series = series;
+    }
+
+    /**
+     * Opens every CSV in a price directory, keeping the compiled indexes under
+     * {@code indexRoot} in a subdirectory per price directory.
+     */
+    public static LocalPriceTable open(Path directory, Path indexRoot) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Price directory not found: " + directory);
+        }
+        String source = directory.toAbsolutePath().normalize().toString();
+        Path indexDirectory = indexRoot.resolve(Integer.toHexString(source.hashCode()));
+        Files.createDirectories(indexDirectory);
+
+        Map<String, PriceSeries> series = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path csv : files) {
+                String name = csv.getFileName().toString();
+                String stem = name.substring(0, name.length() - 4);
+                Path index = indexDirectory.resolve(stem + ".prices.idx");
+                series.put(normalizeKey(stem), PriceSeries.open(csv, index));
+            }
+        }
+        return new LocalPriceTable(series);
+    }
+
+    @Override
+    public long priceAt(String assetKey, long epochSecond) {
+        PriceSeries prices = series.get(assetKey);
+        if (prices == null) {
+            return MISSING;
+        }
+        int index = prices.floorIndex(epochSecond);
+        return index < 0 ? MISSING : prices.price(index);
+    }
+
+    /**
+     * Returns a single-threaded view for lookups in non-decreasing time order.
+     * Each lookup resumes from the previous position per asset, which turns an
+     * enrichment pass over sorted transactions into a merge join.
+     */
+    public PriceSource sequentialCursor() {
+        return new PriceCursor();
+    }
+
+    public int getAssetCount() {
+        return series.size();
+    }
+
+    public long getPointCount() {
+        long points = 0;
+        for (PriceSeries prices : series.values()) {
+            points += prices.size();
+        }
+        return points;
+    }
+
+    static String normalizeKey(String key) {
+        return "eth".equalsIgnoreCase(key) ? "ETH" : key.toLowerCase();
+    }
+
+    private final class PriceCursor implements PriceSource {
+
+        private final Map<String, int[]> positions = new HashMap<>();
+
+        @Override
+        public long priceAt(String assetKey, long epochSecond) {
+            PriceSeries prices = series.get(assetKey);
+            if (prices == null) {
+                return MISSING;
+            }
+
+            int[] position = positions.get(assetKey);
+            if (position == null) {
+                position = new int[]{prices.floorIndex(epochSecond)};
+                positions.put(assetKey, position);
+            } else if (position[0] >= 0 && prices.timestamp(position[0]) > epochSecond) {
+                // Time went backwards, fall back to a fresh search
+                position[0] = prices.floorIndex(epochSecond);
+            } else {
+                int index = position[0];
+                while (index + 1 < prices.size() && prices.timestamp(index + 1) <= epochSecond) {
+                    index++;
+                }
+                position[0] = index;
+            }
+            return position[0] < 0 ? MISSING : prices.price(position[0]);
+        }
+    }
+}
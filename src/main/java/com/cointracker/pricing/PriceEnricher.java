@@ -0,0 +1,62 @@
+package com.cointracker.pricing;
+
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Attaches a USD value to each transaction from a {@link PriceSource}.
+ * NFT transfers are valued at the collection price, if one is available.
+ */
+public class PriceEnricher {
+
+    private final PriceSource prices;
+
+    public PriceEnricher(PriceSource prices) {
+        this.prices = prices;
+    }
+
+    /**
+     * Sets the fiat value of every transaction with a known price.
+     *
+     * @return the number of transactions that could be priced
+     */
+    public int enrich(List<Transaction> transactions) {
+        PriceSource source = prices;
+        if (prices instanceof LocalPriceTable && isSortedByTime(transactions)) {
+            source = ((LocalPriceTable) prices).sequentialCursor();
+        }
+
+        int priced = 0;
+        for (Transaction tx : transactions) {
+            BigDecimal value = tx.getValue();
+            if (value == null || tx.getDateTime() == null) {
+                continue;
+            }
+            String assetKey = tx.getType() == TransactionType.ETH_TRANSFER || tx.getType() == TransactionType.ETH_INTERNAL
+                    ? "ETH"
+                    : LocalPriceTable.normalizeKey(tx.getAssetContractAddress());
+            long price = source.priceAt(assetKey, tx.getDateTime().toEpochSecond(ZoneOffset.UTC));
+            if (price != PriceSource.MISSING) {
+                tx.setFiatValue(value.multiply(BigDecimal.valueOf(price, PriceSource.PRICE_SCALE))
+                        .setScale(PriceSource.PRICE_SCALE, RoundingMode.HALF_EVEN)
+                        .stripTrailingZeros());
+                priced++;
+            }
+        }
+        return priced;
+    }
+
+    private static boolean isSortedByTime(List<Transaction> transactions) {
+        for (int i = 1; i < transactions.size(); i++) {
+            if (transactions.get(i).getDateTime().isBefore(transactions.get(i - 1).getDateTime())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,328 @@
+package com.cointracker.pricing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Time-sorted prices of one asset, memory-mapped from a binary index file.
+ * The index holds a timestamp column followed by a price column so that
+ * binary searches only touch the timestamps.
+ */
+final class PriceSeries {
+
+    private static final long MAGIC = 0x4354505249434531L;
+    private static final int HEADER_BYTES = 16;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final LongBuffer timestamps;
+    private final LongBuffer prices;
+    private final int size;
+
+    private PriceSeries(MappedByteBuffer buffer, int size) {
+        this.size = size;
+        buffer.position(HEADER_BYTES);
+        this.timestamps = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        buffer.position(Math.toIntExact(HEADER_BYTES + 8L * size));
+        this.prices = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    /**
+     * Maps the index for a CSV, rebuilding it first when missing or older than the CSV.
+     */
+    static PriceSeries open(Path csv, Path index) throws IOException {
+        if (!Files.exists(index)
+                || Files.getLastModifiedTime(index).compareTo(Files.getLastModifiedTime(csv)) < 0) {
+            buildIndex(csv, index);
+        }
+
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getLong(0) != MAGIC) {
+                throw new IOException("Not a price index: " + index);
+            }
+            long size = buffer.getLong(8);
+            if (HEADER_BYTES + size * 16 != channel.size()) {
+                throw new IOException("Truncated price index: " + index);
+            }
+            return new PriceSeries(buffer, (int) size);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long timestamp(int index) {
+        return timestamps.get(index);
+    }
+
+    long price(int index) {
+        return prices.get(index);
+    }
+
+    /**
+     * Index of the last point at or before the given time, or -1 if none.
+     */
+    int floorIndex(long epochSecond) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps.get(mid) <= epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Compiles a CSV into the index without holding its points on the heap.
+     * Rows stream into column files; out-of-order input is then merge-sorted
+     * in memory-mapped buffers. The sort is stable and the last row wins for
+     * a repeated timestamp, so duplicates resolve to the CSV's latest line.
+     */
+    private static void buildIndex(Path csv, Path index) throws IOException {
+        Path temp = index.resolveSibling(index.getFileName() + ".tmp");
+        Path timesFile = index.resolveSibling(index.getFileName() + ".times");
+        Path valuesFile = index.resolveSibling(index.getFileName() + ".values");
+        try {
+            long size = 0;
+            boolean sorted = true;
+            try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+                 ColumnWriter times = new ColumnWriter(timesFile);
+                 ColumnWriter values = new ColumnWriter(valuesFile)) {
+                String line;
+                long lineNumber = 0;
+                boolean pending = false;
+                long pendingTime = 0;
+                long pendingValue = 0;
+                long lastWritten = Long.MIN_VALUE;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    int comma = line.indexOf(',');
+                    if (line.isBlank() || comma < 0) {
+                        continue;
+                    }
+                    String time = line.substring(0, comma).trim();
+                    String price = line.substring(comma + 1).trim();
+                    if (lineNumber == 1 && (time.isEmpty() || !Character.isDigit(time.charAt(0)))) {
+                        continue;
+                    }
+
+                    long timestamp;
+                    long value;
+                    try {
+                        timestamp = parseTime(time);
+                        value = new BigDecimal(price).movePointRight(PriceSource.PRICE_SCALE)
+                                .setScale(0, RoundingMode.DOWN).longValueExact();
+                    } catch (RuntimeException e) {
+                        throw new IOException("Invalid price at " + csv.getFileName() + ":" + lineNumber + ": " + line, e);
+                    }
+                    // Consecutive rows at the same time collapse to the last one before they are written
+                    if (pending && timestamp != pendingTime) {
+                        sorted &= pendingTime > lastWritten;
+                        lastWritten = pendingTime;
+                        times.put(pendingTime);
+                        values.put(pendingValue);
+                        size++;
+                    }
+                    pending = true;
+                    pendingTime = timestamp;
+                    pendingValue = value;
+                }
+                if (pending) {
+                    sorted &= pendingTime > lastWritten;
+                    times.put(pendingTime);
+                    values.put(pendingValue);
+                    size++;
+                }
+            }
+            if (HEADER_BYTES + size * 16 > Integer.MAX_VALUE) {
+                throw new IOException("Too many price points in " + csv.getFileName() + ": " + size);
+            }
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putLong(MAGIC).putLong(size).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                append(channel, timesFile);
+                append(channel, valuesFile);
+                if (!sorted) {
+                    int kept = sortAndDropDuplicates(channel, (int) size, index);
+                    channel.truncate(HEADER_BYTES + 16L * kept);
+                }
+            }
+            Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(timesFile);
+            Files.deleteIfExists(valuesFile);
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static long parseTime(String value) {
+        if (value.length() == 10 && value.charAt(4) == '-') {
+            return LocalDate.parse(value).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        }
+        if (value.length() == 19 && value.charAt(4) == '-') {
+            return LocalDateTime.parse(value, DATE_TIME_FORMATTER).toEpochSecond(ZoneOffset.UTC);
+        }
+        long number = Long.parseLong(value);
+        // Millisecond timestamps are common in exported price data
+        return number > 100_000_000_000L ? number / 1000 : number;
+    }
+
+    private static void append(FileChannel channel, Path column) throws IOException {
+        try (FileChannel in = FileChannel.open(column, StandardOpenOption.READ)) {
+            long position = 0;
+            long length = in.size();
+            while (position < length) {
+                position += in.transferTo(position, length - position, channel);
+            }
+        }
+    }
+
+    /**
+     * Bottom-up merge sort of both columns between the mapped index and a
+     * mapped scratch file, then an in-place last-wins pass over equal times.
+     * Returns the number of points kept; the caller trims the file to match.
+     */
+    private static int sortAndDropDuplicates(FileChannel channel, int size, Path index) throws IOException {
+        Path scratch = index.resolveSibling(index.getFileName() + ".sort");
+        long columnBytes = 8L * size;
+        try (FileChannel scratchChannel = FileChannel.open(scratch, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + 2 * columnBytes);
+            MappedByteBuffer spare = scratchChannel.map(FileChannel.MapMode.READ_WRITE, 0, 2 * columnBytes);
+            LongBuffer times = column(mapped, HEADER_BYTES, size);
+            LongBuffer values = column(mapped, HEADER_BYTES + columnBytes, size);
+            LongBuffer otherTimes = column(spare, 0, size);
+            LongBuffer otherValues = column(spare, columnBytes, size);
+
+            LongBuffer fromTimes = times;
+            LongBuffer fromValues = values;
+            LongBuffer toTimes = otherTimes;
+            LongBuffer toValues = otherValues;
+            for (long width = 1; width < size; width *= 2) {
+                for (long low = 0; low < size; low += 2 * width) {
+                    merge(fromTimes, fromValues, toTimes, toValues,
+                            (int) low, (int) Math.min(low + width, size), (int) Math.min(low + 2 * width, size));
+                }
+                LongBuffer swapTimes = fromTimes;
+                LongBuffer swapValues = fromValues;
+                fromTimes = toTimes;
+                fromValues = toValues;
+                toTimes = swapTimes;
+                toValues = swapValues;
+            }
+            if (fromTimes != times) {
+                times.put(0, otherTimes, 0, size);
+                values.put(0, otherValues, 0, size);
+            }
+
+            int out = 0;
+            for (int i = 1; i < size; i++) {
+                if (times.get(i) != times.get(out)) {
+                    out++;
+                }
+                times.put(out, times.get(i));
+                values.put(out, values.get(i));
+            }
+            int kept = size == 0 ? 0 : out + 1;
+            if (kept < size) {
+                // Close the gap so the price column starts right after the shorter timestamp column
+                LongBuffer packed = column(mapped, HEADER_BYTES + 8L * kept, kept);
+                for (int i = 0; i < kept; i++) {
+                    packed.put(i, values.get(i));
+                }
+                mapped.order(ByteOrder.LITTLE_ENDIAN).putLong(8, kept);
+            }
+            mapped.force();
+            return kept;
+        }
+    }
+
+    private static void merge(LongBuffer fromTimes, LongBuffer fromValues, LongBuffer toTimes, LongBuffer toValues,
+                              int low, int middle, int high) {
+        int left = low;
+        int right = middle;
+        for (int out = low; out < high; out++) {
+            // Taking the left run on ties keeps equal timestamps in file order
+            if (left < middle && (right >= high || fromTimes.get(left) <= fromTimes.get(right))) {
+                toTimes.put(out, fromTimes.get(left));
+                toValues.put(out, fromValues.get(left));
+                left++;
+            } else {
+                toTimes.put(out, fromTimes.get(right));
+                toValues.put(out, fromValues.get(right));
+                right++;
+            }
+        }
+    }
+
+    private static LongBuffer column(MappedByteBuffer buffer, long offset, int size) {
+        return buffer.slice((int) offset, 8 * size).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    /**
+     * Buffered writer of one little-endian long column.
+     */
+    private static final class ColumnWriter implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        ColumnWriter(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        void put(long value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.putLong(value);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.cointracker.pricing;
+
+/**
+ * Strategy interface for historical fiat prices.
+ * Prices are fixed-point USD per whole unit of the asset, scaled by {@link #PRICE_SCALE} decimals.
+ */
+public interface PriceSource {
+
+    int PRICE_SCALE = 8;
+    long MISSING = Long.MIN_VALUE;
+
+    PriceSource NONE = (assetKey, epochSecond) -> MISSING;
+
+    /**
+     * Returns the last known price at or before the given time.
+     *
+     * @param assetKey    "ETH" or the lower-case token contract address
+     * @param epochSecond UTC seconds since epoch
+     * @return the scaled price, or {@link #MISSING} if none is known
+     */
+    long priceAt(String assetKey, long epochSecond);
+}
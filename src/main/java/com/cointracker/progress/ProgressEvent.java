@@ -0,0 +1,40 @@
+package com.cointracker.progress;
+
+import com.cointracker.model.TransactionType;
+
+/**
+ * Something a worker reports to the {@link ProgressReporter}. Immutable, so it can be
+ * handed to the renderer thread without copying.
+ */
+final class ProgressEvent {
+
+    enum Kind {
+        TYPE_STARTED,
+        PAGE_FETCHED,
+        TYPE_FINISHED,
+        MESSAGE,
+        WARNING
+    }
+
+    final Kind kind;
+    final String address;
+    final TransactionType type;
+    final int records;
+    final long startBlock;
+    final long endBlock;
+    final String text;
+
+    ProgressEvent(Kind kind, String address, TransactionType type, int records, long startBlock, long endBlock, String text) {
+        this.kind = kind;
+        this.address = address;
+        this.type = type;
+        this.records = records;
+        this.startBlock = startBlock;
+        this.endBlock = endBlock;
+        this.text = text;
+    }
+
+    static ProgressEvent text(Kind kind, String text) {
+        return new ProgressEvent(kind, null, null, 0, 0, 0, text);
+    }
+}
@@ -0,0 +1,243 @@
+package com.cointracker.progress;
+
+import com.cointracker.model.TransactionType;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Console progress for fetches, rendered off the worker threads.
+ *
+ * Workers post events to a lock-free queue and return at once; a single daemon thread
+ * drains the queue, keeps per-address totals and writes the output. On a terminal it
+ * redraws one progress line at most every render interval; otherwise (redirected output,
+ * CI logs) it writes {@code key=value} lines, throttled per address in the same way.
+ * Messages and warnings are always written, in the order they were posted.
+ */
+public class ProgressReporter implements AutoCloseable {
+
+    private static final long DEFAULT_INTERVAL_MILLIS = 250;
+
+    private static ProgressReporter defaultReporter;
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final boolean interactive;
+    private final long intervalNanos;
+    private final Queue<ProgressEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong posted = new AtomicLong();
+    private final Thread renderer;
+    private volatile long processed;
+    private volatile boolean closed;
+
+    // Renderer thread only
+    private final Map<String, AddressProgress> addresses = new LinkedHashMap<>();
+    private AddressProgress latest;
+    private long totalRecords;
+    private long totalPages;
+    private long lastRenderNanos;
+    private boolean pending;
+    private int openLineLength;
+
+    /**
+     * @param interactive redraw a single progress line (terminal) instead of writing log lines
+     */
+    public ProgressReporter(PrintStream out, PrintStream err, boolean interactive, long intervalMillis) {
+        this.out = out;
+        this.err = err;
+        this.interactive = interactive;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.renderer = new Thread(this::renderLoop, "progress-renderer");
+        renderer.setDaemon(true);
+        renderer.start();
+    }
+
+    /**
+     * The reporter for {@code System.out}/{@code System.err}, interactive when a console is attached.
+     */
+    public static synchronized ProgressReporter getDefault() {
+        if (defaultReporter == null) {
+            defaultReporter = new ProgressReporter(System.out, System.err, System.console() != null, DEFAULT_INTERVAL_MILLIS);
+        }
+        return defaultReporter;
+    }
+
+    public void typeStarted(String address, TransactionType type) {
+        post(new ProgressEvent(ProgressEvent.Kind.TYPE_STARTED, address, type, 0, 0, 0, null));
+    }
+
+    public void pageFetched(String address, TransactionType type, int records, long startBlock, long endBlock) {
+        post(new ProgressEvent(ProgressEvent.Kind.PAGE_FETCHED, address, type, records, startBlock, endBlock, null));
+    }
+
+    public void typeFinished(String address, TransactionType type, int records) {
+        post(new ProgressEvent(ProgressEvent.Kind.TYPE_FINISHED, address, type, records, 0, 0, null));
+    }
+
+    public void message(String text) {
+        post(ProgressEvent.text(ProgressEvent.Kind.MESSAGE, text));
+    }
+
+    public void warning(String text) {
+        post(ProgressEvent.text(ProgressEvent.Kind.WARNING, text));
+    }
+
+    /**
+     * Waits until everything posted so far has been written, and ends an open progress
+     * line, so the caller can print to the console itself afterwards.
+     */
+    public void flush() {
+        post(ProgressEvent.text(ProgressEvent.Kind.MESSAGE, null));
+        long target = posted.get();
+        while (processed < target && renderer.isAlive()) {
+            LockSupport.unpark(renderer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        closed = true;
+        LockSupport.unpark(renderer);
+    }
+
+    private void post(ProgressEvent event) {
+        queue.offer(event);
+        posted.incrementAndGet();
+    }
+
+    private void renderLoop() {
+        while (!closed) {
+            ProgressEvent event;
+            while ((event = queue.poll()) != null) {
+                apply(event);
+                processed++;
+            }
+            if (pending) {
+                renderProgress(false);
+            }
+            LockSupport.parkNanos(this, intervalNanos / 5);
+        }
+    }
+
+    private void apply(ProgressEvent event) {
+        switch (event.kind) {
+            case TYPE_STARTED:
+                progressOf(event.address).type = event.type;
+                pending = true;
+                break;
+            case PAGE_FETCHED: {
+                AddressProgress progress = progressOf(event.address);
+                progress.type = event.type;
+                progress.records += event.records;
+                progress.pages++;
+                progress.lastBlock = event.endBlock;
+                progress.dirty = true;
+                totalRecords += event.records;
+                totalPages++;
+                pending = true;
+                break;
+            }
+            case TYPE_FINISHED: {
+                AddressProgress progress = progressOf(event.address);
+                if (interactive) {
+                    printLine(out, "   Found " + event.records + " " + event.type + " transactions for " + event.address);
+                } else {
+                    renderProgress(true);
+                    out.println("event=type_done address=" + event.address + " type=" + event.type.name()
+                            + " records=" + event.records + " address_records=" + progress.records);
+                }
+                break;
+            }
+            case WARNING:
+                printLine(err, interactive ? "Warning: " + event.text : "level=WARN msg=\"" + event.text + "\"");
+                break;
+            default:
+                if (event.text == null) {
+                    // Flush marker: write the final figures and leave the console to the caller
+                    if (interactive) {
+                        clearOpenLine();
+                        pending = false;
+                    } else {
+                        renderProgress(true);
+                    }
+                } else {
+                    printLine(out, interactive ? event.text : "level=INFO msg=\"" + event.text + "\"");
+                }
+                break;
+        }
+    }
+
+    private void renderProgress(boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastRenderNanos < intervalNanos) {
+            return;
+        }
+        lastRenderNanos = now;
+        pending = false;
+        if (interactive) {
+            if (latest == null) {
+                return;
+            }
+            String line = String.format("⏳ %s %s: %,d records (block %d) | %d addresses, %,d records, %,d pages",
+                    latest.address, latest.type, latest.records, latest.lastBlock, addresses.size(), totalRecords, totalPages);
+            out.print("\r" + line + " ".repeat(Math.max(0, openLineLength - line.length())));
+            out.flush();
+            openLineLength = line.length();
+        } else {
+            for (AddressProgress progress : addresses.values()) {
+                if (progress.dirty) {
+                    out.println("event=progress address=" + progress.address + " type=" + progress.type.name()
+                            + " records=" + progress.records + " pages=" + progress.pages + " block=" + progress.lastBlock
+                            + " total_records=" + totalRecords + " total_pages=" + totalPages);
+                    progress.dirty = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a permanent line; on a terminal the progress line is cleared first and redrawn below it.
+     */
+    private void printLine(PrintStream stream, String line) {
+        if (interactive) {
+            clearOpenLine();
+            pending = latest != null;
+        }
+        stream.println(line);
+    }
+
+    private void clearOpenLine() {
+        if (openLineLength > 0) {
+            out.print("\r" + " ".repeat(openLineLength) + "\r");
+            out.flush();
+            openLineLength = 0;
+        }
+    }
+
+    private AddressProgress progressOf(String address) {
+        AddressProgress progress = addresses.computeIfAbsent(address, AddressProgress::new);
+        latest = progress;
+        return progress;
+    }
+
+    private static class AddressProgress {
+        final String address;
+        TransactionType type;
+        long records;
+        long pages;
+        long lastBlock;
+        boolean dirty;
+
+        AddressProgress(String address) {
+            this.address = address;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.cointracker.server;
+
+import com.cointracker.export.CsvExporter;
+import com.cointracker.model.Transaction;
+import com.opencsv.CSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+class CsvRowWriter implements TransactionRowWriter {
+
+    private final CSVWriter writer;
+
+    CsvRowWriter(OutputStream out) {
+        this.writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        writer.writeNext(CsvExporter.getHeader());
+    }
+
+    @Override
+    public void write(Transaction transaction) {
+        writer.writeNext(transaction.toCsvRow());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/csv; charset=utf-8";
+    }
+}
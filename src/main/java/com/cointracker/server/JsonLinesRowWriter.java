@@ -0,0 +1,52 @@
+package com.cointracker.server;
+
+import com.cointracker.export.CsvExporter;
+import com.cointracker.model.Transaction;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes one JSON object per line, keyed by the CSV column names.
+ */
+class JsonLinesRowWriter implements TransactionRowWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+    private final String[] header = CsvExporter.getHeader();
+
+    JsonLinesRowWriter(OutputStream out) throws IOException {
+        this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(Transaction transaction) throws IOException {
+        String[] row = transaction.toCsvRow();
+        generator.writeStartObject();
+        for (int i = 0; i < header.length; i++) {
+            generator.writeStringField(header[i], row[i]);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/x-ndjson; charset=utf-8";
+    }
+}
@@ -0,0 +1,342 @@
+package com.cointracker.server;
+
+import com.cointracker.client.BlockRange;
+import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.index.TransactionIndex;
+import com.cointracker.index.TransactionQuery;
+import com.cointracker.model.Transaction;
+import com.cointracker.service.TransactionService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Long-running HTTP server that answers
+ * {@code GET /addresses/{address}/transactions?format=csv|jsonl&from=YYYY-MM-DD&to=YYYY-MM-DD&token=<contract|eth>&counterparty=<address>}.
+ *
+ * Rows are written to a chunked response page by page as the API returns them, so the
+ * first bytes go out after the first page instead of after the whole history. Rows are
+ * ordered by block within each transaction type, one type after another. Completed
+ * results of at most {@code maxCachedRows} rows are kept in a {@link TransactionCache} and
+ * served from memory on repeat requests; larger histories are streamed but not cached.
+ * Token and counterparty conditions on a cached result, and date ranges once the full
+ * history is cached, are answered from its {@link TransactionIndex} in time order.
+ *
+ * If the upstream API fails after the headers were sent, the connection is dropped
+ * without the terminating chunk, so clients see a broken body rather than a complete
+ * but truncated history.
+ *
+ * Requests wait in a queue of at most {@code queueCapacity} once every pool thread is busy.
+ * Beyond that the request is answered with 503 on the accepting thread instead of queuing.
+ */
+public class QueryServer {
+
+    private static final Pattern TRANSACTIONS_PATH = Pattern.compile("^/addresses/([^/]+)/transactions/?$");
+    private static final String ETHEREUM_ADDRESS_PATTERN = "^0x[0-9a-fA-F]{40}$";
+
+    private final TransactionService service;
+    private final BlockchainApiClient apiClient;
+    private final TransactionCache cache;
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final int maxCachedRows;
+    private final ThreadLocal<Boolean> overloaded = ThreadLocal.withInitial(() -> false);
+
+    public QueryServer(TransactionService service, BlockchainApiClient apiClient, TransactionCache cache,
+                       int port, int threads, int queueCapacity, int maxCachedRows) throws IOException {
+        this.service = service;
+        this.apiClient = apiClient;
+        this.cache = cache;
+        this.maxCachedRows = maxCachedRows;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        // A rejected exchange runs on the dispatcher thread, marked so the handler only answers 503
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(), (task, pool) -> {
+                    overloaded.set(true);
+                    try {
+                        task.run();
+                    } finally {
+                        overloaded.remove();
+                    }
+                });
+        server.setExecutor(executor);
+        server.createContext("/addresses/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Resizes the request pool; requests already running are not interrupted.
+     */
+    public void setThreads(int threads) {
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        boolean aborted = false;
+        try {
+            if (overloaded.get()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Server busy, try again later");
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+            Matcher matcher = TRANSACTIONS_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!matcher.matches()) {
+                sendError(exchange, 404, "Unknown path: " + exchange.getRequestURI().getPath());
+                return;
+            }
+            String address = matcher.group(1);
+            if (!address.matches(ETHEREUM_ADDRESS_PATTERN)) {
+                sendError(exchange, 400, "Invalid Ethereum address format: " + address);
+                return;
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String format = query.getOrDefault("format", "csv").toLowerCase();
+            if (!"csv".equals(format) && !"jsonl".equals(format)) {
+                sendError(exchange, 400, "Unsupported format: " + format + " (expected csv or jsonl)");
+                return;
+            }
+            long fromEpochSecond;
+            long toEpochSecond;
+            try {
+                fromEpochSecond = query.containsKey("from")
+                        ? LocalDate.parse(query.get("from")).atStartOfDay().toEpochSecond(ZoneOffset.UTC)
+                        : Long.MIN_VALUE;
+                toEpochSecond = query.containsKey("to")
+                        ? LocalDate.parse(query.get("to")).plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC) - 1
+                        : Long.MAX_VALUE;
+            } catch (DateTimeParseException e) {
+                sendError(exchange, 400, "Invalid date, expected YYYY-MM-DD: " + e.getParsedString());
+                return;
+            }
+            String token = query.get("token");
+            if (token != null && !token.equalsIgnoreCase(TransactionQuery.ETH) && !token.matches(ETHEREUM_ADDRESS_PATTERN)) {
+                sendError(exchange, 400, "Invalid token, expected a contract address or eth: " + token);
+                return;
+            }
+            String counterparty = query.get("counterparty");
+            if (counterparty != null && !counterparty.matches(ETHEREUM_ADDRESS_PATTERN)) {
+                sendError(exchange, 400, "Invalid counterparty address format: " + counterparty);
+                return;
+            }
+            TransactionQuery conditions = new TransactionQuery.Builder()
+                    .token(token)
+                    .counterparty(counterparty)
+                    .between(fromEpochSecond, toEpochSecond)
+                    .build();
+
+            streamTransactions(exchange, address.toLowerCase(), conditions, format);
+        } catch (UpstreamFailure e) {
+            System.err.println("Warning: request " + exchange.getRequestURI() + " aborted: " + e.getMessage());
+            aborted = true;
+            // Thrown out of the handler, the server closes the connection without ending the chunked body
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The client went away after the headers were sent
+            System.err.println("Warning: request " + exchange.getRequestURI() + " failed: " + e.getMessage());
+        } finally {
+            if (!aborted) {
+                exchange.close();
+            }
+        }
+    }
+
+    private void streamTransactions(HttpExchange exchange, String address, TransactionQuery conditions, String format)
+            throws IOException, InterruptedException {
+        boolean dated = conditions.getFromEpochSecond() != Long.MIN_VALUE || conditions.getToEpochSecond() != Long.MAX_VALUE;
+        // A cached full history answers any date range without resolving blocks upstream
+        TransactionIndex history = dated ? cache.getIndex(cacheKey(address, BlockRange.ALL)) : null;
+        if (history != null) {
+            writeAll(exchange, format, history.query(conditions).iterator());
+            return;
+        }
+
+        BlockRange range;
+        try {
+            range = dated
+                    ? apiClient.resolveBlockRange(conditions.getFromEpochSecond(), conditions.getToEpochSecond())
+                    : BlockRange.ALL;
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        } catch (IOException e) {
+            sendError(exchange, 502, "Upstream block lookup failed: " + e.getMessage());
+            return;
+        }
+        // The block range already applies the dates, so only the token and counterparty remain
+        TransactionQuery keys = new TransactionQuery.Builder()
+                .token(conditions.getToken())
+                .counterparty(conditions.getCounterparty())
+                .build();
+        String cacheKey = cacheKey(address, range);
+        TransactionCache.Entry cached = cache.getEntry(cacheKey);
+        if (cached != null) {
+            writeAll(exchange, format, keys.hasNoKeys() ? cached.getTransactions().iterator()
+                    : cached.getIndex().query(keys).iterator());
+            return;
+        }
+
+        OutputStream body = exchange.getResponseBody();
+        TransactionRowWriter writer = TransactionRowWriter.forFormat(format, body);
+        exchange.getResponseHeaders().set("Content-Type", writer.getContentType());
+        exchange.getResponseHeaders().set("X-Cache", "MISS");
+        // Length 0 selects chunked transfer encoding
+        exchange.sendResponseHeaders(200, 0);
+
+        ArrayList<Transaction> fetched = new ArrayList<>();
+        boolean[] overflowed = new boolean[1];
+        IOException[] writeFailure = new IOException[1];
+        try {
+            service.streamTransactions(address, range, page -> {
+                if (!overflowed[0] && fetched.size() + page.size() > maxCachedRows) {
+                    // Too large to cache; stop holding rows the response has already streamed
+                    overflowed[0] = true;
+                    fetched.clear();
+                    fetched.trimToSize();
+                } else if (!overflowed[0]) {
+                    fetched.addAll(page);
+                }
+                if (writeFailure[0] != null) {
+                    return;
+                }
+                try {
+                    for (Transaction transaction : page) {
+                        if (keys.matches(transaction)) {
+                            writer.write(transaction);
+                        }
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    // Keep fetching so the result can still be cached for the next caller
+                    writeFailure[0] = e;
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            // Closing the writer would end the chunked body and make the rows sent so far look complete
+            throw new UpstreamFailure(e);
+        }
+        if (!overflowed[0]) {
+            cache.put(cacheKey, fetched);
+        }
+        try (writer) {
+            if (writeFailure[0] != null) {
+                throw writeFailure[0];
+            }
+        }
+    }
+
+    private static void writeAll(HttpExchange exchange, String format, Iterator<Transaction> transactions)
+            throws IOException {
+        TransactionRowWriter writer = TransactionRowWriter.forFormat(format, exchange.getResponseBody());
+        exchange.getResponseHeaders().set("Content-Type", writer.getContentType());
+        exchange.getResponseHeaders().set("X-Cache", "HIT");
+        exchange.sendResponseHeaders(200, 0);
+        try (writer) {
+            while (transactions.hasNext()) {
+                writer.write(transactions.next());
+            }
+        }
+    }
+
+    private static String cacheKey(String address, BlockRange range) {
+        return address + "|" + range.getStartBlock() + "|" + range.getEndBlock();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            if (!value.isEmpty()) {
+                query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * The upstream API failed while a response was being streamed.
+     */
+    private static class UpstreamFailure extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UpstreamFailure(Exception cause) {
+            super("upstream fetch failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "query-server-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
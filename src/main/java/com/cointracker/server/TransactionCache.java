@@ -0,0 +1,99 @@
+package com.cointracker.server;
+
+import com.cointracker.index.TransactionIndex;
+import com.cointracker.model.Transaction;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded LRU cache of fully fetched transaction lists with a time-to-live per entry.
+ * Cached lists are unmodifiable and may be shared by concurrent responses. A
+ * {@link TransactionIndex} is built for an entry the first time it is asked for.
+ */
+public class TransactionCache {
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    public TransactionCache(int maxEntries, long ttlSeconds) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached list, or null if it is missing or expired.
+     */
+    public List<Transaction> get(String key) {
+        Entry entry = getEntry(key);
+        return entry != null ? entry.getTransactions() : null;
+    }
+
+    /**
+     * Returns the index of the cached list, building it on first use, or null if the list is missing or expired.
+     */
+    public TransactionIndex getIndex(String key) {
+        Entry entry = getEntry(key);
+        return entry != null ? entry.getIndex() : null;
+    }
+
+    /**
+     * Returns the cached entry, or null if it is missing or expired. The entry stays usable
+     * after it expires or is evicted, so take the list and its index from one entry
+     * rather than looking the key up twice.
+     */
+    public synchronized Entry getEntry(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public synchronized void put(String key, List<Transaction> transactions) {
+        if (ttlNanos > 0) {
+            entries.put(key, new Entry(Collections.unmodifiableList(transactions), System.nanoTime()));
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A cached list and its lazily built index.
+     */
+    public static final class Entry {
+        private final List<Transaction> transactions;
+        private final long storedAt;
+        private TransactionIndex index;
+
+        private Entry(List<Transaction> transactions, long storedAt) {
+            this.transactions = transactions;
+            this.storedAt = storedAt;
+        }
+
+        public List<Transaction> getTransactions() {
+            return transactions;
+        }
+
+        public synchronized TransactionIndex getIndex() {
+            if (index == null) {
+                index = TransactionIndex.build(transactions);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.cointracker.server;
+
+import com.cointracker.model.Transaction;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streams transactions to an HTTP response body in one output format.
+ */
+interface TransactionRowWriter extends AutoCloseable {
+
+    void write(Transaction transaction) throws IOException;
+
+    void flush() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    String getContentType();
+
+    static TransactionRowWriter forFormat(String format, OutputStream out) throws IOException {
+        switch (format) {
+            case "csv":
+                return new CsvRowWriter(out);
+            case "jsonl":
+                return new JsonLinesRowWriter(out);
+            default:
+                throw new IllegalArgumentException("Unsupported format: " + format + " (expected csv or jsonl)");
+        }
+    }
+}
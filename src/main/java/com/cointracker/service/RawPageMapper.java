@@ -0,0 +1,140 @@
+package com.cointracker.service;
+
+import com.cointracker.dto.RawTransactionPage;
+import com.cointracker.dto.RawTransactionPage.Field;
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Erc721Transaction;
+import com.cointracker.model.InternalTransaction;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionField;
+import com.cointracker.model.TransactionSource;
+import com.cointracker.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the rows of a {@link RawTransactionPage} into lazy transaction views.
+ *
+ * Each view is the usual {@link Transaction} subclass for its type, so callers cannot
+ * tell it from an eagerly mapped one, but it holds only a row number until a field is
+ * read; the field is then decoded from the page bytes with the same conversions as
+ * {@link TransactionMapper}. A page stays in memory while any of its views has fields
+ * that were never read.
+ */
+public class RawPageMapper implements TransactionSource {
+
+    private final RawTransactionPage page;
+    private final TransactionType type;
+
+    public RawPageMapper(RawTransactionPage page, TransactionType type) {
+        this.page = page;
+        this.type = type;
+    }
+
+    /**
+     * Creates views for the rows before {@code end} that pass the filter.
+     */
+    public List<Transaction> map(int end, TransactionFilter filter) {
+        List<Transaction> transactions = new ArrayList<>(end);
+        for (int row = 0; row < end; row++) {
+            if (filter.accept(page, row, type)) {
+                transactions.add(view(row));
+            }
+        }
+        return transactions;
+    }
+
+    public Transaction view(int row) {
+        Transaction transaction;
+        switch (type) {
+            case ETH_TRANSFER:
+                transaction = new NormalTransaction();
+                break;
+            case ETH_INTERNAL:
+                transaction = new InternalTransaction();
+                break;
+            case ERC20:
+                transaction = new Erc20Transaction();
+                break;
+            default:
+                transaction = new Erc721Transaction();
+                break;
+        }
+        transaction.attachSource(this, row);
+        return transaction;
+    }
+
+    @Override
+    public void load(Transaction transaction, int row, TransactionField field) {
+        switch (field) {
+            case HASH:
+                transaction.setTransactionHash(page.getString(row, Field.HASH));
+                break;
+            case BLOCK_NUMBER:
+                transaction.setBlockNumber(page.getLong(row, Field.BLOCK_NUMBER, 0));
+                break;
+            case DATE_TIME:
+                transaction.setDateTime(TransactionMapper.parseTimestamp(page.getString(row, Field.TIME_STAMP)));
+                break;
+            case FROM_ADDRESS:
+                transaction.setFromAddress(page.getString(row, Field.FROM));
+                break;
+            case TO_ADDRESS:
+                transaction.setToAddress(page.getString(row, Field.TO));
+                break;
+            case CONTRACT_ADDRESS:
+                transaction.setAssetContractAddress(isToken() ? page.getString(row, Field.CONTRACT_ADDRESS) : "");
+                break;
+            case SYMBOL:
+                transaction.setAssetSymbol(isToken() ? page.getString(row, Field.TOKEN_SYMBOL) : "ETH");
+                break;
+            case TOKEN_NAME: {
+                String name = page.getString(row, Field.TOKEN_NAME);
+                if (transaction instanceof Erc20Transaction) {
+                    ((Erc20Transaction) transaction).setTokenName(name);
+                } else {
+                    ((Erc721Transaction) transaction).setTokenName(name);
+                }
+                break;
+            }
+            case TOKEN_DECIMAL:
+                ((Erc20Transaction) transaction).setTokenDecimal(decimals(row));
+                break;
+            case TOKEN_ID:
+                transaction.setTokenId(type == TransactionType.ERC721 ? page.getString(row, Field.TOKEN_ID) : "");
+                break;
+            case VALUE:
+                transaction.setValue(value(row));
+                break;
+            case FAILED:
+                transaction.setFailed(page.equalsAscii(row, Field.IS_ERROR, "1", false));
+                break;
+            default:
+                transaction.setGasFee(type == TransactionType.ETH_INTERNAL ? null
+                        : TransactionMapper.calculateGasFee(page.getString(row, Field.GAS_USED), page.getString(row, Field.GAS_PRICE)));
+                break;
+        }
+    }
+
+    private BigDecimal value(int row) {
+        switch (type) {
+            case ERC20:
+                return TransactionMapper.tokenAmount(page.getString(row, Field.VALUE), decimals(row));
+            case ERC721:
+                return BigDecimal.ONE;
+            default:
+                return TransactionMapper.weiToEth(page.getString(row, Field.VALUE));
+        }
+    }
+
+    private int decimals(int row) {
+        return TransactionMapper.parseIntSafe(page.getString(row, Field.TOKEN_DECIMAL), 18);
+    }
+
+    private boolean isToken() {
+        return type == TransactionType.ERC20 || type == TransactionType.ERC721;
+    }
+}
@@ -0,0 +1,312 @@
+package com.cointracker.service;
+
+import com.cointracker.dto.RawTransactionPage;
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Row filter evaluated on raw API records before they are mapped, so rejected
+ * rows never become {@link com.cointracker.model.Transaction} objects.
+ * Checks run cheapest first and each rejection is counted by reason.
+ */
+public class TransactionFilter {
+
+    public enum Reason {
+        OUT_OF_RANGE("Outside date range"),
+        FAILED("Failed transaction"),
+        TOKEN_BLOCKED("Blocked token"),
+        TOKEN_NOT_ALLOWED("Token not in allow list"),
+        DUST("Below minimum value");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final int MAX_CACHED_DECIMALS = 80;
+
+    private final boolean excludeFailed;
+    private final Set<String> allowedTokens;
+    private final Set<String> blockedTokens;
+    private final BigDecimal minValue;
+    private final long fromEpochSecond;
+    private final long toEpochSecond;
+
+    private final Threshold[] minRawValueByDecimals = new Threshold[MAX_CACHED_DECIMALS + 1];
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[Reason.values().length];
+
+    private TransactionFilter(Builder builder) {
+        this.excludeFailed = builder.excludeFailed;
+        this.allowedTokens = Collections.unmodifiableSet(builder.allowedTokens);
+        this.blockedTokens = Collections.unmodifiableSet(builder.blockedTokens);
+        this.minValue = builder.minValue;
+        this.fromEpochSecond = builder.fromEpochSecond;
+        this.toEpochSecond = builder.toEpochSecond;
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns a new filter that keeps every row. Each caller gets its own
+     * instance, since a filter counts the rows it sees.
+     */
+    public static TransactionFilter none() {
+        return new Builder().build();
+    }
+
+    public boolean isEmpty() {
+        return !excludeFailed && allowedTokens.isEmpty() && blockedTokens.isEmpty() && minValue == null
+                && fromEpochSecond == Long.MIN_VALUE && toEpochSecond == Long.MAX_VALUE;
+    }
+
+    public long getFromEpochSecond() {
+        return fromEpochSecond;
+    }
+
+    public long getToEpochSecond() {
+        return toEpochSecond;
+    }
+
+    /**
+     * Returns true if the record should be kept, counting the rejection reason otherwise.
+     */
+    public boolean accept(TransactionDto dto, TransactionType type) {
+        return count(rejectionReason(dto, type));
+    }
+
+    /**
+     * Same as {@link #accept(TransactionDto, TransactionType)} for a row of a raw page. Only the
+     * fields the active checks need are read, and the timestamp and error flag are tested in place.
+     */
+    public boolean accept(RawTransactionPage page, int row, TransactionType type) {
+        return count(rejectionReason(page, row, type));
+    }
+
+    private boolean count(Reason reason) {
+        if (reason == null) {
+            accepted.increment();
+            return true;
+        }
+        rejected[reason.ordinal()].increment();
+        return false;
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getRejectedCount(Reason reason) {
+        return rejected[reason.ordinal()].sum();
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder("\n🧹 Filter Summary:\n");
+        summary.append("   • Kept: ").append(getAcceptedCount());
+        for (Reason reason : Reason.values()) {
+            long count = getRejectedCount(reason);
+            if (count > 0) {
+                summary.append("\n   • ").append(reason.getDescription()).append(": ").append(count);
+            }
+        }
+        return summary.toString();
+    }
+
+    private Reason rejectionReason(TransactionDto dto, TransactionType type) {
+        if (fromEpochSecond != Long.MIN_VALUE || toEpochSecond != Long.MAX_VALUE) {
+            long timestamp = parseLong(dto.getTimeStamp());
+            if (timestamp < fromEpochSecond || timestamp > toEpochSecond) {
+                return Reason.OUT_OF_RANGE;
+            }
+        }
+
+        if (excludeFailed && dto.isFailed()) {
+            return Reason.FAILED;
+        }
+
+        boolean token = type == TransactionType.ERC20 || type == TransactionType.ERC721;
+        if (token && (!blockedTokens.isEmpty() || !allowedTokens.isEmpty())) {
+            // Etherscan returns lower-case addresses, so this rarely allocates
+            String contract = dto.getContractAddress() != null ? dto.getContractAddress().toLowerCase() : "";
+            if (blockedTokens.contains(contract)) {
+                return Reason.TOKEN_BLOCKED;
+            }
+            if (!allowedTokens.isEmpty() && !allowedTokens.contains(contract)) {
+                return Reason.TOKEN_NOT_ALLOWED;
+            }
+        }
+
+        if (minValue != null && hasDustCheck(type)) {
+            int decimals = type == TransactionType.ERC20 ? parseDecimals(dto.getTokenDecimal()) : 18;
+            if (isBelow(dto.getValue(), decimals)) {
+                return Reason.DUST;
+            }
+        }
+        return null;
+    }
+
+    private Reason rejectionReason(RawTransactionPage page, int row, TransactionType type) {
+        if (fromEpochSecond != Long.MIN_VALUE || toEpochSecond != Long.MAX_VALUE) {
+            long timestamp = page.getLong(row, RawTransactionPage.Field.TIME_STAMP, 0);
+            if (timestamp < fromEpochSecond || timestamp > toEpochSecond) {
+                return Reason.OUT_OF_RANGE;
+            }
+        }
+
+        if (excludeFailed && page.equalsAscii(row, RawTransactionPage.Field.IS_ERROR, "1", false)) {
+            return Reason.FAILED;
+        }
+
+        boolean token = type == TransactionType.ERC20 || type == TransactionType.ERC721;
+        if (token && (!blockedTokens.isEmpty() || !allowedTokens.isEmpty())) {
+            String contract = page.getString(row, RawTransactionPage.Field.CONTRACT_ADDRESS);
+            contract = contract != null ? contract.toLowerCase() : "";
+            if (blockedTokens.contains(contract)) {
+                return Reason.TOKEN_BLOCKED;
+            }
+            if (!allowedTokens.isEmpty() && !allowedTokens.contains(contract)) {
+                return Reason.TOKEN_NOT_ALLOWED;
+            }
+        }
+
+        if (minValue != null && hasDustCheck(type)) {
+            int decimals = type == TransactionType.ERC20
+                    ? (int) page.getLong(row, RawTransactionPage.Field.TOKEN_DECIMAL, 18) : 18;
+            if (isBelow(page.getString(row, RawTransactionPage.Field.VALUE), decimals)) {
+                return Reason.DUST;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Normal transactions are never dust: a zero-value contract call such as an approval
+     * or swap still paid gas, and dropping it would skew balances and cost basis.
+     */
+    private static boolean hasDustCheck(TransactionType type) {
+        return type == TransactionType.ETH_INTERNAL || type == TransactionType.ERC20;
+    }
+
+    private boolean isBelow(String rawValue, int decimals) {
+        if (rawValue == null || rawValue.isEmpty()) {
+            return true;
+        }
+        Threshold threshold = minRawValue(decimals);
+        // A raw value with more significant digits than the threshold cannot be below it
+        int start = 0;
+        while (start < rawValue.length() - 1 && rawValue.charAt(start) == '0') {
+            start++;
+        }
+        if (rawValue.length() - start > threshold.digits) {
+            return false;
+        }
+        try {
+            return new BigInteger(rawValue).compareTo(threshold.value) < 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private Threshold minRawValue(int decimals) {
+        if (decimals < 0 || decimals > MAX_CACHED_DECIMALS) {
+            return new Threshold(minValue, decimals);
+        }
+        Threshold threshold = minRawValueByDecimals[decimals];
+        if (threshold == null) {
+            threshold = new Threshold(minValue, decimals);
+            minRawValueByDecimals[decimals] = threshold;
+        }
+        return threshold;
+    }
+
+    private static int parseDecimals(String value) {
+        if (value == null || value.isEmpty()) {
+            return 18;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 18;
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class Threshold {
+        private final BigInteger value;
+        private final int digits;
+
+        private Threshold(BigDecimal minValue, int decimals) {
+            this.value = minValue.movePointRight(decimals).setScale(0, RoundingMode.CEILING).toBigInteger();
+            this.digits = value.toString().length();
+        }
+    }
+
+    public static class Builder {
+        private boolean excludeFailed;
+        private final Set<String> allowedTokens = new HashSet<>();
+        private final Set<String> blockedTokens = new HashSet<>();
+        private BigDecimal minValue;
+        private long fromEpochSecond = Long.MIN_VALUE;
+        private long toEpochSecond = Long.MAX_VALUE;
+
+        public Builder excludeFailed(boolean excludeFailed) {
+            this.excludeFailed = excludeFailed;
+            return this;
+        }
+
+        public Builder allowTokens(Collection<String> contracts) {
+            contracts.forEach(contract -> allowedTokens.add(contract.trim().toLowerCase()));
+            return this;
+        }
+
+        public Builder blockTokens(Collection<String> contracts) {
+            contracts.forEach(contract -> blockedTokens.add(contract.trim().toLowerCase()));
+            return this;
+        }
+
+        /**
+         * Minimum ETH or token amount (in whole units) for internal ETH and ERC-20 rows.
+         * Normal transactions are kept whatever their value, since they carry gas.
+         */
+        public Builder minValue(BigDecimal minValue) {
+            this.minValue = minValue;
+            return this;
+        }
+
+        /**
+         * Inclusive UTC time range in epoch seconds.
+         */
+        public Builder timeRange(long fromEpochSecond, long toEpochSecond) {
+            this.fromEpochSecond = fromEpochSecond;
+            this.toEpochSecond = toEpochSecond;
+            return this;
+        }
+
+        public TransactionFilter build() {
+            return new TransactionFilter(this);
+        }
+    }
+}
@@ -15,7 +15,7 @@ public class TransactionMapper {
     
    
     public NormalTransaction mapNormalTransaction(TransactionDto dto) {
-        return new NormalTransaction(
+        NormalTransaction tx = new NormalTransaction(
                 dto.getHash(),
                 parseTimestamp(dto.getTimeStamp()),
                 dto.getFrom(),
@@ -23,42 +23,48 @@ public class TransactionMapper {
                 weiToEth(dto.getValue()),
                 calculateGasFee(dto.getGasUsed(), dto.getGasPrice())
         );
+        tx.setBlockNumber(parseLongSafe(dto.getBlockNumber()));
+        tx.setFailed(dto.isFailed());
+        return tx;
     }
     
    
     public InternalTransaction mapInternalTransaction(TransactionDto dto) {
-        return new InternalTransaction(
+        InternalTransaction tx = new InternalTransaction(
                 dto.getHash(),
                 parseTimestamp(dto.getTimeStamp()),
                 dto.getFrom(),
                 dto.getTo(),
                 weiToEth(dto.getValue())
         );
+        tx.setBlockNumber(parseLongSafe(dto.getBlockNumber()));
+        tx.setFailed(dto.isFailed());
+        return tx;
     }
     
     
     public Erc20Transaction mapErc20Transaction(TransactionDto dto) {
         int decimals = parseIntSafe(dto.getTokenDecimal(), 18);
-        BigDecimal divisor = BigDecimal.TEN.pow(decimals);
-        BigDecimal value = new BigDecimal(dto.getValue()).divide(divisor, decimals, RoundingMode.DOWN);
         
-        return new Erc20Transaction(
+        Erc20Transaction tx = new Erc20Transaction(
                 dto.getHash(),
                 parseTimestamp(dto.getTimeStamp()),
                 dto.getFrom(),
                 dto.getTo(),
-                value,
+                tokenAmount(dto.getValue(), decimals),
                 calculateGasFee(dto.getGasUsed(), dto.getGasPrice()),
                 dto.getContractAddress(),
                 dto.getTokenSymbol(),
                 dto.getTokenName(),
                 decimals
         );
+        tx.setBlockNumber(parseLongSafe(dto.getBlockNumber()));
+        return tx;
     }
     
 
     public Erc721Transaction mapErc721Transaction(TransactionDto dto) {
-        return new Erc721Transaction(
+        Erc721Transaction tx = new Erc721Transaction(
                 dto.getHash(),
                 parseTimestamp(dto.getTimeStamp()),
                 dto.getFrom(),
@@ -69,9 +75,16 @@ public class TransactionMapper {
                 dto.getTokenName(),
                 dto.getTokenID()
         );
+        tx.setBlockNumber(parseLongSafe(dto.getBlockNumber()));
+        return tx;
+    }
+    
+    static BigDecimal tokenAmount(String rawValue, int decimals) {
+        BigDecimal divisor = BigDecimal.TEN.pow(decimals);
+        return new BigDecimal(rawValue).divide(divisor, decimals, RoundingMode.DOWN);
     }
     
-    private BigDecimal weiToEth(String weiValue) {
+    static BigDecimal weiToEth(String weiValue) {
         if (weiValue == null || weiValue.isEmpty()) {
             return BigDecimal.ZERO;
         }
@@ -84,7 +97,7 @@ public class TransactionMapper {
         }
     }
     
-    private BigDecimal calculateGasFee(String gasUsed, String gasPrice) {
+    static BigDecimal calculateGasFee(String gasUsed, String gasPrice) {
         if (gasUsed == null || gasUsed.isEmpty() || gasPrice == null || gasPrice.isEmpty()) {
             return null;
         }
@@ -99,7 +112,7 @@ public class TransactionMapper {
         }
     }
     
-    private LocalDateTime parseTimestamp(String timestamp) {
+    static LocalDateTime parseTimestamp(String timestamp) {
         if (timestamp == null || timestamp.isEmpty()) {
             return LocalDateTime.now();
         }
@@ -112,7 +125,19 @@ public class TransactionMapper {
         }
     }
     
-    private int parseIntSafe(String value, int defaultValue) {
+    static long parseLongSafe(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    static int parseIntSafe(String value, int defaultValue) {
         if (value == null || value.isEmpty()) {
             return defaultValue;
         }
@@ -1,57 +1,98 @@
 package com.cointracker.service;
 
+import com.cointracker.client.BlockRange;
 import com.cointracker.client.BlockchainApiClient;
 import com.cointracker.config.ApiConfig;
+import com.cointracker.jfr.SortEvent;
 import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.progress.ProgressReporter;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class TransactionService {
     
+    private static final TransactionType[] FETCH_ORDER = {
+        TransactionType.ETH_TRANSFER,
+        TransactionType.ETH_INTERNAL,
+        TransactionType.ERC20,
+        TransactionType.ERC721
+    };
+    
     private final BlockchainApiClient apiClient;
     private final ApiConfig config;
+    private final ProgressReporter progress;
     
     public TransactionService(BlockchainApiClient apiClient, ApiConfig config) {
+        this(apiClient, config, ProgressReporter.getDefault());
+    }
+    
+    public TransactionService(BlockchainApiClient apiClient, ApiConfig config, ProgressReporter progress) {
         this.apiClient = apiClient;
         this.config = config;
+        this.progress = progress;
     }
     
     public List<Transaction> getAllTransactions(String address) throws IOException, InterruptedException {
+        return getAllTransactions(address, BlockRange.ALL);
+    }
+    
+    public List<Transaction> getAllTransactions(String address, BlockRange range) throws IOException, InterruptedException {
         List<Transaction> allTransactions = new ArrayList<>();
         
-        System.out.println("Fetching normal transactions...");
-        List<Transaction> normalTxs = apiClient.fetchNormalTransactions(address);
+        progress.typeStarted(address, TransactionType.ETH_TRANSFER);
+        List<Transaction> normalTxs = apiClient.fetchNormalTransactions(address, range);
         allTransactions.addAll(normalTxs);
-        System.out.println("   Found " + normalTxs.size() + " normal transactions");
-        System.out.println("   Cooling down for " + config.getRateLimitDelayBetweenTypes() + "ms...\n");
+        progress.typeFinished(address, TransactionType.ETH_TRANSFER, normalTxs.size());
         Thread.sleep(config.getRateLimitDelayBetweenTypes());
         
-        System.out.println("Fetching internal transactions...");
-        List<Transaction> internalTxs = apiClient.fetchInternalTransactions(address);
+        progress.typeStarted(address, TransactionType.ETH_INTERNAL);
+        List<Transaction> internalTxs = apiClient.fetchInternalTransactions(address, range);
         allTransactions.addAll(internalTxs);
-        System.out.println("   Found " + internalTxs.size() + " internal transactions");
-        System.out.println("   Cooling down for " + config.getRateLimitDelayBetweenTypes() + "ms...\n");
+        progress.typeFinished(address, TransactionType.ETH_INTERNAL, internalTxs.size());
         Thread.sleep(config.getRateLimitDelayBetweenTypes());
         
-        System.out.println("Fetching ERC-20 token transfers...");
-        List<Transaction> erc20Txs = apiClient.fetchErc20Transactions(address);
+        progress.typeStarted(address, TransactionType.ERC20);
+        List<Transaction> erc20Txs = apiClient.fetchErc20Transactions(address, range);
         allTransactions.addAll(erc20Txs);
-        System.out.println("   Found " + erc20Txs.size() + " ERC-20 transfers");
-        System.out.println("   Cooling down for " + config.getRateLimitDelayBetweenTypes() + "ms...\n");
+        progress.typeFinished(address, TransactionType.ERC20, erc20Txs.size());
         Thread.sleep(config.getRateLimitDelayBetweenTypes());
         
-        System.out.println("Fetching ERC-721 NFT transfers...");
-        List<Transaction> erc721Txs = apiClient.fetchErc721Transactions(address);
+        progress.typeStarted(address, TransactionType.ERC721);
+        List<Transaction> erc721Txs = apiClient.fetchErc721Transactions(address, range);
         allTransactions.addAll(erc721Txs);
-        System.out.println("   Found " + erc721Txs.size() + " ERC-721 transfers");
+        progress.typeFinished(address, TransactionType.ERC721, erc721Txs.size());
         
+        SortEvent sortEvent = new SortEvent();
+        sortEvent.begin();
         allTransactions.sort(Comparator.comparing(Transaction::getDateTime));
+        sortEvent.end();
+        if (sortEvent.shouldCommit()) {
+            sortEvent.address = address;
+            sortEvent.records = allTransactions.size();
+            sortEvent.commit();
+        }
         return allTransactions;
     }
     
+    /**
+     * Fetches all transaction types one after another and hands over each page as soon as it arrives.
+     * Pages are ordered by block within a type, but are not merged across types.
+     */
+    public void streamTransactions(String address, BlockRange range, Consumer<List<Transaction>> pageConsumer)
+            throws IOException, InterruptedException {
+        for (int i = 0; i < FETCH_ORDER.length; i++) {
+            if (i > 0) {
+                Thread.sleep(config.getRateLimitDelayBetweenTypes());
+            }
+            apiClient.streamTransactions(FETCH_ORDER[i], address, range, pageConsumer);
+        }
+    }
+    
     public String getApiProviderName() {
         return apiClient.getProviderName();
     }
@@ -0,0 +1,254 @@
+package com.cointracker.watch;
+
+import com.cointracker.client.BlockRange;
+import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.export.CsvExporter;
+import com.cointracker.index.HashIndex;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Polls a watchlist for new transfers and appends them to one CSV file per address.
+ *
+ * Each poll fetches only the blocks after the last one exported for each type, so
+ * the first poll of an address exports its full history and later polls return only
+ * new rows. Poll timing comes from {@link WatchScheduler}; progress survives restarts
+ * through {@link WatchState}. If a directory for seen rows is given, the key of every
+ * appended row is kept in a per-address {@link HashIndex}, and rows already in it are
+ * not appended again, e.g. after the state file was lost or is older than the CSV.
+ * The updated index is staged before the rows are appended and swapped in after;
+ * if either step throws, the CSV is cut back to its old length and the staged index
+ * dropped, so no row is marked seen without being written and the next poll retries it.
+ */
+public class AddressWatcher {
+
+    private static final long STATUS_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final BlockchainApiClient apiClient;
+    private final WatchScheduler scheduler;
+    private final WatchState state;
+    private final CsvExporter exporter;
+    private final Path outputDirectory;
+    private final Path seenRowsDirectory;
+    private final LongSupplier clock;
+
+    private long polls;
+    private long appendedRows;
+    private long skippedRows;
+    private long failedPolls;
+
+    /**
+     * @param seenRowsDirectory where the per-address indexes of appended rows are kept, or null to not check
+     */
+    public AddressWatcher(BlockchainApiClient apiClient, WatchScheduler scheduler, WatchState state,
+                          CsvExporter exporter, Path outputDirectory, Path seenRowsDirectory) {
+        this(apiClient, scheduler, state, exporter, outputDirectory, seenRowsDirectory, System::currentTimeMillis);
+    }
+
+    AddressWatcher(BlockchainApiClient apiClient, WatchScheduler scheduler, WatchState state,
+                   CsvExporter exporter, Path outputDirectory, Path seenRowsDirectory, LongSupplier clock) {
+        this.apiClient = apiClient;
+        this.scheduler = scheduler;
+        this.state = state;
+        this.exporter = exporter;
+        this.outputDirectory = outputDirectory;
+        this.seenRowsDirectory = seenRowsDirectory;
+        this.clock = clock;
+    }
+
+    public void watch(String address) {
+        scheduler.add(address, clock.getAsLong());
+    }
+
+    /**
+     * Polls until the thread is interrupted.
+     */
+    public void run() throws IOException {
+        long lastStatus = clock.getAsLong();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                pollDue();
+                long now = clock.getAsLong();
+                if (now - lastStatus >= STATUS_INTERVAL_MILLIS) {
+                    System.out.println(status());
+                    lastStatus = now;
+                }
+                long sleepMillis = Math.min(scheduler.getNextPollAt() - now, TimeUnit.SECONDS.toMillis(1));
+                if (sleepMillis > 0) {
+                    Thread.sleep(sleepMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            state.save();
+        }
+    }
+
+    /**
+     * Polls every address that is due now and saves the state once at the end.
+     *
+     * @return the number of addresses polled
+     */
+    public int pollDue() throws IOException, InterruptedException {
+        List<String> due = scheduler.pollDue(clock.getAsLong());
+        for (String address : due) {
+            boolean hadActivity = false;
+            try {
+                hadActivity = poll(address) > 0;
+            } catch (IOException e) {
+                // Leave the markers untouched so the next poll retries the same blocks
+                failedPolls++;
+                System.err.println("Warning: poll of " + address + " failed: " + e.getMessage());
+            } finally {
+                scheduler.reschedule(address, hadActivity, clock.getAsLong());
+            }
+        }
+        state.save();
+        return due.size();
+    }
+
+    /**
+     * Fetches and appends everything after the last exported block of each type.
+     *
+     * @return the number of new rows
+     */
+    public int poll(String address) throws IOException, InterruptedException {
+        List<Transaction> newRows = new ArrayList<>();
+        long[] maxBlocks = new long[TransactionType.values().length];
+
+        for (TransactionType type : TransactionType.values()) {
+            long lastSeen = state.getLastSeenBlock(address, type);
+            BlockRange range = new BlockRange(lastSeen + 1, BlockRange.LATEST_BLOCK);
+            maxBlocks[type.ordinal()] = lastSeen;
+            apiClient.streamTransactions(type, address, range, page -> {
+                for (Transaction transaction : page) {
+                    newRows.add(transaction);
+                    maxBlocks[type.ordinal()] = Math.max(maxBlocks[type.ordinal()], transaction.getBlockNumber());
+                }
+            });
+        }
+        polls++;
+
+        List<Transaction> unseenRows = seenRowsDirectory != null ? dropSeenRows(address, newRows) : newRows;
+        if (!unseenRows.isEmpty()) {
+            unseenRows.sort(Comparator.comparing(Transaction::getDateTime));
+            append(address, unseenRows);
+            appendedRows += unseenRows.size();
+        }
+        // Markers move only after the rows are safely on disk
+        for (TransactionType type : TransactionType.values()) {
+            state.setLastSeenBlock(address, type, maxBlocks[type.ordinal()]);
+        }
+        return unseenRows.size();
+    }
+
+    private void append(String address, List<Transaction> rows) throws IOException {
+        Path csv = outputDirectory.resolve(address.toLowerCase() + ".csv");
+        Path seen = seenRowsDirectory != null ? seenRowsFile(address) : null;
+        Path staged = seen != null ? seen.resolveSibling(seen.getFileName() + ".staged") : null;
+        if (staged != null) {
+            HashIndex.merge(seen, staged, rowKeys(rows));
+        }
+        long lengthBefore = Files.exists(csv) ? Files.size(csv) : -1;
+        try {
+            exporter.appendToCsv(rows, csv.toString());
+            if (staged != null) {
+                Files.move(staged, seen, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (lengthBefore < 0) {
+                Files.deleteIfExists(csv);
+            } else if (Files.exists(csv)) {
+                try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.WRITE)) {
+                    channel.truncate(lengthBefore);
+                }
+            }
+            if (staged != null) {
+                Files.deleteIfExists(staged);
+            }
+            throw e;
+        }
+    }
+
+    private List<Transaction> dropSeenRows(String address, List<Transaction> rows) throws IOException {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        boolean[] seen = HashIndex.open(seenRowsFile(address)).containsAll(rowKeys(rows));
+        List<Transaction> unseen = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (seen[i]) {
+                skippedRows++;
+            } else {
+                unseen.add(rows.get(i));
+            }
+        }
+        return unseen;
+    }
+
+    private Path seenRowsFile(String address) throws IOException {
+        Files.createDirectories(seenRowsDirectory);
+        return seenRowsDirectory.resolve(address.toLowerCase() + ".seen");
+    }
+
+    /**
+     * One hash can carry several rows (internal calls, token legs), so a row is keyed by
+     * everything the CSV shows about it.
+     */
+    private static List<String> rowKeys(List<Transaction> rows) {
+        List<String> keys = new ArrayList<>(rows.size());
+        for (Transaction row : rows) {
+            keys.add(String.join("|", row.getTransactionHash(), row.getType().name(), row.getFromAddress(),
+                    row.getToAddress(), row.getAssetContractAddress(), row.getTokenId(),
+                    row.getValue() != null ? row.getValue().toPlainString() : ""));
+        }
+        return keys;
+    }
+
+    public String status() {
+        Map<WatchScheduler.Tier, Integer> tiers = scheduler.getTierCounts();
+        return String.format(
+                "\n👀 Watch Status:\n" +
+                "   • Addresses: %d (hot %d, warm %d, idle %d)\n" +
+                "   • Expected polls per minute: %.1f\n" +
+                "   • Polls: %d (%d failed)\n" +
+                "   • Appended Transactions: %d\n" +
+                "   • Skipped Duplicates: %d",
+                scheduler.size(),
+                tiers.get(WatchScheduler.Tier.HOT),
+                tiers.get(WatchScheduler.Tier.WARM),
+                tiers.get(WatchScheduler.Tier.IDLE),
+                scheduler.getPollsPerMinute(),
+                polls,
+                failedPolls,
+                appendedRows,
+                skippedRows
+        );
+    }
+
+    public long getPollCount() {
+        return polls;
+    }
+
+    public long getAppendedRowCount() {
+        return appendedRows;
+    }
+
+    public long getSkippedRowCount() {
+        return skippedRows;
+    }
+}
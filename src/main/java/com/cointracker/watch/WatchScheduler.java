@@ -0,0 +1,131 @@
+package com.cointracker.watch;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Decides when each watched address is polled next.
+ *
+ * An address that had new transactions is polled again after the hot interval. Every
+ * poll without new rows doubles its interval up to the idle maximum, so the number of
+ * API calls follows the activity of the watchlist rather than its size. All times are
+ * epoch milliseconds supplied by the caller.
+ */
+public class WatchScheduler {
+
+    public enum Tier {
+        HOT, WARM, IDLE
+    }
+
+    private final long hotIntervalMillis;
+    private final long maxIntervalMillis;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(
+            (a, b) -> Long.compare(a.nextPollAt, b.nextPollAt));
+
+    public WatchScheduler(long hotIntervalMillis, long maxIntervalMillis) {
+        if (hotIntervalMillis <= 0 || maxIntervalMillis < hotIntervalMillis) {
+            throw new IllegalArgumentException("Expected 0 < hot interval <= max interval, got "
+                    + hotIntervalMillis + " and " + maxIntervalMillis);
+        }
+        this.hotIntervalMillis = hotIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    /**
+     * Adds an address that is due immediately. Adding an address twice has no effect.
+     */
+    public synchronized void add(String address, long now) {
+        String key = address.toLowerCase();
+        if (entries.containsKey(key)) {
+            return;
+        }
+        Entry entry = new Entry(key, now, hotIntervalMillis);
+        entries.put(key, entry);
+        queue.add(entry);
+    }
+
+    /**
+     * Removes and returns the addresses due at {@code now}, most overdue first.
+     * Each must be handed back through {@link #reschedule}.
+     */
+    public synchronized List<String> pollDue(long now) {
+        List<String> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().nextPollAt <= now) {
+            due.add(queue.poll().address);
+        }
+        return due;
+    }
+
+    public synchronized void reschedule(String address, boolean hadActivity, long now) {
+        Entry entry = entries.get(address.toLowerCase());
+        if (entry == null) {
+            throw new IllegalArgumentException("Address is not watched: " + address);
+        }
+        entry.intervalMillis = hadActivity ? hotIntervalMillis : Math.min(maxIntervalMillis, entry.intervalMillis * 2);
+        entry.nextPollAt = now + entry.intervalMillis;
+        queue.add(entry);
+    }
+
+    /**
+     * Returns when the next address is due, or {@link Long#MAX_VALUE} if none is queued.
+     */
+    public synchronized long getNextPollAt() {
+        return queue.isEmpty() ? Long.MAX_VALUE : queue.peek().nextPollAt;
+    }
+
+    public synchronized long getIntervalMillis(String address) {
+        Entry entry = entries.get(address.toLowerCase());
+        return entry != null ? entry.intervalMillis : -1;
+    }
+
+    public synchronized Tier getTier(String address) {
+        long interval = getIntervalMillis(address);
+        if (interval <= hotIntervalMillis) {
+            return Tier.HOT;
+        }
+        return interval >= maxIntervalMillis ? Tier.IDLE : Tier.WARM;
+    }
+
+    public synchronized Map<Tier, Integer> getTierCounts() {
+        Map<Tier, Integer> counts = new EnumMap<>(Tier.class);
+        for (Tier tier : Tier.values()) {
+            counts.put(tier, 0);
+        }
+        for (String address : entries.keySet()) {
+            counts.merge(getTier(address), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Expected polls per minute with every address at its current interval.
+     */
+    public synchronized double getPollsPerMinute() {
+        double polls = 0;
+        for (Entry entry : entries.values()) {
+            polls += 60_000.0 / entry.intervalMillis;
+        }
+        return polls;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final String address;
+        private long nextPollAt;
+        private long intervalMillis;
+
+        private Entry(String address, long nextPollAt, long intervalMillis) {
+            this.address = address;
+            this.nextPollAt = nextPollAt;
+            this.intervalMillis = intervalMillis;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.cointracker.watch;
+
+import com.cointracker.model.TransactionType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persistent last-seen block per watched address and transaction type.
+ * Types are tracked separately because a block can be mined between the calls for
+ * two types of the same poll; a single shared marker could then skip rows.
+ */
+public class WatchState {
+
+    private static final int TYPES = TransactionType.values().length;
+
+    private final Path file;
+    private final Map<String, long[]> lastSeenBlocks = new HashMap<>();
+    private boolean dirty;
+
+    public WatchState(Path file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Returns the last block already exported for the type, or -1 if nothing has been exported yet.
+     */
+    public synchronized long getLastSeenBlock(String address, TransactionType type) {
+        long[] blocks = lastSeenBlocks.get(address.toLowerCase());
+        return blocks != null ? blocks[type.ordinal()] : -1;
+    }
+
+    public synchronized void setLastSeenBlock(String address, TransactionType type, long blockNumber) {
+        long[] blocks = lastSeenBlocks.computeIfAbsent(address.toLowerCase(), key -> newBlocks());
+        if (blockNumber > blocks[type.ordinal()]) {
+            blocks[type.ordinal()] = blockNumber;
+            dirty = true;
+        }
+    }
+
+    public synchronized int size() {
+        return lastSeenBlocks.size();
+    }
+
+    /**
+     * Writes the state if anything changed since the last save.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(lastSeenBlocks.size());
+            out.writeInt(TYPES);
+            for (Map.Entry<String, long[]> entry : lastSeenBlocks.entrySet()) {
+                out.writeUTF(entry.getKey());
+                for (long block : entry.getValue()) {
+                    out.writeLong(block);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int size = in.readInt();
+            int types = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String address = in.readUTF();
+                long[] blocks = newBlocks();
+                for (int type = 0; type < types; type++) {
+                    long block = in.readLong();
+                    if (type < TYPES) {
+                        blocks[type] = block;
+                    }
+                }
+                lastSeenBlocks.put(address, blocks);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: ignoring unreadable watch state " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long[] newBlocks() {
+        long[] blocks = new long[TYPES];
+        Arrays.fill(blocks, -1);
+        return blocks;
+    }
+}
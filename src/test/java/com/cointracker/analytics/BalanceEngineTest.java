@@ -0,0 +1,116 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Erc721Transaction;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for BalanceEngine and its fixed-point ledger.
+ */
+public class BalanceEngineTest {
+
+    private static final String OWNER = "0xowner";
+    private static final String USDC = "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48";
+
+    @Test
+    void testRunningBalancesWithGasAndSnapshots() {
+        // Arrange
+        List<Transaction> transactions = List.of(
+            new NormalTransaction("0x1", LocalDateTime.of(2024, 1, 1, 10, 0), "0xother", OWNER,
+                new BigDecimal("25.000000000000000001"), new BigDecimal("0.001")),
+            new NormalTransaction("0x2", LocalDateTime.of(2024, 1, 15, 10, 0), OWNER, "0xother",
+                new BigDecimal("5"), new BigDecimal("0.002")),
+            new Erc20Transaction("0x3", LocalDateTime.of(2024, 2, 1, 10, 0), "0xother", OWNER,
+                new BigDecimal("100.5"), new BigDecimal("0.003"), USDC, "USDC", "USD Coin", 6),
+            new Erc721Transaction("0x4", LocalDateTime.of(2024, 2, 2, 10, 0), "0xother", OWNER,
+                new BigDecimal("0.003"), "0xnft", "POAP", "Proof of Attendance", "682")
+        );
+
+        // Act
+        List<BalanceSnapshot> snapshots = BalanceEngine.replay(OWNER, SnapshotInterval.MONTHLY, transactions);
+
+        // Assert
+        assertEquals(2, snapshots.size(), "Should emit one snapshot per active month");
+        assertEquals(LocalDate.of(2024, 1, 1), snapshots.get(0).getPeriodStart());
+
+        BigDecimal januaryEth = snapshots.get(0).getBalances().get(0).getBalance();
+        assertEquals(0, new BigDecimal("19.998000000000000001").compareTo(januaryEth),
+                "ETH balance should subtract outgoing value and gas exactly");
+
+        Map<String, BigDecimal> february = toMap(snapshots.get(1));
+        assertEquals(0, new BigDecimal("100.5").compareTo(february.get(USDC)), "USDC balance should be tracked");
+        assertEquals(0, BigDecimal.ONE.compareTo(february.get("0xnft")), "NFT holdings should be counted");
+        assertEquals(0, januaryEth.compareTo(february.get("ETH")), "Token gas should not be charged twice");
+
+        System.out.println("✅ Replayed " + transactions.size() + " transfers into " + snapshots.size() + " snapshots");
+    }
+
+    @Test
+    void testFailedTransactionOnlyChargesGas() {
+        // Arrange
+        NormalTransaction reverted = new NormalTransaction("0x2", LocalDateTime.of(2024, 1, 2, 10, 0), OWNER,
+            "0xother", new BigDecimal("3"), new BigDecimal("0.004"));
+        reverted.setFailed(true);
+        List<Transaction> transactions = List.of(
+            new NormalTransaction("0x1", LocalDateTime.of(2024, 1, 1, 10, 0), "0xother", OWNER,
+                new BigDecimal("10"), null),
+            reverted
+        );
+
+        // Act
+        List<BalanceSnapshot> snapshots = BalanceEngine.replay(OWNER, SnapshotInterval.MONTHLY, transactions);
+
+        // Assert
+        assertEquals(0, new BigDecimal("9.996").compareTo(toMap(snapshots.get(0)).get("ETH")),
+            "A reverted send should cost its gas but keep its value");
+        System.out.println("✅ Reverted send charged gas only");
+    }
+
+    @Test
+    void testRejectsUnsortedInput() {
+        // Arrange
+        BalanceEngine engine = new BalanceEngine(OWNER, SnapshotInterval.DAILY, snapshot -> { });
+        engine.accept(new NormalTransaction("0x1", LocalDateTime.of(2024, 1, 2, 0, 0), OWNER, "0xother",
+            BigDecimal.ONE, null));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> engine.accept(new NormalTransaction("0x2",
+            LocalDateTime.of(2024, 1, 1, 0, 0), OWNER, "0xother", BigDecimal.ONE, null)),
+            "Out-of-order transactions should be rejected");
+    }
+
+    @Test
+    void testLedgerCarriesBeyondLongAndOverflows() {
+        // Arrange
+        FixedPointLedger ledger = new FixedPointLedger(1);
+        int slot = ledger.addSlot();
+        BigInteger huge = BigInteger.ONE.shiftLeft(126);
+
+        // Act
+        ledger.addLong(slot, Long.MAX_VALUE);
+        ledger.addLong(slot, Long.MAX_VALUE);
+        ledger.add(slot, huge);
+        ledger.add(slot, huge);
+        ledger.add(slot, huge.shiftLeft(1).negate());
+
+        // Assert
+        BigInteger expected = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TWO);
+        assertEquals(expected, ledger.get(slot), "Ledger should stay exact across 64 and 128 bit boundaries");
+    }
+
+    private static Map<String, BigDecimal> toMap(BalanceSnapshot snapshot) {
+        return snapshot.getBalances().stream()
+            .collect(java.util.stream.Collectors.toMap(AssetBalance::getAssetKey, AssetBalance::getBalance));
+    }
+}
@@ -0,0 +1,115 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.pricing.PriceSource;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for CostBasisEngine lot policies.
+ */
+public class CostBasisEngineTest {
+
+    private static final String OWNER = "0xowner";
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    // ETH costs 100 USD on day 0, 300 on day 1, 200 from day 2 onwards
+    private static final PriceSource PRICES = (asset, epochSecond) -> {
+        long day = (epochSecond - START.toEpochSecond(ZoneOffset.UTC)) / 86400;
+        long usd = day == 0 ? 100 : day == 1 ? 300 : 200;
+        return usd * 100_000_000L;
+    };
+
+    private final List<Transaction> transactions = List.of(
+        receive("0x1", 0, "1"),
+        receive("0x2", 1, "1"),
+        receive("0x3", 2, "1"),
+        send("0x4", 3, "1.5")
+    );
+
+    @Test
+    void testFifoConsumesOldestLotsFirst() {
+        // Act
+        List<RealizedGain> gains = CostBasisEngine.compute(OWNER, CostBasisPolicy.FIFO, PRICES, transactions);
+
+        // Assert
+        assertEquals(2, gains.size(), "Disposal should span two lots");
+        assertMoney("100", gains.get(0).getCostBasis());
+        assertMoney("150", gains.get(1).getCostBasis());
+        assertMoney("300", gains.get(0).getProceeds().add(gains.get(1).getProceeds()));
+        System.out.println("✅ FIFO gain: " + gains.get(0).getGain().add(gains.get(1).getGain()));
+    }
+
+    @Test
+    void testLifoAndHifoChooseDifferentLots() {
+        // Act
+        List<RealizedGain> lifo = CostBasisEngine.compute(OWNER, CostBasisPolicy.LIFO, PRICES, transactions);
+        List<RealizedGain> hifo = CostBasisEngine.compute(OWNER, CostBasisPolicy.HIFO, PRICES, transactions);
+
+        // Assert
+        assertMoney("200", lifo.get(0).getCostBasis());
+        assertMoney("150", lifo.get(1).getCostBasis());
+        assertMoney("300", hifo.get(0).getCostBasis());
+        assertMoney("100", hifo.get(1).getCostBasis());
+    }
+
+    @Test
+    void testHifoBreaksEqualCostTiesOldestFirst() {
+        // Arrange: without prices every lot costs 0
+        List<Transaction> unpriced = new ArrayList<>();
+        for (int day = 0; day < 6; day++) {
+            unpriced.add(receive("0xin" + day, day, "1"));
+        }
+        unpriced.add(send("0xout", 7, "3"));
+
+        // Act
+        List<RealizedGain> gains = CostBasisEngine.compute(OWNER, CostBasisPolicy.HIFO, PriceSource.NONE, unpriced);
+
+        // Assert
+        assertEquals(3, gains.size(), "Disposal should span three lots");
+        for (int i = 0; i < gains.size(); i++) {
+            assertEquals(START.plusDays(i), gains.get(i).getAcquiredAt(), "Equal-cost lots should go oldest first");
+        }
+        System.out.println("✅ HIFO tie-break consumed lots from " + gains.get(0).getAcquiredAt());
+    }
+
+    @Test
+    void testUncoveredDisposalAndManyLots() {
+        // Arrange
+        List<Transaction> manyLots = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            manyLots.add(receive("0xin" + i, 0, "0.001"));
+        }
+        manyLots.add(send("0xout", 2, "2"));
+
+        // Act
+        List<RealizedGain> gains = new ArrayList<>();
+        CostBasisEngine engine = new CostBasisEngine(OWNER, CostBasisPolicy.FIFO, PRICES, gains::add);
+        manyLots.forEach(engine::accept);
+
+        // Assert
+        assertEquals(1001, gains.size(), "Every lot plus the uncovered remainder should be reported");
+        assertNull(gains.get(1000).getAcquiredAt(), "Uncovered remainder should have no acquisition date");
+        assertEquals(0, engine.getOpenLots(), "All lots should be consumed");
+    }
+
+    private static Transaction receive(String hash, int day, String eth) {
+        return new NormalTransaction(hash, START.plusDays(day), "0xexchange", OWNER, new BigDecimal(eth), null);
+    }
+
+    private static Transaction send(String hash, int day, String eth) {
+        return new NormalTransaction(hash, START.plusDays(day), OWNER, "0xexchange", new BigDecimal(eth), null);
+    }
+
+    private static void assertMoney(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "Expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,125 @@
+package com.cointracker.analytics;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.export.CsvExporter;
+import com.cointracker.export.CsvImporter;
+import com.cointracker.model.InternalTransaction;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.cointracker.support.SyntheticEtherscanData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for Reconciler merge joins.
+ */
+public class ReconcilerTest {
+
+    private static final String CALL_HASH = "0x" + "ee".repeat(32);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExportsOfAlteredHistoryAreDiffed() throws Exception {
+        // Arrange
+        List<Transaction> first = history(50_000);
+        LocalDateTime callTime = first.get(100).getDateTime();
+        first.add(100, new InternalTransaction(CALL_HASH, callTime, "0xrouter", "0xa", new BigDecimal("1")));
+        first.add(101, new InternalTransaction(CALL_HASH, callTime, "0xrouter", "0xb", new BigDecimal("2")));
+
+        List<Transaction> second = history(50_000);
+        second.add(100, new InternalTransaction(CALL_HASH, callTime, "0xrouter", "0xb", new BigDecimal("2.000")));
+        second.add(101, new InternalTransaction(CALL_HASH, callTime, "0xrouter", "0xa", new BigDecimal("1")));
+        second.remove(2_000);
+        second.remove(30_000);
+        second.get(10_000).setValue(second.get(10_000).getValue().add(BigDecimal.ONE));
+        second.add(new NormalTransaction("0x" + "ff".repeat(32), second.get(second.size() - 1).getDateTime(),
+                "0xa", "0xb", BigDecimal.ONE, BigDecimal.ZERO));
+
+        Path firstFile = tempDir.resolve("first.csv");
+        Path secondFile = tempDir.resolve("second.csv");
+        new CsvExporter().exportToCsv(first, firstFile.toString());
+        new CsvExporter().exportToCsv(second, secondFile.toString());
+
+        // Act
+        Reconciler reconciler = new Reconciler();
+        List<ReconcileDifference> differences = new ArrayList<>();
+        long start = System.nanoTime();
+        try (CsvImporter.Reader left = new CsvImporter().stream(firstFile);
+             CsvImporter.Reader right = new CsvImporter().stream(secondFile)) {
+            reconciler.reconcile(left, right, differences::add);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(2, reconciler.getMissingRows(), "Removed rows should be missing");
+        assertEquals(1, reconciler.getExtraRows(), "Added row should be extra");
+        assertEquals(1, reconciler.getMismatchedRows(), "Changed value should be a mismatch");
+        assertEquals(first.size() - 3, reconciler.getMatchedRows(), "Reordered legs and trailing zeros should match");
+        assertFalse(reconciler.isConsistent());
+        assertEquals(4, differences.size(), "Every difference should reach the sink");
+        for (int i = 1; i < differences.size(); i++) {
+            assertFalse(differences.get(i).getTransaction().getDateTime()
+                    .isBefore(differences.get(i - 1).getTransaction().getDateTime()), "Differences should be in time order");
+        }
+        ReconcileDifference mismatch = differences.stream()
+                .filter(d -> d.getKind() == ReconcileDifference.Kind.VALUE_MISMATCH)
+                .findFirst().orElseThrow();
+        assertEquals(BigDecimal.ONE, mismatch.getSecond().getValue().subtract(mismatch.getFirst().getValue()).stripTrailingZeros());
+
+        System.out.println(reconciler.summary("first.csv", "second.csv"));
+        System.out.println("✅ Reconciled " + (first.size() + second.size()) + " rows in " + millis + " ms");
+    }
+
+    @Test
+    void testUnsortedInputIsRejected() {
+        // Arrange
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> unsorted = List.of(
+                new NormalTransaction("0x1", time.plusSeconds(5), "0xa", "0xb", BigDecimal.ONE, null),
+                new NormalTransaction("0x2", time, "0xa", "0xb", BigDecimal.ONE, null));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new Reconciler()
+                .reconcile(unsorted.iterator(), unsorted.iterator(), difference -> { }));
+    }
+
+    @Test
+    void testIdenticalHistoriesAreConsistent() {
+        // Arrange
+        List<Transaction> history = history(1_000);
+
+        // Act
+        Reconciler reconciler = new Reconciler();
+        reconciler.reconcile(history.iterator(), history.iterator(), difference -> fail("No differences expected"));
+
+        // Assert
+        assertTrue(reconciler.isConsistent());
+        assertEquals(history.size(), reconciler.getMatchedRows());
+    }
+
+    private static List<Transaction> history(int rows) {
+        TransactionMapper mapper = new TransactionMapper();
+        Map<TransactionType, List<TransactionDto>> history = new SyntheticEtherscanData.Builder().build().generateHistory(rows);
+        List<Transaction> transactions = new ArrayList<>();
+        history.get(TransactionType.ETH_TRANSFER).forEach(dto -> transactions.add(mapper.mapNormalTransaction(dto)));
+        history.get(TransactionType.ETH_INTERNAL).forEach(dto -> transactions.add(mapper.mapInternalTransaction(dto)));
+        history.get(TransactionType.ERC20).forEach(dto -> transactions.add(mapper.mapErc20Transaction(dto)));
+        history.get(TransactionType.ERC721).forEach(dto -> transactions.add(mapper.mapErc721Transaction(dto)));
+        transactions.sort(Comparator.comparing(Transaction::getDateTime));
+        return transactions;
+    }
+}
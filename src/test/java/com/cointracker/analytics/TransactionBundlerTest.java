@@ -0,0 +1,107 @@
+package com.cointracker.analytics;
+
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.InternalTransaction;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionHashes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for TransactionBundler hash joins.
+ */
+public class TransactionBundlerTest {
+
+    private static final String OWNER = "0xowner";
+    private static final String SWAP_HASH = "0x" + "ab".repeat(32);
+    private static final String USDC = "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48";
+
+    @TempDir
+    Path spillDir;
+
+    @Test
+    void testSwapLegsProduceNetFlows() throws IOException {
+        // Arrange
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 12, 0);
+        List<Transaction> legs = List.of(
+            new NormalTransaction(SWAP_HASH, time, OWNER, "0xrouter", new BigDecimal("1"), new BigDecimal("0.01")),
+            new Erc20Transaction(SWAP_HASH, time, "0xpool", OWNER, new BigDecimal("3000"), null, USDC, "USDC", "USD Coin", 6),
+            new InternalTransaction(SWAP_HASH, time, "0xrouter", OWNER, new BigDecimal("0.1")),
+            new NormalTransaction("0x" + "cd".repeat(32), time.plusSeconds(1), "0xother", OWNER, BigDecimal.ONE, null)
+        );
+
+        // Act
+        List<TransactionBundle> bundles = new TransactionBundler(OWNER, 100, spillDir).bundleAll(legs);
+
+        // Assert
+        assertEquals(2, bundles.size(), "Legs should be grouped by hash");
+        TransactionBundle swap = bundles.get(0);
+        assertEquals(3, swap.getLegs().size(), "Swap should have three legs");
+        assertEquals(0, new BigDecimal("-0.91").compareTo(swap.getNetFlows().get("ETH")), "ETH net flow includes gas");
+        assertEquals(0, new BigDecimal("3000").compareTo(swap.getNetFlows().get(USDC)));
+        System.out.println("✅ " + swap);
+    }
+
+    @Test
+    void testFailedSwapOnlyChargesGas() throws IOException {
+        // Arrange
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 12, 0);
+        Transaction call = new NormalTransaction(SWAP_HASH, time, OWNER, "0xrouter", new BigDecimal("1"), new BigDecimal("0.01"));
+        call.setFailed(true);
+        Transaction refund = new InternalTransaction(SWAP_HASH, time, "0xrouter", OWNER, new BigDecimal("0.1"));
+        refund.setFailed(true);
+
+        // Act
+        List<TransactionBundle> bundles = new TransactionBundler(OWNER, 100, spillDir).bundleAll(List.of(call, refund));
+
+        // Assert
+        assertEquals(1, bundles.size());
+        assertEquals(0, new BigDecimal("-0.01").compareTo(bundles.get(0).getNetFlows().get("ETH")),
+            "A reverted swap should only cost its gas");
+        System.out.println("✅ Failed swap net flow: " + bundles.get(0).getNetFlows().get("ETH"));
+    }
+
+    @Test
+    void testUnsortedInputSpillsAndJoins() throws IOException {
+        // Arrange
+        List<Transaction> legs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String hash = String.format("0x%064x", i);
+            LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(i);
+            legs.add(new NormalTransaction(hash, time, "0xother", OWNER, BigDecimal.ONE, null));
+            legs.add(new InternalTransaction(hash, time, "0xother", OWNER, BigDecimal.ONE));
+        }
+        Collections.shuffle(legs, new Random(42));
+
+        // Act
+        TransactionBundler bundler = new TransactionBundler(OWNER, 50, spillDir);
+        List<TransactionBundle> bundles = new ArrayList<>();
+        bundler.bundle(legs.iterator(), bundles::add);
+
+        // Assert
+        assertEquals(500, bundles.size(), "Every hash should produce exactly one bundle");
+        assertTrue(bundles.stream().allMatch(bundle -> bundle.getLegs().size() == 2), "Both legs should be joined");
+        assertTrue(bundler.getSpilledLegs() > 0, "Input beyond the memory budget should spill");
+    }
+
+    @Test
+    void testFingerprintRoundTrip() {
+        // Act
+        long[] words = TransactionHashes.fingerprint(SWAP_HASH);
+
+        // Assert
+        assertEquals(SWAP_HASH, TransactionHashes.toHex(words, 0), "Hex hashes should map one-to-one");
+    }
+}
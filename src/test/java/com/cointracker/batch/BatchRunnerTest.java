@@ -0,0 +1,152 @@
+package com.cointracker.batch;
+
+import com.cointracker.client.BlockRange;
+import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.config.ApiConfig;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.cointracker.service.TransactionService;
+import com.cointracker.support.SyntheticEtherscanData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for BatchRunner.
+ */
+public class BatchRunnerTest {
+
+    private static final String LARGE = "0x00000000000000000000000000000000000000a1";
+    private static final String BROKEN = "0x00000000000000000000000000000000000000a2";
+    private static final String TOKEN_HEAVY = "0x00000000000000000000000000000000000000a3";
+    private static final String FLAKY = "0x00000000000000000000000000000000000000a4";
+    private static final String NFT_HEAVY = "0x00000000000000000000000000000000000000a5";
+    private static final int TOKEN_HEAVY_TRANSFERS = 3_000;
+    private static final int NFT_HEAVY_TRANSFERS = 1_500;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEveryAddressIsExportedAndFailuresAreCounted() throws Exception {
+        // Arrange
+        Map<String, Integer> rows = Map.of(
+                LARGE, 3_000,
+                BROKEN, 20,
+                TOKEN_HEAVY, 10,
+                FLAKY, 30,
+                NFT_HEAVY, 5,
+                "0x00000000000000000000000000000000000000b1", 40,
+                "0x00000000000000000000000000000000000000b2", 5,
+                "0x00000000000000000000000000000000000000b3", 90,
+                "0x00000000000000000000000000000000000000b4", 0);
+        List<String> addresses = new ArrayList<>(rows.keySet());
+        Properties overrides = new Properties();
+        overrides.setProperty("api.rate_limit.delay_between_types_ms", "0");
+        HistoryClient client = new HistoryClient(rows);
+        BatchRunner runner = new BatchRunner(client, new TransactionService(client, new ApiConfig(overrides)),
+                3, 1, 1_000, tempDir);
+
+        // Act
+        runner.run(addresses, BlockRange.ALL);
+
+        // Assert
+        assertEquals(1, runner.getFailedCount(), "Only the broken address should fail");
+        assertEquals(rows.size() - 1, runner.getExportedCount());
+        for (Map.Entry<String, Integer> entry : rows.entrySet()) {
+            Path file = tempDir.resolve(entry.getKey() + ".csv");
+            if (entry.getKey().equals(BROKEN)) {
+                assertFalse(Files.exists(file), "A failed export should not leave a file");
+                continue;
+            }
+            int transfers = entry.getValue() + (entry.getKey().equals(TOKEN_HEAVY) ? TOKEN_HEAVY_TRANSFERS : 0)
+                    + (entry.getKey().equals(NFT_HEAVY) ? NFT_HEAVY_TRANSFERS : 0);
+            assertEquals(transfers + 1, Files.readAllLines(file).size(), "Header plus every transaction");
+        }
+        assertTrue(runner.getScheduler().isDone());
+        assertEquals(5, runner.getScheduler().getWaitTimes(BatchScheduler.Kind.LARGE).getCount(),
+                "The 3,000-row, token-heavy and NFT-heavy addresses, and both whose probe failed, should be large jobs");
+        String summary = runner.summary();
+        assertTrue(summary.contains("Addresses Exported: 8 of 9 (4 small, 4 large)"), summary);
+        assertTrue(summary.contains("Max Queue Depth: 9"), summary);
+
+        System.out.println("✅ Batch of " + rows.size() + " addresses" + summary);
+    }
+
+    /**
+     * Serves a synthetic history of the given size per address. ERC-20 calls for the
+     * broken address always fail, the token-heavy and NFT-heavy addresses have few
+     * normal transactions but many ERC-20 or ERC-721 transfers, and the flaky
+     * address's probe fails.
+     */
+    private static class HistoryClient implements BlockchainApiClient {
+        private final Map<String, List<Transaction>> histories;
+        private final List<Transaction> tokenTransfers;
+        private final List<Transaction> nftTransfers;
+
+        HistoryClient(Map<String, Integer> rows) {
+            TransactionMapper mapper = new TransactionMapper();
+            this.histories = rows.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                    entry -> new SyntheticEtherscanData.Builder().address(entry.getKey()).build()
+                            .generate(TransactionType.ETH_TRANSFER, entry.getValue()).stream()
+                            .map(mapper::mapNormalTransaction)
+                            .collect(Collectors.toList())));
+            this.tokenTransfers = new SyntheticEtherscanData.Builder().address(TOKEN_HEAVY).build()
+                    .generate(TransactionType.ERC20, TOKEN_HEAVY_TRANSFERS).stream()
+                    .map(mapper::mapErc20Transaction)
+                    .collect(Collectors.toList());
+            this.nftTransfers = new SyntheticEtherscanData.Builder().address(NFT_HEAVY).build()
+                    .generate(TransactionType.ERC721, NFT_HEAVY_TRANSFERS).stream()
+                    .map(mapper::mapErc721Transaction)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public int probeTransactionCount(String address, BlockRange range, int limit)
+                throws IOException, InterruptedException {
+            if (address.equals(FLAKY)) {
+                throw new IOException("HTTP failed: 502 (gave up after 3 attempts)");
+            }
+            return BlockchainApiClient.super.probeTransactionCount(address, range, limit);
+        }
+
+        @Override
+        public List<Transaction> fetchNormalTransactions(String address) {
+            return histories.get(address);
+        }
+
+        @Override
+        public List<Transaction> fetchInternalTransactions(String address) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<Transaction> fetchErc20Transactions(String address) throws IOException {
+            if (address.equals(BROKEN)) {
+                throw new IOException("HTTP failed: 503");
+            }
+            return address.equals(TOKEN_HEAVY) ? tokenTransfers : new ArrayList<>();
+        }
+
+        @Override
+        public List<Transaction> fetchErc721Transactions(String address) {
+            return address.equals(NFT_HEAVY) ? nftTransfers : new ArrayList<>();
+        }
+
+        @Override
+        public String getProviderName() {
+            return "HistoryProvider";
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.cointracker.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for BatchScheduler.
+ */
+public class BatchSchedulerTest {
+
+    private static final int WORKERS = 4;
+    private static final int PROBE_ROWS = 1_000;
+
+    @Test
+    void testSmallJobsFinishSoonerThanFirstComeFirstServed() {
+        // Arrange: four exchange-sized wallets at the head of the list, then 60 small ones
+        Map<String, Integer> rows = new HashMap<>();
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String address = "0x" + i;
+            addresses.add(address);
+            rows.put(address, i < 4 ? 200_000 : 10 + (i * 37) % 900);
+        }
+
+        // Act
+        Map<String, Long> sjf = simulate(addresses, rows);
+        Map<String, Long> fifo = simulateFirstComeFirstServed(addresses, rows);
+
+        // Assert
+        double sjfMean = mean(sjf, addresses.subList(4, 64));
+        double fifoMean = mean(fifo, addresses.subList(4, 64));
+        assertTrue(sjfMean * 10 < fifoMean, "Small wallets should not wait behind the large ones: "
+                + sjfMean + " vs " + fifoMean);
+        assertEquals(addresses.size(), sjf.size(), "Every address should be exported");
+        long sjfLast = sjf.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        long fifoLast = fifo.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        assertTrue(sjfLast <= fifoLast * 1.5, "Capping large jobs should not stretch the whole run much: "
+                + sjfLast + " vs " + fifoLast);
+
+        System.out.println(String.format("✅ Mean small-wallet completion %.0f ticks vs %.0f first-come-first-served;"
+                + " run ends at %d vs %d", sjfMean, fifoMean, sjfLast, fifoLast));
+    }
+
+    @Test
+    void testLargeJobsGetTheirShareButNoMore() {
+        // Arrange
+        BatchScheduler scheduler = new BatchScheduler(2, 1, 100);
+        for (String address : List.of("0xlarge1", "0xlarge2", "0xsmall1", "0xsmall2", "0xsmall3")) {
+            scheduler.add(address, 0);
+        }
+
+        // Act
+        BatchScheduler.Job probe1 = scheduler.next(0);
+        BatchScheduler.Job probe2 = scheduler.next(0);
+        scheduler.probed(probe1, 100, 1);
+        scheduler.probed(probe2, 250, 1);
+        BatchScheduler.Job first = scheduler.next(2);
+        BatchScheduler.Job second = scheduler.next(2);
+
+        // Assert
+        assertEquals(BatchScheduler.Kind.LARGE, first.getKind(), "A full probe page should mark a large job");
+        assertEquals("0xlarge1", first.getAddress(), "A large job should start while under its cap");
+        assertEquals(BatchScheduler.Kind.PROBE, second.getKind(), "The second large job should wait for other work");
+        assertEquals(5, scheduler.getMaxQueueDepth());
+
+        // Act: the small jobs run shortest first, then the second large job may take the free worker
+        scheduler.probed(second, 7, 3);
+        List<String> order = new ArrayList<>();
+        long now = 3;
+        while (!scheduler.isDone()) {
+            BatchScheduler.Job job = scheduler.next(++now);
+            if (job == null) {
+                scheduler.finished(first);
+                continue;
+            }
+            if (job.getKind() == BatchScheduler.Kind.PROBE) {
+                scheduler.probed(job, job.getAddress().equals("0xsmall2") ? 3 : 50, now);
+                continue;
+            }
+            order.add(job.getAddress());
+            scheduler.finished(job);
+        }
+
+        // Assert
+        assertEquals(List.of("0xsmall2", "0xsmall1", "0xsmall3", "0xlarge2"), order);
+        assertEquals(2, scheduler.getWaitTimes(BatchScheduler.Kind.LARGE).getCount(),
+                "Both large jobs should have recorded their wait");
+        assertEquals(3, scheduler.getWaitTimes(BatchScheduler.Kind.SMALL).getCount());
+        assertThrows(IllegalArgumentException.class, () -> scheduler.probed(first, 1, 99));
+
+        System.out.println("✅ Small jobs ran in order " + order.subList(0, 3) + " before the second large job");
+    }
+
+    /**
+     * Runs the scheduler against simulated time: a probe takes one tick and an export one
+     * tick per 100 rows. Returns the tick at which each address finished.
+     */
+    private static Map<String, Long> simulate(List<String> addresses, Map<String, Integer> rows) {
+        BatchScheduler scheduler = new BatchScheduler(WORKERS, 1, PROBE_ROWS);
+        addresses.forEach(address -> scheduler.add(address, 0));
+        Map<BatchScheduler.Job, Long> running = new HashMap<>();
+        Map<String, Long> finished = new HashMap<>();
+        int queuedLarge = 0;
+        for (long now = 0; !scheduler.isDone(); now++) {
+            for (Map.Entry<BatchScheduler.Job, Long> entry : new ArrayList<>(running.entrySet())) {
+                if (entry.getValue() > now) {
+                    continue;
+                }
+                BatchScheduler.Job job = entry.getKey();
+                running.remove(job);
+                if (job.getKind() == BatchScheduler.Kind.PROBE) {
+                    int probed = Math.min(PROBE_ROWS, rows.get(job.getAddress()));
+                    scheduler.probed(job, probed, now);
+                    queuedLarge += probed == PROBE_ROWS ? 1 : 0;
+                } else {
+                    scheduler.finished(job);
+                    finished.put(job.getAddress(), now);
+                }
+            }
+            BatchScheduler.Job job;
+            while (running.size() < WORKERS && (job = scheduler.next(now)) != null) {
+                long ticks = job.getKind() == BatchScheduler.Kind.PROBE ? 1 : rows.get(job.getAddress()) / 100 + 1;
+                running.put(job, now + ticks);
+                queuedLarge -= job.getKind() == BatchScheduler.Kind.LARGE ? 1 : 0;
+            }
+            long runningLarge = running.keySet().stream().filter(j -> j.getKind() == BatchScheduler.Kind.LARGE).count();
+            if (scheduler.getQueueDepth() > queuedLarge) {
+                assertTrue(runningLarge <= 1, "Large jobs should hold one worker while other work waits");
+            }
+        }
+        return finished;
+    }
+
+    private static Map<String, Long> simulateFirstComeFirstServed(List<String> addresses, Map<String, Integer> rows) {
+        long[] freeAt = new long[WORKERS];
+        Map<String, Long> finished = new HashMap<>();
+        for (String address : addresses) {
+            int worker = 0;
+            for (int i = 1; i < WORKERS; i++) {
+                if (freeAt[i] < freeAt[worker]) {
+                    worker = i;
+                }
+            }
+            freeAt[worker] += rows.get(address) / 100 + 1;
+            finished.put(address, freeAt[worker]);
+        }
+        return finished;
+    }
+
+    private static double mean(Map<String, Long> finished, List<String> addresses) {
+        return addresses.stream().mapToLong(finished::get).average().orElse(0);
+    }
+}
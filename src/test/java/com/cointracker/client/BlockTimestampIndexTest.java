@@ -0,0 +1,87 @@
+package com.cointracker.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the persistent timestamp-to-block cache.
+ */
+public class BlockTimestampIndexTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void testLookupPersistsAndBrackets() {
+        // Arrange
+        Path file = cacheDir.resolve("block-index-1.log");
+        BlockTimestampIndex index = new BlockTimestampIndex(file);
+        index.put(1_700_000_000L, 18_500_000L);
+        index.put(1_600_000_000L, 10_800_000L);
+        index.put(1_700_000_012L, 18_500_000L);
+
+        // Act
+        BlockTimestampIndex reloaded = new BlockTimestampIndex(file);
+
+        // Assert
+        assertEquals(3, reloaded.size(), "Entries should survive a reload");
+        assertEquals(10_800_000L, reloaded.lookup(1_600_000_000L), "Exact timestamps should hit");
+        assertEquals(18_500_000L, reloaded.lookup(1_700_000_005L), "Timestamps between equal blocks should hit");
+        assertEquals(-1, reloaded.lookup(1_650_000_000L), "Unbracketed timestamps should miss");
+        System.out.println("✅ Block index reloaded with " + reloaded.size() + " entries");
+    }
+
+    @Test
+    void testAppendsRecordsAndDropsTornTail() throws IOException {
+        // Arrange
+        Path file = cacheDir.resolve("block-index-1.log");
+        BlockTimestampIndex index = new BlockTimestampIndex(file);
+        index.put(1_600_000_000L, 10_800_000L);
+        index.put(1_600_000_000L, 10_800_000L);
+        index.put(1_600_000_000L, 10_800_001L);
+        long written = Files.size(file);
+        Files.write(file, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        BlockTimestampIndex reloaded = new BlockTimestampIndex(file);
+        reloaded.put(1_500_000_000L, 6_000_000L);
+
+        // Assert
+        assertEquals(32, written, "Each new answer should append one record and repeats none");
+        assertEquals(10_800_001L, reloaded.lookup(1_600_000_000L), "The latest record should win");
+        assertEquals(48, Files.size(file), "A torn record should be dropped before the next append");
+        assertEquals(2, new BlockTimestampIndex(file).size());
+    }
+
+    @Test
+    void testRecentTimestampsAreNotCached() {
+        // Arrange
+        BlockTimestampIndex index = new BlockTimestampIndex(cacheDir.resolve("block-index-1.log"));
+        long now = Instant.now().getEpochSecond();
+
+        // Act
+        index.put(now - 60, 21_000_000L);
+        index.put(now - BlockTimestampIndex.FINALITY_MARGIN_SECONDS - 60, 20_999_850L);
+
+        // Assert
+        assertEquals(-1, index.lookup(now - 60), "A block near the chain head may still change");
+        assertEquals(20_999_850L, index.lookup(now - BlockTimestampIndex.FINALITY_MARGIN_SECONDS - 60));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testBlockRangeValidation() {
+        // Act & Assert
+        assertTrue(BlockRange.ALL.isAll());
+        assertTrue(new BlockRange(10, 20).contains(20), "Range end should be inclusive");
+        assertThrows(IllegalArgumentException.class, () -> new BlockRange(20, 10));
+    }
+}
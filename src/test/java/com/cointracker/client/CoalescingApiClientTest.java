@@ -0,0 +1,172 @@
+package com.cointracker.client;
+
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for CoalescingApiClient.
+ */
+public class CoalescingApiClientTest {
+
+    private static final String ADDRESS = "0x00000000000000000000000000000000000000aa";
+
+    @Test
+    void testLateJoinerReceivesPartialAndRemainingPages() throws Exception {
+        // Arrange
+        PagedApiClient delegate = new PagedApiClient(3);
+        CoalescingApiClient client = new CoalescingApiClient(delegate);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<List<Transaction>> first = executor.submit(() -> client.fetchNormalTransactions(ADDRESS));
+            assertTrue(delegate.firstPageSent.await(5, TimeUnit.SECONDS), "Delegate should send the first page");
+            // Use a different letter case to check that the key is case-insensitive
+            Future<List<Transaction>> second = executor.submit(() -> client.fetchNormalTransactions(ADDRESS.toUpperCase().replace("0X", "0x")));
+            waitForJoiner(client);
+            delegate.release.countDown();
+
+            List<Transaction> firstResult = first.get(5, TimeUnit.SECONDS);
+            List<Transaction> secondResult = second.get(5, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals(1, delegate.calls.get(), "Delegate should be called once");
+            assertEquals(1, client.getCoalescedCount(), "Second caller should join the running fetch");
+            assertEquals(3, firstResult.size(), "First caller should get all pages");
+            assertEquals(3, secondResult.size(), "Joiner should get all pages, including those fetched before it joined");
+            assertEquals("0xtx0", secondResult.get(0).getTransactionHash(), "Pages should be replayed in order");
+            assertEquals("0xtx2", secondResult.get(2).getTransactionHash(), "Pages should be replayed in order");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println("✅ Two concurrent callers shared one fetch of 3 pages");
+    }
+
+    @Test
+    void testSequentialCallsAreNotShared() throws Exception {
+        // Arrange
+        PagedApiClient delegate = new PagedApiClient(2);
+        delegate.release.countDown();
+        CoalescingApiClient client = new CoalescingApiClient(delegate);
+
+        // Act
+        client.fetchNormalTransactions(ADDRESS);
+        client.fetchNormalTransactions(ADDRESS);
+        client.fetchNormalTransactions(ADDRESS, new BlockRange(10, 20));
+
+        // Assert
+        assertEquals(3, delegate.calls.get(), "Finished fetches should not be reused");
+        assertEquals(0, client.getCoalescedCount(), "Nothing should be coalesced");
+    }
+
+    @Test
+    void testJoinerSeesFailure() throws Exception {
+        // Arrange
+        PagedApiClient delegate = new PagedApiClient(2);
+        delegate.failAfterFirstPage = true;
+        CoalescingApiClient client = new CoalescingApiClient(delegate);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<List<Transaction>> first = executor.submit(() -> client.fetchNormalTransactions(ADDRESS));
+            assertTrue(delegate.firstPageSent.await(5, TimeUnit.SECONDS), "Delegate should send the first page");
+            Future<List<Transaction>> second = executor.submit(() -> client.fetchNormalTransactions(ADDRESS));
+            waitForJoiner(client);
+            delegate.release.countDown();
+
+            // Assert
+            Exception firstError = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+            Exception secondError = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertTrue(firstError.getCause() instanceof IOException, "Fetching caller should see the failure");
+            assertTrue(secondError.getCause() instanceof IOException, "Joiner should see the failure");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void waitForJoiner(CoalescingApiClient client) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.getCoalescedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Sends one transaction per page and holds after the first page until released.
+     */
+    private static class PagedApiClient implements BlockchainApiClient {
+
+        private final int pageCount;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch firstPageSent = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private boolean failAfterFirstPage;
+
+        PagedApiClient(int pageCount) {
+            this.pageCount = pageCount;
+        }
+
+        @Override
+        public void streamTransactions(TransactionType type, String address, BlockRange range,
+                                       Consumer<List<Transaction>> pageConsumer) throws IOException, InterruptedException {
+            calls.incrementAndGet();
+            for (int i = 0; i < pageCount; i++) {
+                List<Transaction> page = new ArrayList<>();
+                page.add(new NormalTransaction("0xtx" + i, LocalDateTime.of(2024, 1, 1, 0, i),
+                        "0xfrom", address, BigDecimal.ONE, BigDecimal.ZERO));
+                pageConsumer.accept(page);
+                if (i == 0) {
+                    firstPageSent.countDown();
+                    release.await();
+                    if (failAfterFirstPage) {
+                        throw new IOException("HTTP failed: 502");
+                    }
+                }
+            }
+        }
+
+        @Override
+        public List<Transaction> fetchNormalTransactions(String address) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Transaction> fetchInternalTransactions(String address) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Transaction> fetchErc20Transactions(String address) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Transaction> fetchErc721Transactions(String address) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getProviderName() {
+            return "PagedProvider";
+        }
+    }
+}
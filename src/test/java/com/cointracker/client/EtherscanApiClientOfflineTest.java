@@ -0,0 +1,168 @@
+package com.cointracker.client;
+
+import com.cointracker.config.ApiConfig;
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.support.FakeEtherscanServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for EtherscanApiClient against FakeEtherscanServer, without network access.
+ */
+public class EtherscanApiClientOfflineTest {
+
+    private static final String ADDRESS = "0x00000000000000000000000000000000000000aa";
+    private static final int PAGE_SIZE = 500;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPaginationReturnsEveryRowAcrossBlockBoundaries() throws Exception {
+        try (FakeEtherscanServer server = new FakeEtherscanServer.Builder()
+                .rowsPerAddress(4_000)
+                .maxRowsPerResponse(PAGE_SIZE)
+                .start()) {
+            // Arrange
+            EtherscanApiClient client = new EtherscanApiClient(config(server, 5));
+            List<TransactionDto> expected = server.history(ADDRESS, TransactionType.ETH_TRANSFER);
+
+            // Act
+            List<Transaction> transactions = client.fetchNormalTransactions(ADDRESS);
+
+            // Assert
+            assertTrue(expected.size() > 3 * PAGE_SIZE, "History should span several pages");
+            assertEquals(hashes(expected), transactions.stream().map(Transaction::getTransactionHash).collect(Collectors.toList()),
+                    "Every row should be returned once, in order, even when a page ends inside a block");
+            assertTrue(server.getPageCount() > expected.size() / PAGE_SIZE, "Client should follow all pages");
+
+            System.out.println("✅ Fetched " + transactions.size() + " rows over " + server.getPageCount() + " pages");
+        }
+    }
+
+    @Test
+    void testBlockRangeIsPassedToServer() throws Exception {
+        try (FakeEtherscanServer server = new FakeEtherscanServer.Builder().rowsPerAddress(2_000).start()) {
+            // Arrange
+            EtherscanApiClient client = new EtherscanApiClient(config(server, 5));
+            List<TransactionDto> history = server.history(ADDRESS, TransactionType.ERC20);
+            long start = Long.parseLong(history.get(100).getBlockNumber());
+            long end = Long.parseLong(history.get(200).getBlockNumber());
+
+            // Act
+            List<Transaction> transactions = client.fetchErc20Transactions(ADDRESS, new BlockRange(start, end));
+
+            // Assert
+            long expected = history.stream()
+                    .mapToLong(dto -> Long.parseLong(dto.getBlockNumber()))
+                    .filter(block -> block >= start && block <= end)
+                    .count();
+            assertEquals(expected, transactions.size(), "Only rows inside the block range should be returned");
+            assertEquals(server.getRowsServed(), transactions.size(), "Server should not send rows outside the range");
+        }
+    }
+
+    @Test
+    void testRateLimitAnswersAreRetried() throws Exception {
+        try (FakeEtherscanServer server = new FakeEtherscanServer.Builder()
+                .rowsPerAddress(3_000)
+                .maxRowsPerResponse(PAGE_SIZE)
+                .maxCallsPerSecond(1)
+                .start()) {
+            // Arrange
+            EtherscanApiClient client = new EtherscanApiClient(config(server, 10));
+
+            // Act
+            List<Transaction> transactions = client.fetchNormalTransactions(ADDRESS);
+
+            // Assert
+            assertEquals(server.history(ADDRESS, TransactionType.ETH_TRANSFER).size(), transactions.size(),
+                    "All rows should arrive despite the rate limit");
+            assertTrue(server.getRateLimitedCount() > 0, "Server should have rate-limited some calls");
+
+            System.out.println("✅ Recovered from " + server.getRateLimitedCount() + " rate-limit answers");
+        }
+    }
+
+    @Test
+    void testServerErrorsAreRetriedThenReported() throws Exception {
+        try (FakeEtherscanServer flaky = new FakeEtherscanServer.Builder()
+                .rowsPerAddress(2_000)
+                .maxRowsPerResponse(PAGE_SIZE)
+                .errorEvery(2)
+                .start();
+             FakeEtherscanServer down = new FakeEtherscanServer.Builder().errorEvery(1).start()) {
+            // Act
+            List<Transaction> transactions = new EtherscanApiClient(config(flaky, 3)).fetchNormalTransactions(ADDRESS);
+            IOException error = assertThrows(IOException.class,
+                    () -> new EtherscanApiClient(config(down, 3)).fetchNormalTransactions(ADDRESS));
+
+            // Assert
+            assertEquals(flaky.history(ADDRESS, TransactionType.ETH_TRANSFER).size(), transactions.size(),
+                    "Intermittent 502s should be retried");
+            assertTrue(flaky.getErrorCount() > 0, "Server should have failed some calls");
+            assertEquals(3, down.getRequestCount(), "Client should stop after the configured attempts");
+            assertTrue(error.getMessage().contains("502"), "Error should name the HTTP status");
+        }
+    }
+
+    @Test
+    void testBlockLookupsOnlyTreatPreGenesisAsEmpty() throws Exception {
+        try (FakeEtherscanServer server = new FakeEtherscanServer.Builder().start()) {
+            // Arrange
+            EtherscanApiClient client = new EtherscanApiClient(config(server, 3));
+            Properties badKey = new Properties();
+            badKey.setProperty("api.etherscan.api_key", "invalid");
+            EtherscanApiClient refused = new EtherscanApiClient(config(server, 3, badKey));
+            long now = Instant.now().getEpochSecond();
+            long weekAgo = now - 7 * 86_400;
+
+            // Act
+            BlockRange untilTomorrow = client.resolveBlockRange(weekAgo, now + 86_400);
+            BlockRange fromBeforeGenesis = client.resolveBlockRange(1_000_000L, weekAgo);
+            long head = client.getLatestBlockNumber();
+
+            // Assert
+            assertEquals(BlockRange.LATEST_BLOCK, untilTomorrow.getEndBlock(), "A future end should run to the chain head");
+            assertTrue(untilTomorrow.getStartBlock() > 0);
+            assertEquals(0, fromBeforeGenesis.getStartBlock(), "A start before genesis should begin at block 0");
+            assertTrue(fromBeforeGenesis.getEndBlock() > 0 && fromBeforeGenesis.getEndBlock() < head);
+            IOException error = assertThrows(IOException.class, () -> refused.resolveBlockRange(weekAgo, now - 86_400),
+                    "An error answer should not be read as 'before genesis'");
+            assertTrue(error.getMessage().contains("Invalid API Key"), error.getMessage());
+            assertThrows(IllegalArgumentException.class, () -> client.resolveBlockRange(now + 86_400, Long.MAX_VALUE));
+
+            System.out.println("✅ Week to tomorrow resolved to blocks " + untilTomorrow.getStartBlock()
+                    + "-latest, chain head " + head);
+        }
+    }
+
+    private ApiConfig config(FakeEtherscanServer server, int maxAttempts) {
+        return config(server, maxAttempts, new Properties());
+    }
+
+    private ApiConfig config(FakeEtherscanServer server, int maxAttempts, Properties overrides) {
+        overrides.setProperty("api.etherscan.base_url", server.getBaseUrl());
+        overrides.setProperty("api.etherscan.batch_size", String.valueOf(PAGE_SIZE));
+        overrides.setProperty("api.rate_limit.delay_between_calls_ms", "0");
+        overrides.setProperty("api.retry.max_attempts", String.valueOf(maxAttempts));
+        overrides.setProperty("api.retry.initial_backoff_ms", "50");
+        overrides.setProperty("cache.directory", tempDir.toString());
+        return new ApiConfig(overrides);
+    }
+
+    private static List<String> hashes(List<TransactionDto> rows) {
+        return rows.stream().map(TransactionDto::getHash).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,112 @@
+package com.cointracker.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for ApiConfig and ConfigSnapshot.
+ */
+public class ApiConfigTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOverrideFileAndFlagsAreLayered() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("override.properties");
+        Files.writeString(file, "api.etherscan.batch_size=2500\napi.retry.max_attempts=9\n");
+        Properties flags = new Properties();
+        flags.setProperty("api.retry.max_attempts", "2");
+
+        // Act
+        ApiConfig config = new ApiConfig(file, flags);
+
+        // Assert
+        assertEquals(2500, config.getEtherscanBatchSize(), "Override file should replace the default");
+        assertEquals(2, config.getRetryMaxAttempts(), "Flags should win over the override file");
+        assertEquals(500, config.getRateLimitDelayBetweenCalls(), "Untouched keys should keep their default");
+        assertArrayEquals(new String[]{"account", "tokentx"}, config.getEtherscanErc20TxEndpoint());
+    }
+
+    @Test
+    void testInvalidValuesFailAtStartupWithEveryKeyNamed() {
+        // Arrange
+        Properties overrides = new Properties();
+        overrides.setProperty("api.etherscan.batch_size", "ten");
+        overrides.setProperty("api.retry.max_attempts", "0");
+        overrides.setProperty("api.etherscan.base_url", "not a url");
+        overrides.setProperty("api.etherscan.erc20_transactions", "tokentx");
+
+        // Act
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> new ApiConfig(overrides));
+
+        // Assert
+        assertTrue(error.getMessage().contains("api.etherscan.batch_size: expected a whole number, got 'ten'"), error.getMessage());
+        assertTrue(error.getMessage().contains("api.retry.max_attempts: must be at least 1"), error.getMessage());
+        assertTrue(error.getMessage().contains("api.etherscan.base_url"), error.getMessage());
+        assertTrue(error.getMessage().contains("api.etherscan.erc20_transactions: expected module.action"), error.getMessage());
+
+        System.out.println("✅ " + error.getMessage());
+    }
+
+    @Test
+    void testUnknownKeysAreRejected() {
+        Properties overrides = new Properties();
+        overrides.setProperty("api.etherscan.bacth_size", "100");
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> new ApiConfig(overrides));
+        assertTrue(error.getMessage().contains("api.etherscan.bacth_size"), "Typo should be named");
+    }
+
+    @Test
+    void testReloadSwapsSnapshotOrKeepsPreviousOnError() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("override.properties");
+        Files.writeString(file, "api.rate_limit.delay_between_calls_ms=500\n");
+        ApiConfig config = new ApiConfig(file, new Properties());
+        List<Integer> notified = new CopyOnWriteArrayList<>();
+        config.addReloadListener(snapshot -> notified.add(snapshot.getRateLimitDelayBetweenCalls()));
+        ConfigSnapshot before = config.getSnapshot();
+
+        // Act
+        Files.writeString(file, "api.rate_limit.delay_between_calls_ms=100\n");
+        config.reload();
+        ConfigSnapshot reloaded = config.getSnapshot();
+        Files.writeString(file, "api.rate_limit.delay_between_calls_ms=-5\n");
+        assertThrows(IllegalArgumentException.class, config::reload);
+
+        // Assert
+        assertEquals(500, before.getRateLimitDelayBetweenCalls(), "Old snapshots should not change");
+        assertEquals(100, reloaded.getRateLimitDelayBetweenCalls());
+        assertSame(reloaded, config.getSnapshot(), "An invalid file should leave the last good snapshot in place");
+        assertEquals(List.of(100), notified, "Listeners should only see valid snapshots");
+    }
+
+    @Test
+    void testWatchedFileIsReloaded() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("override.properties");
+        Files.writeString(file, "server.threads=4\n");
+        ApiConfig config = new ApiConfig(file, new Properties());
+        config.watchOverrideFile();
+
+        // Act
+        Files.writeString(file, "server.threads=12\n");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (config.getServerThreads() != 12 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Assert
+        assertEquals(12, config.getServerThreads(), "Change should be picked up without a restart");
+    }
+}
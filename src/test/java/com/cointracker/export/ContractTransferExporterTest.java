@@ -0,0 +1,188 @@
+package com.cointracker.export;
+
+import com.cointracker.client.BlockRange;
+import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.cointracker.support.SyntheticEtherscanData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for ContractTransferExporter.
+ */
+public class ContractTransferExporterTest {
+
+    private static final String CONTRACT = "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testInterruptedExportResumesWithoutDuplicates() throws Exception {
+        // Arrange
+        List<Transaction> transfers = transfers(6_000);
+        long failAt = transfers.get(transfers.size() / 2).getBlockNumber();
+        FakeClient client = new FakeClient(transfers, failAt);
+        BlockRange fromFirst = new BlockRange(transfers.get(0).getBlockNumber(), BlockRange.LATEST_BLOCK);
+        long segmentBlocks = (client.head - fromFirst.getStartBlock()) / 8 + 1;
+        Path work = tempDir.resolve("work");
+        Path output = tempDir.resolve("transfers.csv");
+
+        // Act
+        ContractTransferExporter first = new ContractTransferExporter(client, false, 3, segmentBlocks);
+        IOException failure = assertThrows(IOException.class,
+                () -> first.export(CONTRACT, TransactionType.ERC20, fromFirst, work, output));
+        int servedBeforeFailure = client.served.get();
+        client.failAt = -1;
+        client.served.set(0);
+        ContractTransferExporter second = new ContractTransferExporter(client, false, 3, segmentBlocks);
+        long rows = second.export(CONTRACT, TransactionType.ERC20, fromFirst, work, output);
+
+        // Assert
+        assertTrue(failure.getMessage().contains("run again to resume"), failure.getMessage());
+        assertEquals(transfers.size(), rows);
+        assertEquals(toRows(transfers), toRows(new CsvImporter().importCsv(output)),
+                "Resumed export should hold every transfer once, in block order");
+        assertEquals(transfers.size(), servedBeforeFailure + client.served.get(),
+                "Checkpointed pages should not be fetched again");
+        assertFalse(Files.exists(work), "Work directory should be removed once the output is complete");
+        assertTrue(second.summary(CONTRACT).contains("resumed"));
+        System.out.println("✅ Resumed after " + servedBeforeFailure + " of " + transfers.size() + " transfers"
+                + second.summary(CONTRACT));
+    }
+
+    @Test
+    void testJsonLinesForExplicitRange() throws Exception {
+        // Arrange
+        List<Transaction> transfers = transfers(3_000);
+        BlockRange range = new BlockRange(transfers.get(500).getBlockNumber(), transfers.get(2_500).getBlockNumber());
+        List<Transaction> expected = transfers.stream()
+                .filter(t -> range.contains(t.getBlockNumber()))
+                .collect(Collectors.toList());
+        FakeClient client = new FakeClient(transfers, -1);
+        Path output = tempDir.resolve("transfers.jsonl");
+
+        // Act
+        long rows = new ContractTransferExporter(client, true, 4, 997)
+                .export(CONTRACT, TransactionType.ERC20, range, tempDir.resolve("work"), output);
+
+        // Assert
+        assertEquals(expected.size(), rows);
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(expected.size(), lines.size(), "No header, one line per transfer");
+        ObjectMapper mapper = new ObjectMapper();
+        long previous = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode line = mapper.readTree(lines.get(i));
+            assertEquals(expected.get(i).getTransactionHash(), line.get("hash").asText());
+            assertTrue(line.get("blockNumber").asLong() >= previous, "Lines should be in block order");
+            previous = line.get("blockNumber").asLong();
+        }
+        assertEquals(0, client.headLookups.get(), "An explicit end block needs no chain head lookup");
+        System.out.println("✅ Exported " + rows + " transfers of blocks " + range.getStartBlock() + " to "
+                + range.getEndBlock() + " as JSON Lines");
+    }
+
+    private static List<List<String>> toRows(List<Transaction> transactions) {
+        return transactions.stream().map(t -> List.of(t.toCsvRow())).collect(Collectors.toList());
+    }
+
+    private static List<Transaction> transfers(int rows) {
+        TransactionMapper mapper = new TransactionMapper();
+        return new SyntheticEtherscanData.Builder().build().generate(TransactionType.ERC20, rows).stream()
+                .map(mapper::mapErc20Transaction)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Serves a contract history in pages that end on block boundaries, like Etherscan
+     * paging, and fails once when a page reaches the failing block.
+     */
+    private static class FakeClient implements BlockchainApiClient {
+        private static final int PAGE_ROWS = 100;
+
+        private final List<Transaction> transfers;
+        private final long head;
+        private final AtomicInteger served = new AtomicInteger();
+        private final AtomicInteger headLookups = new AtomicInteger();
+        private volatile long failAt;
+
+        FakeClient(List<Transaction> transfers, long failAt) {
+            this.transfers = transfers;
+            this.head = transfers.get(transfers.size() - 1).getBlockNumber() + 100;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void streamContractTransfers(TransactionType type, String contract, BlockRange range,
+                                            Consumer<List<Transaction>> pageConsumer) throws IOException {
+            List<Transaction> page = new ArrayList<>();
+            for (int i = 0; i < transfers.size(); i++) {
+                Transaction transfer = transfers.get(i);
+                if (!range.contains(transfer.getBlockNumber())) {
+                    continue;
+                }
+                if (transfer.getBlockNumber() == failAt) {
+                    failAt = -1;
+                    throw new IOException("HTTP failed: 503");
+                }
+                page.add(transfer);
+                boolean blockEnds = i + 1 == transfers.size()
+                        || transfers.get(i + 1).getBlockNumber() != transfer.getBlockNumber();
+                if (page.size() >= PAGE_ROWS && blockEnds) {
+                    served.addAndGet(page.size());
+                    pageConsumer.accept(page);
+                    page = new ArrayList<>();
+                }
+            }
+            served.addAndGet(page.size());
+            pageConsumer.accept(page);
+        }
+
+        @Override
+        public long getLatestBlockNumber() {
+            headLookups.incrementAndGet();
+            return head;
+        }
+
+        @Override
+        public List<Transaction> fetchNormalTransactions(String address) {
+            return List.of();
+        }
+
+        @Override
+        public List<Transaction> fetchInternalTransactions(String address) {
+            return List.of();
+        }
+
+        @Override
+        public List<Transaction> fetchErc20Transactions(String address) {
+            return List.of();
+        }
+
+        @Override
+        public List<Transaction> fetchErc721Transactions(String address) {
+            return List.of();
+        }
+
+        @Override
+        public String getProviderName() {
+            return "Fake";
+        }
+    }
+}
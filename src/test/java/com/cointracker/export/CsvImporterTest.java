@@ -0,0 +1,121 @@
+package com.cointracker.export;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.cointracker.support.SyntheticEtherscanData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for CsvImporter round trips through CsvExporter.
+ */
+public class CsvImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripAcrossManySmallChunks() throws IOException {
+        // Arrange
+        List<Transaction> exported = history(2_000);
+        exported.add(5, new Erc20Transaction("0xquoted", LocalDateTime.of(2021, 3, 4, 5, 6, 7), "0xa", "",
+                new BigDecimal("1.500000"), new BigDecimal("0.001"), "0xc", "Q\"T",
+                "Line one\nline two, \"quoted\"\r\n", 6));
+        Path file = tempDir.resolve("history.csv");
+        new CsvExporter().exportToCsv(exported, file.toString());
+
+        // Act
+        List<Transaction> imported = new CsvImporter(4, 97).importCsv(file);
+
+        // Assert
+        assertEquals(exported.size(), imported.size(), "Every row should be read once");
+        for (int i = 0; i < exported.size(); i++) {
+            assertArrayEquals(exported.get(i).toCsvRow(), imported.get(i).toCsvRow(), "row " + i);
+            assertEquals(exported.get(i).getClass(), imported.get(i).getClass());
+        }
+        Erc20Transaction quoted = (Erc20Transaction) imported.get(5);
+        assertEquals("Line one\nline two, \"quoted\"\r\n", quoted.getTokenName());
+        assertEquals("Q\"T", quoted.getTokenSymbol());
+        assertEquals(6, quoted.getTokenDecimal(), "Decimals should come from the amount's scale");
+        assertEquals("", quoted.getToAddress(), "Contract creation marker should map back to no recipient");
+
+        System.out.println("✅ Imported " + imported.size() + " rows from " + Files.size(file) + " bytes");
+    }
+
+    @Test
+    void testFiatColumnAndHeaderCheck() throws IOException {
+        // Arrange
+        List<Transaction> exported = history(200);
+        exported.get(0).setFiatValue(new BigDecimal("123.45"));
+        Path priced = tempDir.resolve("priced.csv");
+        new CsvExporter(true).exportToCsv(exported, priced.toString());
+        Path other = tempDir.resolve("other.csv");
+        Files.writeString(other, "\"a\",\"b\"\n\"1\",\"2\"\n");
+
+        // Act
+        List<Transaction> imported = new CsvImporter(2, 64).importCsv(priced);
+
+        // Assert
+        assertEquals(0, new BigDecimal("123.45").compareTo(imported.get(0).getFiatValue()));
+        assertNull(imported.get(1).getFiatValue(), "Empty fiat cells should stay unset");
+        assertThrows(IOException.class, () -> new CsvImporter().importCsv(other));
+    }
+
+    @Test
+    void testStreamMatchesParallelImport() throws IOException {
+        // Arrange
+        List<Transaction> exported = history(2_000);
+        exported.add(7, new Erc20Transaction("0xquoted", LocalDateTime.of(2021, 3, 4, 5, 6, 7), "0xa", "0xb",
+                new BigDecimal("2.5"), new BigDecimal("0.001"), "0xc", "QT", "Multi\nline, \"name\"", 1));
+        Path file = tempDir.resolve("stream.csv");
+        new CsvExporter().exportToCsv(exported, file.toString());
+        List<Transaction> imported = new CsvImporter().importCsv(file);
+
+        // Act
+        List<Transaction> streamed = new ArrayList<>();
+        try (CsvImporter.Reader reader = new CsvImporter(1, 3).stream(file)) {
+            reader.forEachRemaining(streamed::add);
+        }
+
+        // Assert
+        assertEquals(imported.size(), streamed.size(), "Every row should be streamed once");
+        for (int i = 0; i < imported.size(); i++) {
+            assertArrayEquals(imported.get(i).toCsvRow(), streamed.get(i).toCsvRow(), "row " + i);
+        }
+    }
+
+    @Test
+    void testHeaderOnlyFile() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("empty.csv");
+        new CsvExporter().exportToCsv(new ArrayList<>(), file.toString());
+
+        // Act & Assert
+        assertTrue(new CsvImporter().importCsv(file).isEmpty());
+    }
+
+    private static List<Transaction> history(int rows) {
+        TransactionMapper mapper = new TransactionMapper();
+        Map<TransactionType, List<TransactionDto>> history = new SyntheticEtherscanData.Builder().build().generateHistory(rows);
+        List<Transaction> transactions = new ArrayList<>();
+        history.get(TransactionType.ETH_TRANSFER).forEach(dto -> transactions.add(mapper.mapNormalTransaction(dto)));
+        history.get(TransactionType.ETH_INTERNAL).forEach(dto -> transactions.add(mapper.mapInternalTransaction(dto)));
+        history.get(TransactionType.ERC20).forEach(dto -> transactions.add(mapper.mapErc20Transaction(dto)));
+        history.get(TransactionType.ERC721).forEach(dto -> transactions.add(mapper.mapErc721Transaction(dto)));
+        return transactions;
+    }
+}
@@ -0,0 +1,105 @@
+package com.cointracker.export;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.cointracker.support.SyntheticEtherscanData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for JsonLinesExporter.
+ */
+public class JsonLinesExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFieldsKeepTheirTypes() throws IOException {
+        // Arrange
+        Erc20Transaction token = new Erc20Transaction("0xabc", LocalDateTime.of(2024, 2, 29, 23, 5, 9), "0xfrom", "0xto",
+                new BigDecimal("1234.000001"), new BigDecimal("0.00042"), "0xToken", "US\"DC", "USD (Coin)", 6);
+        token.setBlockNumber(19_000_000);
+        token.setFiatValue(new BigDecimal("1234.01"));
+        NormalTransaction creation = new NormalTransaction("0xdef", LocalDateTime.of(2015, 8, 7, 3, 30),
+                "0xdeployer", "", new BigDecimal("0.000000000000000001"), null);
+        Path file = tempDir.resolve("typed.jsonl");
+
+        // Act
+        new JsonLinesExporter(true).exportToJsonLines(List.of(token, creation), file.toString());
+
+        // Assert
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size(), "One line per transaction");
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines.get(0));
+        assertEquals("ERC20", first.get("type").asText());
+        assertEquals(19_000_000L, first.get("blockNumber").asLong());
+        assertEquals("2024-02-29T23:05:09Z", first.get("timestamp").asText());
+        assertEquals("US\"DC", first.get("tokenSymbol").asText(), "Symbol should not be merged with the name");
+        assertEquals("USD (Coin)", first.get("tokenName").asText());
+        assertEquals(6, first.get("tokenDecimals").asInt());
+        assertTrue(first.get("value").isTextual(), "Amounts should be exact strings");
+        assertEquals("1234.000001", first.get("value").asText());
+        assertEquals("1234.01", first.get("valueUsd").asText());
+
+        JsonNode second = mapper.readTree(lines.get(1));
+        assertTrue(second.get("to").isNull(), "Contract creation should have no recipient");
+        assertTrue(second.get("contract").isNull(), "ETH should have no contract");
+        assertTrue(second.get("gasFee").isNull());
+        assertEquals("0.000000000000000001", second.get("value").asText(), "Small amounts should not use exponents");
+        assertEquals(18, second.get("tokenDecimals").asInt());
+    }
+
+    @Test
+    void testEveryTransactionOfAHistoryIsOneLine() throws IOException {
+        // Arrange
+        List<Transaction> transactions = history(2_000);
+        Path file = tempDir.resolve("history.jsonl");
+
+        // Act
+        new JsonLinesExporter().exportToJsonLines(transactions, file.toString());
+
+        // Assert
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(transactions.size(), lines.size(), "One line per transaction");
+        ObjectMapper mapper = new ObjectMapper();
+        for (int i = 0; i < lines.size(); i++) {
+            Transaction expected = transactions.get(i);
+            JsonNode line = mapper.readTree(lines.get(i));
+            assertEquals(expected.getTransactionHash(), line.get("hash").asText());
+            assertEquals(expected.getType().name(), line.get("type").asText());
+            assertEquals(0, expected.getValue().compareTo(new BigDecimal(line.get("value").asText())),
+                    "Value of line " + i);
+        }
+        System.out.println("✅ Exported " + lines.size() + " transactions as JSON Lines");
+    }
+
+    private static List<Transaction> history(int rows) {
+        TransactionMapper mapper = new TransactionMapper();
+        Map<TransactionType, List<TransactionDto>> history = new SyntheticEtherscanData.Builder().build().generateHistory(rows);
+        List<Transaction> transactions = new ArrayList<>();
+        history.get(TransactionType.ETH_TRANSFER).forEach(dto -> transactions.add(mapper.mapNormalTransaction(dto)));
+        history.get(TransactionType.ETH_INTERNAL).forEach(dto -> transactions.add(mapper.mapInternalTransaction(dto)));
+        history.get(TransactionType.ERC20).forEach(dto -> transactions.add(mapper.mapErc20Transaction(dto)));
+        history.get(TransactionType.ERC721).forEach(dto -> transactions.add(mapper.mapErc721Transaction(dto)));
+        return transactions;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cointracker.export;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.cointracker.support.SyntheticEtherscanData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for PartitionedCsvExporter.
+ */
+public class PartitionedCsvExporterTest {
+
+    private static final String PREFIX = "0x00000000000000000000000000000000000000aa";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMonthlyPartitionsRoundTripWithManifest() throws IOException {
+        // Arrange
+        List<Transaction> transactions = history(20_000);
+        PartitionedCsvExporter exporter = new PartitionedCsvExporter(PartitionKey.MONTH, false, 3, 8 * 1024);
+
+        // Act
+        long start = System.nanoTime();
+        List<PartitionedCsvExporter.Partition> partitions = exporter.export(transactions, tempDir, PREFIX);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertTrue(partitions.size() > 1, "History should span several months");
+        List<String> manifest = Files.readAllLines(tempDir.resolve(PREFIX + "-manifest.csv"));
+        assertEquals(partitions.size() + 1, manifest.size(), "Header plus one line per partition");
+        List<Transaction> reread = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            PartitionedCsvExporter.Partition partition = partitions.get(i);
+            if (i > 0) {
+                assertTrue(partitions.get(i - 1).getName().compareTo(partition.getName()) < 0, "Manifest should be sorted");
+            }
+            assertEquals(Files.size(partition.getFile()), partition.getBytes());
+            assertTrue(manifest.get(i + 1).contains("\"" + partition.getRows() + "\""), "Manifest should list row counts");
+            List<Transaction> rows = new CsvImporter().importCsv(partition.getFile());
+            assertEquals(partition.getRows(), rows.size());
+            rows.forEach(row -> assertEquals(partition.getName(), PartitionKey.MONTH.partitionOf(row)));
+            reread.addAll(rows);
+        }
+        assertEquals(toRows(transactions), toRows(reread), "Months in order should give back the history in order");
+
+        long bytes = partitions.stream().mapToLong(PartitionedCsvExporter.Partition::getBytes).sum();
+        System.out.println("✅ Wrote " + partitions.size() + " monthly files, " + bytes / 1024 + " KB in " + millis + " ms");
+    }
+
+    @Test
+    void testTokenAndTypeKeys() throws IOException {
+        // Arrange
+        List<Transaction> transactions = history(2_000);
+
+        // Act
+        List<PartitionedCsvExporter.Partition> byToken = new PartitionedCsvExporter(PartitionKey.TOKEN, false, 2, 4096)
+                .export(transactions, tempDir.resolve("token"), PREFIX);
+        List<PartitionedCsvExporter.Partition> byType = new PartitionedCsvExporter(PartitionKey.TYPE, true, 8, 4096)
+                .export(transactions, tempDir.resolve("type"), PREFIX);
+
+        // Assert
+        assertTrue(byToken.stream().anyMatch(p -> p.getName().equals("eth")), "Native rows should go to the eth partition");
+        assertEquals(transactions.size(), byToken.stream().mapToInt(PartitionedCsvExporter.Partition::getRows).sum());
+        assertEquals(4, byType.size(), "One file per transaction type");
+        assertTrue(Files.exists(tempDir.resolve("type").resolve(PREFIX + "-erc20.csv")));
+        assertTrue(Files.readAllLines(byType.get(0).getFile()).get(0).contains("Value (USD)"), "Fiat column should be kept");
+        assertThrows(IllegalArgumentException.class, () -> PartitionKey.fromString("week"));
+    }
+
+    private static List<List<String>> toRows(List<Transaction> transactions) {
+        return transactions.stream().map(t -> List.of(t.toCsvRow())).collect(Collectors.toList());
+    }
+
+    private static List<Transaction> history(int rows) {
+        TransactionMapper mapper = new TransactionMapper();
+        Map<TransactionType, List<TransactionDto>> history = new SyntheticEtherscanData.Builder().build().generateHistory(rows);
+        List<Transaction> transactions = new ArrayList<>();
+        history.get(TransactionType.ETH_TRANSFER).forEach(dto -> transactions.add(mapper.mapNormalTransaction(dto)));
+        history.get(TransactionType.ETH_INTERNAL).forEach(dto -> transactions.add(mapper.mapInternalTransaction(dto)));
+        history.get(TransactionType.ERC20).forEach(dto -> transactions.add(mapper.mapErc20Transaction(dto)));
+        history.get(TransactionType.ERC721).forEach(dto -> transactions.add(mapper.mapErc721Transaction(dto)));
+        transactions.sort(Comparator.comparing(Transaction::getDateTime));
+        return transactions;
+    }
+}
@@ -0,0 +1,221 @@
+package com.cointracker.graph;
+
+import com.cointracker.client.BlockRange;
+import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.config.ApiConfig;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.service.TransactionService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for CounterpartyCrawler and InteractionGraph.
+ */
+public class CounterpartyCrawlerTest {
+
+    private static final String SEED = address(1);
+    private static final String A = address(2);
+    private static final String HUB = address(3);
+    private static final String BUSY = address(4);
+    private static final String D = address(5);
+    private static final String BROKEN = address(6);
+    private static final String FAR = address(7);
+    private static final String QUIET = address(8);
+    private static final String BEHIND_HUB = address(9);
+    private static final String MIDWAY = address(10);
+
+    @Test
+    void testCrawlRespectsLimitsAndCountsEachTransactionOnce() throws Exception {
+        // Arrange
+        ChainApiClient chain = new ChainApiClient();
+        chain.send(SEED, A, 3);
+        chain.send(A, SEED, 1);
+        chain.send(SEED, HUB, 1);
+        chain.send(SEED, BUSY, 1);
+        chain.send(A, D, 2);
+        chain.send(A, BROKEN, 1);
+        chain.send(A, QUIET, 1);
+        chain.send(HUB, BEHIND_HUB, 1);
+        chain.send(D, FAR, 1);
+        for (int i = 0; i < 6; i++) {
+            chain.send(BUSY, address(100 + i), 1);
+        }
+        CounterpartyCrawler crawler = new CounterpartyCrawler.Builder(service(chain))
+                .maxDepth(3)
+                .maxFanOut(2)
+                .hubCounterparties(7)
+                .skipHubs(List.of(HUB.toUpperCase()))
+                .build();
+
+        // Act
+        InteractionGraph graph = crawler.crawl(List.of(SEED), BlockRange.ALL);
+
+        // Assert
+        assertEquals(List.of(SEED, A, BUSY, D, BROKEN), chain.fetched, "Breadth-first, hubs never fetched");
+        assertEquals(4, crawler.getFetchedCount());
+        assertEquals(1, crawler.getFailedCount(), "Failed fetch should be reported and skipped");
+        assertEquals(3, graph.getTransactionCount(SEED, A), "Transactions seen from both sides count once");
+        assertEquals(1, graph.getTransactionCount(A, SEED));
+        assertEquals(2, graph.getTransactionCount(A, D));
+        assertEquals(1, graph.getTransactionCount(A, QUIET), "Unqueued counterparties stay in the graph");
+        assertEquals(1, graph.getTransactionCount(D, FAR), "Last hop should be recorded but not fetched");
+        assertEquals(1, graph.getTransactionCount(BUSY, address(105)), "Busy address keeps its edges");
+        assertFalse(chain.fetched.contains(address(100)), "Busy address should not be expanded");
+        assertEquals(-1, graph.nodeOf(BEHIND_HUB), "Nothing behind a hub should be reached");
+        assertEquals(14, graph.getEdgeCount());
+
+        System.out.println(crawler.summary(graph));
+    }
+
+    @Test
+    void testFanOutPrefersMostActiveCounterparties() throws Exception {
+        // Arrange
+        ChainApiClient chain = new ChainApiClient();
+        chain.send(SEED, A, 1);
+        chain.send(SEED, D, 5);
+        chain.send(QUIET, SEED, 3);
+        CounterpartyCrawler crawler = new CounterpartyCrawler.Builder(service(chain)).maxDepth(2).maxFanOut(2).build();
+
+        // Act
+        InteractionGraph graph = crawler.crawl(List.of(SEED), BlockRange.ALL);
+
+        // Assert
+        assertEquals(List.of(SEED, D, QUIET), chain.fetched, "Most active counterparties first");
+        assertEquals(4, graph.getNodeCount());
+    }
+
+    @Test
+    void testLegsOfOneTransactionCountOnceAndFailedFetchAddsNoNodes() throws Exception {
+        // Arrange: SEED's transfer to A also has an internal leg; MIDWAY fails after its first page
+        ChainApiClient chain = new ChainApiClient();
+        chain.send(SEED, A, 1);
+        chain.internal.add(new NormalTransaction(chain.transfers.get(0).getTransactionHash(),
+                LocalDateTime.of(2024, 1, 1, 0, 0), SEED, A, BigDecimal.ONE, null));
+        chain.send(SEED, MIDWAY, 1);
+        chain.send(MIDWAY, FAR, 1);
+        CounterpartyCrawler crawler = new CounterpartyCrawler.Builder(service(chain)).maxDepth(2).build();
+
+        // Act
+        InteractionGraph graph = crawler.crawl(List.of(SEED), BlockRange.ALL);
+
+        // Assert
+        assertEquals(1, graph.getTransactionCount(SEED, A), "Two legs of one transaction are one edge count");
+        assertEquals(1, crawler.getFailedCount());
+        assertEquals(-1, graph.nodeOf(FAR), "Counterparties of a failed fetch should not become nodes");
+    }
+
+    @Test
+    void testCompressedRowsMatchHashMap() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(5);
+        InteractionGraph.Builder builder = new InteractionGraph.Builder();
+        int nodes = 200_000;
+        for (int i = 0; i < nodes; i++) {
+            builder.node(address(i));
+        }
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 2_000_000; i++) {
+            int from = random.nextInt(nodes);
+            // Skewed targets so some edges repeat
+            int to = random.nextBoolean() ? random.nextInt(100) : random.nextInt(nodes);
+            builder.addTransaction(from, to);
+            expected.merge((long) from << 32 | to, 1, Integer::sum);
+        }
+
+        // Act
+        long start = System.nanoTime();
+        InteractionGraph graph = builder.build();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(expected.size(), graph.getEdgeCount(), "Repeated pairs should merge into one edge");
+        long[] previous = {-1};
+        graph.forEachEdge((from, to, transactions) -> {
+            long key = (long) from << 32 | to;
+            assertTrue(key > previous[0], "Edges should be grouped by source and sorted by target");
+            assertEquals(expected.get(key), transactions);
+            previous[0] = key;
+        });
+        assertEquals(nodes - 1, graph.nodeOf(address(nodes - 1).toUpperCase().replace("0X", "0x")), "Lookup ignores case");
+
+        System.out.println(String.format("✅ %d edges built in %d ms, %.1f bytes per edge including addresses",
+                graph.getEdgeCount(), millis, (double) graph.getMemoryBytes() / graph.getEdgeCount()));
+    }
+
+    private static TransactionService service(BlockchainApiClient client) {
+        Properties overrides = new Properties();
+        overrides.setProperty("api.rate_limit.delay_between_types_ms", "0");
+        return new TransactionService(client, new ApiConfig(overrides));
+    }
+
+    private static String address(int i) {
+        return String.format("0x%040x", i);
+    }
+
+    /**
+     * Normal transfers between addresses; each address sees the transfers it is part of.
+     * Internal legs are returned from the internal list, and MIDWAY's token fetch fails.
+     */
+    private static class ChainApiClient implements BlockchainApiClient {
+
+        private final List<Transaction> transfers = new ArrayList<>();
+        private final List<Transaction> internal = new ArrayList<>();
+        private final List<String> fetched = new ArrayList<>();
+
+        void send(String from, String to, int count) {
+            for (int i = 0; i < count; i++) {
+                transfers.add(new NormalTransaction("0x" + Integer.toHexString(transfers.size()),
+                        LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(transfers.size()), from, to, BigDecimal.ONE, null));
+            }
+        }
+
+        @Override
+        public List<Transaction> fetchNormalTransactions(String address) throws IOException {
+            fetched.add(address);
+            if (address.equals(BROKEN)) {
+                throw new IOException("HTTP failed: 503");
+            }
+            return transfers.stream()
+                    .filter(t -> address.equals(t.getFromAddress()) || address.equals(t.getToAddress()))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Transaction> fetchInternalTransactions(String address) {
+            return internal.stream()
+                    .filter(t -> address.equals(t.getFromAddress()) || address.equals(t.getToAddress()))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Transaction> fetchErc20Transactions(String address) throws IOException {
+            if (address.equals(MIDWAY)) {
+                throw new IOException("HTTP failed: 502");
+            }
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<Transaction> fetchErc721Transactions(String address) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public String getProviderName() {
+            return "ChainProvider";
+        }
+    }
+}
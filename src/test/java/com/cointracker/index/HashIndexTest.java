@@ -0,0 +1,89 @@
+package com.cointracker.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for HashIndex lookups and merges.
+ */
+public class HashIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLookupsMatchHashSetAcrossMerges() throws Exception {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(11);
+        Path file = tempDir.resolve("hashes.idx");
+        Set<String> expected = new HashSet<>();
+        List<String> first = hashes(random, 200_000);
+        List<String> second = new ArrayList<>(hashes(random, 100_000));
+        second.addAll(first.subList(0, 1_000));
+        second.add(second.get(0));
+        expected.addAll(first);
+        expected.addAll(second);
+
+        // Act
+        HashIndex.merge(file, first);
+        HashIndex index = HashIndex.merge(file, second);
+        List<String> probes = new ArrayList<>(hashes(random, 50_000));
+        probes.addAll(first.subList(0, 25_000));
+        probes.addAll(second.subList(0, 25_000));
+        long start = System.nanoTime();
+        boolean[] found = index.containsAll(probes);
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        // Assert
+        assertEquals(expected.size(), index.size(), "Duplicates should be stored once");
+        for (int i = 0; i < probes.size(); i++) {
+            assertEquals(expected.contains(probes.get(i)), found[i], probes.get(i));
+            assertEquals(found[i], index.contains(probes.get(i)), "Single and batch lookups should agree");
+        }
+        assertTrue(index.contains(first.get(0).toUpperCase().replace("0X", "0x")), "Hex case should not matter");
+
+        double bytesPerHash = (double) Files.size(file) / index.size();
+        System.out.println(String.format("✅ %d hashes, %.1f bytes each, %d lookups in %d µs",
+                index.size(), bytesPerHash, probes.size(), micros));
+    }
+
+    @Test
+    void testNonHexKeysAndMissingFile() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("rows.idx");
+
+        // Act
+        HashIndex empty = HashIndex.open(file);
+        HashIndex index = HashIndex.merge(file, List.of("0xabc|ETH_TRANSFER|1", "0xabc|ERC20|1"));
+
+        // Assert
+        assertEquals(0, empty.size(), "Missing file should open as an empty index");
+        assertFalse(empty.contains("0xabc|ETH_TRANSFER|1"));
+        assertEquals(2, index.size(), "Row keys sharing a hash should stay distinct");
+        assertTrue(index.contains("0xabc|ERC20|1"));
+        assertFalse(index.contains("0xabc|ERC721|1"));
+        assertArrayEquals(new boolean[]{true, false}, HashIndex.open(file).containsAll(List.of("0xabc|ETH_TRANSFER|1", "x")));
+    }
+
+    private static List<String> hashes(SplittableRandom random, int count) {
+        List<String> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder hash = new StringBuilder("0x");
+            for (int word = 0; word < 4; word++) {
+                hash.append(String.format("%016x", random.nextLong()));
+            }
+            hashes.add(hash.toString());
+        }
+        return hashes;
+    }
+}
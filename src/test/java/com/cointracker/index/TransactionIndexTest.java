@@ -0,0 +1,103 @@
+package com.cointracker.index;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.cointracker.support.SyntheticEtherscanData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for TransactionIndex queries and PostingList cursors.
+ */
+public class TransactionIndexTest {
+
+    @Test
+    void testQueriesMatchFullScan() {
+        // Arrange
+        List<Transaction> transactions = history(100_000);
+        TransactionIndex index = TransactionIndex.build(transactions);
+        List<Transaction> timeOrder = new ArrayList<>(transactions);
+        timeOrder.sort(Comparator.comparingLong(TransactionQuery::epochSecond));
+        Transaction token = transactions.stream()
+                .filter(t -> t.getType() == TransactionType.ERC20)
+                .findFirst().orElseThrow();
+        String counterparty = token.getFromAddress();
+        long from = TransactionQuery.epochSecond(timeOrder.get(timeOrder.size() / 4));
+        long to = TransactionQuery.epochSecond(timeOrder.get(timeOrder.size() / 2));
+
+        List<TransactionQuery> queries = List.of(
+                TransactionQuery.ALL,
+                new TransactionQuery.Builder().token(token.getAssetContractAddress().toUpperCase()).build(),
+                new TransactionQuery.Builder().token("ETH").between(from, to).build(),
+                new TransactionQuery.Builder().counterparty(counterparty).build(),
+                new TransactionQuery.Builder().token(token.getAssetContractAddress()).counterparty(counterparty)
+                        .between(from, Long.MAX_VALUE).build(),
+                new TransactionQuery.Builder().type(TransactionType.ERC721).between(from, to).build(),
+                new TransactionQuery.Builder().counterparty("0x0000000000000000000000000000000000000bad").build());
+
+        for (TransactionQuery query : queries) {
+            // Act
+            long start = System.nanoTime();
+            List<Transaction> indexed = index.query(query).collect(Collectors.toList());
+            long micros = (System.nanoTime() - start) / 1_000;
+
+            // Assert
+            List<Transaction> scanned = timeOrder.stream().filter(query::matches).collect(Collectors.toList());
+            assertEquals(scanned, indexed, "Index should return the full-scan matches in time order");
+            System.out.println("✅ " + indexed.size() + " matches in " + micros + " µs");
+        }
+        System.out.println("✅ Index of " + index.size() + " rows takes " + index.getIndexBytes() / 1024 + " KB");
+    }
+
+    @Test
+    void testPostingCursorAdvancesLikeSortedSet() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(3);
+        PostingList.Builder builder = new PostingList.Builder();
+        TreeSet<Integer> expected = new TreeSet<>();
+        int row = -1;
+        for (int i = 0; i < 10_000; i++) {
+            row += 1 + (random.nextInt(10) == 0 ? random.nextInt(100_000) : random.nextInt(3));
+            builder.add(row);
+            expected.add(row);
+        }
+        PostingList list = builder.build();
+        PostingList.Cursor cursor = list.cursor();
+
+        // Act & Assert
+        int target = 0;
+        while (target <= row) {
+            Integer ceiling = expected.ceiling(target);
+            assertEquals(ceiling != null ? ceiling : PostingList.NO_MORE_ROWS, cursor.advance(target), "target " + target);
+            target += random.nextInt(random.nextBoolean() ? 5 : 500_000);
+        }
+        assertEquals(PostingList.NO_MORE_ROWS, cursor.advance(row + 1));
+        assertEquals(expected.size(), list.size());
+        assertThrows(IllegalArgumentException.class, () -> builder.add(0), "Rows must ascend");
+    }
+
+    private static List<Transaction> history(int rows) {
+        TransactionMapper mapper = new TransactionMapper();
+        Map<TransactionType, List<TransactionDto>> history = new SyntheticEtherscanData.Builder()
+                .tokenContracts(8)
+                .build()
+                .generateHistory(rows);
+        List<Transaction> transactions = new ArrayList<>();
+        history.get(TransactionType.ETH_TRANSFER).forEach(dto -> transactions.add(mapper.mapNormalTransaction(dto)));
+        history.get(TransactionType.ETH_INTERNAL).forEach(dto -> transactions.add(mapper.mapInternalTransaction(dto)));
+        history.get(TransactionType.ERC20).forEach(dto -> transactions.add(mapper.mapErc20Transaction(dto)));
+        history.get(TransactionType.ERC721).forEach(dto -> transactions.add(mapper.mapErc721Transaction(dto)));
+        return transactions;
+    }
+}
@@ -0,0 +1,87 @@
+package com.cointracker.jfr;
+
+import com.cointracker.client.BlockRange;
+import com.cointracker.client.EtherscanApiClient;
+import com.cointracker.config.ApiConfig;
+import com.cointracker.export.CsvExporter;
+import com.cointracker.model.Transaction;
+import com.cointracker.service.TransactionService;
+import com.cointracker.support.FakeEtherscanServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the application's Flight Recorder events.
+ */
+public class FlightRecorderEventsTest {
+
+    private static final String ADDRESS = "0x00000000000000000000000000000000000000bb";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFetchSortAndExportEmitEvents() throws Exception {
+        try (FakeEtherscanServer server = new FakeEtherscanServer.Builder().rowsPerAddress(1_200).maxRowsPerResponse(300).start();
+             Recording recording = new Recording()) {
+            // Arrange
+            recording.enable(ApiCallEvent.class).withoutThreshold();
+            recording.enable(PageMappingEvent.class).withoutThreshold();
+            recording.enable(SortEvent.class).withoutThreshold();
+            recording.enable(CsvExportEvent.class).withoutThreshold();
+            TransactionService service = new TransactionService(new EtherscanApiClient(config(server)), config(server));
+            String csvFile = tempDir.resolve("export.csv").toString();
+            Path dump = tempDir.resolve("run.jfr");
+
+            // Act
+            recording.start();
+            List<Transaction> transactions = service.getAllTransactions(ADDRESS, BlockRange.ALL);
+            new CsvExporter().exportToCsv(transactions, csvFile);
+            recording.stop();
+            recording.dump(dump);
+
+            // Assert
+            Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(dump).stream()
+                    .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+            List<RecordedEvent> apiCalls = events.get("com.cointracker.ApiCall");
+            assertNotNull(apiCalls, "API calls should be recorded");
+            assertTrue(apiCalls.size() >= 4, "Each endpoint should be called at least once");
+            assertEquals(ADDRESS, apiCalls.get(0).getString("address"));
+            assertTrue(apiCalls.stream().allMatch(event -> event.getLong("bytes") > 0), "Response sizes should be set");
+
+            int mapped = events.get("com.cointracker.PageMapping").stream().mapToInt(event -> event.getInt("records")).sum();
+            assertEquals(transactions.size(), mapped, "Every mapped transaction should be counted once");
+
+            RecordedEvent sort = events.get("com.cointracker.Sort").get(0);
+            assertEquals(transactions.size(), sort.getInt("records"));
+
+            RecordedEvent export = events.get("com.cointracker.CsvExport").get(0);
+            assertEquals(csvFile, export.getString("file"));
+            assertEquals(transactions.size(), export.getInt("records"));
+            assertTrue(export.getLong("bytes") > 0, "Bytes written should be set");
+
+            System.out.println("✅ Recorded " + apiCalls.size() + " API calls for " + transactions.size() + " transactions");
+        }
+    }
+
+    private ApiConfig config(FakeEtherscanServer server) {
+        Properties overrides = new Properties();
+        overrides.setProperty("api.etherscan.base_url", server.getBaseUrl());
+        overrides.setProperty("api.etherscan.batch_size", "300");
+        overrides.setProperty("api.rate_limit.delay_between_calls_ms", "0");
+        overrides.setProperty("api.rate_limit.delay_between_types_ms", "0");
+        overrides.setProperty("cache.directory", tempDir.toString());
+        return new ApiConfig(overrides);
+    }
+}
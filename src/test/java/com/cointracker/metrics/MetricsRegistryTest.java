@@ -0,0 +1,111 @@
+package com.cointracker.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for MetricsRegistry, LatencyHistogram and MetricsReport.
+ */
+public class MetricsRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testHistogramPercentilesAreWithinBucketPrecision() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // Act
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        // Assert
+        assertEquals(1000, histogram.getCount(), "Every value should be counted");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getMaxNanos(), "Max should be exact");
+        assertEquals(500.5, histogram.getMeanMillis(), 0.001, "Mean should be exact");
+        assertWithin(500, histogram.getPercentileNanos(50));
+        assertWithin(990, histogram.getPercentileNanos(99));
+        assertEquals(histogram.getMaxNanos(), histogram.getPercentileNanos(100), "p100 should be the max");
+
+        System.out.println("✅ p50=" + histogram.getPercentileNanos(50) / 1e6 + "ms p99=" + histogram.getPercentileNanos(99) / 1e6 + "ms");
+    }
+
+    @Test
+    void testBucketsCoverEveryValueInOrder() {
+        long previousBound = -1;
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 1_000, 123_456_789, Long.MAX_VALUE / 4}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long upperBound = LatencyHistogram.upperBoundOf(bucket);
+
+            assertTrue(upperBound >= value, "Bucket of " + value + " should contain it");
+            assertTrue(upperBound - value <= value / 8, "Bucket of " + value + " should be within 1/8 of it");
+            assertTrue(upperBound >= previousBound, "Buckets should be ordered");
+            previousBound = upperBound;
+        }
+    }
+
+    @Test
+    void testSeriesAreSharedByNameAndLabels() {
+        // Arrange
+        MetricsRegistry registry = new MetricsRegistry();
+
+        // Act
+        registry.counter("requests_total", "endpoint", "txlist").add(3);
+        registry.counter("requests_total", "endpoint", "txlist").increment();
+        registry.counter("requests_total", "endpoint", "tokentx").increment();
+
+        // Assert
+        assertEquals(4, registry.getCounters().get("requests_total{endpoint=\"txlist\"}").get(),
+                "Same name and labels should return the same counter");
+        assertEquals(2, registry.getCounters().size(), "Different labels should be separate series");
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("bad", "label-without-value"));
+    }
+
+    @Test
+    void testReportFormats() throws Exception {
+        // Arrange
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("records_decoded_total").add(2_000);
+        registry.histogram("decode_seconds", "endpoint", "txlist").record(TimeUnit.MILLISECONDS.toNanos(500));
+        registry.histogram("decode_seconds", "endpoint", "txlist").record(TimeUnit.MILLISECONDS.toNanos(500));
+        MetricsReport report = new MetricsReport(registry);
+        Path jsonFile = tempDir.resolve("metrics.json");
+        Path textFile = tempDir.resolve("metrics.prom");
+
+        // Act
+        report.writeTo(jsonFile);
+        report.writeTo(textFile);
+
+        // Assert
+        JsonNode json = new ObjectMapper().readTree(jsonFile.toFile());
+        assertEquals(2_000, json.path("counters").path("records_decoded_total").asLong());
+        JsonNode decode = json.path("histograms").path("decode_seconds{endpoint=\"txlist\"}");
+        assertEquals(2, decode.path("count").asLong());
+        assertEquals(1.0, decode.path("sum").asDouble(), 1e-9, "Durations should be in seconds");
+        assertEquals(2_000.0, json.path("rates").path("records_decoded_per_second").asDouble(), 1e-6,
+                "Decode rate should be records over time spent decoding");
+
+        String text = Files.readString(textFile);
+        assertTrue(text.contains("# TYPE records_decoded_total counter\nrecords_decoded_total 2000\n"), text);
+        assertTrue(text.contains("# TYPE decode_seconds summary\n"), text);
+        assertTrue(text.contains("decode_seconds{endpoint=\"txlist\",quantile=\"0.5\"} "), text);
+        assertTrue(text.contains("decode_seconds_sum{endpoint=\"txlist\"} 1.0\n"), text);
+        assertTrue(text.contains("decode_seconds_count{endpoint=\"txlist\"} 2\n"), text);
+    }
+
+    private static void assertWithin(long expectedMillis, long actualNanos) {
+        long expected = TimeUnit.MILLISECONDS.toNanos(expectedMillis);
+        assertTrue(actualNanos >= expected && actualNanos <= expected + expected / 8,
+                "Expected about " + expectedMillis + "ms but was " + actualNanos / 1e6 + "ms");
+    }
+}
@@ -0,0 +1,91 @@
+package com.cointracker.pricing;
+
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for LocalPriceTable and PriceEnricher.
+ */
+public class LocalPriceTableTest {
+
+    @TempDir
+    Path priceDir;
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void testAsOfLookupOverUnsortedCsv() throws IOException {
+        // Arrange
+        Files.writeString(priceDir.resolve("ETH.csv"),
+            "date,price\n2024-01-03,2300.5\n2024-01-01,2100\n2024-01-02,2200.25\n");
+
+        // Act
+        LocalPriceTable table = LocalPriceTable.open(priceDir, cacheDir);
+
+        // Assert
+        assertEquals(3, table.getPointCount(), "All price points should be indexed");
+        try (var written = Files.walk(cacheDir)) {
+            assertTrue(written.anyMatch(path -> path.endsWith("ETH.prices.idx")), "Binary index should be written to the cache");
+        }
+        try (var listed = Files.list(priceDir)) {
+            assertEquals(1, listed.count(), "Price directory should be left untouched");
+        }
+        assertEquals(PriceSource.MISSING, table.priceAt("ETH", epoch(2023, 12, 31)), "No price before first point");
+        assertEquals(220_025_000_000L, table.priceAt("ETH", epoch(2024, 1, 2) + 3600), "Should use last price at or before");
+        assertEquals(230_050_000_000L, table.priceAt("ETH", epoch(2025, 1, 1)), "Should carry the last price forward");
+        assertEquals(PriceSource.MISSING, table.priceAt("0xunknown", epoch(2024, 1, 2)), "Unknown assets have no price");
+    }
+
+    @Test
+    void testDuplicateTimestampsKeepTheLastRow() throws IOException {
+        // Arrange: a blank time field in the header and repeated timestamps, in and out of order
+        Files.writeString(priceDir.resolve("ETH.csv"),
+            ",price\n2024-01-02,5\n2024-01-01,1\n2024-01-02,6\n2024-01-01,2\n2024-01-03,7\n2024-01-03,8\n");
+
+        // Act
+        LocalPriceTable table = LocalPriceTable.open(priceDir, cacheDir);
+
+        // Assert
+        assertEquals(3, table.getPointCount(), "Repeated timestamps should collapse to one point");
+        assertEquals(200_000_000L, table.priceAt("ETH", epoch(2024, 1, 1)), "Last row for a time should win");
+        assertEquals(600_000_000L, table.priceAt("ETH", epoch(2024, 1, 2)), "Last row for a time should win");
+        assertEquals(800_000_000L, table.priceAt("ETH", epoch(2024, 1, 3)), "Last row for a time should win");
+        System.out.println("✅ Collapsed duplicate timestamps to " + table.getPointCount() + " points");
+    }
+
+    @Test
+    void testEnrichSortedTransactions() throws IOException {
+        // Arrange
+        Files.writeString(priceDir.resolve("eth.csv"), epoch(2024, 1, 1) + ",2000\n" + epoch(2024, 1, 2) + ",3000\n");
+        List<Transaction> transactions = List.of(
+            new NormalTransaction("0x1", LocalDateTime.of(2024, 1, 1, 12, 0), "0xa", "0xb", new BigDecimal("0.5"), null),
+            new NormalTransaction("0x2", LocalDateTime.of(2024, 1, 2, 12, 0), "0xa", "0xb", new BigDecimal("2"), null)
+        );
+
+        // Act
+        int priced = new PriceEnricher(LocalPriceTable.open(priceDir, cacheDir)).enrich(transactions);
+
+        // Assert
+        assertEquals(2, priced, "Both transactions should be priced");
+        assertEquals(0, new BigDecimal("1000").compareTo(transactions.get(0).getFiatValue()));
+        assertEquals(0, new BigDecimal("6000").compareTo(transactions.get(1).getFiatValue()));
+        System.out.println("✅ Enriched " + priced + " transactions with USD values");
+    }
+
+    private static long epoch(int year, int month, int day) {
+        return LocalDateTime.of(year, month, day, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    }
+}
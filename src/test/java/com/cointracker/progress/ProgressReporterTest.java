@@ -0,0 +1,117 @@
+package com.cointracker.progress;
+
+import com.cointracker.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for ProgressReporter.
+ */
+public class ProgressReporterTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    void testStructuredLinesAreThrottledPerAddress() {
+        // Arrange
+        try (ProgressReporter reporter = reporter(false, 60_000)) {
+            // Act
+            reporter.typeStarted("0xaa", TransactionType.ERC20);
+            for (int page = 0; page < 100; page++) {
+                reporter.pageFetched("0xaa", TransactionType.ERC20, 10, page * 100L, page * 100L + 99);
+            }
+            reporter.typeFinished("0xaa", TransactionType.ERC20, 1_000);
+            reporter.warning("HTTP failed: 502, retrying in 100ms");
+            reporter.flush();
+
+            // Assert
+            List<String> lines = lines(out);
+            long progressLines = lines.stream().filter(line -> line.startsWith("event=progress")).count();
+            assertTrue(progressLines <= 2, "Pages within one interval should collapse into one line: " + lines);
+            assertTrue(lines.contains("event=progress address=0xaa type=ERC20 records=1000 pages=100 block=9999"
+                    + " total_records=1000 total_pages=100"), "Final figures should be written: " + lines);
+            assertEquals("event=type_done address=0xaa type=ERC20 records=1000 address_records=1000", lines.get(lines.size() - 1));
+            assertEquals(List.of("level=WARN msg=\"HTTP failed: 502, retrying in 100ms\""), lines(err));
+        }
+    }
+
+    @Test
+    void testConcurrentWorkersAreAllCounted() throws Exception {
+        // Arrange
+        int workers = 8;
+        int pages = 1_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        try (ProgressReporter reporter = reporter(false, 10)) {
+            for (int w = 0; w < workers; w++) {
+                String address = "0x" + w;
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int page = 0; page < pages; page++) {
+                        reporter.pageFetched(address, TransactionType.ETH_TRANSFER, 5, page, page);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+
+            // Act
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            reporter.flush();
+
+            // Assert
+            String last = lines(out).get(lines(out).size() - 1);
+            assertTrue(last.endsWith("total_records=" + (workers * pages * 5) + " total_pages=" + (workers * pages)),
+                    "Every posted page should be counted: " + last);
+        }
+
+        System.out.println("✅ Counted " + workers * pages + " pages posted from " + workers + " threads");
+    }
+
+    @Test
+    void testInteractiveModeRedrawsOneLine() throws Exception {
+        try (ProgressReporter reporter = reporter(true, 0)) {
+            // Act
+            reporter.pageFetched("0xaa", TransactionType.ETH_TRANSFER, 7, 1, 50);
+            while (!out.toString(StandardCharsets.UTF_8).contains("⏳")) {
+                Thread.sleep(5);
+            }
+            reporter.message("Fetching...");
+            reporter.flush();
+
+            // Assert
+            String text = out.toString(StandardCharsets.UTF_8);
+            assertTrue(text.startsWith("\r⏳ 0xaa ETH Transfer: 7 records (block 50)"), text);
+            assertTrue(text.contains("Fetching...\n"), "Messages should get their own line: " + text);
+            String openLine = text.substring(text.lastIndexOf('\n') + 1);
+            assertTrue(openLine.replace("\r", "").isBlank(), "Flush should leave no progress line open: " + openLine);
+        }
+    }
+
+    private ProgressReporter reporter(boolean interactive, long intervalMillis) {
+        return new ProgressReporter(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8), interactive, intervalMillis);
+    }
+
+    private static List<String> lines(ByteArrayOutputStream stream) {
+        String text = stream.toString(StandardCharsets.UTF_8);
+        return text.isEmpty() ? List.of() : List.of(text.split("\n"));
+    }
+}
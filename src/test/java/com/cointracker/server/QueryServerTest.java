@@ -0,0 +1,268 @@
+package com.cointracker.server;
+
+import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.config.ApiConfig;
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for QueryServer against a stub API client.
+ */
+public class QueryServerTest {
+
+    private static final String ADDRESS = "0x00000000000000000000000000000000000000aa";
+
+    private StubApiClient apiClient;
+    private TransactionService service;
+    private QueryServer server;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Properties overrides = new Properties();
+        overrides.setProperty("api.rate_limit.delay_between_types_ms", "0");
+        ApiConfig config = new ApiConfig(overrides);
+
+        apiClient = new StubApiClient();
+        service = new TransactionService(apiClient, config);
+        server = new QueryServer(service, apiClient, new TransactionCache(16, 60), 0, 4, 16, 1000);
+        server.start();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testCsvResponseIsCachedForRepeatRequests() throws Exception {
+        // Act
+        HttpResponse<String> first = get("/addresses/" + ADDRESS + "/transactions?format=csv");
+        HttpResponse<String> second = get("/addresses/" + ADDRESS + "/transactions?format=csv");
+
+        // Assert
+        assertEquals(200, first.statusCode(), "Valid request should succeed");
+        assertEquals("MISS", first.headers().firstValue("X-Cache").orElse(""), "First request should miss the cache");
+        assertEquals("HIT", second.headers().firstValue("X-Cache").orElse(""), "Second request should hit the cache");
+        assertEquals(first.body(), second.body(), "Cached response should match the streamed one");
+
+        String[] lines = first.body().split("\n");
+        assertEquals(3, lines.length, "Header plus one row per transaction");
+        assertTrue(lines[0].contains("Transaction Hash"), "First line should be the CSV header");
+        assertEquals(4, apiClient.calls.get(), "Each transaction type should be fetched once");
+
+        System.out.println("✅ Streamed " + (lines.length - 1) + " CSV rows, second request served from cache");
+    }
+
+    @Test
+    void testJsonLinesResponse() throws Exception {
+        // Act
+        HttpResponse<String> response = get("/addresses/" + ADDRESS + "/transactions?format=jsonl");
+
+        // Assert
+        assertEquals(200, response.statusCode(), "Valid request should succeed");
+        String[] lines = response.body().split("\n");
+        assertEquals(2, lines.length, "One JSON object per transaction");
+        assertTrue(lines[0].startsWith("{\"Transaction Hash\":\"0xaaa\""), "Rows should be keyed by column name");
+        assertTrue(lines[1].contains("\"Transaction Type\":\"ERC-20\""), "Token row should keep its type");
+
+        System.out.println("✅ Streamed " + lines.length + " JSON lines");
+    }
+
+    @Test
+    void testTokenAndCounterpartyQueriesUseCachedHistory() throws Exception {
+        // Arrange
+        get("/addresses/" + ADDRESS + "/transactions?format=csv");
+
+        // Act
+        HttpResponse<String> token = get("/addresses/" + ADDRESS + "/transactions?token=0x00000000000000000000000000000000000000cc");
+        HttpResponse<String> eth = get("/addresses/" + ADDRESS + "/transactions?token=eth&from=2024-01-01&to=2024-01-01");
+        HttpResponse<String> nobody = get("/addresses/" + ADDRESS + "/transactions?counterparty=0x00000000000000000000000000000000000000ff");
+        HttpResponse<String> badToken = get("/addresses/" + ADDRESS + "/transactions?token=usdc");
+
+        // Assert
+        assertEquals("HIT", token.headers().firstValue("X-Cache").orElse(""), "Token query should use the cached history");
+        assertEquals(2, token.body().split("\n").length, "Header plus the ERC-20 row");
+        assertTrue(token.body().contains("0xbbb"), "Token query should return the ERC-20 row");
+        assertEquals("HIT", eth.headers().firstValue("X-Cache").orElse(""), "Date range should be served from the full history");
+        assertTrue(eth.body().contains("0xaaa") && !eth.body().contains("0xbbb"), "Only the ETH row falls in the range");
+        assertEquals(1, nobody.body().split("\n").length, "Unknown counterparty should return only the header");
+        assertEquals(400, badToken.statusCode(), "Token must be a contract address or eth");
+        assertEquals(4, apiClient.calls.get(), "Indexed queries should not reach the API");
+
+        System.out.println("✅ Token, counterparty and date queries answered from the cached index");
+    }
+
+    @Test
+    void testUpstreamFailureMidStreamBreaksTheResponse() throws Exception {
+        // Arrange: the ETH page streams out before the ERC-20 fetch fails
+        apiClient.failErc20 = true;
+
+        // Act
+        IOException error = assertThrows(IOException.class,
+                () -> get("/addresses/" + ADDRESS + "/transactions?format=csv"),
+                "A truncated body should not arrive as a complete 200 response");
+        apiClient.failErc20 = false;
+        HttpResponse<String> retry = get("/addresses/" + ADDRESS + "/transactions?format=csv");
+
+        // Assert
+        assertEquals("MISS", retry.headers().firstValue("X-Cache").orElse(""), "A failed fetch should not be cached");
+        assertEquals(3, retry.body().split("\n").length, "The retry should return the whole history");
+
+        System.out.println("✅ Upstream 502 mid-stream aborted the response: " + error);
+    }
+
+    @Test
+    void testResultsAboveTheRowLimitAreNotCached() throws Exception {
+        // Arrange
+        server.stop();
+        server = new QueryServer(service, apiClient, new TransactionCache(16, 60), 0, 4, 16, 1);
+        server.start();
+
+        // Act
+        HttpResponse<String> first = get("/addresses/" + ADDRESS + "/transactions?format=csv");
+        HttpResponse<String> second = get("/addresses/" + ADDRESS + "/transactions?format=csv");
+
+        // Assert
+        assertEquals(3, first.body().split("\n").length, "The whole history should still be streamed");
+        assertEquals("MISS", second.headers().firstValue("X-Cache").orElse(""), "An oversized result should not be cached");
+        assertEquals(8, apiClient.calls.get(), "Each request should fetch again");
+    }
+
+    @Test
+    void testFullQueueAnswersServiceUnavailable() throws Exception {
+        // Arrange: one thread held by a blocked fetch and room for one waiting request
+        server.stop();
+        server = new QueryServer(service, apiClient, new TransactionCache(16, 60), 0, 1, 1, 1000);
+        server.start();
+        apiClient.gate = new CountDownLatch(1);
+        CompletableFuture<HttpResponse<String>> running = getAsync("/addresses/" + ADDRESS + "/transactions");
+        while (apiClient.calls.get() == 0) {
+            Thread.sleep(10);
+        }
+
+        // Act
+        CompletableFuture<HttpResponse<String>> second = getAsync("/addresses/" + ADDRESS + "/transactions");
+        CompletableFuture<HttpResponse<String>> third = getAsync("/addresses/" + ADDRESS + "/transactions");
+        HttpResponse<?> rejected = (HttpResponse<?>) CompletableFuture.anyOf(second, third).get(10, TimeUnit.SECONDS);
+        apiClient.gate.countDown();
+
+        // Assert
+        assertEquals(503, rejected.statusCode(), "A request beyond the queue should be turned away");
+        assertTrue(rejected.headers().firstValue("Retry-After").isPresent(), "503 should tell the client when to retry");
+        assertEquals(200, running.get(10, TimeUnit.SECONDS).statusCode());
+        HttpResponse<String> queued = rejected == second.getNow(null) ? third.get(10, TimeUnit.SECONDS) : second.get(10, TimeUnit.SECONDS);
+        assertEquals(200, queued.statusCode(), "The queued request should still be served");
+        System.out.println("✅ Overflow request answered with 503");
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() throws Exception {
+        // Act
+        HttpResponse<String> badAddress = get("/addresses/0x123/transactions");
+        HttpResponse<String> badFormat = get("/addresses/" + ADDRESS + "/transactions?format=xml");
+        HttpResponse<String> badDate = get("/addresses/" + ADDRESS + "/transactions?from=yesterday");
+        HttpResponse<String> unknownPath = get("/addresses/" + ADDRESS + "/balances");
+
+        // Assert
+        assertEquals(400, badAddress.statusCode(), "Invalid address should be a bad request");
+        assertEquals(400, badFormat.statusCode(), "Unknown format should be a bad request");
+        assertEquals(400, badDate.statusCode(), "Unparseable date should be a bad request");
+        assertEquals(404, unknownPath.statusCode(), "Unknown path should be not found");
+        assertEquals(0, apiClient.calls.get(), "Rejected requests should not reach the API");
+
+        System.out.println("✅ Invalid requests rejected without API calls");
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getPort() + path))
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private CompletableFuture<HttpResponse<String>> getAsync(String path) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getPort() + path))
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Returns one ETH transfer and one ERC-20 transfer and counts calls. The ERC-20
+     * fetch fails like exhausted 502 retries while {@code failErc20} is set, and the
+     * normal fetch waits for {@code gate} when one is set.
+     */
+    private static class StubApiClient implements BlockchainApiClient {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean failErc20;
+        private volatile CountDownLatch gate;
+
+        @Override
+        public List<Transaction> fetchNormalTransactions(String address) throws InterruptedException {
+            calls.incrementAndGet();
+            if (gate != null) {
+                gate.await();
+            }
+            List<Transaction> transactions = new ArrayList<>();
+            transactions.add(new NormalTransaction("0xaaa", LocalDateTime.of(2024, 1, 1, 10, 0),
+                    "0xfrom", address, new BigDecimal("1.5"), new BigDecimal("0.001")));
+            return transactions;
+        }
+
+        @Override
+        public List<Transaction> fetchInternalTransactions(String address) {
+            calls.incrementAndGet();
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<Transaction> fetchErc20Transactions(String address) throws IOException {
+            calls.incrementAndGet();
+            if (failErc20) {
+                throw new IOException("HTTP failed: 502 (gave up after 3 attempts)");
+            }
+            List<Transaction> transactions = new ArrayList<>();
+            transactions.add(new Erc20Transaction("0xbbb", LocalDateTime.of(2024, 1, 2, 10, 0),
+                    "0xfrom", address, new BigDecimal("100"), null, "0x00000000000000000000000000000000000000cc", "TKN", "Token", 18));
+            return transactions;
+        }
+
+        @Override
+        public List<Transaction> fetchErc721Transactions(String address) {
+            calls.incrementAndGet();
+            return new ArrayList<>();
+        }
+
+        @Override
+        public String getProviderName() {
+            return "StubProvider";
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.cointracker.server;
+
+import com.cointracker.index.TransactionQuery;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for TransactionCache.
+ */
+public class TransactionCacheTest {
+
+    @Test
+    void testEntryStaysUsableAfterEviction() {
+        // Arrange
+        TransactionCache cache = new TransactionCache(1, 60);
+        List<Transaction> history = List.of(
+                new NormalTransaction("0xaaa", LocalDateTime.of(2024, 1, 1, 10, 0), "0xfrom", "0xowner",
+                        BigDecimal.ONE, null),
+                new NormalTransaction("0xbbb", LocalDateTime.of(2024, 1, 2, 10, 0), "0xowner", "0xother",
+                        BigDecimal.ONE, null));
+        cache.put("owner", history);
+        TransactionCache.Entry entry = cache.getEntry("owner");
+
+        // Act: another result evicts the entry between taking it and querying its index
+        cache.put("other", List.of());
+        List<Transaction> matches = entry.getIndex()
+                .query(new TransactionQuery.Builder().counterparty("0xother").build())
+                .collect(Collectors.toList());
+
+        // Assert
+        assertNull(cache.getEntry("owner"), "The evicted key should miss");
+        assertNull(cache.getIndex("owner"));
+        assertEquals(history, entry.getTransactions());
+        assertEquals(1, matches.size(), "The taken entry should still answer index queries");
+        assertEquals("0xbbb", matches.get(0).getTransactionHash());
+        System.out.println("✅ Evicted entry still answered its index query");
+    }
+}
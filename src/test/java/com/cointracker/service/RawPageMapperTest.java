@@ -0,0 +1,170 @@
+package com.cointracker.service;
+
+import com.cointracker.dto.RawTransactionPage;
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.Erc20Transaction;
+import com.cointracker.model.Erc721Transaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.support.SyntheticEtherscanData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for RawPageMapper views over RawTransactionPage.
+ */
+public class RawPageMapperTest {
+
+    private final SyntheticEtherscanData data = new SyntheticEtherscanData.Builder().seed(7).build();
+    private final TransactionMapper mapper = new TransactionMapper();
+
+    @Test
+    void testViewsMatchEagerMappingForEveryType() throws IOException {
+        for (TransactionType type : TransactionType.values()) {
+            // Arrange
+            List<TransactionDto> rows = data.generate(type, 300);
+            RawTransactionPage page = RawTransactionPage.parse(SyntheticEtherscanData.toResponseJson(rows, type));
+            RawPageMapper views = new RawPageMapper(page, type);
+
+            // Act & Assert
+            assertEquals(rows.size(), page.size());
+            for (int row = 0; row < rows.size(); row++) {
+                Transaction expected = eager(rows.get(row), type);
+                Transaction view = views.view(row);
+                assertEquals(expected.getClass(), view.getClass(), "View should be the usual subclass");
+                assertEquals(expected.getBlockNumber(), view.getBlockNumber());
+                assertEquals(expected.isFailed(), view.isFailed(), type + " row " + row + " failed flag");
+                assertArrayEquals(expected.toCsvRow(), view.toCsvRow(), type + " row " + row);
+                if (expected instanceof Erc20Transaction) {
+                    assertEquals(((Erc20Transaction) expected).getTokenDecimal(), ((Erc20Transaction) view).getTokenDecimal());
+                    assertEquals(((Erc20Transaction) expected).getTokenName(), ((Erc20Transaction) view).getTokenName());
+                }
+                if (expected instanceof Erc721Transaction) {
+                    assertEquals(((Erc721Transaction) expected).getTokenName(), ((Erc721Transaction) view).getTokenName());
+                }
+            }
+            System.out.println("✅ " + type + ": " + rows.size() + " views match, " + page.getByteCount() + " bytes");
+        }
+    }
+
+    @Test
+    void testConcurrentFirstReadsSeeEveryField() throws Exception {
+        // Arrange
+        List<TransactionDto> rows = data.generate(TransactionType.ERC20, 2_000);
+        RawTransactionPage page = RawTransactionPage.parse(SyntheticEtherscanData.toResponseJson(rows, TransactionType.ERC20));
+        List<Transaction> views = new RawPageMapper(page, TransactionType.ERC20).map(page.size(), TransactionFilter.none());
+        List<String[]> expected = rows.stream().map(row -> eager(row, TransactionType.ERC20).toCsvRow())
+                .collect(Collectors.toList());
+        int threads = 8;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act: every thread reads every view, each starting at a different row, like coalesced followers
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * views.size() / threads;
+            readers.add(executor.submit(() -> {
+                start.await();
+                int mismatches = 0;
+                for (int i = 0; i < views.size(); i++) {
+                    int row = (offset + i) % views.size();
+                    if (!Arrays.equals(expected.get(row), views.get(row).toCsvRow())) {
+                        mismatches++;
+                    }
+                }
+                return mismatches;
+            }));
+        }
+        int mismatches = 0;
+        for (Future<Integer> reader : readers) {
+            mismatches += reader.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(0, mismatches, "No reader should see a field before it is loaded");
+        System.out.println("✅ " + threads + " threads read " + views.size() + " fresh views consistently");
+    }
+
+    @Test
+    void testRawFilterAgreesWithDtoFilter() throws IOException {
+        // Arrange
+        TransactionFilter dtoFilter = filter();
+        TransactionFilter rawFilter = filter();
+
+        for (TransactionType type : TransactionType.values()) {
+            List<TransactionDto> rows = data.generate(type, 500);
+            RawTransactionPage page = RawTransactionPage.parse(SyntheticEtherscanData.toResponseJson(rows, type));
+
+            // Act & Assert
+            for (int row = 0; row < rows.size(); row++) {
+                assertEquals(dtoFilter.accept(rows.get(row), type), rawFilter.accept(page, row, type),
+                        type + " row " + row);
+            }
+        }
+        assertEquals(dtoFilter.getAcceptedCount(), rawFilter.getAcceptedCount());
+        for (TransactionFilter.Reason reason : TransactionFilter.Reason.values()) {
+            assertEquals(dtoFilter.getRejectedCount(reason), rawFilter.getRejectedCount(reason), reason.toString());
+        }
+        assertTrue(rawFilter.getRejectedCount(TransactionFilter.Reason.FAILED) > 0, "Sample should include failed rows");
+        System.out.println("✅ " + rawFilter.summary());
+    }
+
+    @Test
+    void testEscapesAndErrorAnswers() throws IOException {
+        // Arrange
+        String body = "{\"status\":\"1\",\"message\":\"OK\",\"result\":[{\"blockNumber\":\"12\",\"timeStamp\":\"1600000000\","
+                + "\"hash\":\"0xh\",\"from\":\"0xa\",\"to\":\"0xb\",\"value\":\"5\",\"contractAddress\":\"0xc\","
+                + "\"tokenName\":\"Caf\\u00e9 \\\"Token\\\"\",\"tokenSymbol\":\"CAF\",\"tokenDecimal\":\"1\","
+                + "\"gasPrice\":\"2\",\"gasUsed\":\"3\",\"extra\":{\"nested\":[1,null]}}]}";
+        String error = "{\"status\":\"0\",\"message\":\"NOTOK\",\"result\":\"Invalid API Key\"}";
+
+        // Act
+        RawTransactionPage page = RawTransactionPage.parse(body.getBytes(StandardCharsets.UTF_8));
+        Erc20Transaction view = (Erc20Transaction) new RawPageMapper(page, TransactionType.ERC20).view(0);
+        RawTransactionPage errorPage = RawTransactionPage.parse(error.getBytes(StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals("Café \"Token\"", view.getTokenName());
+        assertEquals(0, new BigDecimal("0.5").compareTo(view.getValue()));
+        assertEquals(12, view.getBlockNumber());
+        assertFalse(errorPage.isSuccess());
+        assertEquals("Invalid API Key", errorPage.getResultText());
+        assertThrows(IOException.class,
+                () -> RawTransactionPage.parse("{\"status\":\"1\",\"result\":[{\"hash\":".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Transaction eager(TransactionDto dto, TransactionType type) {
+        switch (type) {
+            case ETH_TRANSFER:
+                return mapper.mapNormalTransaction(dto);
+            case ETH_INTERNAL:
+                return mapper.mapInternalTransaction(dto);
+            case ERC20:
+                return mapper.mapErc20Transaction(dto);
+            default:
+                return mapper.mapErc721Transaction(dto);
+        }
+    }
+
+    private static TransactionFilter filter() {
+        return new TransactionFilter.Builder()
+            .excludeFailed(true)
+            .minValue(new BigDecimal("0.001"))
+            .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.cointracker.service;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for TransactionFilter predicates and hit counts.
+ */
+public class TransactionFilterTest {
+
+    private static final String SPAM = "0x5pam000000000000000000000000000000000000";
+    private static final String USDC = "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48";
+
+    @Test
+    void testRejectsByReasonAndCounts() {
+        // Arrange
+        TransactionFilter filter = new TransactionFilter.Builder()
+            .excludeFailed(true)
+            .blockTokens(List.of(SPAM.toUpperCase().replace("0X", "0x")))
+            .minValue(new BigDecimal("0.01"))
+            .timeRange(1_000, 2_000)
+            .build();
+
+        // Act & Assert
+        assertTrue(filter.accept(eth("1500", "0", "20000000000000000"), TransactionType.ETH_TRANSFER));
+        assertFalse(filter.accept(eth("2500", "0", "20000000000000000"), TransactionType.ETH_TRANSFER));
+        assertFalse(filter.accept(eth("1500", "1", "20000000000000000"), TransactionType.ETH_TRANSFER));
+        assertFalse(filter.accept(eth("1500", "0", "9999999999999999"), TransactionType.ETH_INTERNAL));
+        assertTrue(filter.accept(eth("1500", "0", "0"), TransactionType.ETH_TRANSFER),
+            "A zero-value contract call paid gas and should not be dust");
+        assertFalse(filter.accept(token("1500", SPAM, "1000000", "6"), TransactionType.ERC20));
+        assertFalse(filter.accept(token("1500", USDC, "9999", "6"), TransactionType.ERC20));
+        assertTrue(filter.accept(token("1500", USDC, "10000", "6"), TransactionType.ERC20));
+        assertFalse(filter.accept(token("1500", USDC, "0009999", "6"), TransactionType.ERC20),
+            "Leading zeros should not make a dust value look large");
+
+        assertEquals(3, filter.getAcceptedCount());
+        assertEquals(1, filter.getRejectedCount(TransactionFilter.Reason.OUT_OF_RANGE));
+        assertEquals(1, filter.getRejectedCount(TransactionFilter.Reason.FAILED));
+        assertEquals(3, filter.getRejectedCount(TransactionFilter.Reason.DUST));
+        assertEquals(1, filter.getRejectedCount(TransactionFilter.Reason.TOKEN_BLOCKED));
+        System.out.println("✅ " + filter.summary());
+    }
+
+    @Test
+    void testAllowListOnlyAppliesToTokens() {
+        // Arrange
+        TransactionFilter filter = new TransactionFilter.Builder().allowTokens(List.of(USDC)).build();
+
+        // Act & Assert
+        assertTrue(filter.accept(eth("1", "0", "1"), TransactionType.ETH_TRANSFER), "ETH rows are not token filtered");
+        assertTrue(filter.accept(token("1", USDC, "1", "6"), TransactionType.ERC20));
+        assertFalse(filter.accept(token("1", SPAM, "1", "6"), TransactionType.ERC20));
+        assertTrue(TransactionFilter.none().isEmpty(), "Default filter should be empty");
+        assertNotSame(TransactionFilter.none(), TransactionFilter.none(), "Each caller should get its own counters");
+    }
+
+    private static TransactionDto eth(String timeStamp, String isError, String value) {
+        return new TransactionDto("0xhash", "1", timeStamp, "0xa", "0xb", value,
+            "1", "21000", isError, "", "", "", "", "");
+    }
+
+    private static TransactionDto token(String timeStamp, String contract, String value, String decimals) {
+        return new TransactionDto("0xhash", "1", timeStamp, "0xa", "0xb", value,
+            "1", "21000", "", contract, "TKN", "Token", decimals, "");
+    }
+}
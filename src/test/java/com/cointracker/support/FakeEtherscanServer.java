@@ -0,0 +1,338 @@
+package com.cointracker.support;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.TransactionType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the Etherscan v2 API, serving generated histories.
+ *
+ * Supports {@code txlist}, {@code txlistinternal}, {@code tokentx}, {@code tokennfttx},
+ * {@code getblocknobytime} and {@code eth_blockNumber}; the API key {@code invalid} is
+ * refused like an unknown key. Block lookups before genesis or after now fail with
+ * Etherscan's "No closest block found" answer. Transaction lists honour {@code startblock}/{@code endblock}
+ * and return at most {@code maxRowsPerResponse} rows in ascending block order, like the
+ * real API's 10,000-row cap. Latency, a calls-per-second limit answered with Etherscan's
+ * "Max rate limit reached" body, and HTTP 5xx errors can be simulated.
+ */
+public class FakeEtherscanServer implements AutoCloseable {
+
+    private static final long GENESIS_TIMESTAMP = 1_600_000_000L;
+    private static final long START_BLOCK = 10_000_000L;
+    private static final byte[] RATE_LIMITED = ("{\"status\":\"0\",\"message\":\"NOTOK\","
+            + "\"result\":\"Max rate limit reached, please use API Key for higher rate limit\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int rowsPerAddress;
+    private final SyntheticEtherscanData.Builder generator;
+    private final int maxRowsPerResponse;
+    private final long latencyMillis;
+    private final int maxCallsPerSecond;
+    private final int errorEvery;
+
+    private final Map<String, Map<TransactionType, List<TransactionDto>>> histories = new ConcurrentHashMap<>();
+    private final Map<String, Integer> rowOverrides = new ConcurrentHashMap<>();
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicLong windowCalls = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder rowsServed = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private FakeEtherscanServer(Builder builder) throws IOException {
+        this.rowsPerAddress = builder.rowsPerAddress;
+        this.generator = builder.generator;
+        this.maxRowsPerResponse = builder.maxRowsPerResponse;
+        this.latencyMillis = builder.latencyMillis;
+        this.maxCallsPerSecond = builder.maxCallsPerSecond;
+        this.errorEvery = builder.errorEvery;
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.executor = Executors.newFixedThreadPool(builder.threads);
+        server.setExecutor(executor);
+        server.createContext("/api", this::handle);
+        server.start();
+    }
+
+    /**
+     * Base URL to use as {@code api.etherscan.base_url}.
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api";
+    }
+
+    /**
+     * Gives one address a history size different from the default.
+     */
+    public void setRows(String address, int rows) {
+        rowOverrides.put(address.toLowerCase(), rows);
+        histories.remove(address.toLowerCase());
+    }
+
+    /**
+     * The rows the server holds for an address and type, in ascending block order.
+     */
+    public List<TransactionDto> history(String address, TransactionType type) {
+        return historyOf(address.toLowerCase()).get(type);
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getPageCount() {
+        return pages.sum();
+    }
+
+    public long getRowsServed() {
+        return rowsServed.sum();
+    }
+
+    public long getBytesServed() {
+        return bytesServed.sum();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            long request = requests.getAndIncrement();
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (errorEvery > 0 && request % errorEvery == errorEvery - 1) {
+                errors.increment();
+                send(exchange, 502, "Bad Gateway".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (!acquireCallSlot()) {
+                rateLimited.increment();
+                send(exchange, 200, RATE_LIMITED);
+                return;
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String action = query.getOrDefault("action", "");
+            if ("invalid".equals(query.get("apikey"))) {
+                send(exchange, 200, "{\"status\":\"0\",\"message\":\"NOTOK\",\"result\":\"Invalid API Key\"}"
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            long now = System.currentTimeMillis() / 1000;
+            if ("getblocknobytime".equals(action)) {
+                long timestamp = Long.parseLong(query.getOrDefault("timestamp", "0"));
+                if (timestamp < GENESIS_TIMESTAMP || timestamp > now) {
+                    send(exchange, 200, "{\"status\":\"0\",\"message\":\"NOTOK\",\"result\":\"Error! No closest block found\"}"
+                            .getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                long block = START_BLOCK + (timestamp - GENESIS_TIMESTAMP) / 12;
+                send(exchange, 200, ("{\"status\":\"1\",\"message\":\"OK\",\"result\":\"" + block + "\"}")
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if ("eth_blockNumber".equals(action)) {
+                long head = START_BLOCK + (now - GENESIS_TIMESTAMP) / 12;
+                send(exchange, 200, ("{\"jsonrpc\":\"2.0\",\"id\":83,\"result\":\"0x" + Long.toHexString(head) + "\"}")
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            TransactionType type = typeOf(action);
+            if (type == null) {
+                send(exchange, 200, "{\"status\":\"0\",\"message\":\"NOTOK\",\"result\":\"Error! Missing Or invalid Action name\"}"
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            List<TransactionDto> page = page(historyOf(query.getOrDefault("address", "").toLowerCase()).get(type),
+                    Long.parseLong(query.getOrDefault("startblock", "0")),
+                    Long.parseLong(query.getOrDefault("endblock", "99999999")));
+            pages.increment();
+            rowsServed.add(page.size());
+            send(exchange, 200, SyntheticEtherscanData.toResponseJson(page, type));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private List<TransactionDto> page(List<TransactionDto> rows, long startBlock, long endBlock) {
+        int from = firstAtOrAfter(rows, startBlock);
+        List<TransactionDto> page = new ArrayList<>();
+        for (int i = from; i < rows.size() && page.size() < maxRowsPerResponse; i++) {
+            if (Long.parseLong(rows.get(i).getBlockNumber()) > endBlock) {
+                break;
+            }
+            page.add(rows.get(i));
+        }
+        return page;
+    }
+
+    private static int firstAtOrAfter(List<TransactionDto> rows, long block) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.parseLong(rows.get(mid).getBlockNumber()) < block) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Map<TransactionType, List<TransactionDto>> historyOf(String address) {
+        return histories.computeIfAbsent(address, key -> {
+            SyntheticEtherscanData data;
+            synchronized (generator) {
+                data = generator.address(key).seed(key.hashCode()).startBlock(START_BLOCK).build();
+            }
+            Map<TransactionType, List<TransactionDto>> history = data.generateHistory(rowOverrides.getOrDefault(key, rowsPerAddress));
+            history.replaceAll((type, rows) -> Collections.unmodifiableList(rows));
+            return history;
+        });
+    }
+
+    private boolean acquireCallSlot() {
+        if (maxCallsPerSecond <= 0) {
+            return true;
+        }
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        synchronized (windowCalls) {
+            if (windowStart.get() != second) {
+                windowStart.set(second);
+                windowCalls.set(0);
+            }
+            return windowCalls.incrementAndGet() <= maxCallsPerSecond;
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        bytesServed.add(body.length);
+    }
+
+    private static TransactionType typeOf(String action) {
+        switch (action) {
+            case "txlist":
+                return TransactionType.ETH_TRANSFER;
+            case "txlistinternal":
+                return TransactionType.ETH_INTERNAL;
+            case "tokentx":
+                return TransactionType.ERC20;
+            case "tokennfttx":
+                return TransactionType.ERC721;
+            default:
+                return null;
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    query.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        return query;
+    }
+
+    public static class Builder {
+        private int rowsPerAddress = 1_000;
+        private final SyntheticEtherscanData.Builder generator = new SyntheticEtherscanData.Builder();
+        private int maxRowsPerResponse = 10_000;
+        private long latencyMillis;
+        private int maxCallsPerSecond;
+        private int errorEvery;
+        private int threads = 8;
+
+        /**
+         * Total rows per address across the four endpoints, split by the generator's type mix.
+         */
+        public Builder rowsPerAddress(int rowsPerAddress) {
+            this.rowsPerAddress = rowsPerAddress;
+            return this;
+        }
+
+        public Builder typeMix(int normal, int internal, int erc20, int erc721) {
+            generator.typeMix(normal, internal, erc20, erc721);
+            return this;
+        }
+
+        public Builder maxRowsPerResponse(int maxRowsPerResponse) {
+            this.maxRowsPerResponse = maxRowsPerResponse;
+            return this;
+        }
+
+        public Builder latencyMillis(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * Calls allowed per wall-clock second before answering with a rate-limit body; 0 disables.
+         */
+        public Builder maxCallsPerSecond(int maxCallsPerSecond) {
+            this.maxCallsPerSecond = maxCallsPerSecond;
+            return this;
+        }
+
+        /**
+         * Answers every n-th request with HTTP 502; 0 disables.
+         */
+        public Builder errorEvery(int errorEvery) {
+            this.errorEvery = errorEvery;
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        public FakeEtherscanServer start() throws IOException {
+            return new FakeEtherscanServer(this);
+        }
+    }
+}
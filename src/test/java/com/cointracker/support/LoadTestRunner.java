@@ -0,0 +1,123 @@
+package com.cointracker.support;
+
+import com.cointracker.Main;
+import com.cointracker.config.CommandLineOptions;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test: runs {@link Main} for a set of addresses against a
+ * {@link FakeEtherscanServer} and reports throughput and heap high-water mark.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.cointracker.support.LoadTestRunner \
+ *     -Dexec.args="--addresses=20 --rows=50000 --latency-ms=20 --calls-per-second=5"
+ * </pre>
+ *
+ * Options: {@code --addresses}, {@code --rows} (per address), {@code --page-size},
+ * {@code --latency-ms}, {@code --calls-per-second}, {@code --error-every},
+ * {@code --call-delay-ms} (client spacing) and any {@code Main} option after {@code --}.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        int split = indexOf(args, "--");
+        CommandLineOptions options = CommandLineOptions.parse(split < 0 ? args : copy(args, 0, split));
+        String[] mainOptions = split < 0 ? new String[0] : copy(args, split + 1, args.length);
+
+        int addresses = options.getInt("addresses", 10);
+        int rows = options.getInt("rows", 20_000);
+
+        try (FakeEtherscanServer server = new FakeEtherscanServer.Builder()
+                .rowsPerAddress(rows)
+                .maxRowsPerResponse(options.getInt("page-size", 10_000))
+                .latencyMillis(options.getInt("latency-ms", 0))
+                .maxCallsPerSecond(options.getInt("calls-per-second", 0))
+                .errorEvery(options.getInt("error-every", 0))
+                .start()) {
+            System.setProperty("api.etherscan.base_url", server.getBaseUrl());
+            System.setProperty("api.etherscan.batch_size", String.valueOf(options.getInt("page-size", 10_000)));
+            System.setProperty("api.rate_limit.delay_between_calls_ms", String.valueOf(options.getInt("call-delay-ms", 0)));
+            System.setProperty("api.rate_limit.delay_between_types_ms", "0");
+            System.setProperty("api.retry.initial_backoff_ms", "200");
+
+            List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                    heapPools.add(pool);
+                }
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < addresses; i++) {
+                String address = String.format("0x%040x", 0xA000 + i);
+                String[] runArgs = new String[mainOptions.length + 1];
+                runArgs[0] = address;
+                System.arraycopy(mainOptions, 0, runArgs, 1, mainOptions.length);
+
+                String output = Main.run(runArgs);
+                Files.deleteIfExists(Paths.get(output));
+                deleteSiblings(address);
+            }
+            double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+            long peakHeap = 0;
+            for (MemoryPoolMXBean pool : heapPools) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+
+            System.out.println(String.format(
+                    "\n🏁 Load Test Summary:\n" +
+                    "   • Addresses: %d (%d rows each)\n" +
+                    "   • Elapsed: %.1f s\n" +
+                    "   • Addresses per minute: %.1f\n" +
+                    "   • Pages per second: %.1f (%d pages, %d requests)\n" +
+                    "   • Rows per second: %.0f\n" +
+                    "   • MB received: %.1f\n" +
+                    "   • Rate-limited / failed requests: %d / %d\n" +
+                    "   • Heap high-water mark: %.1f MB",
+                    addresses, rows,
+                    seconds,
+                    addresses / seconds * 60,
+                    server.getPageCount() / seconds, server.getPageCount(), server.getRequestCount(),
+                    server.getRowsServed() / seconds,
+                    server.getBytesServed() / 1e6,
+                    server.getRateLimitedCount(), server.getErrorCount(),
+                    peakHeap / 1e6
+            ));
+        }
+    }
+
+    private static void deleteSiblings(String address) throws IOException {
+        for (String suffix : new String[]{"-balances.csv", "-gains.csv", "-bundles.csv"}) {
+            Path file = Paths.get(address + suffix);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int indexOf(String[] args, String value) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String[] copy(String[] args, int from, int to) {
+        String[] result = new String[to - from];
+        System.arraycopy(args, from, result, 0, result.length);
+        return result;
+    }
+}
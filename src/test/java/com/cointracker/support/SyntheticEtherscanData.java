@@ -0,0 +1,267 @@
+package com.cointracker.support;
+
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.TransactionType;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of Etherscan-shaped transaction histories for tests and benchmarks.
+ *
+ * The same seed and settings always produce the same rows. Rows of one type are in
+ * ascending block order, as Etherscan returns them with {@code sort=asc}, and carry
+ * only the fields that the matching endpoint returns.
+ */
+public class SyntheticEtherscanData {
+
+    private static final String[] TOKEN_SYMBOLS = {"USDC", "DAI", "WETH", "UNI", "LINK", "SHIB", "POAP", "ENS"};
+
+    private final long seed;
+    private final String address;
+    private final long startBlock;
+    private final int[] tokenDecimals;
+    private final int maxValueDigits;
+    private final int tokenContracts;
+    private final double failedRatio;
+    private final int[] typeWeights;
+
+    private SyntheticEtherscanData(Builder builder) {
+        this.seed = builder.seed;
+        this.address = builder.address;
+        this.startBlock = builder.startBlock;
+        this.tokenDecimals = builder.tokenDecimals;
+        this.maxValueDigits = builder.maxValueDigits;
+        this.tokenContracts = builder.tokenContracts;
+        this.failedRatio = builder.failedRatio;
+        this.typeWeights = builder.typeWeights;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * Generates {@code count} rows of one type, one or more per block starting at the start block.
+     */
+    public List<TransactionDto> generate(TransactionType type, int count) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + type.ordinal());
+        List<TransactionDto> rows = new ArrayList<>(count);
+        long block = startBlock;
+        long timestamp = 1_600_000_000L;
+
+        for (int i = 0; i < count; i++) {
+            // About one block in four holds a second row for the address
+            if (i == 0 || random.nextInt(4) != 0) {
+                long gap = 1 + random.nextInt(50);
+                block += gap;
+                timestamp += gap * 12;
+            }
+            boolean outgoing = random.nextBoolean();
+            String counterparty = hexAddress(random);
+            String from = outgoing ? address : counterparty;
+            String to = outgoing ? counterparty : address;
+            rows.add(row(type, random, i, block, timestamp, from, to));
+        }
+        return rows;
+    }
+
+    /**
+     * Generates a full history of about {@code totalRows} rows, split across the
+     * four endpoints according to the type mix.
+     */
+    public Map<TransactionType, List<TransactionDto>> generateHistory(int totalRows) {
+        int totalWeight = 0;
+        for (int weight : typeWeights) {
+            totalWeight += weight;
+        }
+        Map<TransactionType, List<TransactionDto>> history = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            int count = (int) ((long) totalRows * typeWeights[type.ordinal()] / totalWeight);
+            history.put(type, generate(type, count));
+        }
+        return history;
+    }
+
+    /**
+     * Serializes rows as an Etherscan {@code {"status","message","result"}} response body.
+     */
+    public static byte[] toResponseJson(List<TransactionDto> rows, TransactionType type) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows.size() * 600 + 64);
+        try (JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("status", rows.isEmpty() ? "0" : "1");
+            json.writeStringField("message", rows.isEmpty() ? "No transactions found" : "OK");
+            json.writeArrayFieldStart("result");
+            for (TransactionDto row : rows) {
+                writeRow(json, row, type);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private TransactionDto row(TransactionType type, SplittableRandom random, int index, long block, long timestamp,
+                               String from, String to) {
+        String hash = hexHash(random);
+        String isError = random.nextDouble() < failedRatio ? "1" : "0";
+
+        switch (type) {
+            case ETH_TRANSFER:
+                return new TransactionDto(hash, Long.toString(block), Long.toString(timestamp), from, to,
+                        randomDigits(random, maxValueDigits), Long.toString(1_000_000_000L + random.nextInt(200_000_000)),
+                        Integer.toString(21_000 + random.nextInt(180_000)), isError, "", "", "", "", "");
+            case ETH_INTERNAL:
+                return new TransactionDto(hash, Long.toString(block), Long.toString(timestamp), from, to,
+                        randomDigits(random, maxValueDigits), "", "", isError, "", "", "", "", "");
+            case ERC20: {
+                int token = random.nextInt(tokenContracts);
+                int decimals = tokenDecimals[token % tokenDecimals.length];
+                return new TransactionDto(hash, Long.toString(block), Long.toString(timestamp), from, to,
+                        randomDigits(random, Math.max(1, decimals + 4)), Long.toString(1_000_000_000L + random.nextInt(200_000_000)),
+                        Integer.toString(40_000 + random.nextInt(100_000)), "", tokenContract(token),
+                        TOKEN_SYMBOLS[token % TOKEN_SYMBOLS.length], "Token " + token, Integer.toString(decimals), "");
+            }
+            default: {
+                int token = random.nextInt(tokenContracts);
+                return new TransactionDto(hash, Long.toString(block), Long.toString(timestamp), from, to,
+                        "", Long.toString(1_000_000_000L + random.nextInt(200_000_000)),
+                        Integer.toString(60_000 + random.nextInt(100_000)), "", tokenContract(token),
+                        TOKEN_SYMBOLS[token % TOKEN_SYMBOLS.length], "Collection " + token, "0", Integer.toString(index));
+            }
+        }
+    }
+
+    private static void writeRow(JsonGenerator json, TransactionDto row, TransactionType type) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("blockNumber", row.getBlockNumber());
+        json.writeStringField("timeStamp", row.getTimeStamp());
+        json.writeStringField("hash", row.getHash());
+        json.writeStringField("from", row.getFrom());
+        json.writeStringField("to", row.getTo());
+        if (type != TransactionType.ERC721) {
+            json.writeStringField("value", row.getValue());
+        }
+        if (type == TransactionType.ERC20 || type == TransactionType.ERC721) {
+            json.writeStringField("contractAddress", row.getContractAddress());
+            json.writeStringField("tokenName", row.getTokenName());
+            json.writeStringField("tokenSymbol", row.getTokenSymbol());
+            json.writeStringField("tokenDecimal", row.getTokenDecimal());
+        }
+        if (type == TransactionType.ERC721) {
+            json.writeStringField("tokenID", row.getTokenID());
+        }
+        if (type != TransactionType.ETH_INTERNAL) {
+            json.writeStringField("gasPrice", row.getGasPrice());
+            json.writeStringField("gasUsed", row.getGasUsed());
+        }
+        if (type == TransactionType.ETH_TRANSFER || type == TransactionType.ETH_INTERNAL) {
+            json.writeStringField("isError", row.getIsError());
+        }
+        json.writeEndObject();
+    }
+
+    private static String tokenContract(int token) {
+        return String.format("0x%040x", 0xC0FFEEL * 1_000 + token);
+    }
+
+    private static String hexAddress(SplittableRandom random) {
+        return String.format("0x%016x%016x%08x", random.nextLong(), random.nextLong(), random.nextInt());
+    }
+
+    private static String hexHash(SplittableRandom random) {
+        return String.format("0x%016x%016x%016x%016x", random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong());
+    }
+
+    private static String randomDigits(SplittableRandom random, int maxDigits) {
+        int digits = 1 + random.nextInt(maxDigits);
+        StringBuilder value = new StringBuilder(digits);
+        value.append((char) ('1' + random.nextInt(9)));
+        for (int i = 1; i < digits; i++) {
+            value.append((char) ('0' + random.nextInt(10)));
+        }
+        return value.toString();
+    }
+
+    public static class Builder {
+        private long seed = 42;
+        private String address = "0x00000000000000000000000000000000000000aa";
+        private long startBlock = 10_000_000;
+        private int[] tokenDecimals = {6, 18, 18, 8, 0};
+        private int maxValueDigits = 22;
+        private int tokenContracts = 20;
+        private double failedRatio = 0.02;
+        private int[] typeWeights = {50, 10, 35, 5};
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder address(String address) {
+            this.address = address.toLowerCase();
+            return this;
+        }
+
+        public Builder startBlock(long startBlock) {
+            this.startBlock = startBlock;
+            return this;
+        }
+
+        /**
+         * Decimals assigned round-robin to the generated ERC-20 contracts.
+         */
+        public Builder tokenDecimals(int... tokenDecimals) {
+            if (tokenDecimals.length == 0) {
+                throw new IllegalArgumentException("At least one decimals value is required");
+            }
+            this.tokenDecimals = tokenDecimals.clone();
+            return this;
+        }
+
+        /**
+         * Largest raw ETH value in digits (22 digits is about 10,000 ETH in wei).
+         */
+        public Builder maxValueDigits(int maxValueDigits) {
+            this.maxValueDigits = maxValueDigits;
+            return this;
+        }
+
+        public Builder tokenContracts(int tokenContracts) {
+            this.tokenContracts = tokenContracts;
+            return this;
+        }
+
+        public Builder failedRatio(double failedRatio) {
+            this.failedRatio = failedRatio;
+            return this;
+        }
+
+        /**
+         * Relative share of normal, internal, ERC-20 and ERC-721 rows in {@link #generateHistory}.
+         */
+        public Builder typeMix(int normal, int internal, int erc20, int erc721) {
+            if (normal < 0 || internal < 0 || erc20 < 0 || erc721 < 0 || normal + internal + erc20 + erc721 == 0) {
+                throw new IllegalArgumentException("Type weights must be non-negative and not all zero");
+            }
+            this.typeWeights = new int[]{normal, internal, erc20, erc721};
+            return this;
+        }
+
+        public SyntheticEtherscanData build() {
+            return new SyntheticEtherscanData(this);
+        }
+    }
+}
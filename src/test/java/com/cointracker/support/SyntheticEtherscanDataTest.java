@@ -0,0 +1,88 @@
+package com.cointracker.support;
+
+import com.cointracker.dto.ApiResponse;
+import com.cointracker.dto.TransactionDto;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import com.cointracker.service.TransactionMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for SyntheticEtherscanData.
+ */
+public class SyntheticEtherscanDataTest {
+
+    @Test
+    void testSameSeedProducesSamePayload() {
+        // Arrange
+        SyntheticEtherscanData first = new SyntheticEtherscanData.Builder().seed(7).build();
+        SyntheticEtherscanData second = new SyntheticEtherscanData.Builder().seed(7).build();
+        SyntheticEtherscanData other = new SyntheticEtherscanData.Builder().seed(8).build();
+
+        // Act
+        byte[] a = SyntheticEtherscanData.toResponseJson(first.generate(TransactionType.ERC20, 500), TransactionType.ERC20);
+        byte[] b = SyntheticEtherscanData.toResponseJson(second.generate(TransactionType.ERC20, 500), TransactionType.ERC20);
+        byte[] c = SyntheticEtherscanData.toResponseJson(other.generate(TransactionType.ERC20, 500), TransactionType.ERC20);
+
+        // Assert
+        assertArrayEquals(a, b, "Same seed should give identical bytes");
+        assertFalse(Arrays.equals(a, c), "Different seeds should give different data");
+    }
+
+    @Test
+    void testPayloadDecodesAndMapsLikeEtherscan() throws Exception {
+        // Arrange
+        SyntheticEtherscanData data = new SyntheticEtherscanData.Builder()
+                .typeMix(4, 2, 3, 1)
+                .tokenDecimals(6, 18)
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        TransactionMapper mapper = new TransactionMapper();
+
+        // Act
+        Map<TransactionType, List<TransactionDto>> history = data.generateHistory(1_000);
+
+        // Assert
+        assertEquals(400, history.get(TransactionType.ETH_TRANSFER).size(), "Rows should follow the type mix");
+        assertEquals(100, history.get(TransactionType.ERC721).size(), "Rows should follow the type mix");
+
+        for (Map.Entry<TransactionType, List<TransactionDto>> entry : history.entrySet()) {
+            byte[] json = SyntheticEtherscanData.toResponseJson(entry.getValue(), entry.getKey());
+            ApiResponse<List<TransactionDto>> response = objectMapper.readValue(json,
+                    new TypeReference<ApiResponse<List<TransactionDto>>>() {});
+            assertTrue(response.isSuccess(), "Response should report success");
+            assertEquals(entry.getValue().size(), response.getResult().size(), "All rows should decode");
+
+            long previousBlock = 0;
+            for (TransactionDto dto : response.getResult()) {
+                Transaction transaction = map(mapper, entry.getKey(), dto);
+                assertEquals(entry.getKey(), transaction.getType(), "Row should map to its type");
+                assertTrue(transaction.getBlockNumber() >= previousBlock, "Rows should be in ascending block order");
+                previousBlock = transaction.getBlockNumber();
+            }
+        }
+
+        System.out.println("✅ Generated, decoded and mapped " + history.values().stream().mapToInt(List::size).sum() + " rows");
+    }
+
+    private static Transaction map(TransactionMapper mapper, TransactionType type, TransactionDto dto) {
+        switch (type) {
+            case ETH_TRANSFER:
+                return mapper.mapNormalTransaction(dto);
+            case ETH_INTERNAL:
+                return mapper.mapInternalTransaction(dto);
+            case ERC20:
+                return mapper.mapErc20Transaction(dto);
+            default:
+                return mapper.mapErc721Transaction(dto);
+        }
+    }
+}
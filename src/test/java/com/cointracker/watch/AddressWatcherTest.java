@@ -0,0 +1,228 @@
+package com.cointracker.watch;
+
+import com.cointracker.client.BlockRange;
+import com.cointracker.client.BlockchainApiClient;
+import com.cointracker.export.CsvExporter;
+import com.cointracker.model.NormalTransaction;
+import com.cointracker.model.Transaction;
+import com.cointracker.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for AddressWatcher and WatchState.
+ */
+public class AddressWatcherTest {
+
+    private static final String ADDRESS = "0x00000000000000000000000000000000000000aa";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPollsAppendOnlyNewRows() throws Exception {
+        // Arrange
+        ChainApiClient chain = new ChainApiClient();
+        chain.mine(100);
+        chain.mine(101);
+        long[] now = {0};
+        WatchState state = new WatchState(tempDir.resolve("state.bin"));
+        AddressWatcher watcher = new AddressWatcher(chain, new WatchScheduler(1_000, 60_000), state,
+                new CsvExporter(), tempDir, null, () -> now[0]);
+        watcher.watch(ADDRESS);
+
+        // Act
+        int first = watcher.poll(ADDRESS);
+        int quiet = watcher.poll(ADDRESS);
+        chain.mine(105);
+        int second = watcher.poll(ADDRESS);
+
+        // Assert
+        assertEquals(2, first, "First poll should export the full history");
+        assertEquals(0, quiet, "Nothing new should be appended");
+        assertEquals(1, second, "Only the new block should be appended");
+        assertEquals(102, chain.lastStartBlock, "Poll should start after the last seen block");
+        assertEquals(105, state.getLastSeenBlock(ADDRESS, TransactionType.ETH_TRANSFER), "Marker should move to the new block");
+
+        List<String> lines = Files.readAllLines(tempDir.resolve(ADDRESS + ".csv"));
+        assertEquals(4, lines.size(), "Header once plus three rows");
+        assertTrue(lines.get(0).contains("Transaction Hash"), "Header should be written once");
+        assertTrue(lines.get(3).contains("0xblock105"), "New row should be appended at the end");
+
+        System.out.println("✅ Appended " + watcher.getAppendedRowCount() + " rows over " + watcher.getPollCount() + " polls");
+    }
+
+    @Test
+    void testStateSurvivesRestart() throws Exception {
+        // Arrange
+        ChainApiClient chain = new ChainApiClient();
+        chain.mine(200);
+        Path stateFile = tempDir.resolve("state.bin");
+        WatchState state = new WatchState(stateFile);
+        AddressWatcher watcher = new AddressWatcher(chain, new WatchScheduler(1_000, 60_000), state,
+                new CsvExporter(), tempDir, null, () -> 0);
+        watcher.watch(ADDRESS);
+
+        // Act
+        assertEquals(1, watcher.pollDue(), "The new address should be due at once");
+        WatchState reloaded = new WatchState(stateFile);
+
+        // Assert
+        assertEquals(200, reloaded.getLastSeenBlock(ADDRESS, TransactionType.ETH_TRANSFER),
+                "Normal transfers should resume after block 200");
+        assertEquals(-1, reloaded.getLastSeenBlock(ADDRESS, TransactionType.ERC20),
+                "Types without rows should start from scratch");
+        assertEquals(-1, reloaded.getLastSeenBlock("0xunknown", TransactionType.ETH_TRANSFER),
+                "Unknown addresses should start from scratch");
+    }
+
+    @Test
+    void testFailedPollKeepsMarkers() throws Exception {
+        // Arrange
+        ChainApiClient chain = new ChainApiClient();
+        chain.mine(300);
+        chain.failing = true;
+        WatchState state = new WatchState(tempDir.resolve("state.bin"));
+        WatchScheduler scheduler = new WatchScheduler(1_000, 60_000);
+        AddressWatcher watcher = new AddressWatcher(chain, scheduler, state, new CsvExporter(), tempDir, null, () -> 0);
+        watcher.watch(ADDRESS);
+
+        // Act
+        watcher.pollDue();
+
+        // Assert
+        assertEquals(-1, state.getLastSeenBlock(ADDRESS, TransactionType.ETH_TRANSFER), "Marker should not move");
+        assertEquals(2_000, scheduler.getIntervalMillis(ADDRESS), "Failed poll should back off like a quiet one");
+        assertFalse(Files.exists(tempDir.resolve(ADDRESS + ".csv")), "Nothing should be written");
+    }
+
+    @Test
+    void testSeenRowsAreNotAppendedAfterStateLoss() throws Exception {
+        // Arrange
+        ChainApiClient chain = new ChainApiClient();
+        chain.mine(400);
+        chain.mine(401);
+        Path seenRows = tempDir.resolve("seen");
+        AddressWatcher watcher = new AddressWatcher(chain, new WatchScheduler(1_000, 60_000),
+                new WatchState(tempDir.resolve("state.bin")), new CsvExporter(), tempDir, seenRows, () -> 0);
+        watcher.watch(ADDRESS);
+        assertEquals(2, watcher.poll(ADDRESS));
+        chain.mine(402);
+
+        // Act
+        AddressWatcher restarted = new AddressWatcher(chain, new WatchScheduler(1_000, 60_000),
+                new WatchState(tempDir.resolve("lost.bin")), new CsvExporter(), tempDir, seenRows, () -> 0);
+        restarted.watch(ADDRESS);
+        int appended = restarted.poll(ADDRESS);
+
+        // Assert
+        assertEquals(1, appended, "Only the unseen block should be appended");
+        assertEquals(2, restarted.getSkippedRowCount(), "Rows from before the state loss should be skipped");
+        assertEquals(4, Files.readAllLines(tempDir.resolve(ADDRESS + ".csv")).size(), "Header plus three distinct rows");
+
+        System.out.println("✅ Skipped " + restarted.getSkippedRowCount() + " rows already in the CSV");
+    }
+
+    @Test
+    void testFailedAppendLeavesCsvAndIndexInStep() throws Exception {
+        // Arrange: the second append writes its rows and then fails
+        ChainApiClient chain = new ChainApiClient();
+        chain.mine(500);
+        Path seenRows = tempDir.resolve("seen");
+        boolean[] failAppend = new boolean[1];
+        CsvExporter exporter = new CsvExporter() {
+            @Override
+            public void appendToCsv(List<Transaction> transactions, String filename) throws IOException {
+                super.appendToCsv(transactions, filename);
+                if (failAppend[0]) {
+                    throw new IOException("disk full");
+                }
+            }
+        };
+        WatchState state = new WatchState(tempDir.resolve("state.bin"));
+        AddressWatcher watcher = new AddressWatcher(chain, new WatchScheduler(1_000, 60_000), state,
+                exporter, tempDir, seenRows, () -> 0);
+        watcher.watch(ADDRESS);
+        watcher.poll(ADDRESS);
+        chain.mine(501);
+        failAppend[0] = true;
+
+        // Act
+        assertThrows(IOException.class, () -> watcher.poll(ADDRESS));
+        failAppend[0] = false;
+        int retried = watcher.poll(ADDRESS);
+
+        // Assert
+        assertEquals(1, retried, "The failed row should be appended by the next poll, not skipped as seen");
+        assertEquals(3, Files.readAllLines(tempDir.resolve(ADDRESS + ".csv")).size(), "Header plus two rows, no duplicate");
+        try (var files = Files.list(seenRows)) {
+            assertEquals(1, files.count(), "No staged index should be left behind");
+        }
+    }
+
+    /**
+     * Simulated chain with one normal transfer per mined block.
+     */
+    private static class ChainApiClient implements BlockchainApiClient {
+
+        private final List<Transaction> normal = new ArrayList<>();
+        private long lastStartBlock;
+        private boolean failing;
+
+        void mine(long block) {
+            NormalTransaction transaction = new NormalTransaction("0xblock" + block,
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(block * 12),
+                    "0xfrom", ADDRESS, BigDecimal.ONE, BigDecimal.ZERO);
+            transaction.setBlockNumber(block);
+            normal.add(transaction);
+        }
+
+        @Override
+        public void streamTransactions(TransactionType type, String address, BlockRange range,
+                                       Consumer<List<Transaction>> pageConsumer) throws IOException {
+            if (failing) {
+                throw new IOException("HTTP failed: 503");
+            }
+            if (type == TransactionType.ETH_TRANSFER) {
+                lastStartBlock = range.getStartBlock();
+                pageConsumer.accept(range.filter(normal));
+            }
+        }
+
+        @Override
+        public List<Transaction> fetchNormalTransactions(String address) {
+            return new ArrayList<>(normal);
+        }
+
+        @Override
+        public List<Transaction> fetchInternalTransactions(String address) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<Transaction> fetchErc20Transactions(String address) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<Transaction> fetchErc721Transactions(String address) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public String getProviderName() {
+            return "ChainProvider";
+        }
+    }
+}
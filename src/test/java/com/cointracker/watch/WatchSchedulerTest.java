@@ -0,0 +1,85 @@
+package com.cointracker.watch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for WatchScheduler.
+ */
+public class WatchSchedulerTest {
+
+    @Test
+    void testIdleAddressesBackOffAndActiveOnesStayHot() {
+        // Arrange
+        WatchScheduler scheduler = new WatchScheduler(1_000, 8_000);
+        scheduler.add("0xHOT", 0);
+        scheduler.add("0xidle", 0);
+
+        // Act
+        long now = 0;
+        int hotPolls = 0;
+        int idlePolls = 0;
+        while (now < 60_000) {
+            for (String address : scheduler.pollDue(now)) {
+                boolean hot = address.equals("0xhot");
+                if (hot) {
+                    hotPolls++;
+                } else {
+                    idlePolls++;
+                }
+                scheduler.reschedule(address, hot, now);
+            }
+            now += 100;
+        }
+
+        // Assert
+        assertEquals(WatchScheduler.Tier.HOT, scheduler.getTier("0xhot"), "Active address should stay hot");
+        assertEquals(WatchScheduler.Tier.IDLE, scheduler.getTier("0xidle"), "Quiet address should end up idle");
+        assertEquals(8_000, scheduler.getIntervalMillis("0xidle"), "Backoff should stop at the max interval");
+        assertEquals(60, hotPolls, "Hot address should be polled every second");
+        // 0, 2, 6, 14, then every 8 seconds: 22, 30, 38, 46, 54
+        assertEquals(9, idlePolls, "Idle address should be polled far less often");
+        assertEquals(60 + 60.0 / 8, scheduler.getPollsPerMinute(), 1e-9, "Polls per minute should follow the intervals");
+
+        System.out.println("✅ Hot address polled " + hotPolls + " times, idle address " + idlePolls + " times");
+    }
+
+    @Test
+    void testActivityResetsBackoff() {
+        // Arrange
+        WatchScheduler scheduler = new WatchScheduler(1_000, 16_000);
+        scheduler.add("0xabc", 0);
+        scheduler.reschedule(scheduler.pollDue(0).get(0), false, 0);
+        scheduler.reschedule(scheduler.pollDue(2_000).get(0), false, 2_000);
+        assertEquals(WatchScheduler.Tier.WARM, scheduler.getTier("0xabc"), "Two quiet polls should make it warm");
+
+        // Act
+        List<String> due = scheduler.pollDue(6_000);
+        scheduler.reschedule(due.get(0), true, 6_000);
+
+        // Assert
+        assertEquals(1_000, scheduler.getIntervalMillis("0xabc"), "New activity should reset to the hot interval");
+        assertEquals(7_000, scheduler.getNextPollAt(), "Next poll should be one hot interval later");
+        assertTrue(scheduler.pollDue(6_999).isEmpty(), "Nothing should be due before then");
+    }
+
+    @Test
+    void testDuplicateAndInvalidInput() {
+        // Arrange
+        WatchScheduler scheduler = new WatchScheduler(1_000, 2_000);
+
+        // Act
+        scheduler.add("0xabc", 0);
+        scheduler.add("0xABC", 0);
+
+        // Assert
+        assertEquals(1, scheduler.size(), "Addresses should be deduplicated case-insensitively");
+        assertThrows(IllegalArgumentException.class, () -> scheduler.reschedule("0xother", true, 0),
+                "Unknown address should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> new WatchScheduler(1_000, 500),
+                "Max interval below hot interval should be rejected");
+    }
+}